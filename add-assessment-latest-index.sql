@@ -0,0 +1,8 @@
+-- ALTER script for nursing assessments
+-- Latest assessment per patient is read with one backward dive into this index
+
+ALTER TABLE nursing_assessments
+    ADD INDEX idx_assessment_patient_latest (patient_id, assessment_date, id);
+
+-- Verification
+-- EXPLAIN SELECT l.id FROM nursing_assessments l WHERE l.patient_id = 1 ORDER BY l.assessment_date DESC, l.id DESC LIMIT 1;
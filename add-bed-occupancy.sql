@@ -0,0 +1,16 @@
+-- ALTER script for the bed board
+-- One active patient per room/bed, enforced in the database as well as by the in-memory board
+
+-- Resolve existing double bookings first; this lists them
+-- SELECT UPPER(TRIM(room_number)) AS room, UPPER(TRIM(COALESCE(bed_number, ''))) AS bed, GROUP_CONCAT(id)
+-- FROM patients WHERE is_active = true AND room_number IS NOT NULL AND TRIM(room_number) <> ''
+-- GROUP BY room, bed HAVING COUNT(*) > 1;
+
+ALTER TABLE patients
+    ADD COLUMN occupied_bed VARCHAR(20) AS (IF(is_active AND room_number IS NOT NULL AND TRIM(room_number) <> '',
+        CONCAT(UPPER(TRIM(room_number)), '|', UPPER(TRIM(COALESCE(bed_number, '')))), NULL)) STORED
+        COMMENT 'Room|bed held by an active patient',
+    ADD UNIQUE KEY uk_patient_occupied_bed (occupied_bed);
+
+-- Verification
+-- SELECT occupied_bed, id, unit FROM patients WHERE occupied_bed IS NOT NULL ORDER BY occupied_bed;
@@ -0,0 +1,17 @@
+-- ALTER script for cluster cache invalidation
+-- Until this is applied each instance's caches only see its own changes
+
+-- Cache invalidations shared by all backend instances; each instance reads new rows
+-- by id every poll, and rows are pruned after an hour
+CREATE TABLE IF NOT EXISTS cache_invalidations (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    entity_type VARCHAR(40) NOT NULL COMMENT 'patient, alert-thresholds, ...',
+    entity_id VARCHAR(64) COMMENT 'NULL invalidates every entity of the type',
+    origin_node VARCHAR(128) NOT NULL COMMENT 'Instance that made the change',
+    created_at DATETIME(3) NOT NULL,
+    
+    INDEX idx_cache_invalidations_created (created_at)
+);
+
+-- Verification
+-- SELECT origin_node, COUNT(*), MAX(id), MAX(created_at) FROM cache_invalidations GROUP BY origin_node;
@@ -0,0 +1,36 @@
+-- ALTER script for care plan tasks
+-- Recurring interventions of nursing care plans and their completed occurrences
+
+CREATE TABLE IF NOT EXISTS care_plan_interventions (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    care_plan_id BIGINT NOT NULL,
+    description VARCHAR(500) NOT NULL,
+    frequency VARCHAR(50) COMMENT 'As entered, e.g. Q2H, BID, daily, once',
+    interval_minutes INT COMMENT 'Recurrence interval; NULL for one-time interventions',
+    next_due_at DATETIME COMMENT 'Pending occurrence; NULL once a one-time intervention is done',
+    is_active BOOLEAN DEFAULT TRUE,
+    created_at DATETIME DEFAULT CURRENT_TIMESTAMP,
+    updated_at DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    
+    FOREIGN KEY (care_plan_id) REFERENCES nursing_care_plans(id) ON DELETE CASCADE,
+    INDEX idx_intervention_plan (care_plan_id),
+    INDEX idx_intervention_due (is_active, next_due_at)
+);
+
+CREATE TABLE IF NOT EXISTS care_plan_task_completions (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    intervention_id BIGINT NOT NULL,
+    patient_id BIGINT NOT NULL,
+    due_at DATETIME NOT NULL,
+    completed_at DATETIME NOT NULL,
+    completed_by VARCHAR(255),
+    notes TEXT,
+    
+    FOREIGN KEY (intervention_id) REFERENCES care_plan_interventions(id) ON DELETE CASCADE,
+    FOREIGN KEY (patient_id) REFERENCES patients(id) ON DELETE CASCADE,
+    UNIQUE KEY uk_task_completion (intervention_id, due_at),
+    INDEX idx_task_completion_patient (patient_id, completed_at)
+);
+
+-- Verification
+-- SELECT i.id, i.description, i.frequency, i.next_due_at FROM care_plan_interventions i WHERE i.is_active = true ORDER BY i.next_due_at LIMIT 20;
@@ -0,0 +1,23 @@
+-- ALTER script for the daily census fact table
+-- Rows are kept current on admit/discharge/transfer; POST /api/census/backfill rebuilds them from patients
+
+CREATE TABLE IF NOT EXISTS census_daily (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    census_date DATE NOT NULL,
+    unit VARCHAR(50) NOT NULL,
+    census INT NOT NULL DEFAULT 0 COMMENT 'Patients present at the end of the day',
+    admissions INT NOT NULL DEFAULT 0,
+    discharges INT NOT NULL DEFAULT 0,
+    transfers_in INT NOT NULL DEFAULT 0,
+    transfers_out INT NOT NULL DEFAULT 0,
+    los_days BIGINT NOT NULL DEFAULT 0 COMMENT 'Total length of stay of the day''s discharges',
+    
+    UNIQUE KEY uk_census_day_unit (census_date, unit),
+    INDEX idx_census_unit_day (unit, census_date)
+);
+
+-- Admission date range queries (findByAdmissionDateBetween, census backfill)
+ALTER TABLE patients ADD INDEX idx_patient_admission (admission_date);
+
+-- Verification
+-- SELECT census_date, SUM(census), SUM(admissions), SUM(discharges) FROM census_daily GROUP BY census_date ORDER BY census_date DESC LIMIT 14;
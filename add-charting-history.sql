@@ -0,0 +1,21 @@
+-- ALTER script for append-only charting history
+-- Existing categories get a baseline snapshot of their current state on their next edit
+
+-- Append-only charting edit history: snapshots every N entries, compact deltas in between
+CREATE TABLE IF NOT EXISTS patient_charting_history (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    charting_id BIGINT NOT NULL COMMENT 'patient_charting_data row; kept after the row is deleted',
+    patient_id BIGINT NOT NULL,
+    version INT NOT NULL,
+    entry_type ENUM('SNAPSHOT', 'DELTA', 'DELETED') NOT NULL,
+    payload TEXT COMMENT 'JSON: full state for snapshots, changed title/item splice for deltas',
+    recorded_at DATETIME NOT NULL,
+    
+    FOREIGN KEY (patient_id) REFERENCES patients(id) ON DELETE CASCADE,
+    UNIQUE KEY uk_charting_history_version (charting_id, version),
+    INDEX idx_charting_history_recorded (charting_id, recorded_at),
+    INDEX idx_charting_history_cutoff (recorded_at)
+);
+
+-- Verification
+-- SELECT entry_type, COUNT(*), SUM(LENGTH(payload)) FROM patient_charting_history GROUP BY entry_type;
@@ -0,0 +1,14 @@
+-- ALTER script for ICD-10 code normalization
+-- Diagnoses saved through the API get the canonical code from the loaded code set (matrixcare.icd.code-file)
+
+ALTER TABLE patient_diagnoses
+    ADD COLUMN icd10_code VARCHAR(10) NULL COMMENT 'Normalized ICD-10 code from the code set' AFTER diagnosis_code,
+    ADD INDEX idx_diagnosis_icd10 (icd10_code);
+
+-- Existing rows whose free-text code is already well formed
+UPDATE patient_diagnoses
+SET icd10_code = UPPER(TRIM(diagnosis_code))
+WHERE diagnosis_code REGEXP '^[A-Za-z][0-9][0-9A-Za-z](\\.[0-9A-Za-z]{1,4})?$';
+
+-- Verification
+-- SELECT diagnosis_code, icd10_code, COUNT(*) FROM patient_diagnoses GROUP BY diagnosis_code, icd10_code;
@@ -0,0 +1,26 @@
+-- ALTER script for incident analytics
+-- Unit per incident and weekly rollup counters read by the trend and heat-map endpoints
+
+ALTER TABLE incident_reports
+    ADD COLUMN unit VARCHAR(50) COMMENT 'Nursing unit the incident is counted against' AFTER location,
+    ADD INDEX idx_incident_unit_date (unit, incident_date);
+
+-- Existing patient incidents are counted against the patient's current unit
+UPDATE incident_reports i JOIN patients p ON p.id = i.patient_id SET i.unit = p.unit WHERE i.unit IS NULL;
+
+CREATE TABLE IF NOT EXISTS incident_rollup_weekly (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    week_start DATE NOT NULL,
+    unit VARCHAR(50) NOT NULL,
+    incident_type ENUM('fall', 'medication_error', 'equipment_failure', 'patient_injury', 'near_miss', 'other') NOT NULL,
+    severity ENUM('minor', 'moderate', 'major', 'critical') NOT NULL,
+    incident_count INT NOT NULL DEFAULT 0,
+    
+    UNIQUE KEY uk_incident_rollup (week_start, unit, incident_type, severity),
+    INDEX idx_incident_rollup_unit (unit, week_start)
+);
+
+-- The application fills the rollups on startup when the table is empty (or POST /api/incidents/rollups/rebuild)
+
+-- Verification
+-- SELECT week_start, unit, incident_type, SUM(incident_count) FROM incident_rollup_weekly GROUP BY week_start, unit, incident_type ORDER BY week_start DESC LIMIT 20;
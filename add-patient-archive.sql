@@ -0,0 +1,38 @@
+-- ALTER script for patient archival
+-- Discharged patients are moved with their records to archived_* tables after matrixcare.archive.after-days
+
+-- Finds patients due for archival without scanning the table
+ALTER TABLE patients
+    ADD INDEX idx_patient_discharged (is_active, discharge_date);
+
+-- Incidents keep their patient_id after the patient is archived
+SET @incident_patient_fk = (
+    SELECT constraint_name FROM information_schema.referential_constraints
+    WHERE constraint_schema = DATABASE() AND table_name = 'incident_reports' AND referenced_table_name = 'patients'
+    LIMIT 1);
+SET @drop_fk = IF(@incident_patient_fk IS NULL, 'SELECT 1',
+    CONCAT('ALTER TABLE incident_reports DROP FOREIGN KEY ', @incident_patient_fk));
+PREPARE drop_fk FROM @drop_fk;
+EXECUTE drop_fk;
+DEALLOCATE PREPARE drop_fk;
+
+-- Same columns and indexes as the hot tables; LIKE does not copy foreign keys
+CREATE TABLE IF NOT EXISTS archived_patients LIKE patients;
+ALTER TABLE archived_patients ADD COLUMN archived_at DATETIME DEFAULT CURRENT_TIMESTAMP COMMENT 'When the patient was archived';
+CREATE TABLE IF NOT EXISTS archived_patient_allergies LIKE patient_allergies;
+CREATE TABLE IF NOT EXISTS archived_patient_diagnoses LIKE patient_diagnoses;
+CREATE TABLE IF NOT EXISTS archived_medications LIKE medications;
+CREATE TABLE IF NOT EXISTS archived_medication_administration LIKE medication_administration;
+CREATE TABLE IF NOT EXISTS archived_nursing_assessments LIKE nursing_assessments;
+CREATE TABLE IF NOT EXISTS archived_vital_signs LIKE vital_signs;
+CREATE TABLE IF NOT EXISTS archived_vital_signs_entries LIKE vital_signs_entries;
+CREATE TABLE IF NOT EXISTS archived_patient_charting_data LIKE patient_charting_data;
+CREATE TABLE IF NOT EXISTS archived_patient_charting_history LIKE patient_charting_history;
+CREATE TABLE IF NOT EXISTS archived_nursing_care_plans LIKE nursing_care_plans;
+CREATE TABLE IF NOT EXISTS archived_care_plan_interventions LIKE care_plan_interventions;
+CREATE TABLE IF NOT EXISTS archived_care_plan_task_completions LIKE care_plan_task_completions;
+CREATE TABLE IF NOT EXISTS archived_nurse_assignments LIKE nurse_assignments;
+CREATE TABLE IF NOT EXISTS archived_shift_reports LIKE shift_reports;
+
+-- Verification
+-- SELECT (SELECT COUNT(*) FROM patients) AS hot_patients, (SELECT COUNT(*) FROM archived_patients) AS archived_patients;
@@ -0,0 +1,8 @@
+-- ALTER script for patients
+-- Adds the optimistic lock version checked by PUT and PATCH /patients/{id}
+
+ALTER TABLE patients
+    ADD COLUMN version BIGINT NOT NULL DEFAULT 0 COMMENT 'Optimistic lock version, bumped on every update' AFTER updated_at;
+
+-- Verification
+-- SELECT id, medical_record_number, version FROM patients LIMIT 10;
@@ -0,0 +1,22 @@
+-- ALTER script for the PHI access audit log
+-- With matrixcare.audit.sink=file no table is needed; events go to segment files
+
+-- PHI access audit log, written in batches by the audit consumer; no foreign keys so
+-- entries outlive the records they describe
+CREATE TABLE IF NOT EXISTS phi_audit_log (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    occurred_at DATETIME(3) NOT NULL,
+    username VARCHAR(255) NOT NULL,
+    action VARCHAR(255) NOT NULL COMMENT 'HTTP method and path',
+    resource_type VARCHAR(50) NOT NULL COMMENT 'patient, vitals, charting, summary, patient-list, ...',
+    resource_id VARCHAR(255),
+    patient_id BIGINT,
+    http_status INT,
+    
+    INDEX idx_phi_audit_patient (patient_id, occurred_at),
+    INDEX idx_phi_audit_user (username, occurred_at),
+    INDEX idx_phi_audit_time (occurred_at)
+);
+
+-- Verification
+-- SELECT resource_type, COUNT(*) FROM phi_audit_log GROUP BY resource_type;
@@ -0,0 +1,19 @@
+-- ALTER script for refresh tokens
+-- Access tokens now default to 15 minutes (jwt.expiration); clients renew via POST /api/auth/refresh
+
+-- Opaque refresh tokens (stored as SHA-256); rotated on every use
+CREATE TABLE IF NOT EXISTS refresh_tokens (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    token_hash CHAR(64) NOT NULL UNIQUE,
+    issued_at DATETIME NOT NULL,
+    expires_at DATETIME NOT NULL,
+    revoked_at DATETIME,
+    
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+    INDEX idx_refresh_tokens_user (user_id),
+    INDEX idx_refresh_tokens_expires (expires_at)
+);
+
+-- Verification
+-- SELECT user_id, COUNT(*) FROM refresh_tokens WHERE revoked_at IS NULL AND expires_at > NOW() GROUP BY user_id;
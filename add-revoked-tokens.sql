@@ -0,0 +1,18 @@
+-- ALTER script for token revocation
+-- Tokens issued before this change have no jti; they can still be revoked per user
+
+-- Revoked JWTs (by jti) and per-user revoke-all markers ("user:<id>"); rows are
+-- deleted once the tokens they cover have expired
+CREATE TABLE IF NOT EXISTS revoked_tokens (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    token_key VARCHAR(64) NOT NULL UNIQUE,
+    user_id BIGINT,
+    revoked_at DATETIME NOT NULL,
+    expires_at DATETIME NOT NULL,
+    
+    INDEX idx_revoked_tokens_revoked (revoked_at),
+    INDEX idx_revoked_tokens_expires (expires_at)
+);
+
+-- Verification
+-- SELECT COUNT(*), MIN(expires_at), MAX(expires_at) FROM revoked_tokens;
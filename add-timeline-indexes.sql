@@ -0,0 +1,18 @@
+-- ALTER script for the patient timeline
+-- Each timeline source is paged with a backward range scan of (patient_id, event time)
+
+ALTER TABLE medications
+    ADD INDEX idx_medication_patient_start (patient_id, start_date),
+    ADD INDEX idx_medication_patient_end (patient_id, end_date);
+
+ALTER TABLE patient_diagnoses
+    ADD INDEX idx_diagnosis_patient_created (patient_id, created_at);
+
+ALTER TABLE patient_allergies
+    ADD INDEX idx_allergy_patient_created (patient_id, created_at);
+
+ALTER TABLE patient_charting_history
+    ADD INDEX idx_charting_history_patient (patient_id, recorded_at);
+
+-- Verification
+-- EXPLAIN SELECT id FROM medications WHERE patient_id = 1 AND start_date IS NOT NULL AND start_date <= NOW() ORDER BY start_date DESC, id DESC LIMIT 51;
@@ -0,0 +1,25 @@
+-- ALTER script for vital signs alerting
+-- Adds the nursing unit to patients and the alert threshold table
+
+-- Step 1: Add the unit column to patients
+ALTER TABLE patients ADD COLUMN unit VARCHAR(50) COMMENT 'Nursing unit (e.g., ICU, 3 West)' AFTER bed_number;
+ALTER TABLE patients ADD INDEX idx_patient_unit (unit);
+
+-- Step 2: Create the alert threshold table
+CREATE TABLE IF NOT EXISTS vital_alert_thresholds (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    unit VARCHAR(50) COMMENT 'Unit the default applies to (NULL for patient overrides)',
+    patient_id BIGINT COMMENT 'Patient the override applies to (NULL for unit defaults)',
+    metric ENUM('SYSTOLIC', 'DIASTOLIC', 'PULSE', 'RESPIRATION', 'OXYGEN_SATURATION', 'TEMPERATURE', 'PAIN_LEVEL') NOT NULL,
+    low_value DECIMAL(6,1) COMMENT 'Alert when below this value',
+    high_value DECIMAL(6,1) COMMENT 'Alert when above this value',
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    
+    FOREIGN KEY (patient_id) REFERENCES patients(id) ON DELETE CASCADE,
+    UNIQUE KEY uk_alert_threshold_scope (unit, patient_id, metric)
+);
+
+-- Verification
+-- DESCRIBE patients;
+-- SELECT * FROM vital_alert_thresholds;
@@ -0,0 +1,23 @@
+-- ALTER script for windowed vital signs statistics
+-- Creates the hourly rollup table; fill it for existing data with
+-- POST /api/vitals/stats/rebuild?days=7
+
+-- Hourly vital signs rollups per patient and metric (moments plus a serialized quantile sketch)
+CREATE TABLE IF NOT EXISTS vital_signs_hourly_stats (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    patient_id BIGINT NOT NULL,
+    hour_start DATETIME NOT NULL COMMENT 'Start of the hour the readings fall in',
+    metric ENUM('SYSTOLIC', 'DIASTOLIC', 'PULSE', 'RESPIRATION', 'OXYGEN_SATURATION', 'TEMPERATURE', 'PAIN_LEVEL') NOT NULL,
+    sample_count BIGINT NOT NULL DEFAULT 0,
+    min_value DOUBLE,
+    max_value DOUBLE,
+    sum_value DOUBLE NOT NULL DEFAULT 0,
+    sketch BLOB COMMENT 'Serialized quantile sketch',
+    
+    FOREIGN KEY (patient_id) REFERENCES patients(id) ON DELETE CASCADE,
+    UNIQUE KEY uk_vital_stats_patient_hour (patient_id, hour_start, metric),
+    INDEX idx_vital_stats_hour (hour_start)
+);
+
+-- Verification
+-- SELECT metric, COUNT(*), SUM(sample_count) FROM vital_signs_hourly_stats GROUP BY metric;
@@ -1,7 +1,7 @@
 'use client'
 
-import React, { createContext, useContext, useEffect, useState, ReactNode } from 'react'
-import { authAPI, tokenStorage, User, LoginCredentials, RegisterData } from '../lib/auth'
+import React, { createContext, useContext, useEffect, useRef, useState, ReactNode } from 'react'
+import { authAPI, tokenStorage, User, LoginCredentials, RegisterData, AuthResponse } from '../lib/auth'
 import { useRouter } from 'next/navigation'
 
 interface AuthContextType {
@@ -16,6 +16,24 @@ interface AuthContextType {
 
 const AuthContext = createContext<AuthContextType | undefined>(undefined)
 
+// Held while a refresh token is exchanged, so tabs never present the same one twice
+const REFRESH_LOCK = 'matrixcare-session-refresh'
+
+// Seconds until the access token's exp claim, or null if it cannot be read
+const secondsUntilExpiry = (token: string): number | null => {
+  try {
+    const payload = JSON.parse(atob(token.split('.')[1].replace(/-/g, '+').replace(/_/g, '/')))
+    return typeof payload.exp === 'number' ? payload.exp - Date.now() / 1000 : null
+  } catch (error) {
+    return null
+  }
+}
+
+const withRefreshLock = (task: () => Promise<boolean>): Promise<boolean> =>
+  typeof navigator !== 'undefined' && 'locks' in navigator
+    ? navigator.locks.request(REFRESH_LOCK, task)
+    : task()
+
 interface AuthProviderProps {
   children: ReactNode
 }
@@ -24,14 +42,98 @@ export function AuthProvider({ children }: AuthProviderProps) {
   const [user, setUser] = useState<User | null>(null)
   const [isLoading, setIsLoading] = useState(true)
   const router = useRouter()
+  const refreshTimer = useRef<ReturnType<typeof setTimeout> | null>(null)
+  const refreshInFlight = useRef<Promise<boolean> | null>(null)
 
   const isAuthenticated = !!user
 
   // Initialize auth state on mount
   useEffect(() => {
     initializeAuth()
+    // Another tab renewed the session: follow its access token instead of renewing again
+    const onStorage = (event: StorageEvent) => {
+      if (event.key === 'auth_token' && event.newValue) {
+        scheduleRefresh(event.newValue)
+      }
+    }
+    window.addEventListener('storage', onStorage)
+    return () => {
+      window.removeEventListener('storage', onStorage)
+      if (refreshTimer.current) clearTimeout(refreshTimer.current)
+    }
   }, [])
 
+  // Renew shortly before the access token expires
+  const scheduleRefresh = (token: string, expiresIn?: number) => {
+    if (refreshTimer.current) clearTimeout(refreshTimer.current)
+    const remaining = secondsUntilExpiry(token) ?? expiresIn
+    if (remaining == null) return
+    refreshTimer.current = setTimeout(() => {
+      refreshSession()
+    }, Math.max(0, remaining - 60) * 1000)
+  }
+
+  // Store a new session
+  const storeSession = (data: NonNullable<AuthResponse['data']>) => {
+    tokenStorage.setToken(data.token)
+    tokenStorage.setRefreshToken(data.refreshToken)
+    tokenStorage.setUser(data.user)
+    setUser(data.user)
+    scheduleRefresh(data.token, data.expiresIn)
+  }
+
+  // Take over a session another tab stored after this one read refreshToken
+  const adoptStoredSession = (refreshToken: string | null): boolean => {
+    const token = tokenStorage.getToken()
+    const savedUser = tokenStorage.getUser()
+    if (!token || !savedUser || tokenStorage.getRefreshToken() === refreshToken) return false
+    setUser(savedUser)
+    scheduleRefresh(token)
+    return true
+  }
+
+  // Refresh tokens work once, so one exchange runs at a time across all tabs
+  const refreshSession = (): Promise<boolean> => {
+    if (!refreshInFlight.current) {
+      const seen = tokenStorage.getRefreshToken()
+      refreshInFlight.current = withRefreshLock(() => exchangeRefreshToken(seen)).finally(() => {
+        refreshInFlight.current = null
+      })
+    }
+    return refreshInFlight.current
+  }
+
+  const exchangeRefreshToken = async (seen: string | null): Promise<boolean> => {
+    if (adoptStoredSession(seen)) return true
+    const refreshToken = tokenStorage.getRefreshToken()
+    if (!refreshToken) return false
+
+    try {
+      const response = await authAPI.refresh(refreshToken)
+      if (response.success && response.data) {
+        storeSession(response.data)
+        return true
+      }
+    } catch (error) {
+      console.error('Session refresh error:', error)
+    }
+    if (adoptStoredSession(refreshToken)) return true
+
+    // Keep a session whose access token still works and try again before it runs out
+    const token = tokenStorage.getToken()
+    const remaining = token ? secondsUntilExpiry(token) : null
+    if (remaining != null && remaining > 0) {
+      if (refreshTimer.current) clearTimeout(refreshTimer.current)
+      refreshTimer.current = setTimeout(() => {
+        refreshSession()
+      }, Math.min(30, remaining) * 1000)
+      return false
+    }
+    tokenStorage.clear()
+    setUser(null)
+    return false
+  }
+
   const initializeAuth = async () => {
     try {
       const token = tokenStorage.getToken()
@@ -42,9 +144,12 @@ export function AuthProvider({ children }: AuthProviderProps) {
         const validation = await authAPI.validateToken(token)
         if (validation.success && validation.valid) {
           setUser(savedUser)
-        } else {
-          // Token is invalid, clear storage
+          scheduleRefresh(token)
+        } else if (!(await refreshSession())) {
+          // Token is invalid and cannot be renewed, clear storage
+          if (refreshTimer.current) clearTimeout(refreshTimer.current)
           tokenStorage.clear()
+          setUser(null)
         }
       }
     } catch (error) {
@@ -61,12 +166,8 @@ export function AuthProvider({ children }: AuthProviderProps) {
       const response = await authAPI.login(credentials)
       
       if (response.success && response.data) {
-        const { token, user: userData } = response.data
-        
-        // Store token and user data
-        tokenStorage.setToken(token)
-        tokenStorage.setUser(userData)
-        setUser(userData)
+        // Store tokens and user data
+        storeSession(response.data)
         
         // Redirect to dashboard
         router.push('/dashboard')
@@ -87,12 +188,8 @@ export function AuthProvider({ children }: AuthProviderProps) {
       const response = await authAPI.register(userData)
       
       if (response.success && response.data) {
-        const { token, user: newUser } = response.data
-        
-        // Store token and user data
-        tokenStorage.setToken(token)
-        tokenStorage.setUser(newUser)
-        setUser(newUser)
+        // Store tokens and user data
+        storeSession(response.data)
         
         // Redirect to dashboard
         router.push('/dashboard')
@@ -108,6 +205,11 @@ export function AuthProvider({ children }: AuthProviderProps) {
   }
 
   const logout = () => {
+    const token = tokenStorage.getToken()
+    if (token) {
+      authAPI.logout(token, tokenStorage.getRefreshToken())
+    }
+    if (refreshTimer.current) clearTimeout(refreshTimer.current)
     tokenStorage.clear()
     setUser(null)
     router.push('/login')
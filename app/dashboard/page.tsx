@@ -7,6 +7,7 @@ import PatientModal from '../components/PatientModal'
 import ProtectedRoute from '../components/ProtectedRoute'
 import ConfirmationModal from '../components/ConfirmationModal'
 import { useAuth } from '../contexts/AuthContext'
+import { tokenStorage } from '../lib/auth'
 
 // API base URL
 const API_BASE_URL = 'http://localhost:8080/api'
@@ -25,6 +26,7 @@ interface Patient {
   emergencyContactName?: string
   emergencyContactPhone?: string
   isActive: boolean
+  version?: number
   // Add computed properties for compatibility
   name: string
   age: number
@@ -50,11 +52,17 @@ function DashboardContent() {
   const [showDeleteModal, setShowDeleteModal] = useState(false)
   const [patientToDelete, setPatientToDelete] = useState<Patient | null>(null)
 
+  // The patient API only answers signed-in users
+  const authHeaders = (): Record<string, string> => {
+    const token = tokenStorage.getToken()
+    return token ? { 'Authorization': `Bearer ${token}` } : {}
+  }
+
   // Fetch patients from API
   const fetchPatients = async () => {
     try {
       setLoading(true)
-      const response = await fetch(`${API_BASE_URL}/patients`)
+      const response = await fetch(`${API_BASE_URL}/patients`, { headers: authHeaders() })
       
       if (!response.ok) {
         throw new Error('Failed to fetch patients')
@@ -67,6 +75,7 @@ function DashboardContent() {
         id: patient.id,
         firstName: patient.firstName,
         lastName: patient.lastName,
+        version: patient.version,
         name: `${patient.firstName} ${patient.lastName}`, // Combined name for backward compatibility
         age: patient.age || calculateAge(patient.dateOfBirth),
         dob: patient.dateOfBirth,
@@ -140,7 +149,8 @@ function DashboardContent() {
 
     try {
       const response = await fetch(`${API_BASE_URL}/patients/${patientToDelete.id}`, {
-        method: 'DELETE'
+        method: 'DELETE',
+        headers: authHeaders()
       })
 
       if (response.ok) {
@@ -185,8 +195,10 @@ function DashboardContent() {
           method: 'PUT',
           headers: {
             'Content-Type': 'application/json',
+            ...authHeaders()
           },
-          body: JSON.stringify(backendData)
+          // The version that was read; a stale one gets 409
+          body: JSON.stringify({ ...backendData, version: selectedPatient.version })
         })
       } else {
         // Create new patient
@@ -194,11 +206,16 @@ function DashboardContent() {
           method: 'POST',
           headers: {
             'Content-Type': 'application/json',
+            ...authHeaders()
           },
           body: JSON.stringify(backendData)
         })
       }
 
+      if (response.status === 409) {
+        throw new Error('This patient was changed by someone else. Reload and try again.')
+      }
+
       if (!response.ok) {
         const errorText = await response.text()
         console.error('Backend error:', errorText)
@@ -30,8 +30,10 @@ interface AuthResponse {
   message: string;
   data?: {
     token: string;
+    refreshToken: string;
     user: User;
     expiresIn: number;
+    refreshExpiresIn: number;
   };
 }
 
@@ -72,6 +74,38 @@ export const authAPI = {
     return response.json();
   },
 
+  async refresh(refreshToken: string): Promise<AuthResponse> {
+    const response = await fetch(`${API_BASE_URL}/auth/refresh`, {
+      method: 'POST',
+      headers: {
+        'Content-Type': 'application/json',
+      },
+      body: JSON.stringify({ refreshToken }),
+    });
+
+    if (!response.ok) {
+      const errorData = await response.json();
+      throw new Error(errorData.message || 'Session refresh failed');
+    }
+
+    return response.json();
+  },
+
+  async logout(token: string, refreshToken: string | null): Promise<void> {
+    try {
+      await fetch(`${API_BASE_URL}/auth/logout`, {
+        method: 'POST',
+        headers: {
+          'Authorization': `Bearer ${token}`,
+          'Content-Type': 'application/json',
+        },
+        body: JSON.stringify({ refreshToken }),
+      });
+    } catch (error) {
+      // Local sign-out proceeds regardless
+    }
+  },
+
   async validateToken(token: string): Promise<{ success: boolean; valid: boolean; user?: User }> {
     try {
       const response = await fetch(`${API_BASE_URL}/auth/validate`, {
@@ -125,6 +159,25 @@ export const tokenStorage = {
     }
   },
 
+  setRefreshToken(refreshToken: string): void {
+    if (typeof window !== 'undefined') {
+      localStorage.setItem('refresh_token', refreshToken);
+    }
+  },
+
+  getRefreshToken(): string | null {
+    if (typeof window !== 'undefined') {
+      return localStorage.getItem('refresh_token');
+    }
+    return null;
+  },
+
+  removeRefreshToken(): void {
+    if (typeof window !== 'undefined') {
+      localStorage.removeItem('refresh_token');
+    }
+  },
+
   setUser(user: User): void {
     if (typeof window !== 'undefined') {
       localStorage.setItem('user_data', JSON.stringify(user));
@@ -147,6 +200,7 @@ export const tokenStorage = {
 
   clear(): void {
     this.removeToken();
+    this.removeRefreshToken();
     this.removeUser();
   },
 };
@@ -0,0 +1,199 @@
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedThread;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * Per-endpoint summary of a JFR recording made with jfr/matrixcare.jfc.
+ * Requests are grouped by route pattern with count, latency percentiles and
+ * status; every other com.matrixcare event is attributed to the request that
+ * was running on the same thread when it started, so each endpoint shows where
+ * its time went (token checks, BCrypt, charting JSON, vitals queries). Events
+ * that carry a requestThread field (reads offloaded to the db-read pool) are
+ * attributed to that request thread instead of the thread that recorded them.
+ * Events outside any request, e.g. from scheduled jobs, are listed as (background).
+ * The slowest individual service events are listed last with their patient id.
+ *
+ * Usage (from backend/, no build needed):
+ *   java scripts/JfrSummary.java matrixcare.jfr [slowest-count]
+ */
+public class JfrSummary {
+
+    private static final String PREFIX = "com.matrixcare.";
+    private static final String REQUEST = PREFIX + "HttpRequest";
+    private static final String BACKGROUND = "(background)";
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Usage: java scripts/JfrSummary.java <recording.jfr> [slowest-count]");
+            System.exit(2);
+        }
+        int slowestCount = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        Map<Long, List<RecordedEvent>> requestsByThread = new HashMap<>();
+        List<RecordedEvent> serviceEvents = new ArrayList<>();
+        for (RecordedEvent event : RecordingFile.readAllEvents(Path.of(args[0]))) {
+            String name = event.getEventType().getName();
+            if (name.equals(REQUEST)) {
+                requestsByThread.computeIfAbsent(threadId(event), id -> new ArrayList<>()).add(event);
+            } else if (name.startsWith(PREFIX)) {
+                serviceEvents.add(event);
+            }
+        }
+        if (requestsByThread.isEmpty() && serviceEvents.isEmpty()) {
+            System.out.println("No MatrixCare events in " + args[0] + "; was it recorded with jfr/matrixcare.jfc?");
+            return;
+        }
+
+        Map<String, Endpoint> endpoints = new TreeMap<>();
+        for (List<RecordedEvent> requests : requestsByThread.values()) {
+            requests.sort(Comparator.comparing(RecordedEvent::getStartTime));
+            for (RecordedEvent request : requests) {
+                endpoints.computeIfAbsent(endpointOf(request), Endpoint::new).addRequest(request);
+            }
+        }
+        for (RecordedEvent event : serviceEvents) {
+            RecordedEvent request = enclosingRequest(requestsByThread.get(requestThreadId(event)), event.getStartTime());
+            String endpoint = request != null ? endpointOf(request) : BACKGROUND;
+            endpoints.computeIfAbsent(endpoint, Endpoint::new).addServiceEvent(event);
+        }
+
+        List<Endpoint> ordered = new ArrayList<>(endpoints.values());
+        ordered.sort(Comparator.comparingLong((Endpoint e) -> e.totalNanos()).reversed());
+
+        System.out.printf("%-48s %7s %9s %9s %9s %11s %6s%n",
+                "Endpoint", "Count", "p50 ms", "p95 ms", "max ms", "total ms", "5xx");
+        for (Endpoint endpoint : ordered) {
+            endpoint.print();
+        }
+
+        if (slowestCount > 0 && !serviceEvents.isEmpty()) {
+            serviceEvents.sort(Comparator.comparing((RecordedEvent event) -> event.getDuration()).reversed());
+            System.out.println();
+            System.out.println("Slowest service events");
+            for (RecordedEvent event : serviceEvents.subList(0, Math.min(slowestCount, serviceEvents.size()))) {
+                System.out.printf("  %9.2f ms  %-22s %s%n", millis(event.getDuration().toNanos()),
+                        shortName(event), details(event));
+            }
+        }
+    }
+
+    private static RecordedEvent enclosingRequest(List<RecordedEvent> requests, Instant start) {
+        if (requests == null) {
+            return null;
+        }
+        // Last request that started at or before the event; requests on one thread never overlap
+        int low = 0;
+        int high = requests.size() - 1;
+        RecordedEvent candidate = null;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            RecordedEvent request = requests.get(mid);
+            if (request.getStartTime().isAfter(start)) {
+                high = mid - 1;
+            } else {
+                candidate = request;
+                low = mid + 1;
+            }
+        }
+        return candidate != null && !candidate.getEndTime().isBefore(start) ? candidate : null;
+    }
+
+    private static String endpointOf(RecordedEvent request) {
+        return request.getString("method") + " " + request.getString("endpoint");
+    }
+
+    // Java thread ids, so they match the ids carried in requestThread fields
+    private static long threadId(RecordedEvent event) {
+        RecordedThread thread = event.getThread();
+        return thread != null ? thread.getJavaThreadId() : -1;
+    }
+
+    private static long requestThreadId(RecordedEvent event) {
+        if (event.hasField("requestThread") && event.getLong("requestThread") > 0) {
+            return event.getLong("requestThread");
+        }
+        return threadId(event);
+    }
+
+    private static String shortName(RecordedEvent event) {
+        return event.getEventType().getName().substring(PREFIX.length());
+    }
+
+    // The event's own fields, e.g. "patientId=12 limit=50 rowsLoaded=800 rowsReturned=50"
+    private static String details(RecordedEvent event) {
+        StringBuilder text = new StringBuilder();
+        event.getFields().stream()
+                .filter(field -> !Set.of("startTime", "duration", "eventThread", "stackTrace").contains(field.getName()))
+                .forEach(field -> {
+                    Object value = event.getValue(field.getName());
+                    if (value instanceof Duration duration) {
+                        value = String.format("%.2fms", millis(duration.toNanos()));
+                    }
+                    text.append(field.getName()).append('=').append(value).append(' ');
+                });
+        return text.toString().trim();
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static final class Endpoint {
+
+        private final String name;
+        private final List<Long> durations = new ArrayList<>();
+        private int serverErrors;
+        private final Map<String, long[]> serviceEvents = new TreeMap<>();  // count, total nanos, max nanos
+
+        Endpoint(String name) {
+            this.name = name;
+        }
+
+        void addRequest(RecordedEvent request) {
+            durations.add(request.getDuration().toNanos());
+            if (request.getInt("status") >= 500) {
+                serverErrors++;
+            }
+        }
+
+        void addServiceEvent(RecordedEvent event) {
+            long nanos = event.getDuration().toNanos();
+            long[] stats = serviceEvents.computeIfAbsent(shortName(event), key -> new long[3]);
+            stats[0]++;
+            stats[1] += nanos;
+            stats[2] = Math.max(stats[2], nanos);
+        }
+
+        long totalNanos() {
+            long total = durations.stream().mapToLong(Long::longValue).sum();
+            return total > 0 ? total : serviceEvents.values().stream().mapToLong(stats -> stats[1]).sum();
+        }
+
+        void print() {
+            if (!durations.isEmpty()) {
+                long[] sorted = durations.stream().mapToLong(Long::longValue).sorted().toArray();
+                System.out.printf("%-48s %7d %9.2f %9.2f %9.2f %11.1f %6d%n", name, sorted.length,
+                        millis(percentile(sorted, 0.50)), millis(percentile(sorted, 0.95)),
+                        millis(sorted[sorted.length - 1]), millis(totalNanos()), serverErrors);
+            } else {
+                System.out.println(name);
+            }
+            long requestNanos = durations.stream().mapToLong(Long::longValue).sum();
+            for (Map.Entry<String, long[]> entry : serviceEvents.entrySet()) {
+                long[] stats = entry.getValue();
+                String share = requestNanos > 0 ? String.format("%5.1f%% of time", 100.0 * stats[1] / requestNanos) : "";
+                System.out.printf("    %-44s %7d %9s %9s %9.2f %11.1f   %s%n", entry.getKey(), stats[0],
+                        "", "", millis(stats[2]), millis(stats[1]), share);
+            }
+        }
+
+        private static long percentile(long[] sorted, double q) {
+            return sorted[Math.min(sorted.length - 1, (int) (sorted.length * q))];
+        }
+    }
+}
@@ -0,0 +1,80 @@
+#!/usr/bin/env bash
+# Startup benchmark: standard fat jar vs the AOT + CDS build from the fast-startup profile.
+# Reports time-to-first-request and RSS once the first request has been served.
+#
+# Usage (from backend/):
+#   mvn -Pfast-startup -DskipTests package
+#   scripts/startup-benchmark.sh [runs]
+
+set -euo pipefail
+
+RUNS=${1:-5}
+PORT=${PORT:-18080}
+URL="http://localhost:${PORT}/api/patients/test"
+TARGET_DIR="$(cd "$(dirname "$0")/.." && pwd)/target"
+PLAIN_JAR="matrixcare-backend-0.0.1-SNAPSHOT.jar"
+EXEC_JAR="matrixcare-backend-0.0.1-SNAPSHOT-exec.jar"
+CDS_ARCHIVE="matrixcare.jsa"
+
+# The CDS archive only maps when the class path matches the training run, which used target/ as working directory
+cd "$TARGET_DIR"
+
+for f in "$PLAIN_JAR" "$EXEC_JAR" "$CDS_ARCHIVE"; do
+    if [ ! -f "$f" ]; then
+        echo "Missing $f - run 'mvn -Pfast-startup -DskipTests package' first" >&2
+        exit 1
+    fi
+done
+
+# Same settings for both variants so the database is not part of the measurement
+COMMON_OPTS=(
+    "-Dserver.port=${PORT}"
+    "-Dspring.jpa.properties.hibernate.temp.use_jdbc_metadata_defaults=false"
+    "-Dlogging.level.root=WARN"
+    "-Dlogging.level.com.matrixcare=WARN"
+)
+
+now_ms() {
+    date +%s%3N
+}
+
+# Runs one variant and prints "<ms-to-first-request> <rss-kb>"
+measure() {
+    local start pid elapsed rss
+    start=$(now_ms)
+    java "${COMMON_OPTS[@]}" "$@" > /dev/null 2>&1 &
+    pid=$!
+
+    until curl -sf -o /dev/null "$URL"; do
+        if ! kill -0 "$pid" 2> /dev/null; then
+            echo "Application exited before serving a request" >&2
+            exit 1
+        fi
+        sleep 0.02
+    done
+    elapsed=$(( $(now_ms) - start ))
+    rss=$(awk '/VmRSS/ { print $2 }' "/proc/${pid}/status")
+
+    kill "$pid"
+    wait "$pid" 2> /dev/null || true
+    echo "$elapsed $rss"
+}
+
+report() {
+    local name=$1
+    shift
+    local total_ms=0 total_rss=0 result ms rss
+    for ((i = 1; i <= RUNS; i++)); do
+        result=$(measure "$@")
+        read -r ms rss <<< "$result"
+        total_ms=$(( total_ms + ms ))
+        total_rss=$(( total_rss + rss ))
+        printf '  %-10s run %d: %6d ms  %7d KB RSS\n' "$name" "$i" "$ms" "$rss"
+    done
+    printf '%-10s avg: %6d ms  %7d KB RSS\n\n' "$name" $(( total_ms / RUNS )) $(( total_rss / RUNS ))
+}
+
+echo "Time to first request on ${URL}, ${RUNS} runs each"
+echo
+report "standard" -jar "$EXEC_JAR"
+report "aot+cds" -XX:SharedArchiveFile="$CDS_ARCHIVE" -Xshare:on -Xlog:cds=error -Dspring.aot.enabled=true -jar "$PLAIN_JAR"
@@ -2,11 +2,13 @@ package com.matrixcare;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class MatrixCareApplication {
 
     public static void main(String[] args) {
         SpringApplication.run(MatrixCareApplication.class, args);
     }
-} 
\ No newline at end of file
+} 
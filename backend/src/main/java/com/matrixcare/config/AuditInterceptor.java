@@ -0,0 +1,107 @@
+package com.matrixcare.config;
+
+import com.matrixcare.service.AuditService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.util.Collection;
+
+/**
+ * Publishes an audit event for every read of patient, vitals or charting data.
+ * Runs after the handler, so only the ring-buffer publish is added to the request.
+ * The patient is taken from the path where it names one; unit-wide and by-record
+ * reads list the patients they returned through {@link #patientsRead}.
+ */
+@Component
+public class AuditInterceptor implements HandlerInterceptor {
+    
+    @Autowired
+    private AuditService auditService;
+    
+    public static final String PATIENT_IDS = AuditInterceptor.class.getName() + ".patientIds";
+    
+    // Handlers whose path does not name the patient list the patients they returned; one event is recorded per patient
+    public static void patientsRead(Collection<Long> patientIds) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            attributes.setAttribute(PATIENT_IDS, patientIds, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+    
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, 
+                                Object handler, Exception ex) {
+        Object listed = request.getAttribute(PATIENT_IDS);
+        // Reads are GETs, apart from the few POST queries that list their patients (e.g. cohort queries)
+        if (!"GET".equals(request.getMethod()) && listed == null) {
+            return;
+        }
+        
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        String[] segments = path.split("/");
+        // segments: "", {resource}, {id, name or sub-resource}...
+        if (segments.length < 2) {
+            return;
+        }
+        
+        Long patientId = null;
+        String resourceType;
+        String resourceId = null;
+        if ("patients".equals(segments[1])) {
+            if (segments.length >= 3 && isNumeric(segments[2])) {
+                patientId = Long.valueOf(segments[2]);
+                resourceId = segments[2];
+                resourceType = segments.length >= 4 ? segments[3] : "patient";
+            } else if (segments.length >= 3 && "summary".equals(segments[2])) {
+                resourceType = "summary";
+                resourceId = request.getParameter("ids");
+            } else {
+                // Lists and searches expose many patients at once
+                resourceType = segments.length >= 3 ? "patient-" + segments[2] : "patient-list";
+                resourceId = request.getQueryString();
+            }
+        } else {
+            // e.g. /care-plans/patient/12, /alerts/thresholds/patient/12/overrides, /incidents/7, /alerts/unit/ICU
+            resourceType = segments[1];
+            for (int i = 2; i < segments.length; i++) {
+                if ("patient".equals(segments[i]) && i + 1 < segments.length && isNumeric(segments[i + 1])) {
+                    patientId = Long.valueOf(segments[i + 1]);
+                    break;
+                }
+            }
+            String rest = segments.length >= 3 ? path.substring(segments[1].length() + 2) : "";
+            resourceId = request.getQueryString() != null ? rest + "?" + request.getQueryString() : rest;
+        }
+        
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String username = authentication != null ? authentication.getName() : "anonymous";
+        String action = request.getMethod() + " " + path;
+        int status = response.getStatus();
+        if (patientId == null && listed instanceof Collection<?> patientIds && !patientIds.isEmpty()) {
+            for (Object id : patientIds) {
+                auditService.recordAccess(username, action, resourceType, resourceId, (Long) id, status);
+            }
+            return;
+        }
+        auditService.recordAccess(username, action, resourceType, resourceId, patientId, status);
+    }
+    
+    private static boolean isNumeric(String value) {
+        if (value.isEmpty() || value.length() > 18) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (!Character.isDigit(value.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -1,5 +1,7 @@
 package com.matrixcare.config;
 
+import com.matrixcare.jfr.HttpRequestEvent;
+import com.matrixcare.jfr.JwtFilterEvent;
 import com.matrixcare.service.AuthService;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -12,6 +14,7 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerMapping;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
@@ -28,11 +31,17 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                                     HttpServletResponse response, 
                                     FilterChain filterChain) throws ServletException, IOException {
         
+        // JFR: the request event spans the rest of the chain, so service events nest inside it
+        HttpRequestEvent requestEvent = new HttpRequestEvent();
+        requestEvent.begin();
+        JwtFilterEvent filterEvent = new JwtFilterEvent();
+        filterEvent.begin();
+        
         String authHeader = request.getHeader("Authorization");
         String token = null;
         String email = null;
         
-        // Extract token from Authorization header
+        // Extract token from Authorization header; expired, forged and revoked tokens yield no email
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
             token = authHeader.substring(7);
             try {
@@ -44,19 +53,33 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         
         // If token is valid and no authentication is set in context
         if (email != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            try {
-                if (authService.isTokenValid(token)) {
-                    // Create authentication token
-                    UsernamePasswordAuthenticationToken authToken = 
-                        new UsernamePasswordAuthenticationToken(email, null, new ArrayList<>());
-                    authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                    SecurityContextHolder.getContext().setAuthentication(authToken);
-                }
-            } catch (Exception e) {
-                // Token validation failed, continue without authentication
-            }
+            // Create authentication token
+            UsernamePasswordAuthenticationToken authToken = 
+                new UsernamePasswordAuthenticationToken(email, null, new ArrayList<>());
+            authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            SecurityContextHolder.getContext().setAuthentication(authToken);
         }
         
-        filterChain.doFilter(request, response);
+        boolean authenticated = SecurityContextHolder.getContext().getAuthentication() != null;
+        filterEvent.end();
+        if (filterEvent.shouldCommit()) {
+            filterEvent.tokenPresent = token != null;
+            filterEvent.authenticated = authenticated;
+            filterEvent.commit();
+        }
+        
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            requestEvent.end();
+            if (requestEvent.shouldCommit()) {
+                Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                requestEvent.method = request.getMethod();
+                requestEvent.endpoint = pattern != null ? pattern.toString() : request.getRequestURI();
+                requestEvent.status = response.getStatus();
+                requestEvent.authenticated = authenticated;
+                requestEvent.commit();
+            }
+        }
     }
 } 
\ No newline at end of file
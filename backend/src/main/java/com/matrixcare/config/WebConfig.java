@@ -0,0 +1,24 @@
+package com.matrixcare.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+    
+    @Autowired
+    private AuditInterceptor auditInterceptor;
+    
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // Every route that returns patient-level data; counts, stats and form definitions are left out
+        registry.addInterceptor(auditInterceptor)
+                .addPathPatterns("/patients/**", "/patients", "/shift-reports/**", "/vitals/stats/**",
+                        "/alerts/**", "/bed-board/**", "/cohorts/**", "/assessments/**", "/care-plans/**",
+                        "/incidents/**")
+                .excludePathPatterns("/alerts/counts", "/bed-board/units", "/bed-board/stats",
+                        "/cohorts/index", "/assessments/forms", "/care-plans/tasks/stats");
+    }
+}
@@ -0,0 +1,23 @@
+package com.matrixcare.controller;
+
+import com.matrixcare.service.AuditService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/audit")
+@CrossOrigin(origins = "http://localhost:3000")
+public class AuditController {
+    
+    @Autowired
+    private AuditService auditService;
+    
+    // Ring buffer and writer counters, including dropped events
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        return ResponseEntity.ok(auditService.getStats());
+    }
+}
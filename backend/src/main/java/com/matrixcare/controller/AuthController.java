@@ -10,6 +10,7 @@ import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/auth")
@@ -42,11 +43,8 @@ public class AuthController {
             
             User registeredUser = authService.registerUser(user);
             
-            // Auto-login after registration
-            Map<String, Object> loginResponse = authService.loginUser(
-                registeredUser.getEmail(), 
-                request.getPassword()
-            );
+            // Auto-login after registration; the password was just set, so skip a second BCrypt check
+            Map<String, Object> loginResponse = authService.createSession(registeredUser);
             
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -83,6 +81,12 @@ public class AuthController {
             
             return ResponseEntity.ok(response);
             
+        } catch (RejectedExecutionException e) {
+            // Password check pool is saturated; the client should retry
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header("Retry-After", "2").body(response);
         } catch (RuntimeException e) {
             Map<String, Object> response = new HashMap<>();
             response.put("success", false);
@@ -146,6 +150,91 @@ public class AuthController {
         }
     }
     
+    // Renew a session with a refresh token instead of a password
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refresh(@RequestBody Map<String, String> request) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            String refreshToken = request.get("refreshToken");
+            if (refreshToken == null || refreshToken.isBlank()) {
+                response.put("success", false);
+                response.put("message", "refreshToken is required");
+                return ResponseEntity.badRequest().body(response);
+            }
+            
+            response.put("success", true);
+            response.put("message", "Session refreshed");
+            response.put("data", authService.refreshSession(refreshToken));
+            return ResponseEntity.ok(response);
+        } catch (RuntimeException e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
+        }
+    }
+    
+    // Revoke the presented token, and the refresh token if one is sent
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(@RequestHeader("Authorization") String authHeader,
+                                    @RequestBody(required = false) Map<String, String> request) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            if (request != null && request.get("refreshToken") != null) {
+                authService.revokeRefreshToken(request.get("refreshToken"));
+            }
+            String token = authHeader.replace("Bearer ", "");
+            authService.revokeToken(token);
+            response.put("success", true);
+            response.put("message", "Logged out");
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            response.put("success", false);
+            response.put("message", "Logout failed: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
+        }
+    }
+    
+    // Revoke every token issued to a user (admins only)
+    @PostMapping("/revoke/user/{userId}")
+    public ResponseEntity<?> revokeUserTokens(@RequestHeader("Authorization") String authHeader, 
+                                              @PathVariable Long userId) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            String token = authHeader.replace("Bearer ", "");
+            if (!authService.isTokenValid(token)) {
+                response.put("success", false);
+                response.put("message", "Invalid token");
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
+            }
+            if (authService.getCurrentUser(token).getRole() != User.Role.ADMIN) {
+                response.put("success", false);
+                response.put("message", "Only administrators can revoke other users' tokens");
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).body(response);
+            }
+            
+            authService.revokeAllTokensForUser(userId);
+            response.put("success", true);
+            response.put("message", "All tokens revoked for user " + userId);
+            return ResponseEntity.ok(response);
+        } catch (RuntimeException e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+    
+    // Password check pool load and login queueing time
+    @GetMapping("/login/stats")
+    public ResponseEntity<Map<String, Object>> getLoginStats() {
+        return ResponseEntity.ok(authService.getLoginStats());
+    }
+    
+    // Deny list size and filter effectiveness
+    @GetMapping("/revocations/stats")
+    public ResponseEntity<Map<String, Object>> getRevocationStats() {
+        return ResponseEntity.ok(authService.getRevocationStats());
+    }
+    
     // DTOs for request bodies
     public static class LoginRequest {
         private String email;
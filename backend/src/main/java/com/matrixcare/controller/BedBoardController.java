@@ -0,0 +1,67 @@
+package com.matrixcare.controller;
+
+import com.matrixcare.config.AuditInterceptor;
+import com.matrixcare.service.BedBoardService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/bed-board")
+@CrossOrigin(origins = "http://localhost:3000")
+public class BedBoardController {
+
+    @Autowired
+    private BedBoardService bedBoardService;
+
+    // Occupied bed count per unit
+    @GetMapping("/units")
+    public ResponseEntity<Map<String, Object>> getUnitCounts() {
+        Map<String, Integer> counts = bedBoardService.getUnitCounts();
+        Map<String, Object> response = new HashMap<>();
+        response.put("units", counts);
+        response.put("totalOccupied", counts.values().stream().mapToInt(Integer::intValue).sum());
+        return ResponseEntity.ok(response);
+    }
+
+    // Whole-unit bed board in room/bed order
+    @GetMapping("/units/{unit}")
+    public ResponseEntity<List<Map<String, Object>>> getUnitBoard(@PathVariable String unit) {
+        List<Map<String, Object>> board = bedBoardService.getUnitBoard(unit);
+        AuditInterceptor.patientsRead(board.stream().map(bed -> (Long) bed.get("patientId")).toList());
+        return ResponseEntity.ok(board);
+    }
+
+    // Who is in a bed (e.g. /bed-board/bed?room=12A&bed=A)
+    @GetMapping("/bed")
+    public ResponseEntity<Map<String, Object>> getOccupant(
+            @RequestParam String room,
+            @RequestParam(required = false) String bed) {
+        return bedBoardService.getOccupant(room, bed)
+                .map(occupant -> {
+                    AuditInterceptor.patientsRead(List.of((Long) occupant.get("patientId")));
+                    return ResponseEntity.ok(occupant);
+                })
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        return ResponseEntity.ok(bedBoardService.getStats());
+    }
+
+    // Rebuild the board from the database
+    @PostMapping("/reload")
+    public ResponseEntity<Map<String, Object>> reload() {
+        try {
+            return ResponseEntity.ok(bedBoardService.reload());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+}
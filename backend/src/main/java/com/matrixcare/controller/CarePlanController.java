@@ -0,0 +1,225 @@
+package com.matrixcare.controller;
+
+import com.matrixcare.config.AuditInterceptor;
+import com.matrixcare.entity.CarePlanIntervention;
+import com.matrixcare.entity.NursingCarePlan;
+import com.matrixcare.service.CarePlanService;
+import com.matrixcare.service.CareTaskQueue;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/care-plans")
+@CrossOrigin(origins = "http://localhost:3000")
+public class CarePlanController {
+
+    private static final int MAX_TASKS = 200;
+
+    @Autowired
+    private CarePlanService carePlanService;
+
+    // Create a care plan with its recurring interventions
+    // e.g. {"patientId": 1, "nurseId": 2, "nursingDiagnosis": "...", "goals": "...", "priorityLevel": "high",
+    //       "interventions": [{"description": "Reposition patient", "frequency": "Q2H"}]}
+    @PostMapping
+    public ResponseEntity<Map<String, Object>> createCarePlan(@RequestBody CarePlanRequest request) {
+        if (request.getPatientId() == null) {
+            return error(HttpStatus.BAD_REQUEST, "patientId is required");
+        }
+        try {
+            NursingCarePlan plan = new NursingCarePlan();
+            plan.setPatientId(request.getPatientId());
+            plan.setNurseId(request.getNurseId());
+            plan.setNursingDiagnosis(request.getNursingDiagnosis());
+            plan.setGoals(request.getGoals());
+            plan.setExpectedOutcomes(request.getExpectedOutcomes());
+            if (request.getPriorityLevel() != null) {
+                plan.setPriorityLevel(request.getPriorityLevel());
+            }
+            plan.setStartDate(request.getStartDate());
+            plan.setTargetDate(request.getTargetDate());
+
+            List<CarePlanIntervention> interventions = new ArrayList<>();
+            if (request.getInterventions() != null) {
+                for (InterventionRequest item : request.getInterventions()) {
+                    interventions.add(new CarePlanIntervention(null, item.getDescription(), item.getFrequency(),
+                            null, item.getFirstDueAt()));
+                }
+            }
+            return ResponseEntity.status(HttpStatus.CREATED).body(carePlanService.createCarePlan(plan, interventions));
+        } catch (IllegalArgumentException e) {
+            return error(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<Map<String, Object>> getCarePlan(@PathVariable Long id) {
+        try {
+            Map<String, Object> carePlan = carePlanService.getCarePlan(id);
+            AuditInterceptor.patientsRead(List.of(((NursingCarePlan) carePlan.get("carePlan")).getPatientId()));
+            return ResponseEntity.ok(carePlan);
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @GetMapping("/patient/{patientId}")
+    public ResponseEntity<List<Map<String, Object>>> getCarePlansForPatient(@PathVariable Long patientId) {
+        try {
+            return ResponseEntity.ok(carePlanService.getCarePlansForPatient(patientId));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    // e.g. {"status": "met", "evaluationNotes": "..."}
+    @PutMapping("/{id}/status")
+    public ResponseEntity<Map<String, Object>> updateStatus(@PathVariable Long id,
+                                                            @RequestBody Map<String, String> request) {
+        NursingCarePlan.Status status;
+        try {
+            status = NursingCarePlan.Status.valueOf(request.get("status"));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            return error(HttpStatus.BAD_REQUEST, "status must be one of active, met, partially_met, not_met, discontinued");
+        }
+        try {
+            return ResponseEntity.ok(carePlanService.updateStatus(id, status, request.get("evaluationNotes")));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    // Next pending tasks of a unit, most urgent first
+    @GetMapping("/tasks")
+    public ResponseEntity<List<CareTaskQueue.Task>> getNextTasksForUnit(@RequestParam String unit,
+                                                                       @RequestParam(defaultValue = "20") int limit) {
+        return tasks(carePlanService.getNextTasksForUnit(unit, Math.min(Math.max(limit, 1), MAX_TASKS)));
+    }
+
+    // Next pending tasks of the patients a nurse is primary for this shift
+    @GetMapping("/tasks/nurse/{nurseId}")
+    public ResponseEntity<List<CareTaskQueue.Task>> getNextTasksForNurse(@PathVariable Long nurseId,
+                                                                        @RequestParam(defaultValue = "20") int limit) {
+        return tasks(carePlanService.getNextTasksForNurse(nurseId, Math.min(Math.max(limit, 1), MAX_TASKS)));
+    }
+
+    // Complete the pending occurrence of an intervention; optional body {"dueAt": "2024-03-01T08:00:00", "notes": "..."}
+    @PostMapping("/tasks/{interventionId}/complete")
+    public ResponseEntity<Map<String, Object>> completeTask(@PathVariable Long interventionId,
+                                                            @RequestBody(required = false) Map<String, String> request) {
+        LocalDateTime dueAt = null;
+        String notes = null;
+        if (request != null) {
+            try {
+                dueAt = request.get("dueAt") != null ? LocalDateTime.parse(request.get("dueAt")) : null;
+            } catch (Exception e) {
+                return error(HttpStatus.BAD_REQUEST, "dueAt must be an ISO date-time");
+            }
+            notes = request.get("notes");
+        }
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String username = authentication != null ? authentication.getName() : "anonymous";
+        try {
+            return ResponseEntity.ok(carePlanService.completeTask(interventionId, dueAt, username, notes));
+        } catch (IllegalStateException e) {
+            return error(HttpStatus.CONFLICT, e.getMessage());
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @GetMapping("/tasks/stats")
+    public ResponseEntity<Map<String, Object>> getQueueStats() {
+        return ResponseEntity.ok(carePlanService.getQueueStats());
+    }
+
+    // Rebuild the task queue from the database
+    @PostMapping("/tasks/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuild() {
+        try {
+            return ResponseEntity.ok(carePlanService.rebuildQueue());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    private static ResponseEntity<List<CareTaskQueue.Task>> tasks(List<CareTaskQueue.Task> tasks) {
+        AuditInterceptor.patientsRead(tasks.stream().map(CareTaskQueue.Task::patientId).distinct().toList());
+        return ResponseEntity.ok(tasks);
+    }
+
+    private static ResponseEntity<Map<String, Object>> error(HttpStatus status, String message) {
+        Map<String, Object> error = new HashMap<>();
+        error.put("success", false);
+        error.put("message", message);
+        return ResponseEntity.status(status).body(error);
+    }
+
+    // Request body for creating a care plan
+    public static class CarePlanRequest {
+        private Long patientId;
+        private Long nurseId;
+        private String nursingDiagnosis;
+        private String goals;
+        private String expectedOutcomes;
+        private NursingCarePlan.PriorityLevel priorityLevel;
+        private LocalDate startDate;
+        private LocalDate targetDate;
+        private List<InterventionRequest> interventions;
+
+        public Long getPatientId() { return patientId; }
+        public void setPatientId(Long patientId) { this.patientId = patientId; }
+
+        public Long getNurseId() { return nurseId; }
+        public void setNurseId(Long nurseId) { this.nurseId = nurseId; }
+
+        public String getNursingDiagnosis() { return nursingDiagnosis; }
+        public void setNursingDiagnosis(String nursingDiagnosis) { this.nursingDiagnosis = nursingDiagnosis; }
+
+        public String getGoals() { return goals; }
+        public void setGoals(String goals) { this.goals = goals; }
+
+        public String getExpectedOutcomes() { return expectedOutcomes; }
+        public void setExpectedOutcomes(String expectedOutcomes) { this.expectedOutcomes = expectedOutcomes; }
+
+        public NursingCarePlan.PriorityLevel getPriorityLevel() { return priorityLevel; }
+        public void setPriorityLevel(NursingCarePlan.PriorityLevel priorityLevel) { this.priorityLevel = priorityLevel; }
+
+        public LocalDate getStartDate() { return startDate; }
+        public void setStartDate(LocalDate startDate) { this.startDate = startDate; }
+
+        public LocalDate getTargetDate() { return targetDate; }
+        public void setTargetDate(LocalDate targetDate) { this.targetDate = targetDate; }
+
+        public List<InterventionRequest> getInterventions() { return interventions; }
+        public void setInterventions(List<InterventionRequest> interventions) { this.interventions = interventions; }
+    }
+
+    public static class InterventionRequest {
+        private String description;
+        private String frequency;
+        private LocalDateTime firstDueAt;
+
+        public String getDescription() { return description; }
+        public void setDescription(String description) { this.description = description; }
+
+        public String getFrequency() { return frequency; }
+        public void setFrequency(String frequency) { this.frequency = frequency; }
+
+        public LocalDateTime getFirstDueAt() { return firstDueAt; }
+        public void setFirstDueAt(LocalDateTime firstDueAt) { this.firstDueAt = firstDueAt; }
+    }
+}
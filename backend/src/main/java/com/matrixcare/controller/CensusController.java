@@ -0,0 +1,75 @@
+package com.matrixcare.controller;
+
+import com.matrixcare.service.CensusService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/census")
+@CrossOrigin(origins = "http://localhost:3000")
+public class CensusController {
+
+    @Autowired
+    private CensusService censusService;
+
+    // End-of-day census per day (e.g. /census/daily?from=2024-01-01&to=2024-03-31&unit=ICU)
+    @GetMapping("/daily")
+    public ResponseEntity<List<Map<String, Object>>> getDailyCensus(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String unit) {
+        if (to.isBefore(from)) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.ok(censusService.getDailyCensus(from, to, unit));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    // Patient days and average length of stay per unit
+    @GetMapping("/length-of-stay")
+    public ResponseEntity<Map<String, Object>> getLengthOfStay(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        if (to.isBefore(from)) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.ok(censusService.getLengthOfStayReport(from, to));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    // Rebuild census rows from the given day through today, at most CensusService.MAX_BACKFILL_DAYS
+    @PostMapping("/backfill")
+    public ResponseEntity<Map<String, Object>> backfill(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from) {
+        try {
+            return ResponseEntity.ok(censusService.backfill(from));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    // Result of the last backfill
+    @GetMapping("/backfill")
+    public ResponseEntity<Map<String, Object>> getLastBackfill() {
+        Map<String, Object> last = censusService.getLastBackfill();
+        if (last == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(last);
+    }
+}
@@ -0,0 +1,60 @@
+package com.matrixcare.controller;
+
+import com.matrixcare.config.AuditInterceptor;
+import com.matrixcare.service.CohortQuery;
+import com.matrixcare.service.CohortService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/cohorts")
+@CrossOrigin(origins = "http://localhost:3000")
+public class CohortController {
+    
+    @Autowired
+    private CohortService cohortService;
+    
+    // Answer a boolean cohort query from the bitmap index
+    @PostMapping("/query")
+    public ResponseEntity<Map<String, Object>> query(@RequestBody Map<String, Object> query) {
+        try {
+            Map<String, Object> result = cohortService.query(CohortQuery.parse(query));
+            AuditInterceptor.patientsRead(((List<?>) result.get("patientIds")).stream().map(Long.class::cast).toList());
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            return badRequest(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    // Index size and freshness
+    @GetMapping("/index")
+    public ResponseEntity<Map<String, Object>> getIndexInfo() {
+        return ResponseEntity.ok(cohortService.getIndexInfo());
+    }
+    
+    // Re-read patient and medication attributes now
+    @PostMapping("/index/refresh")
+    public ResponseEntity<Map<String, Object>> refreshAttributes() {
+        try {
+            cohortService.refreshAttributes();
+            return ResponseEntity.ok(cohortService.getIndexInfo());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    private ResponseEntity<Map<String, Object>> badRequest(String message) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", false);
+        response.put("message", message);
+        return ResponseEntity.badRequest().body(response);
+    }
+}
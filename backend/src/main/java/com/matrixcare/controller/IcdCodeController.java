@@ -0,0 +1,55 @@
+package com.matrixcare.controller;
+
+import com.matrixcare.service.IcdCodeService;
+import com.matrixcare.service.IcdCodeSet;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/icd-codes")
+@CrossOrigin(origins = "http://localhost:3000")
+public class IcdCodeController {
+
+    @Autowired
+    private IcdCodeService icdCodeService;
+
+    // Typeahead over codes and descriptions (e.g. /icd-codes/search?q=heart fail)
+    @GetMapping("/search")
+    public ResponseEntity<List<IcdCodeSet.Match>> search(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(icdCodeService.search(q, limit));
+    }
+
+    // Look up one code in any spelling (I509, i50.9)
+    @GetMapping("/{code}")
+    public ResponseEntity<IcdCodeSet.Match> lookup(@PathVariable String code) {
+        return icdCodeService.lookup(code)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    // Get the loaded code set
+    @GetMapping("/info")
+    public ResponseEntity<Map<String, Object>> getCodeSetInfo() {
+        return ResponseEntity.ok(icdCodeService.getCodeSetInfo());
+    }
+
+    // Reload the code set from its file
+    @PostMapping("/reload")
+    public ResponseEntity<Map<String, Object>> reloadCodes() {
+        try {
+            return ResponseEntity.ok(icdCodeService.reloadCodes());
+        } catch (RuntimeException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.matrixcare.controller;
+
+import com.matrixcare.config.AuditInterceptor;
+import com.matrixcare.entity.IncidentReport;
+import com.matrixcare.service.IncidentService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/incidents")
+@CrossOrigin(origins = "http://localhost:3000")
+public class IncidentController {
+
+    @Autowired
+    private IncidentService incidentService;
+
+    @PostMapping
+    public ResponseEntity<?> createIncident(@RequestBody IncidentReport incident) {
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED).body(incidentService.createIncident(incident));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<IncidentReport> getIncident(@PathVariable Long id) {
+        try {
+            IncidentReport incident = incidentService.getIncident(id);
+            AuditInterceptor.patientsRead(List.of(incident.getPatientId()));
+            return ResponseEntity.ok(incident);
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @PutMapping("/{id}")
+    public ResponseEntity<?> updateIncident(@PathVariable Long id, @RequestBody IncidentReport details) {
+        try {
+            return ResponseEntity.ok(incidentService.updateIncident(id, details));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(error(e.getMessage()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteIncident(@PathVariable Long id) {
+        try {
+            incidentService.deleteIncident(id);
+            return ResponseEntity.noContent().build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @GetMapping("/patient/{patientId}")
+    public ResponseEntity<List<IncidentReport>> getIncidentsForPatient(@PathVariable Long patientId) {
+        try {
+            return ResponseEntity.ok(incidentService.getIncidentsForPatient(patientId));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    // Weekly series, e.g. /incidents/trends?from=2024-01-01&to=2024-06-30&type=fall&groupBy=unit
+    @GetMapping("/trends")
+    public ResponseEntity<Map<String, Object>> getTrends(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String unit,
+            @RequestParam(required = false) IncidentReport.IncidentType type,
+            @RequestParam(required = false) String groupBy) {
+        try {
+            return ResponseEntity.ok(incidentService.getTrends(from, to, unit, type, groupBy));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    // Unit x week counts, e.g. /incidents/heatmap?from=2024-01-01&to=2024-03-31&type=medication_error&minSeverity=moderate
+    @GetMapping("/heatmap")
+    public ResponseEntity<Map<String, Object>> getHeatMap(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) IncidentReport.IncidentType type,
+            @RequestParam(required = false) IncidentReport.Severity minSeverity) {
+        try {
+            return ResponseEntity.ok(incidentService.getHeatMap(from, to, type, minSeverity));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    // Recompute the rollups from incident_reports, from the week of `from` or entirely
+    @PostMapping("/rollups/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildRollups(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from) {
+        try {
+            return ResponseEntity.ok(incidentService.rebuildRollups(from));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error(e.getMessage()));
+        }
+    }
+
+    private Map<String, Object> error(String message) {
+        Map<String, Object> error = new HashMap<>();
+        error.put("success", false);
+        error.put("message", message);
+        return error;
+    }
+}
@@ -0,0 +1,71 @@
+package com.matrixcare.controller;
+
+import com.matrixcare.service.MedicationConflictService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/conflicts")
+@CrossOrigin(origins = "http://localhost:3000")
+public class MedicationConflictController {
+    
+    @Autowired
+    private MedicationConflictService conflictService;
+    
+    // Check a new medication order against a patient's allergies
+    @GetMapping("/check")
+    public ResponseEntity<Map<String, Object>> checkMedication(
+            @RequestParam Long patientId,
+            @RequestParam String medicationName) {
+        try {
+            Map<String, Object> result = conflictService.checkMedication(patientId, medicationName);
+            return ResponseEntity.ok(result);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    // Get the loaded conflict table
+    @GetMapping("/table")
+    public ResponseEntity<Map<String, Object>> getTableInfo() {
+        return ResponseEntity.ok(conflictService.getTableInfo());
+    }
+    
+    // Reload the conflict table from its file
+    @PostMapping("/table/reload")
+    public ResponseEntity<Map<String, Object>> reloadTable() {
+        try {
+            return ResponseEntity.ok(conflictService.reloadTable());
+        } catch (RuntimeException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+    
+    // Get the result of the last census sweep
+    @GetMapping("/sweep")
+    public ResponseEntity<Map<String, Object>> getLastSweep() {
+        Map<String, Object> sweep = conflictService.getLastSweep();
+        if (sweep == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(sweep);
+    }
+    
+    // Run a census sweep now
+    @PostMapping("/sweep")
+    public ResponseEntity<Map<String, Object>> runSweep() {
+        try {
+            return ResponseEntity.ok(conflictService.runCensusSweep());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.matrixcare.controller;
+
+import com.matrixcare.entity.Nurse;
+import com.matrixcare.service.NurseAssignmentService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/assignments")
+@CrossOrigin(origins = "http://localhost:3000")
+public class NurseAssignmentController {
+
+    @Autowired
+    private NurseAssignmentService nurseAssignmentService;
+
+    // Balance a unit's patients across nurses; date and shift default to the current shift
+    // e.g. {"unit": "ICU", "shift": "day", "nurseIds": [3, 4, 7]}
+    @PostMapping("/balance")
+    public ResponseEntity<Map<String, Object>> balance(@RequestBody BalanceRequest request) {
+        if (request.getUnit() == null || request.getUnit().isBlank()) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("success", false);
+            error.put("message", "unit is required");
+            return ResponseEntity.badRequest().body(error);
+        }
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            LocalDate date = request.getDate() != null ? request.getDate() : nurseAssignmentService.shiftDateAt(now);
+            Nurse.Shift shift = request.getShift() != null ? request.getShift() : nurseAssignmentService.shiftAt(now);
+            return ResponseEntity.ok(nurseAssignmentService.balance(request.getUnit(), date, shift,
+                    request.getNurseIds()));
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("success", false);
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    // Current primary assignments (e.g. /assignments?unit=ICU&date=2024-03-01&shift=night)
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getAssignments(
+            @RequestParam String unit,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(required = false) Nurse.Shift shift) {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            return ResponseEntity.ok(nurseAssignmentService.getAssignments(unit,
+                    date != null ? date : nurseAssignmentService.shiftDateAt(now),
+                    shift != null ? shift : nurseAssignmentService.shiftAt(now)));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    // Fit a patient into the current shift's assignment
+    @PostMapping("/place/{patientId}")
+    public ResponseEntity<Map<String, Object>> place(@PathVariable Long patientId) {
+        try {
+            return ResponseEntity.ok(nurseAssignmentService.placeAdmittedPatient(patientId));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    // Acuity score per active patient of a unit
+    @GetMapping("/acuity")
+    public ResponseEntity<Map<Long, Double>> getAcuity(@RequestParam String unit) {
+        try {
+            return ResponseEntity.ok(nurseAssignmentService.getUnitAcuity(unit));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    // Request body for balancing
+    public static class BalanceRequest {
+        private String unit;
+        private LocalDate date;
+        private Nurse.Shift shift;
+        private List<Long> nurseIds;
+
+        public String getUnit() { return unit; }
+        public void setUnit(String unit) { this.unit = unit; }
+
+        public LocalDate getDate() { return date; }
+        public void setDate(LocalDate date) { this.date = date; }
+
+        public Nurse.Shift getShift() { return shift; }
+        public void setShift(Nurse.Shift shift) { this.shift = shift; }
+
+        public List<Long> getNurseIds() { return nurseIds; }
+        public void setNurseIds(List<Long> nurseIds) { this.nurseIds = nurseIds; }
+    }
+}
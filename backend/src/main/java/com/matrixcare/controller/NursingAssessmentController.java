@@ -0,0 +1,79 @@
+package com.matrixcare.controller;
+
+import com.matrixcare.config.AuditInterceptor;
+import com.matrixcare.entity.NursingAssessment;
+import com.matrixcare.service.NursingAssessmentService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/assessments")
+@CrossOrigin(origins = "http://localhost:3000")
+public class NursingAssessmentController {
+
+    @Autowired
+    private NursingAssessmentService assessmentService;
+
+    // Compiled form definitions, for building the entry screens
+    @GetMapping("/forms")
+    public ResponseEntity<List<Map<String, Object>>> getForms() {
+        return ResponseEntity.ok(assessmentService.getForms());
+    }
+
+    // e.g. {"form": "round-check", "patientId": 1, "nurseId": 2, "values": {"generalCondition": "stable", "painLevel": 3}}
+    @PostMapping
+    public ResponseEntity<Map<String, Object>> submit(@RequestBody NursingAssessmentService.Submission submission) {
+        return save(List.of(submission));
+    }
+
+    // End-of-round documentation; every submission is validated before any is saved
+    @PostMapping("/batch")
+    public ResponseEntity<Map<String, Object>> submitBatch(
+            @RequestBody List<NursingAssessmentService.Submission> submissions) {
+        return save(submissions);
+    }
+
+    // Latest assessment of each active patient of a unit
+    @GetMapping("/latest")
+    public ResponseEntity<List<NursingAssessment>> getLatestForUnit(@RequestParam String unit) {
+        try {
+            List<NursingAssessment> latest = assessmentService.getLatestForUnit(unit);
+            AuditInterceptor.patientsRead(latest.stream().map(NursingAssessment::getPatientId).distinct().toList());
+            return ResponseEntity.ok(latest);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @GetMapping("/patient/{patientId}")
+    public ResponseEntity<List<NursingAssessment>> getForPatient(@PathVariable Long patientId) {
+        try {
+            return ResponseEntity.ok(assessmentService.getForPatient(patientId));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    private ResponseEntity<Map<String, Object>> save(List<NursingAssessmentService.Submission> submissions) {
+        try {
+            Map<String, Object> result = assessmentService.submit(submissions);
+            if (Boolean.FALSE.equals(result.get("success"))) {
+                return ResponseEntity.badRequest().body(result);
+            }
+            return ResponseEntity.status(HttpStatus.CREATED).body(result);
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("success", false);
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+}
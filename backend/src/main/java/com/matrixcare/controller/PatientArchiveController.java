@@ -0,0 +1,34 @@
+package com.matrixcare.controller;
+
+import com.matrixcare.service.PatientArchiveService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/archive")
+@CrossOrigin(origins = "http://localhost:3000")
+public class PatientArchiveController {
+
+    @Autowired
+    private PatientArchiveService patientArchiveService;
+
+    // Archive patients discharged before the configured delay now instead of at the nightly run
+    @PostMapping("/run")
+    public ResponseEntity<Map<String, Object>> archiveDischarged() {
+        try {
+            return ResponseEntity.ok(patientArchiveService.archiveDischarged());
+        } catch (IllegalStateException e) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("success", false);
+            error.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(error);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+}
@@ -1,16 +1,29 @@
 package com.matrixcare.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.matrixcare.entity.Patient;
+import com.matrixcare.entity.PatientDiagnosis;
 import com.matrixcare.service.PatientService;
 import com.matrixcare.service.PatientChartingService;
+import com.matrixcare.service.PatientSummaryService;
+import com.matrixcare.service.ReadFallbackService;
+import com.matrixcare.service.ReadFallbackService.Read;
+import com.matrixcare.service.ReadFallbackService.ReadUnavailableException;
+import com.matrixcare.service.TimelineService;
+import com.matrixcare.service.VitalStatsService;
 import com.matrixcare.service.VitalSignsService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -30,33 +43,57 @@ public class PatientController {
     @Autowired
     private VitalSignsService vitalSignsService;
     
+    @Autowired
+    private PatientSummaryService patientSummaryService;
+    
+    @Autowired
+    private VitalStatsService vitalStatsService;
+    
+    @Autowired
+    private ReadFallbackService readFallbackService;
+    
+    @Autowired
+    private TimelineService timelineService;
+    
     // Test endpoint for debugging
     @GetMapping("/test")
     public ResponseEntity<String> test() {
         return ResponseEntity.ok("API is working! Current time: " + java.time.LocalDateTime.now());
     }
     
-    // Get all active patients
+    // Get all active patients; the last known list is served while the database is unavailable
     @GetMapping
     public ResponseEntity<List<Patient>> getAllPatients() {
         try {
-            List<Patient> patients = patientService.getAllActivePatients();
-            return ResponseEntity.ok(patients);
+            Read<List<Patient>> patients = readFallbackService.read("patient-list:active",
+                    patientService::getAllActivePatients);
+            return withStaleness(ResponseEntity.ok(), patients).body(patients.value());
+        } catch (ReadUnavailableException e) {
+            return unavailable();
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
     
+    // Circuit state and counters of the cached read fallback
+    @GetMapping("/read-fallback")
+    public ResponseEntity<Map<String, Object>> getReadFallbackStatus() {
+        return ResponseEntity.ok(readFallbackService.getStatus());
+    }
+    
     // Get patient by ID
     @GetMapping("/{id}")
     public ResponseEntity<Patient> getPatientById(@PathVariable Long id) {
         try {
-            Optional<Patient> patient = patientService.getPatientById(id);
-            if (patient.isPresent()) {
-                return ResponseEntity.ok(patient.get());
+            Read<Optional<Patient>> patient = readFallbackService.read("patient:" + id,
+                    () -> patientService.getPatientById(id));
+            if (patient.value().isPresent()) {
+                return withStaleness(ResponseEntity.ok(), patient).body(patient.value().get());
             } else {
                 return ResponseEntity.notFound().build();
             }
+        } catch (ReadUnavailableException e) {
+            return unavailable();
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -77,6 +114,58 @@ public class PatientController {
         }
     }
     
+    // Get patient summary with allergies, diagnoses and medications
+    @GetMapping("/{id}/summary")
+    public ResponseEntity<Map<String, Object>> getPatientSummary(@PathVariable Long id) {
+        try {
+            Optional<Map<String, Object>> summary = patientSummaryService.getPatientSummary(id);
+            if (summary.isPresent()) {
+                return ResponseEntity.ok(summary.get());
+            } else {
+                return ResponseEntity.notFound().build();
+            }
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    // Get summaries for many patients at once (e.g. /patients/summary?ids=1,2,3)
+    @GetMapping("/summary")
+    public ResponseEntity<List<Map<String, Object>>> getPatientSummaries(@RequestParam List<Long> ids) {
+        try {
+            List<Map<String, Object>> summaries = patientSummaryService.getPatientSummaries(ids);
+            return ResponseEntity.ok(summaries);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    // Add a diagnosis; the code is resolved against the ICD-10 code set
+    @PostMapping("/{id}/diagnoses")
+    public ResponseEntity<?> addDiagnosis(@PathVariable Long id, @RequestBody PatientDiagnosis diagnosis) {
+        try {
+            PatientDiagnosis saved = patientService.addDiagnosis(id, diagnosis);
+            return ResponseEntity.status(HttpStatus.CREATED).body(saved);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+    
+    // Update a diagnosis
+    @PutMapping("/{id}/diagnoses/{diagnosisId}")
+    public ResponseEntity<?> updateDiagnosis(@PathVariable Long id, @PathVariable Long diagnosisId,
+                                             @RequestBody PatientDiagnosis diagnosis) {
+        try {
+            return ResponseEntity.ok(patientService.updateDiagnosis(id, diagnosisId, diagnosis));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+    
     // Create new patient
     @PostMapping
     public ResponseEntity<?> createPatient(@RequestBody Patient patient) {
@@ -99,6 +188,12 @@ public class PatientController {
             
             Patient createdPatient = patientService.createPatient(patient);
             return ResponseEntity.status(HttpStatus.CREATED).body(createdPatient);
+        } catch (IllegalStateException e) {
+            // Bed already occupied, or the MRN belongs to an archived patient
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (DataIntegrityViolationException e) {
+            // Bed taken on another instance; caught by the occupied_bed unique key
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("Bed is already occupied");
         } catch (Exception e) {
             System.err.println("Error creating patient: " + e.getMessage());
             e.printStackTrace();
@@ -106,12 +201,22 @@ public class PatientController {
         }
     }
     
-    // Update existing patient
+    // Update existing patient; the version that was read is required, and a stale one gets 409
     @PutMapping("/{id}")
-    public ResponseEntity<Patient> updatePatient(@PathVariable Long id, @RequestBody Patient patientDetails) {
+    public ResponseEntity<?> updatePatient(@PathVariable Long id, @RequestBody Patient patientDetails) {
         try {
             Patient updatedPatient = patientService.updatePatient(id, patientDetails);
             return ResponseEntity.ok(updatedPatient);
+        } catch (OptimisticLockingFailureException e) {
+            return versionConflict(id);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IllegalStateException e) {
+            // Bed already occupied
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (DataIntegrityViolationException e) {
+            // Bed taken on another instance; caught by the occupied_bed unique key
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("Bed is already occupied");
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         } catch (Exception e) {
@@ -119,6 +224,35 @@ public class PatientController {
         }
     }
     
+    // Change only the supplied fields, e.g. {"version": 3, "roomNumber": "214", "bedNumber": "B"}
+    @PatchMapping("/{id}")
+    public ResponseEntity<?> patchPatient(@PathVariable Long id, @RequestBody JsonNode changes) {
+        try {
+            return ResponseEntity.ok(patientService.patchPatient(id, changes));
+        } catch (OptimisticLockingFailureException e) {
+            return versionConflict(id);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IllegalStateException e) {
+            // Bed already occupied
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (DataIntegrityViolationException e) {
+            // Bed taken on another instance; caught by the occupied_bed unique key
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("Bed is already occupied");
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+    
+    // 409 with the stored version so the client can reload and reapply its edit
+    private ResponseEntity<Map<String, Object>> versionConflict(Long id) {
+        Map<String, Object> conflict = new HashMap<>();
+        conflict.put("success", false);
+        conflict.put("message", "Patient was changed by someone else; reload and try again");
+        conflict.put("currentVersion", patientService.getPatientVersion(id).orElse(null));
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(conflict);
+    }
+    
     // Delete patient (soft delete)
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deletePatient(@PathVariable Long id) {
@@ -236,7 +370,8 @@ public class PatientController {
             String title = (String) request.get("title");
             String icon = (String) request.get("icon");
             String color = (String) request.get("color");
-            List<String> items = (List<String>) request.get("items");
+            List<String> items = request.get("items") instanceof List<?> list
+                    ? list.stream().map(item -> (String) item).toList() : null;
             Integer displayOrder = (Integer) request.get("displayOrder");
             Long chartingId = request.get("id") != null ? Long.valueOf(request.get("id").toString()) : null;
             
@@ -247,6 +382,33 @@ public class PatientController {
         }
     }
     
+    // Reconstruct a charting category as of a timestamp (yyyy-MM-ddTHH:mm:ss)
+    @GetMapping("/{id}/charting/{chartingId}/as-of")
+    public ResponseEntity<Map<String, Object>> getChartingDataAsOf(
+            @PathVariable Long id,
+            @PathVariable Long chartingId,
+            @RequestParam String timestamp) {
+        try {
+            LocalDateTime asOf = LocalDateTime.parse(timestamp);
+            Optional<Map<String, Object>> state = chartingService.getChartingDataAsOf(id, chartingId, asOf);
+            return state.map(ResponseEntity::ok).orElse(ResponseEntity.notFound().build());
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    // Recorded versions of a charting category, newest first
+    @GetMapping("/{id}/charting/{chartingId}/history")
+    public ResponseEntity<List<Map<String, Object>>> getChartingHistory(@PathVariable Long id, @PathVariable Long chartingId) {
+        try {
+            return ResponseEntity.ok(chartingService.getChartingHistory(id, chartingId));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
     @DeleteMapping("/{id}/charting/{chartingId}")
     public ResponseEntity<?> deletePatientChartingData(@PathVariable Long id, @PathVariable Long chartingId) {
         try {
@@ -257,6 +419,22 @@ public class PatientController {
         }
     }
     
+    // Newest-first feed of the patient's record; pass nextCursor back as cursor for the following page,
+    // e.g. /patients/5/timeline?limit=50&types=vitals,medication_started,medication_stopped
+    @GetMapping("/{id}/timeline")
+    public ResponseEntity<?> getTimeline(@PathVariable Long id,
+                                         @RequestParam(required = false) String cursor,
+                                         @RequestParam(defaultValue = "50") int limit,
+                                         @RequestParam(required = false) List<String> types) {
+        try {
+            return ResponseEntity.ok(timelineService.getTimeline(id, cursor, limit, types));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
     // Vital Signs Endpoints
     
     @GetMapping("/{id}/vitals")
@@ -264,8 +442,11 @@ public class PatientController {
             @PathVariable Long id,
             @RequestParam(defaultValue = "10") int limit) {
         try {
-            List<Map<String, Object>> vitals = vitalSignsService.getVitalSignsHistory(id, limit);
-            return ResponseEntity.ok(vitals);
+            Read<List<Map<String, Object>>> vitals = readFallbackService.read("vitals:" + id + ":history:" + limit,
+                    () -> vitalSignsService.getVitalSignsHistory(id, limit));
+            return withStaleness(ResponseEntity.ok(), vitals).body(vitals.value());
+        } catch (ReadUnavailableException e) {
+            return unavailable();
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -274,8 +455,11 @@ public class PatientController {
     @GetMapping("/{id}/vitals/latest")
     public ResponseEntity<Map<String, Object>> getLatestVitalSigns(@PathVariable Long id) {
         try {
-            Map<String, Object> vitals = vitalSignsService.getLatestVitalSigns(id);
-            return ResponseEntity.ok(vitals);
+            Read<Map<String, Object>> vitals = readFallbackService.read("vitals:" + id + ":latest",
+                    () -> vitalSignsService.getLatestVitalSigns(id));
+            return withStaleness(ResponseEntity.ok(), vitals).body(vitals.value());
+        } catch (ReadUnavailableException e) {
+            return unavailable();
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -297,6 +481,21 @@ public class PatientController {
         }
     }
     
+    // Min, max, mean and percentiles per vital sign over a window such as 24h or 7d
+    @GetMapping("/{id}/vitals/stats")
+    public ResponseEntity<Map<String, Object>> getVitalSignsStats(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "24h") String window) {
+        try {
+            Map<String, Object> stats = vitalStatsService.getPatientStats(id, VitalStatsService.parseWindow(window));
+            return ResponseEntity.ok(stats);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
     @GetMapping("/{id}/vitals/count")
     public ResponseEntity<Map<String, Object>> getVitalSignsCount(@PathVariable Long id) {
         try {
@@ -308,4 +507,18 @@ public class PatientController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
-} 
\ No newline at end of file
+    
+    // A cached answer is marked with X-Data-Stale, the time it was loaded and its age in seconds
+    private ResponseEntity.BodyBuilder withStaleness(ResponseEntity.BodyBuilder builder, Read<?> read) {
+        if (read.stale()) {
+            builder.header("X-Data-Stale", "true")
+                    .header("X-Data-As-Of", read.loadedAt().toString())
+                    .header("Age", String.valueOf(Duration.between(read.loadedAt(), Instant.now()).toSeconds()));
+        }
+        return builder;
+    }
+    
+    private <T> ResponseEntity<T> unavailable() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header("Retry-After", "5").build();
+    }
+}
@@ -0,0 +1,72 @@
+package com.matrixcare.controller;
+
+import com.matrixcare.config.AuditInterceptor;
+import com.matrixcare.entity.Nurse;
+import com.matrixcare.entity.ShiftReport;
+import com.matrixcare.service.NurseAssignmentService;
+import com.matrixcare.service.ShiftReportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/shift-reports")
+@CrossOrigin(origins = "http://localhost:3000")
+public class ShiftReportController {
+
+    @Autowired
+    private ShiftReportService shiftReportService;
+
+    @Autowired
+    private NurseAssignmentService nurseAssignmentService;
+
+    // Generate handoff reports for a unit at the end of a shift; defaults to the current shift
+    // e.g. POST /shift-reports/generate?unit=ICU&date=2024-03-01&shift=day
+    @PostMapping("/generate")
+    public ResponseEntity<Map<String, Object>> generate(
+            @RequestParam String unit,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(required = false) Nurse.Shift shift) {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            return ResponseEntity.ok(shiftReportService.generateForUnit(unit,
+                    date != null ? date : nurseAssignmentService.shiftDateAt(now),
+                    shift != null ? shift : nurseAssignmentService.shiftAt(now)));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    // Reports of one handoff for a unit; shift is the ending shift
+    @GetMapping
+    public ResponseEntity<List<ShiftReport>> getReportsForUnit(
+            @RequestParam String unit,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam Nurse.Shift shift) {
+        try {
+            List<ShiftReport> reports = shiftReportService.getReportsForUnit(unit, date, shift);
+            // One audit event per patient in the handoff
+            AuditInterceptor.patientsRead(reports.stream().map(ShiftReport::getPatientId).distinct().toList());
+            return ResponseEntity.ok(reports);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    // All reports of a patient, newest first
+    @GetMapping("/patient/{patientId}")
+    public ResponseEntity<List<ShiftReport>> getReportsForPatient(@PathVariable Long patientId) {
+        try {
+            return ResponseEntity.ok(shiftReportService.getReportsForPatient(patientId));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.matrixcare.controller;
+
+import com.matrixcare.config.AuditInterceptor;
+import com.matrixcare.entity.VitalAlertThreshold;
+import com.matrixcare.service.VitalAlert;
+import com.matrixcare.service.VitalAlertService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/alerts")
+@CrossOrigin(origins = "http://localhost:3000")
+public class VitalAlertController {
+    
+    @Autowired
+    private VitalAlertService vitalAlertService;
+    
+    // Active alert count per unit
+    @GetMapping("/counts")
+    public ResponseEntity<Map<String, Integer>> getActiveAlertCounts() {
+        return ResponseEntity.ok(vitalAlertService.getActiveAlertCounts());
+    }
+    
+    // Active alerts for a unit
+    @GetMapping("/unit/{unit}")
+    public ResponseEntity<List<VitalAlert>> getActiveAlertsForUnit(@PathVariable String unit) {
+        List<VitalAlert> alerts = vitalAlertService.getActiveAlertsForUnit(unit);
+        AuditInterceptor.patientsRead(alerts.stream().map(VitalAlert::getPatientId).distinct().toList());
+        return ResponseEntity.ok(alerts);
+    }
+    
+    // Active alerts for a patient
+    @GetMapping("/patient/{patientId}")
+    public ResponseEntity<List<VitalAlert>> getActiveAlertsForPatient(@PathVariable Long patientId) {
+        return ResponseEntity.ok(vitalAlertService.getActiveAlertsForPatient(patientId));
+    }
+    
+    // Acknowledge an alert
+    @PostMapping("/{alertId}/acknowledge")
+    public ResponseEntity<Void> acknowledge(@PathVariable long alertId) {
+        if (vitalAlertService.acknowledge(alertId)) {
+            return ResponseEntity.noContent().build();
+        }
+        return ResponseEntity.notFound().build();
+    }
+    
+    // Threshold Endpoints
+    
+    @GetMapping("/thresholds/patient/{patientId}")
+    public ResponseEntity<Map<String, Object>> getEffectiveThresholds(@PathVariable Long patientId) {
+        try {
+            return ResponseEntity.ok(vitalAlertService.getEffectiveThresholds(patientId));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    @GetMapping("/thresholds/patient/{patientId}/overrides")
+    public ResponseEntity<List<VitalAlertThreshold>> getPatientOverrides(@PathVariable Long patientId) {
+        try {
+            return ResponseEntity.ok(vitalAlertService.getPatientOverrides(patientId));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    @GetMapping("/thresholds/unit/{unit}")
+    public ResponseEntity<List<VitalAlertThreshold>> getUnitThresholds(@PathVariable String unit) {
+        try {
+            return ResponseEntity.ok(vitalAlertService.getUnitThresholds(unit));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    // Create or replace a unit default or patient override
+    @PutMapping("/thresholds")
+    public ResponseEntity<?> saveThreshold(@RequestBody VitalAlertThreshold threshold) {
+        try {
+            return ResponseEntity.ok(vitalAlertService.saveThreshold(threshold));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+    
+    @DeleteMapping("/thresholds/{id}")
+    public ResponseEntity<Void> deleteThreshold(@PathVariable Long id) {
+        try {
+            vitalAlertService.deleteThreshold(id);
+            return ResponseEntity.noContent().build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+}
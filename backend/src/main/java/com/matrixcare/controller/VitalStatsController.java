@@ -0,0 +1,50 @@
+package com.matrixcare.controller;
+
+import com.matrixcare.service.VitalStatsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/vitals/stats")
+@CrossOrigin(origins = "http://localhost:3000")
+public class VitalStatsController {
+    
+    @Autowired
+    private VitalStatsService vitalStatsService;
+    
+    // Unit-wide vital signs statistics over a window such as 24h or 7d
+    @GetMapping("/unit/{unit}")
+    public ResponseEntity<Map<String, Object>> getUnitStats(
+            @PathVariable String unit,
+            @RequestParam(defaultValue = "24h") String window) {
+        try {
+            Map<String, Object> stats = vitalStatsService.getUnitStats(unit, VitalStatsService.parseWindow(window));
+            return ResponseEntity.ok(stats);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    // Rebuild hourly rollups from raw entries for the last N days
+    @PostMapping("/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuild(@RequestParam(defaultValue = "7") int days) {
+        try {
+            if (days < 1 || days > VitalStatsService.MAX_REBUILD_DAYS) {
+                throw new IllegalArgumentException("days must be between 1 and " + VitalStatsService.MAX_REBUILD_DAYS);
+            }
+            Map<String, Object> result = vitalStatsService.rebuildSince(LocalDateTime.now().minusDays(days));
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.matrixcare.entity;
+
+import jakarta.persistence.*;
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "care_plan_interventions")
+public class CarePlanIntervention {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "care_plan_id", nullable = false)
+    private Long carePlanId;
+
+    @Column(name = "description", nullable = false, length = 500)
+    private String description;
+
+    @Column(name = "frequency", length = 50)
+    private String frequency;
+
+    // Null for one-time interventions
+    @Column(name = "interval_minutes")
+    private Integer intervalMinutes;
+
+    @Column(name = "next_due_at")
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime nextDueAt;
+
+    @Column(name = "is_active")
+    private Boolean isActive = true;
+
+    @Column(name = "created_at")
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime updatedAt;
+
+    // Constructors
+    public CarePlanIntervention() {}
+
+    public CarePlanIntervention(Long carePlanId, String description, String frequency, Integer intervalMinutes,
+                                LocalDateTime nextDueAt) {
+        this.carePlanId = carePlanId;
+        this.description = description;
+        this.frequency = frequency;
+        this.intervalMinutes = intervalMinutes;
+        this.nextDueAt = nextDueAt;
+    }
+
+    // Lifecycle methods
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = LocalDateTime.now();
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getCarePlanId() { return carePlanId; }
+    public void setCarePlanId(Long carePlanId) { this.carePlanId = carePlanId; }
+
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+
+    public String getFrequency() { return frequency; }
+    public void setFrequency(String frequency) { this.frequency = frequency; }
+
+    public Integer getIntervalMinutes() { return intervalMinutes; }
+    public void setIntervalMinutes(Integer intervalMinutes) { this.intervalMinutes = intervalMinutes; }
+
+    public LocalDateTime getNextDueAt() { return nextDueAt; }
+    public void setNextDueAt(LocalDateTime nextDueAt) { this.nextDueAt = nextDueAt; }
+
+    public Boolean getIsActive() { return isActive; }
+    public void setIsActive(Boolean isActive) { this.isActive = isActive; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
@@ -0,0 +1,79 @@
+package com.matrixcare.entity;
+
+import jakarta.persistence.*;
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.time.LocalDate;
+
+@Entity
+@Table(name = "census_daily")
+public class CensusDaily {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "census_date", nullable = false)
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate censusDate;
+
+    @Column(name = "unit", nullable = false)
+    private String unit;
+
+    // Patients present at the end of the day
+    @Column(name = "census", nullable = false)
+    private Integer census = 0;
+
+    @Column(name = "admissions", nullable = false)
+    private Integer admissions = 0;
+
+    @Column(name = "discharges", nullable = false)
+    private Integer discharges = 0;
+
+    @Column(name = "transfers_in", nullable = false)
+    private Integer transfersIn = 0;
+
+    @Column(name = "transfers_out", nullable = false)
+    private Integer transfersOut = 0;
+
+    // Total length of stay, in days, of the patients discharged that day
+    @Column(name = "los_days", nullable = false)
+    private Long losDays = 0L;
+
+    // Constructors
+    public CensusDaily() {}
+
+    public CensusDaily(LocalDate censusDate, String unit, Integer census) {
+        this.censusDate = censusDate;
+        this.unit = unit;
+        this.census = census;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public LocalDate getCensusDate() { return censusDate; }
+    public void setCensusDate(LocalDate censusDate) { this.censusDate = censusDate; }
+
+    public String getUnit() { return unit; }
+    public void setUnit(String unit) { this.unit = unit; }
+
+    public Integer getCensus() { return census; }
+    public void setCensus(Integer census) { this.census = census; }
+
+    public Integer getAdmissions() { return admissions; }
+    public void setAdmissions(Integer admissions) { this.admissions = admissions; }
+
+    public Integer getDischarges() { return discharges; }
+    public void setDischarges(Integer discharges) { this.discharges = discharges; }
+
+    public Integer getTransfersIn() { return transfersIn; }
+    public void setTransfersIn(Integer transfersIn) { this.transfersIn = transfersIn; }
+
+    public Integer getTransfersOut() { return transfersOut; }
+    public void setTransfersOut(Integer transfersOut) { this.transfersOut = transfersOut; }
+
+    public Long getLosDays() { return losDays; }
+    public void setLosDays(Long losDays) { this.losDays = losDays; }
+}
@@ -0,0 +1,146 @@
+package com.matrixcare.entity;
+
+import jakarta.persistence.*;
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "incident_reports")
+public class IncidentReport {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "patient_id")
+    private Long patientId;
+
+    @Column(name = "reporting_nurse_id", nullable = false)
+    private Long reportingNurseId;
+
+    @Column(name = "incident_date", nullable = false)
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime incidentDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "incident_type", nullable = false)
+    private IncidentType incidentType;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "severity", nullable = false)
+    private Severity severity;
+
+    @Column(name = "location", length = 100)
+    private String location;
+
+    // Unit the incident is counted against in the rollups
+    @Column(name = "unit", length = 50)
+    private String unit;
+
+    @Column(name = "description", nullable = false, columnDefinition = "TEXT")
+    private String description;
+
+    @Column(name = "immediate_actions", columnDefinition = "TEXT")
+    private String immediateActions;
+
+    @Column(name = "physician_notified")
+    private Boolean physicianNotified = false;
+
+    @Column(name = "family_notified")
+    private Boolean familyNotified = false;
+
+    @Column(name = "follow_up_required")
+    private Boolean followUpRequired = false;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status")
+    private Status status = Status.open;
+
+    @Column(name = "created_at")
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime updatedAt;
+
+    // Constructors
+    public IncidentReport() {}
+
+    // Lifecycle methods
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = LocalDateTime.now();
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getPatientId() { return patientId; }
+    public void setPatientId(Long patientId) { this.patientId = patientId; }
+
+    public Long getReportingNurseId() { return reportingNurseId; }
+    public void setReportingNurseId(Long reportingNurseId) { this.reportingNurseId = reportingNurseId; }
+
+    public LocalDateTime getIncidentDate() { return incidentDate; }
+    public void setIncidentDate(LocalDateTime incidentDate) { this.incidentDate = incidentDate; }
+
+    public IncidentType getIncidentType() { return incidentType; }
+    public void setIncidentType(IncidentType incidentType) { this.incidentType = incidentType; }
+
+    public Severity getSeverity() { return severity; }
+    public void setSeverity(Severity severity) { this.severity = severity; }
+
+    public String getLocation() { return location; }
+    public void setLocation(String location) { this.location = location; }
+
+    public String getUnit() { return unit; }
+    public void setUnit(String unit) { this.unit = unit; }
+
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+
+    public String getImmediateActions() { return immediateActions; }
+    public void setImmediateActions(String immediateActions) { this.immediateActions = immediateActions; }
+
+    public Boolean getPhysicianNotified() { return physicianNotified; }
+    public void setPhysicianNotified(Boolean physicianNotified) { this.physicianNotified = physicianNotified; }
+
+    public Boolean getFamilyNotified() { return familyNotified; }
+    public void setFamilyNotified(Boolean familyNotified) { this.familyNotified = familyNotified; }
+
+    public Boolean getFollowUpRequired() { return followUpRequired; }
+    public void setFollowUpRequired(Boolean followUpRequired) { this.followUpRequired = followUpRequired; }
+
+    public Status getStatus() { return status; }
+    public void setStatus(Status status) { this.status = status; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+
+    // Incident type enum
+    public enum IncidentType {
+        fall, medication_error, equipment_failure, patient_injury, near_miss, other
+    }
+
+    // Severity enum, least severe first
+    public enum Severity {
+        minor, moderate, major, critical
+    }
+
+    // Status enum
+    public enum Status {
+        open, under_review, closed
+    }
+}
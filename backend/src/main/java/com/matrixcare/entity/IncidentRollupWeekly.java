@@ -0,0 +1,56 @@
+package com.matrixcare.entity;
+
+import jakarta.persistence.*;
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.time.LocalDate;
+
+@Entity
+@Table(name = "incident_rollup_weekly")
+public class IncidentRollupWeekly {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Monday of the week
+    @Column(name = "week_start", nullable = false)
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate weekStart;
+
+    @Column(name = "unit", nullable = false)
+    private String unit;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "incident_type", nullable = false)
+    private IncidentReport.IncidentType incidentType;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "severity", nullable = false)
+    private IncidentReport.Severity severity;
+
+    @Column(name = "incident_count", nullable = false)
+    private Integer incidentCount = 0;
+
+    // Constructors
+    public IncidentRollupWeekly() {}
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public LocalDate getWeekStart() { return weekStart; }
+    public void setWeekStart(LocalDate weekStart) { this.weekStart = weekStart; }
+
+    public String getUnit() { return unit; }
+    public void setUnit(String unit) { this.unit = unit; }
+
+    public IncidentReport.IncidentType getIncidentType() { return incidentType; }
+    public void setIncidentType(IncidentReport.IncidentType incidentType) { this.incidentType = incidentType; }
+
+    public IncidentReport.Severity getSeverity() { return severity; }
+    public void setSeverity(IncidentReport.Severity severity) { this.severity = severity; }
+
+    public Integer getIncidentCount() { return incidentCount; }
+    public void setIncidentCount(Integer incidentCount) { this.incidentCount = incidentCount; }
+}
@@ -0,0 +1,74 @@
+package com.matrixcare.entity;
+
+import jakarta.persistence.*;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "nurse_assignments")
+public class NurseAssignment {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "nurse_id", nullable = false)
+    private Long nurseId;
+
+    @Column(name = "patient_id", nullable = false)
+    private Long patientId;
+
+    @Column(name = "assignment_date", nullable = false)
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate assignmentDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "shift", nullable = false)
+    private Nurse.Shift shift;
+
+    @Column(name = "is_primary_nurse")
+    private Boolean isPrimaryNurse = false;
+
+    @Column(name = "created_at")
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime createdAt;
+
+    // Constructors
+    public NurseAssignment() {}
+
+    public NurseAssignment(Long nurseId, Long patientId, LocalDate assignmentDate, Nurse.Shift shift) {
+        this.nurseId = nurseId;
+        this.patientId = patientId;
+        this.assignmentDate = assignmentDate;
+        this.shift = shift;
+    }
+
+    // Lifecycle methods
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getNurseId() { return nurseId; }
+    public void setNurseId(Long nurseId) { this.nurseId = nurseId; }
+
+    public Long getPatientId() { return patientId; }
+    public void setPatientId(Long patientId) { this.patientId = patientId; }
+
+    public LocalDate getAssignmentDate() { return assignmentDate; }
+    public void setAssignmentDate(LocalDate assignmentDate) { this.assignmentDate = assignmentDate; }
+
+    public Nurse.Shift getShift() { return shift; }
+    public void setShift(Nurse.Shift shift) { this.shift = shift; }
+
+    public Boolean getIsPrimaryNurse() { return isPrimaryNurse; }
+    public void setIsPrimaryNurse(Boolean isPrimaryNurse) { this.isPrimaryNurse = isPrimaryNurse; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
@@ -0,0 +1,158 @@
+package com.matrixcare.entity;
+
+import jakarta.persistence.*;
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "nursing_assessments")
+public class NursingAssessment {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "patient_id", nullable = false)
+    private Long patientId;
+
+    @Column(name = "nurse_id", nullable = false)
+    private Long nurseId;
+
+    @Column(name = "assessment_date", nullable = false)
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime assessmentDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "shift", nullable = false)
+    private Nurse.Shift shift;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "general_condition")
+    private GeneralCondition generalCondition;
+
+    @Column(name = "pain_level")
+    private Integer painLevel;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "mobility_status")
+    private MobilityStatus mobilityStatus;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "mental_status")
+    private MentalStatus mentalStatus;
+
+    @Column(name = "skin_integrity", columnDefinition = "TEXT")
+    private String skinIntegrity;
+
+    @Column(name = "respiratory_notes", columnDefinition = "TEXT")
+    private String respiratoryNotes;
+
+    @Column(name = "cardiovascular_notes", columnDefinition = "TEXT")
+    private String cardiovascularNotes;
+
+    @Column(name = "gastrointestinal_notes", columnDefinition = "TEXT")
+    private String gastrointestinalNotes;
+
+    @Column(name = "genitourinary_notes", columnDefinition = "TEXT")
+    private String genitourinaryNotes;
+
+    @Column(name = "neurological_notes", columnDefinition = "TEXT")
+    private String neurologicalNotes;
+
+    @Column(name = "additional_notes", columnDefinition = "TEXT")
+    private String additionalNotes;
+
+    @Column(name = "created_at")
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime updatedAt;
+
+    // Constructors
+    public NursingAssessment() {}
+
+    // Lifecycle methods
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = LocalDateTime.now();
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getPatientId() { return patientId; }
+    public void setPatientId(Long patientId) { this.patientId = patientId; }
+
+    public Long getNurseId() { return nurseId; }
+    public void setNurseId(Long nurseId) { this.nurseId = nurseId; }
+
+    public LocalDateTime getAssessmentDate() { return assessmentDate; }
+    public void setAssessmentDate(LocalDateTime assessmentDate) { this.assessmentDate = assessmentDate; }
+
+    public Nurse.Shift getShift() { return shift; }
+    public void setShift(Nurse.Shift shift) { this.shift = shift; }
+
+    public GeneralCondition getGeneralCondition() { return generalCondition; }
+    public void setGeneralCondition(GeneralCondition generalCondition) { this.generalCondition = generalCondition; }
+
+    public Integer getPainLevel() { return painLevel; }
+    public void setPainLevel(Integer painLevel) { this.painLevel = painLevel; }
+
+    public MobilityStatus getMobilityStatus() { return mobilityStatus; }
+    public void setMobilityStatus(MobilityStatus mobilityStatus) { this.mobilityStatus = mobilityStatus; }
+
+    public MentalStatus getMentalStatus() { return mentalStatus; }
+    public void setMentalStatus(MentalStatus mentalStatus) { this.mentalStatus = mentalStatus; }
+
+    public String getSkinIntegrity() { return skinIntegrity; }
+    public void setSkinIntegrity(String skinIntegrity) { this.skinIntegrity = skinIntegrity; }
+
+    public String getRespiratoryNotes() { return respiratoryNotes; }
+    public void setRespiratoryNotes(String respiratoryNotes) { this.respiratoryNotes = respiratoryNotes; }
+
+    public String getCardiovascularNotes() { return cardiovascularNotes; }
+    public void setCardiovascularNotes(String cardiovascularNotes) { this.cardiovascularNotes = cardiovascularNotes; }
+
+    public String getGastrointestinalNotes() { return gastrointestinalNotes; }
+    public void setGastrointestinalNotes(String gastrointestinalNotes) { this.gastrointestinalNotes = gastrointestinalNotes; }
+
+    public String getGenitourinaryNotes() { return genitourinaryNotes; }
+    public void setGenitourinaryNotes(String genitourinaryNotes) { this.genitourinaryNotes = genitourinaryNotes; }
+
+    public String getNeurologicalNotes() { return neurologicalNotes; }
+    public void setNeurologicalNotes(String neurologicalNotes) { this.neurologicalNotes = neurologicalNotes; }
+
+    public String getAdditionalNotes() { return additionalNotes; }
+    public void setAdditionalNotes(String additionalNotes) { this.additionalNotes = additionalNotes; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+
+    // General condition enum
+    public enum GeneralCondition {
+        stable, improving, declining, critical
+    }
+
+    // Mobility status enum
+    public enum MobilityStatus {
+        independent, assistance, bedbound, wheelchair
+    }
+
+    // Mental status enum
+    public enum MentalStatus {
+        alert, confused, lethargic, unresponsive
+    }
+}
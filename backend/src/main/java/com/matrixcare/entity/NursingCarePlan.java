@@ -0,0 +1,130 @@
+package com.matrixcare.entity;
+
+import jakarta.persistence.*;
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "nursing_care_plans")
+public class NursingCarePlan {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "patient_id", nullable = false)
+    private Long patientId;
+
+    @Column(name = "nurse_id", nullable = false)
+    private Long nurseId;
+
+    @Column(name = "nursing_diagnosis", nullable = false, columnDefinition = "TEXT")
+    private String nursingDiagnosis;
+
+    @Column(name = "goals", nullable = false, columnDefinition = "TEXT")
+    private String goals;
+
+    // Readable list of the interventions; the schedulable ones live in care_plan_interventions
+    @Column(name = "interventions", nullable = false, columnDefinition = "TEXT")
+    private String interventions;
+
+    @Column(name = "expected_outcomes", columnDefinition = "TEXT")
+    private String expectedOutcomes;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "priority_level")
+    private PriorityLevel priorityLevel = PriorityLevel.medium;
+
+    @Column(name = "start_date", nullable = false)
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate startDate;
+
+    @Column(name = "target_date")
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate targetDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status")
+    private Status status = Status.active;
+
+    @Column(name = "evaluation_notes", columnDefinition = "TEXT")
+    private String evaluationNotes;
+
+    @Column(name = "created_at")
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime updatedAt;
+
+    // Constructors
+    public NursingCarePlan() {}
+
+    // Lifecycle methods
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = LocalDateTime.now();
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getPatientId() { return patientId; }
+    public void setPatientId(Long patientId) { this.patientId = patientId; }
+
+    public Long getNurseId() { return nurseId; }
+    public void setNurseId(Long nurseId) { this.nurseId = nurseId; }
+
+    public String getNursingDiagnosis() { return nursingDiagnosis; }
+    public void setNursingDiagnosis(String nursingDiagnosis) { this.nursingDiagnosis = nursingDiagnosis; }
+
+    public String getGoals() { return goals; }
+    public void setGoals(String goals) { this.goals = goals; }
+
+    public String getInterventions() { return interventions; }
+    public void setInterventions(String interventions) { this.interventions = interventions; }
+
+    public String getExpectedOutcomes() { return expectedOutcomes; }
+    public void setExpectedOutcomes(String expectedOutcomes) { this.expectedOutcomes = expectedOutcomes; }
+
+    public PriorityLevel getPriorityLevel() { return priorityLevel; }
+    public void setPriorityLevel(PriorityLevel priorityLevel) { this.priorityLevel = priorityLevel; }
+
+    public LocalDate getStartDate() { return startDate; }
+    public void setStartDate(LocalDate startDate) { this.startDate = startDate; }
+
+    public LocalDate getTargetDate() { return targetDate; }
+    public void setTargetDate(LocalDate targetDate) { this.targetDate = targetDate; }
+
+    public Status getStatus() { return status; }
+    public void setStatus(Status status) { this.status = status; }
+
+    public String getEvaluationNotes() { return evaluationNotes; }
+    public void setEvaluationNotes(String evaluationNotes) { this.evaluationNotes = evaluationNotes; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+
+    // Priority enum, most urgent first
+    public enum PriorityLevel {
+        high, medium, low
+    }
+
+    // Status enum
+    public enum Status {
+        active, met, partially_met, not_met, discontinued
+    }
+}
@@ -7,9 +7,11 @@ import java.time.LocalDateTime;
 import java.util.List;
 import java.util.ArrayList;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.hibernate.annotations.DynamicUpdate;
 
 @Entity
 @Table(name = "patients")
+@DynamicUpdate
 public class Patient {
     
     @Id
@@ -38,6 +40,9 @@ public class Patient {
     @Column(name = "bed_number")
     private String bedNumber;
     
+    @Column(name = "unit")
+    private String unit;
+    
     @Column(name = "admission_date")
     @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
     private LocalDateTime admissionDate;
@@ -69,6 +74,11 @@ public class Patient {
     @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
     private LocalDateTime updatedAt;
     
+    // Bumped on every update; clients send it back so concurrent edits are rejected instead of lost
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+    
     // Relationships
     @OneToMany(mappedBy = "patient", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     @JsonIgnore
@@ -129,6 +139,9 @@ public class Patient {
     public String getBedNumber() { return bedNumber; }
     public void setBedNumber(String bedNumber) { this.bedNumber = bedNumber; }
     
+    public String getUnit() { return unit; }
+    public void setUnit(String unit) { this.unit = unit; }
+    
     public LocalDateTime getAdmissionDate() { return admissionDate; }
     public void setAdmissionDate(LocalDateTime admissionDate) { this.admissionDate = admissionDate; }
     
@@ -156,6 +169,9 @@ public class Patient {
     public LocalDateTime getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
     
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+    
     public List<PatientAllergy> getAllergies() { return allergies; }
     public void setAllergies(List<PatientAllergy> allergies) { this.allergies = allergies; }
     
@@ -189,6 +205,7 @@ public class Patient {
                 ", dateOfBirth=" + dateOfBirth +
                 ", gender=" + gender +
                 ", roomNumber='" + roomNumber + '\'' +
+                ", unit='" + unit + '\'' +
                 ", primaryPhysician='" + primaryPhysician + '\'' +
                 ", isActive=" + isActive +
                 '}';
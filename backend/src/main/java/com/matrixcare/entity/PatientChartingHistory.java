@@ -0,0 +1,73 @@
+package com.matrixcare.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "patient_charting_history")
+public class PatientChartingHistory {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "charting_id", nullable = false)
+    private Long chartingId;
+    
+    @Column(name = "patient_id", nullable = false)
+    private Long patientId;
+    
+    @Column(name = "version", nullable = false)
+    private Integer version;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entry_type", nullable = false)
+    private EntryType entryType;
+    
+    @Column(name = "payload", columnDefinition = "TEXT")
+    private String payload; // JSON: full state for snapshots, changed parts for deltas
+    
+    @Column(name = "recorded_at", nullable = false)
+    private LocalDateTime recordedAt;
+    
+    // Constructors
+    public PatientChartingHistory() {}
+    
+    public PatientChartingHistory(Long chartingId, Long patientId, Integer version, EntryType entryType,
+                                  String payload, LocalDateTime recordedAt) {
+        this.chartingId = chartingId;
+        this.patientId = patientId;
+        this.version = version;
+        this.entryType = entryType;
+        this.payload = payload;
+        this.recordedAt = recordedAt;
+    }
+    
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public Long getChartingId() { return chartingId; }
+    public void setChartingId(Long chartingId) { this.chartingId = chartingId; }
+    
+    public Long getPatientId() { return patientId; }
+    public void setPatientId(Long patientId) { this.patientId = patientId; }
+    
+    public Integer getVersion() { return version; }
+    public void setVersion(Integer version) { this.version = version; }
+    
+    public EntryType getEntryType() { return entryType; }
+    public void setEntryType(EntryType entryType) { this.entryType = entryType; }
+    
+    public String getPayload() { return payload; }
+    public void setPayload(String payload) { this.payload = payload; }
+    
+    public LocalDateTime getRecordedAt() { return recordedAt; }
+    public void setRecordedAt(LocalDateTime recordedAt) { this.recordedAt = recordedAt; }
+    
+    // Entry type enum
+    public enum EntryType {
+        SNAPSHOT, DELTA, DELETED
+    }
+}
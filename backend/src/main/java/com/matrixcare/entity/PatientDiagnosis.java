@@ -22,6 +22,10 @@ public class PatientDiagnosis {
     @Column(name = "diagnosis_code")
     private String diagnosisCode;
     
+    // Canonical ICD-10 code resolved from diagnosisCode on save; null when not in the code set
+    @Column(name = "icd10_code", length = 10)
+    private String icd10Code;
+    
     @Column(name = "diagnosis_description", columnDefinition = "TEXT", nullable = false)
     private String diagnosisDescription;
     
@@ -79,6 +83,9 @@ public class PatientDiagnosis {
     public String getDiagnosisCode() { return diagnosisCode; }
     public void setDiagnosisCode(String diagnosisCode) { this.diagnosisCode = diagnosisCode; }
     
+    public String getIcd10Code() { return icd10Code; }
+    public void setIcd10Code(String icd10Code) { this.icd10Code = icd10Code; }
+    
     public String getDiagnosisDescription() { return diagnosisDescription; }
     public void setDiagnosisDescription(String diagnosisDescription) { this.diagnosisDescription = diagnosisDescription; }
     
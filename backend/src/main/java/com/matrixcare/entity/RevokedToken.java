@@ -0,0 +1,54 @@
+package com.matrixcare.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "revoked_tokens")
+public class RevokedToken {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    // Token jti, or "user:<id>" to revoke every token the user was issued before revokedAt
+    @Column(name = "token_key", nullable = false, unique = true, length = 64)
+    private String tokenKey;
+    
+    @Column(name = "user_id")
+    private Long userId;
+    
+    @Column(name = "revoked_at", nullable = false)
+    private LocalDateTime revokedAt;
+    
+    // When the revoked token would have expired anyway; the entry can be forgotten after this
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+    
+    // Constructors
+    public RevokedToken() {}
+    
+    public RevokedToken(String tokenKey, Long userId, LocalDateTime revokedAt, LocalDateTime expiresAt) {
+        this.tokenKey = tokenKey;
+        this.userId = userId;
+        this.revokedAt = revokedAt;
+        this.expiresAt = expiresAt;
+    }
+    
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public String getTokenKey() { return tokenKey; }
+    public void setTokenKey(String tokenKey) { this.tokenKey = tokenKey; }
+    
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+    
+    public LocalDateTime getRevokedAt() { return revokedAt; }
+    public void setRevokedAt(LocalDateTime revokedAt) { this.revokedAt = revokedAt; }
+    
+    public LocalDateTime getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(LocalDateTime expiresAt) { this.expiresAt = expiresAt; }
+}
@@ -0,0 +1,122 @@
+package com.matrixcare.entity;
+
+import jakarta.persistence.*;
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "shift_reports")
+public class ShiftReport {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "patient_id", nullable = false)
+    private Long patientId;
+
+    @Column(name = "outgoing_nurse_id", nullable = false)
+    private Long outgoingNurseId;
+
+    @Column(name = "incoming_nurse_id")
+    private Long incomingNurseId;
+
+    @Column(name = "shift_date", nullable = false)
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate shiftDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "shift_type", nullable = false)
+    private ShiftType shiftType;
+
+    @Column(name = "patient_condition", columnDefinition = "TEXT")
+    private String patientCondition;
+
+    @Column(name = "significant_events", columnDefinition = "TEXT")
+    private String significantEvents;
+
+    @Column(name = "pending_tasks", columnDefinition = "TEXT")
+    private String pendingTasks;
+
+    @Column(name = "medication_notes", columnDefinition = "TEXT")
+    private String medicationNotes;
+
+    @Column(name = "family_communication", columnDefinition = "TEXT")
+    private String familyCommunication;
+
+    @Column(name = "physician_orders", columnDefinition = "TEXT")
+    private String physicianOrders;
+
+    @Column(name = "priority_concerns", columnDefinition = "TEXT")
+    private String priorityConcerns;
+
+    @Column(name = "created_at")
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime createdAt;
+
+    // Constructors
+    public ShiftReport() {}
+
+    public ShiftReport(Long patientId, Long outgoingNurseId, LocalDate shiftDate, ShiftType shiftType) {
+        this.patientId = patientId;
+        this.outgoingNurseId = outgoingNurseId;
+        this.shiftDate = shiftDate;
+        this.shiftType = shiftType;
+    }
+
+    // Lifecycle methods
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getPatientId() { return patientId; }
+    public void setPatientId(Long patientId) { this.patientId = patientId; }
+
+    public Long getOutgoingNurseId() { return outgoingNurseId; }
+    public void setOutgoingNurseId(Long outgoingNurseId) { this.outgoingNurseId = outgoingNurseId; }
+
+    public Long getIncomingNurseId() { return incomingNurseId; }
+    public void setIncomingNurseId(Long incomingNurseId) { this.incomingNurseId = incomingNurseId; }
+
+    public LocalDate getShiftDate() { return shiftDate; }
+    public void setShiftDate(LocalDate shiftDate) { this.shiftDate = shiftDate; }
+
+    public ShiftType getShiftType() { return shiftType; }
+    public void setShiftType(ShiftType shiftType) { this.shiftType = shiftType; }
+
+    public String getPatientCondition() { return patientCondition; }
+    public void setPatientCondition(String patientCondition) { this.patientCondition = patientCondition; }
+
+    public String getSignificantEvents() { return significantEvents; }
+    public void setSignificantEvents(String significantEvents) { this.significantEvents = significantEvents; }
+
+    public String getPendingTasks() { return pendingTasks; }
+    public void setPendingTasks(String pendingTasks) { this.pendingTasks = pendingTasks; }
+
+    public String getMedicationNotes() { return medicationNotes; }
+    public void setMedicationNotes(String medicationNotes) { this.medicationNotes = medicationNotes; }
+
+    public String getFamilyCommunication() { return familyCommunication; }
+    public void setFamilyCommunication(String familyCommunication) { this.familyCommunication = familyCommunication; }
+
+    public String getPhysicianOrders() { return physicianOrders; }
+    public void setPhysicianOrders(String physicianOrders) { this.physicianOrders = physicianOrders; }
+
+    public String getPriorityConcerns() { return priorityConcerns; }
+    public void setPriorityConcerns(String priorityConcerns) { this.priorityConcerns = priorityConcerns; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    // Shift transition enum
+    public enum ShiftType {
+        day_to_night, night_to_day, day_to_swing, swing_to_night
+    }
+}
@@ -0,0 +1,106 @@
+package com.matrixcare.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "vital_alert_thresholds")
+public class VitalAlertThreshold {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "unit")
+    private String unit; // set for unit defaults
+    
+    @Column(name = "patient_id")
+    private Long patientId; // set for per-patient overrides
+    
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    @Column(name = "metric", nullable = false)
+    private Metric metric;
+    
+    @Column(name = "low_value")
+    private Double lowValue;
+    
+    @Column(name = "high_value")
+    private Double highValue;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+    
+    // Constructors
+    public VitalAlertThreshold() {
+        this.createdAt = LocalDateTime.now();
+        this.updatedAt = LocalDateTime.now();
+    }
+    
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public String getUnit() { return unit; }
+    public void setUnit(String unit) { this.unit = unit; }
+    
+    public Long getPatientId() { return patientId; }
+    public void setPatientId(Long patientId) { this.patientId = patientId; }
+    
+    public Metric getMetric() { return metric; }
+    public void setMetric(Metric metric) { this.metric = metric; }
+    
+    public Double getLowValue() { return lowValue; }
+    public void setLowValue(Double lowValue) { this.lowValue = lowValue; }
+    
+    public Double getHighValue() { return highValue; }
+    public void setHighValue(Double highValue) { this.highValue = highValue; }
+    
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+    
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+    
+    @PreUpdate
+    public void preUpdate() {
+        this.updatedAt = LocalDateTime.now();
+    }
+    
+    // Vital sign measured by a threshold (temperature in Fahrenheit)
+    public enum Metric {
+        SYSTOLIC, DIASTOLIC, PULSE, RESPIRATION, OXYGEN_SATURATION, TEMPERATURE, PAIN_LEVEL;
+        
+        // Reading of this metric in an entry, NaN when not recorded
+        public double readingOf(VitalSignsEntry entry) {
+            switch (this) {
+                case SYSTOLIC:
+                    return entry.getBloodPressureSystolic() != null ? entry.getBloodPressureSystolic() : Double.NaN;
+                case DIASTOLIC:
+                    return entry.getBloodPressureDiastolic() != null ? entry.getBloodPressureDiastolic() : Double.NaN;
+                case PULSE:
+                    return entry.getPulse() != null ? entry.getPulse() : Double.NaN;
+                case RESPIRATION:
+                    return entry.getRespiration() != null ? entry.getRespiration() : Double.NaN;
+                case OXYGEN_SATURATION:
+                    return entry.getOxygenSaturation() != null ? entry.getOxygenSaturation() : Double.NaN;
+                case TEMPERATURE:
+                    if (entry.getTemperature() == null) {
+                        return Double.NaN;
+                    }
+                    return "C".equalsIgnoreCase(entry.getTemperatureUnit())
+                            ? entry.getTemperature() * 9 / 5 + 32
+                            : entry.getTemperature();
+                case PAIN_LEVEL:
+                    return entry.getPainLevel() != null ? entry.getPainLevel() : Double.NaN;
+                default:
+                    return Double.NaN;
+            }
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.matrixcare.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "vital_signs_hourly_stats", uniqueConstraints = @UniqueConstraint(
+        name = "uk_vital_stats_patient_hour", columnNames = {"patient_id", "hour_start", "metric"}))
+public class VitalSignsHourlyStat {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "patient_id", nullable = false)
+    private Long patientId;
+    
+    @Column(name = "hour_start", nullable = false)
+    private LocalDateTime hourStart;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "metric", nullable = false)
+    private VitalAlertThreshold.Metric metric;
+    
+    @Column(name = "sample_count", nullable = false)
+    private Long sampleCount = 0L;
+    
+    @Column(name = "min_value")
+    private Double minValue;
+    
+    @Column(name = "max_value")
+    private Double maxValue;
+    
+    @Column(name = "sum_value", nullable = false)
+    private Double sumValue = 0.0;
+    
+    @Lob
+    @Column(name = "sketch", columnDefinition = "BLOB")
+    private byte[] sketch; // serialized VitalsQuantileSketch
+    
+    // Constructors
+    public VitalSignsHourlyStat() {}
+    
+    public VitalSignsHourlyStat(Long patientId, LocalDateTime hourStart, VitalAlertThreshold.Metric metric) {
+        this.patientId = patientId;
+        this.hourStart = hourStart;
+        this.metric = metric;
+    }
+    
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public Long getPatientId() { return patientId; }
+    public void setPatientId(Long patientId) { this.patientId = patientId; }
+    
+    public LocalDateTime getHourStart() { return hourStart; }
+    public void setHourStart(LocalDateTime hourStart) { this.hourStart = hourStart; }
+    
+    public VitalAlertThreshold.Metric getMetric() { return metric; }
+    public void setMetric(VitalAlertThreshold.Metric metric) { this.metric = metric; }
+    
+    public Long getSampleCount() { return sampleCount; }
+    public void setSampleCount(Long sampleCount) { this.sampleCount = sampleCount; }
+    
+    public Double getMinValue() { return minValue; }
+    public void setMinValue(Double minValue) { this.minValue = minValue; }
+    
+    public Double getMaxValue() { return maxValue; }
+    public void setMaxValue(Double maxValue) { this.maxValue = maxValue; }
+    
+    public Double getSumValue() { return sumValue; }
+    public void setSumValue(Double sumValue) { this.sumValue = sumValue; }
+    
+    public byte[] getSketch() { return sketch; }
+    public void setSketch(byte[] sketch) { this.sketch = sketch; }
+}
@@ -0,0 +1,26 @@
+package com.matrixcare.jfr;
+
+import jdk.jfr.*;
+
+@Name("com.matrixcare.ChartingJson")
+@Label("Charting JSON")
+@Category({"MatrixCare", "Charting"})
+@Description("Parsing or serializing the item list of a charting category")
+@StackTrace(false)
+@Threshold("1 ms")
+public class ChartingJsonEvent extends Event {
+
+    @Label("Patient Id")
+    public long patientId;
+
+    @Label("Operation")
+    @Description("parse or serialize")
+    public String operation;
+
+    @Label("Items")
+    public int items;
+
+    @Label("Characters")
+    @Description("Length of the JSON text")
+    public int characters;
+}
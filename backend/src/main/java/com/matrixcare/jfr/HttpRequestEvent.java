@@ -0,0 +1,26 @@
+package com.matrixcare.jfr;
+
+import jdk.jfr.*;
+
+// One per API request; the offline summary groups every other MatrixCare event by the request it ran in
+@Name("com.matrixcare.HttpRequest")
+@Label("HTTP Request")
+@Category({"MatrixCare", "Web"})
+@Description("An API request, from the JWT filter to the response")
+@StackTrace(false)
+@Threshold("0 ms")
+public class HttpRequestEvent extends Event {
+
+    @Label("Method")
+    public String method;
+
+    @Label("Endpoint")
+    @Description("Matched route pattern, e.g. /patients/{id}/vitals; the raw URI when no route matched")
+    public String endpoint;
+
+    @Label("Status")
+    public int status;
+
+    @Label("Authenticated")
+    public boolean authenticated;
+}
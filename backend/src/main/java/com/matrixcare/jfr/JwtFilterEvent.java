@@ -0,0 +1,18 @@
+package com.matrixcare.jfr;
+
+import jdk.jfr.*;
+
+@Name("com.matrixcare.JwtFilter")
+@Label("JWT Filter")
+@Category({"MatrixCare", "Security"})
+@Description("Token extraction and validation in the JWT authentication filter")
+@StackTrace(false)
+@Threshold("1 ms")
+public class JwtFilterEvent extends Event {
+
+    @Label("Token Present")
+    public boolean tokenPresent;
+
+    @Label("Authenticated")
+    public boolean authenticated;
+}
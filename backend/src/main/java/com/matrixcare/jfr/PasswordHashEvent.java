@@ -0,0 +1,25 @@
+package com.matrixcare.jfr;
+
+import jdk.jfr.*;
+
+// Begins when the caller submits to the BCrypt pool, so the duration includes the queue wait
+@Name("com.matrixcare.PasswordHash")
+@Label("Password Hash")
+@Category({"MatrixCare", "Security"})
+@Description("BCrypt encode or match, including the wait for a hashing thread")
+@StackTrace(false)
+@Threshold("0 ms")
+public class PasswordHashEvent extends Event {
+
+    @Label("Operation")
+    @Description("encode or matches")
+    public String operation;
+
+    @Label("Queue Time")
+    @Timespan(Timespan.NANOSECONDS)
+    public long queueTime;
+
+    @Label("Outcome")
+    @Description("ok, rejected, timeout or failed")
+    public String outcome;
+}
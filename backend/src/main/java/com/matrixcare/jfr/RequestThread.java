@@ -0,0 +1,31 @@
+package com.matrixcare.jfr;
+
+import java.util.function.Supplier;
+
+// Java thread id of the request a piece of work runs for; pool threads that run reads for a request carry it
+public final class RequestThread {
+
+    private static final ThreadLocal<Long> CARRIED = new ThreadLocal<>();
+
+    private RequestThread() {
+    }
+
+    // The carried request thread, or the current thread when the work runs on the request thread itself
+    public static long id() {
+        Long carried = CARRIED.get();
+        return carried != null ? carried : Thread.currentThread().getId();
+    }
+
+    // Wrap a task submitted from a request thread so events it records name that request's thread
+    public static <T> Supplier<T> carry(Supplier<T> task) {
+        long requestThread = id();
+        return () -> {
+            CARRIED.set(requestThread);
+            try {
+                return task.get();
+            } finally {
+                CARRIED.remove();
+            }
+        };
+    }
+}
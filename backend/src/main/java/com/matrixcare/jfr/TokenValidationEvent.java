@@ -0,0 +1,15 @@
+package com.matrixcare.jfr;
+
+import jdk.jfr.*;
+
+@Name("com.matrixcare.TokenValidation")
+@Label("Token Validation")
+@Category({"MatrixCare", "Security"})
+@Description("JWT signature and expiry check")
+@StackTrace(false)
+@Threshold("1 ms")
+public class TokenValidationEvent extends Event {
+
+    @Label("Valid")
+    public boolean valid;
+}
@@ -0,0 +1,29 @@
+package com.matrixcare.jfr;
+
+import jdk.jfr.*;
+
+@Name("com.matrixcare.VitalsHistory")
+@Label("Vitals History")
+@Category({"MatrixCare", "Vitals"})
+@Description("Loading a patient's vital signs history")
+@StackTrace(false)
+@Threshold("10 ms")
+public class VitalsHistoryEvent extends Event {
+
+    @Label("Patient Id")
+    public long patientId;
+
+    @Label("Limit")
+    @Description("Requested rows; 0 or less means all")
+    public int limit;
+
+    @Label("Rows Loaded")
+    public int rowsLoaded;
+
+    @Label("Rows Returned")
+    public int rowsReturned;
+
+    @Label("Request Thread")
+    @Description("Java thread id of the request the load ran for; the event thread is a db-read pool thread when reads are offloaded")
+    public long requestThread;
+}
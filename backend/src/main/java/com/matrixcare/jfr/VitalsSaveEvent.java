@@ -0,0 +1,15 @@
+package com.matrixcare.jfr;
+
+import jdk.jfr.*;
+
+@Name("com.matrixcare.VitalsSave")
+@Label("Vitals Save")
+@Category({"MatrixCare", "Vitals"})
+@Description("Storing a vital signs reading with alert evaluation, hourly stats and cohort indexing")
+@StackTrace(false)
+@Threshold("10 ms")
+public class VitalsSaveEvent extends Event {
+
+    @Label("Patient Id")
+    public long patientId;
+}
@@ -0,0 +1,33 @@
+package com.matrixcare.repository;
+
+import com.matrixcare.entity.CarePlanIntervention;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface CarePlanInterventionRepository extends JpaRepository<CarePlanIntervention, Long> {
+
+    List<CarePlanIntervention> findByCarePlanIdOrderById(Long carePlanId);
+
+    List<CarePlanIntervention> findByCarePlanIdInOrderById(Collection<Long> carePlanIds);
+
+    // (interventionId, carePlanId, patientId, unit, roomNumber, firstName, lastName, priorityLevel, description,
+    // intervalMinutes, nextDueAt) of every pending task of active plans of active patients, used by the task queue
+    @Query("SELECT i.id, c.id, p.id, p.unit, p.roomNumber, p.firstName, p.lastName, c.priorityLevel, i.description, " +
+           "i.intervalMinutes, i.nextDueAt FROM CarePlanIntervention i, NursingCarePlan c, Patient p " +
+           "WHERE c.id = i.carePlanId AND p.id = c.patientId AND i.isActive = true AND i.nextDueAt IS NOT NULL " +
+           "AND c.status = com.matrixcare.entity.NursingCarePlan$Status.active AND p.isActive = true")
+    List<Object[]> findPendingTasks();
+
+    // Same columns for a single plan
+    @Query("SELECT i.id, c.id, p.id, p.unit, p.roomNumber, p.firstName, p.lastName, c.priorityLevel, i.description, " +
+           "i.intervalMinutes, i.nextDueAt FROM CarePlanIntervention i, NursingCarePlan c, Patient p " +
+           "WHERE c.id = i.carePlanId AND p.id = c.patientId AND i.isActive = true AND i.nextDueAt IS NOT NULL " +
+           "AND c.id = :carePlanId")
+    List<Object[]> findPendingTasksForPlan(@Param("carePlanId") Long carePlanId);
+}
@@ -0,0 +1,70 @@
+package com.matrixcare.repository;
+
+import com.matrixcare.entity.CensusDaily;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface CensusDailyRepository extends JpaRepository<CensusDaily, Long> {
+
+    // Latest row of a unit on or before a day
+    Optional<CensusDaily> findTopByUnitAndCensusDateLessThanEqualOrderByCensusDateDesc(String unit, LocalDate day);
+
+    @Query("SELECT DISTINCT c.unit FROM CensusDaily c")
+    List<String> findUnits();
+
+    // Create a day's row unless it exists; concurrent callers are harmless
+    @Modifying
+    @Query(value = "INSERT INTO census_daily (census_date, unit, census) VALUES (:day, :unit, :census) " +
+                   "ON DUPLICATE KEY UPDATE census_date = census_date", nativeQuery = true)
+    int insertIfAbsent(@Param("day") LocalDate day, @Param("unit") String unit, @Param("census") int census);
+
+    // Add one day's event counts
+    @Modifying
+    @Query("UPDATE CensusDaily c SET c.admissions = c.admissions + :admissions, c.discharges = c.discharges + :discharges, " +
+           "c.transfersIn = c.transfersIn + :transfersIn, c.transfersOut = c.transfersOut + :transfersOut, " +
+           "c.losDays = c.losDays + :losDays WHERE c.unit = :unit AND c.censusDate = :day")
+    int addEvents(@Param("unit") String unit, @Param("day") LocalDate day, @Param("admissions") int admissions,
+                  @Param("discharges") int discharges, @Param("transfersIn") int transfersIn,
+                  @Param("transfersOut") int transfersOut, @Param("losDays") long losDays);
+
+    // Shift the end-of-day census of every day in a range
+    @Modifying
+    @Query("UPDATE CensusDaily c SET c.census = c.census + :delta WHERE c.unit = :unit " +
+           "AND c.censusDate BETWEEN :from AND :to")
+    int shiftCensus(@Param("unit") String unit, @Param("from") LocalDate from, @Param("to") LocalDate to,
+                    @Param("delta") int delta);
+
+    // Rows with transfers, which only the events recorded at the time know about
+    @Query("SELECT c FROM CensusDaily c WHERE c.censusDate >= :from AND (c.transfersIn > 0 OR c.transfersOut > 0)")
+    List<CensusDaily> findTransfersFrom(@Param("from") LocalDate from);
+
+    @Modifying
+    @Query("DELETE FROM CensusDaily c WHERE c.censusDate >= :from")
+    int deleteFrom(@Param("from") LocalDate from);
+
+    @Query("SELECT c FROM CensusDaily c WHERE c.unit = :unit AND c.censusDate BETWEEN :from AND :to ORDER BY c.censusDate")
+    List<CensusDaily> findByUnitBetween(@Param("unit") String unit, @Param("from") LocalDate from,
+                                        @Param("to") LocalDate to);
+
+    // (date, census, admissions, discharges, transfersIn, transfersOut, losDays) summed over units
+    @Query("SELECT c.censusDate, SUM(c.census), SUM(c.admissions), SUM(c.discharges), SUM(c.transfersIn), " +
+           "SUM(c.transfersOut), SUM(c.losDays) FROM CensusDaily c WHERE c.censusDate BETWEEN :from AND :to " +
+           "GROUP BY c.censusDate ORDER BY c.censusDate")
+    List<Object[]> sumByDayBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    // (unit, patient days, admissions, discharges, losDays) per unit over a range
+    @Query("SELECT c.unit, SUM(c.census), SUM(c.admissions), SUM(c.discharges), SUM(c.losDays) FROM CensusDaily c " +
+           "WHERE c.censusDate BETWEEN :from AND :to GROUP BY c.unit ORDER BY c.unit")
+    List<Object[]> sumByUnitBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("SELECT MIN(c.censusDate) FROM CensusDaily c")
+    LocalDate findFirstDay();
+}
@@ -0,0 +1,18 @@
+package com.matrixcare.repository;
+
+import com.matrixcare.entity.IncidentReport;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface IncidentReportRepository extends JpaRepository<IncidentReport, Long> {
+
+    List<IncidentReport> findByPatientIdOrderByIncidentDateDesc(Long patientId);
+
+    // (first, last) incident date; both null when there are no incidents
+    @Query("SELECT MIN(i.incidentDate), MAX(i.incidentDate) FROM IncidentReport i")
+    List<Object[]> findDateRange();
+}
@@ -0,0 +1,36 @@
+package com.matrixcare.repository;
+
+import com.matrixcare.entity.IncidentReport;
+import com.matrixcare.entity.IncidentRollupWeekly;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface IncidentRollupWeeklyRepository extends JpaRepository<IncidentRollupWeekly, Long> {
+
+    // Add delta (+1 or -1) to one counter cell, creating it if needed
+    @Modifying
+    @Query(value = "INSERT INTO incident_rollup_weekly (week_start, unit, incident_type, severity, incident_count) " +
+                   "VALUES (:week, :unit, :type, :severity, :delta) " +
+                   "ON DUPLICATE KEY UPDATE incident_count = incident_count + :delta", nativeQuery = true)
+    int addToCell(@Param("week") LocalDate week, @Param("unit") String unit, @Param("type") String type,
+                  @Param("severity") String severity, @Param("delta") int delta);
+
+    // Counter cells in a week range; null filters match everything
+    @Query("SELECT r FROM IncidentRollupWeekly r WHERE r.weekStart BETWEEN :from AND :to " +
+           "AND (:unit IS NULL OR r.unit = :unit) AND (:type IS NULL OR r.incidentType = :type) " +
+           "AND r.incidentCount > 0")
+    List<IncidentRollupWeekly> findCells(@Param("from") LocalDate from, @Param("to") LocalDate to,
+                                         @Param("unit") String unit,
+                                         @Param("type") IncidentReport.IncidentType type);
+
+    // (first, last) week with counters
+    @Query("SELECT MIN(r.weekStart), MAX(r.weekStart) FROM IncidentRollupWeekly r")
+    List<Object[]> findWeekRange();
+}
@@ -0,0 +1,32 @@
+package com.matrixcare.repository;
+
+import com.matrixcare.entity.Medication;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface MedicationRepository extends JpaRepository<Medication, Long> {
+    
+    // Batch load medications for a set of patients in one query
+    @Query("SELECT m FROM Medication m WHERE m.patient.id IN :patientIds ORDER BY m.patient.id, m.startDate DESC")
+    List<Medication> findByPatientIdIn(@Param("patientIds") Collection<Long> patientIds);
+    
+    // (patientId, medicationId, medicationName) for active medications of active patients
+    @Query("SELECT m.patient.id, m.id, m.medicationName FROM Medication m " +
+           "WHERE m.isActive = true AND m.patient.isActive = true")
+    List<Object[]> findActiveMedicationsForActivePatients();
+    
+    // (patientId, medicationName, route) for all active medications, used by the cohort index
+    @Query("SELECT m.patient.id, m.medicationName, m.route FROM Medication m WHERE m.isActive = true")
+    List<Object[]> findActiveMedicationAttributes();
+    
+    // (patientId, frequency, route) of active medications for a set of patients
+    @Query("SELECT m.patient.id, m.frequency, m.route FROM Medication m " +
+           "WHERE m.isActive = true AND m.patient.id IN :patientIds")
+    List<Object[]> findActiveDosing(@Param("patientIds") Collection<Long> patientIds);
+}
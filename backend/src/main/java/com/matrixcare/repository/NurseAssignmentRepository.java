@@ -0,0 +1,34 @@
+package com.matrixcare.repository;
+
+import com.matrixcare.entity.Nurse;
+import com.matrixcare.entity.NurseAssignment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface NurseAssignmentRepository extends JpaRepository<NurseAssignment, Long> {
+
+    // Primary assignments of a set of patients for one shift
+    @Query("SELECT a FROM NurseAssignment a WHERE a.assignmentDate = :date AND a.shift = :shift " +
+           "AND a.patientId IN :patientIds AND a.isPrimaryNurse = true")
+    List<NurseAssignment> findPrimaryForPatients(@Param("date") LocalDate date, @Param("shift") Nurse.Shift shift,
+                                                 @Param("patientIds") Collection<Long> patientIds);
+
+    // (patientId, nurseId) of every primary assignment of one shift
+    @Query("SELECT a.patientId, a.nurseId FROM NurseAssignment a WHERE a.assignmentDate = :date " +
+           "AND a.shift = :shift AND a.isPrimaryNurse = true")
+    List<Object[]> findPrimaryForShift(@Param("date") LocalDate date, @Param("shift") Nurse.Shift shift);
+
+    @Modifying
+    @Query("DELETE FROM NurseAssignment a WHERE a.assignmentDate = :date AND a.shift = :shift " +
+           "AND a.patientId IN :patientIds AND a.isPrimaryNurse = true")
+    int deletePrimaryForPatients(@Param("date") LocalDate date, @Param("shift") Nurse.Shift shift,
+                                 @Param("patientIds") Collection<Long> patientIds);
+}
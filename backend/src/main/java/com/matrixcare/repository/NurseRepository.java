@@ -0,0 +1,15 @@
+package com.matrixcare.repository;
+
+import com.matrixcare.entity.Nurse;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface NurseRepository extends JpaRepository<Nurse, Long> {
+
+    List<Nurse> findByShiftAndIsActiveTrue(Nurse.Shift shift);
+
+    List<Nurse> findByShiftAndSpecialtyIgnoreCaseAndIsActiveTrue(Nurse.Shift shift, String specialty);
+}
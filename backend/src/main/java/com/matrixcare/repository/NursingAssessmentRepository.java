@@ -0,0 +1,24 @@
+package com.matrixcare.repository;
+
+import com.matrixcare.entity.NursingAssessment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface NursingAssessmentRepository extends JpaRepository<NursingAssessment, Long> {
+
+    List<NursingAssessment> findByPatientIdOrderByAssessmentDateDescIdDesc(Long patientId);
+
+    // Latest assessment of each active patient of a unit; one backward dive into
+    // idx_assessment_patient_latest per patient, no sort or grouping of history
+    @Query(value = "SELECT a.* FROM patients p JOIN nursing_assessments a ON a.id = (" +
+                   "SELECT l.id FROM nursing_assessments l WHERE l.patient_id = p.id " +
+                   "ORDER BY l.assessment_date DESC, l.id DESC LIMIT 1) " +
+                   "WHERE p.unit = :unit AND p.is_active = true ORDER BY p.room_number, p.bed_number",
+           nativeQuery = true)
+    List<NursingAssessment> findLatestForUnit(@Param("unit") String unit);
+}
@@ -0,0 +1,13 @@
+package com.matrixcare.repository;
+
+import com.matrixcare.entity.NursingCarePlan;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface NursingCarePlanRepository extends JpaRepository<NursingCarePlan, Long> {
+
+    List<NursingCarePlan> findByPatientIdOrderByStartDateDescIdDesc(Long patientId);
+}
@@ -0,0 +1,26 @@
+package com.matrixcare.repository;
+
+import com.matrixcare.entity.PatientAllergy;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface PatientAllergyRepository extends JpaRepository<PatientAllergy, Long> {
+    
+    // Batch load allergies for a set of patients in one query
+    @Query("SELECT a FROM PatientAllergy a WHERE a.patient.id IN :patientIds ORDER BY a.patient.id, a.id")
+    List<PatientAllergy> findByPatientIdIn(@Param("patientIds") Collection<Long> patientIds);
+    
+    // Allergen names for one patient
+    @Query("SELECT a.allergen FROM PatientAllergy a WHERE a.patient.id = :patientId")
+    List<String> findAllergensByPatientId(@Param("patientId") Long patientId);
+    
+    // (patientId, allergen) pairs for every active patient
+    @Query("SELECT a.patient.id, a.allergen FROM PatientAllergy a WHERE a.patient.isActive = true")
+    List<Object[]> findAllergensForActivePatients();
+}
@@ -1,11 +1,16 @@
 package com.matrixcare.repository;
 
 import com.matrixcare.entity.PatientChartingData;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface PatientChartingDataRepository extends JpaRepository<PatientChartingData, Long> {
@@ -15,6 +20,16 @@ public interface PatientChartingDataRepository extends JpaRepository<PatientChar
     @Query("SELECT p FROM PatientChartingData p WHERE p.patientId = :patientId ORDER BY p.displayOrder ASC, p.id ASC")
     List<PatientChartingData> findByPatientIdOrdered(Long patientId);
     
+    // Categories of a set of patients in one query
+    @Query("SELECT p FROM PatientChartingData p WHERE p.patientId IN :patientIds " +
+           "ORDER BY p.patientId, p.displayOrder ASC, p.id ASC")
+    List<PatientChartingData> findByPatientIdIn(@Param("patientIds") Collection<Long> patientIds);
+    
+    // Category row locked while an edit and its history entry are written
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM PatientChartingData p WHERE p.id = :id")
+    Optional<PatientChartingData> findByIdForUpdate(@Param("id") Long id);
+    
     void deleteByPatientIdAndId(Long patientId, Long id);
     
     boolean existsByPatientIdAndCategoryTitle(Long patientId, String categoryTitle);
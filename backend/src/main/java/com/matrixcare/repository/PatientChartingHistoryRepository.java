@@ -0,0 +1,56 @@
+package com.matrixcare.repository;
+
+import com.matrixcare.entity.PatientChartingHistory;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PatientChartingHistoryRepository extends JpaRepository<PatientChartingHistory, Long> {
+    
+    Optional<PatientChartingHistory> findTopByChartingIdOrderByVersionDesc(Long chartingId);
+    
+    // Version of the newest snapshot, the base deltas are counted from
+    @Query("SELECT MAX(h.version) FROM PatientChartingHistory h WHERE h.chartingId = :chartingId " +
+           "AND h.entryType = com.matrixcare.entity.PatientChartingHistory$EntryType.SNAPSHOT")
+    Optional<Integer> findLatestSnapshotVersion(@Param("chartingId") Long chartingId);
+    
+    // Newest snapshot recorded at or before a point in time
+    @Query("SELECT MAX(h.version) FROM PatientChartingHistory h WHERE h.chartingId = :chartingId " +
+           "AND h.entryType = com.matrixcare.entity.PatientChartingHistory$EntryType.SNAPSHOT " +
+           "AND h.recordedAt <= :asOf")
+    Optional<Integer> findSnapshotVersionAsOf(@Param("chartingId") Long chartingId, 
+                                             @Param("asOf") LocalDateTime asOf);
+    
+    // Entries from a snapshot version up to a point in time, in replay order
+    @Query("SELECT h FROM PatientChartingHistory h WHERE h.chartingId = :chartingId " +
+           "AND h.version >= :fromVersion AND h.recordedAt <= :asOf ORDER BY h.version ASC")
+    List<PatientChartingHistory> findForReplay(@Param("chartingId") Long chartingId, 
+                                               @Param("fromVersion") Integer fromVersion, 
+                                               @Param("asOf") LocalDateTime asOf);
+    
+    // Version list without payloads
+    @Query("SELECT h.version, h.entryType, h.recordedAt FROM PatientChartingHistory h " +
+           "WHERE h.patientId = :patientId AND h.chartingId = :chartingId ORDER BY h.version DESC")
+    List<Object[]> findVersions(@Param("patientId") Long patientId, @Param("chartingId") Long chartingId);
+    
+    // Categories with more than one entry before the cutoff, i.e. something to compact
+    @Query("SELECT h.chartingId FROM PatientChartingHistory h WHERE h.recordedAt < :cutoff " +
+           "GROUP BY h.chartingId HAVING COUNT(h) > 1")
+    List<Long> findCompactableChartingIds(@Param("cutoff") LocalDateTime cutoff);
+    
+    @Query("SELECT h FROM PatientChartingHistory h WHERE h.chartingId = :chartingId " +
+           "AND h.recordedAt < :cutoff ORDER BY h.version ASC")
+    List<PatientChartingHistory> findBefore(@Param("chartingId") Long chartingId, 
+                                            @Param("cutoff") LocalDateTime cutoff);
+    
+    @Modifying
+    @Query("DELETE FROM PatientChartingHistory h WHERE h.chartingId = :chartingId AND h.version < :version")
+    int deleteOlderThanVersion(@Param("chartingId") Long chartingId, @Param("version") Integer version);
+}
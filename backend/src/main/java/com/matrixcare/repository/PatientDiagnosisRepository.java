@@ -0,0 +1,18 @@
+package com.matrixcare.repository;
+
+import com.matrixcare.entity.PatientDiagnosis;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface PatientDiagnosisRepository extends JpaRepository<PatientDiagnosis, Long> {
+    
+    // Batch load diagnoses for a set of patients in one query
+    @Query("SELECT d FROM PatientDiagnosis d WHERE d.patient.id IN :patientIds ORDER BY d.patient.id, d.id")
+    List<PatientDiagnosis> findByPatientIdIn(@Param("patientIds") Collection<Long> patientIds);
+}
@@ -21,6 +21,9 @@ public interface PatientRepository extends JpaRepository<Patient, Long> {
     // Find by room number
     List<Patient> findByRoomNumberAndIsActiveTrue(String roomNumber);
     
+    // Find active patients of a unit
+    List<Patient> findByUnitAndIsActiveTrue(String unit);
+    
     // Find by physician
     List<Patient> findByPrimaryPhysicianAndIsActiveTrue(String primaryPhysician);
     
@@ -40,6 +43,36 @@ public interface PatientRepository extends JpaRepository<Patient, Long> {
            "LOWER(a.allergen) LIKE LOWER(CONCAT('%', :allergen, '%')) AND p.isActive = true")
     List<Patient> findPatientsByAllergen(@Param("allergen") String allergen);
     
+    // Units with at least one active patient
+    @Query("SELECT DISTINCT p.unit FROM Patient p WHERE p.isActive = true AND p.unit IS NOT NULL ORDER BY p.unit")
+    List<String> findActiveUnits();
+    
+    // Unit of a single patient
+    @Query("SELECT p.unit FROM Patient p WHERE p.id = :id")
+    Optional<String> findUnitById(@Param("id") Long id);
+    
+    // Whether a patient is still admitted
+    boolean existsByIdAndIsActiveTrue(Long id);
+    
+    // Optimistic-lock version of a single patient
+    @Query("SELECT p.version FROM Patient p WHERE p.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+    
+    // (id, unit, isActive) for every patient, used by the cohort index
+    @Query("SELECT p.id, p.unit, p.isActive FROM Patient p")
+    List<Object[]> findCohortAttributes();
+    
+    // (id, mrn, firstName, lastName, unit, room, bed, admissionDate) of active patients with a room, used by the bed board
+    @Query("SELECT p.id, p.medicalRecordNumber, p.firstName, p.lastName, p.unit, p.roomNumber, p.bedNumber, p.admissionDate " +
+           "FROM Patient p WHERE p.isActive = true AND p.roomNumber IS NOT NULL ORDER BY p.id")
+    List<Object[]> findActiveBedAssignments();
+    
+    // (unit, admissionDate, dischargeDate, isActive) of patients in the building at some point of [start, end), used by the census backfill
+    @Query("SELECT p.unit, p.admissionDate, p.dischargeDate, p.isActive FROM Patient p " +
+           "WHERE p.admissionDate < :end AND (p.dischargeDate IS NULL OR p.dischargeDate >= :start)")
+    List<Object[]> findCensusSpans(@Param("start") java.time.LocalDateTime start, 
+                                   @Param("end") java.time.LocalDateTime end);
+    
     // Count active patients
     long countByIsActiveTrue();
     
@@ -0,0 +1,31 @@
+package com.matrixcare.repository;
+
+import com.matrixcare.entity.ShiftReport;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ShiftReportRepository extends JpaRepository<ShiftReport, Long> {
+
+    List<ShiftReport> findByPatientIdOrderByShiftDateDescIdDesc(Long patientId);
+
+    @Query("SELECT r FROM ShiftReport r WHERE r.shiftDate = :date AND r.shiftType = :shiftType " +
+           "AND r.patientId IN :patientIds ORDER BY r.patientId")
+    List<ShiftReport> findForPatients(@Param("date") LocalDate date,
+                                      @Param("shiftType") ShiftReport.ShiftType shiftType,
+                                      @Param("patientIds") Collection<Long> patientIds);
+
+    // Regenerating a handoff replaces the earlier reports
+    @Modifying
+    @Query("DELETE FROM ShiftReport r WHERE r.shiftDate = :date AND r.shiftType = :shiftType " +
+           "AND r.patientId IN :patientIds")
+    int deleteForPatients(@Param("date") LocalDate date, @Param("shiftType") ShiftReport.ShiftType shiftType,
+                          @Param("patientIds") Collection<Long> patientIds);
+}
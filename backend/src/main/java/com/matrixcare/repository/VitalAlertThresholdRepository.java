@@ -0,0 +1,19 @@
+package com.matrixcare.repository;
+
+import com.matrixcare.entity.VitalAlertThreshold;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface VitalAlertThresholdRepository extends JpaRepository<VitalAlertThreshold, Long> {
+    
+    List<VitalAlertThreshold> findByUnit(String unit);
+    
+    List<VitalAlertThreshold> findByPatientId(Long patientId);
+    
+    Optional<VitalAlertThreshold> findByUnitAndPatientIdAndMetric(String unit, Long patientId, 
+                                                                  VitalAlertThreshold.Metric metric);
+}
@@ -3,9 +3,11 @@ package com.matrixcare.repository;
 import com.matrixcare.entity.VitalSignsEntry;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -25,4 +27,27 @@ public interface VitalSignsEntryRepository extends JpaRepository<VitalSignsEntry
     List<VitalSignsEntry> findByPatientIdSince(Long patientId, LocalDateTime since);
     
     long countByPatientId(Long patientId);
+    
+    // (patientId, reading count) since a time, for a set of patients
+    @Query("SELECT v.patientId, COUNT(v) FROM VitalSignsEntry v WHERE v.patientId IN :patientIds " +
+           "AND v.recordedAt >= :since GROUP BY v.patientId")
+    List<Object[]> countByPatientIdsSince(@Param("patientIds") Collection<Long> patientIds, 
+                                          @Param("since") LocalDateTime since);
+    
+    // Readings in [from, to) for a set of patients, oldest first per patient
+    @Query("SELECT v FROM VitalSignsEntry v WHERE v.patientId IN :patientIds " +
+           "AND v.recordedAt >= :from AND v.recordedAt < :to ORDER BY v.patientId, v.recordedAt")
+    List<VitalSignsEntry> findByPatientIdsBetween(@Param("patientIds") Collection<Long> patientIds, 
+                                                  @Param("from") LocalDateTime from,
+                                                  @Param("to") LocalDateTime to);
+    
+    // Readings of a unit's active patients in [from, to)
+    @Query("SELECT v FROM VitalSignsEntry v, Patient p WHERE p.id = v.patientId AND p.unit = :unit " +
+           "AND p.isActive = true AND v.recordedAt >= :from AND v.recordedAt < :to")
+    List<VitalSignsEntry> findByUnitBetween(@Param("unit") String unit,
+                                            @Param("from") LocalDateTime from,
+                                            @Param("to") LocalDateTime to);
+    
+    @Query("SELECT v FROM VitalSignsEntry v WHERE v.recordedAt >= :since ORDER BY v.patientId, v.recordedAt")
+    List<VitalSignsEntry> findAllSince(LocalDateTime since);
 } 
\ No newline at end of file
@@ -0,0 +1,45 @@
+package com.matrixcare.repository;
+
+import com.matrixcare.entity.VitalSignsHourlyStat;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface VitalSignsHourlyStatRepository extends JpaRepository<VitalSignsHourlyStat, Long> {
+    
+    // Rows for one patient-hour, locked while a reading is folded in
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM VitalSignsHourlyStat s WHERE s.patientId = :patientId AND s.hourStart = :hourStart")
+    List<VitalSignsHourlyStat> findForUpdate(@Param("patientId") Long patientId, 
+                                            @Param("hourStart") LocalDateTime hourStart);
+    
+    // Create a patient-hour row unless it exists, so concurrent first readings of the hour lock the same row
+    @Modifying
+    @Query(value = "INSERT INTO vital_signs_hourly_stats (patient_id, hour_start, metric, sample_count, sum_value) " +
+                   "VALUES (:patientId, :hourStart, :metric, 0, 0) ON DUPLICATE KEY UPDATE sample_count = sample_count",
+           nativeQuery = true)
+    int insertIfAbsent(@Param("patientId") Long patientId, @Param("hourStart") LocalDateTime hourStart,
+                       @Param("metric") String metric);
+    
+    @Query("SELECT s FROM VitalSignsHourlyStat s WHERE s.patientId = :patientId AND s.hourStart >= :since")
+    List<VitalSignsHourlyStat> findByPatientIdSince(@Param("patientId") Long patientId, 
+                                                   @Param("since") LocalDateTime since);
+    
+    // Hourly rows for the active patients of a unit
+    @Query("SELECT s FROM VitalSignsHourlyStat s, Patient p WHERE p.id = s.patientId " +
+           "AND p.unit = :unit AND p.isActive = true AND s.hourStart >= :since")
+    List<VitalSignsHourlyStat> findByUnitSince(@Param("unit") String unit, 
+                                              @Param("since") LocalDateTime since);
+    
+    @Modifying
+    @Query("DELETE FROM VitalSignsHourlyStat s WHERE s.hourStart >= :since")
+    int deleteSince(@Param("since") LocalDateTime since);
+}
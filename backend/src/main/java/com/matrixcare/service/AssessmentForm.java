@@ -0,0 +1,239 @@
+package com.matrixcare.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.matrixcare.entity.NursingAssessment;
+
+import java.util.*;
+
+/**
+ * An assessment form compiled from its definition.
+ * Each field is resolved once to a column slot and a converter (enum lookup,
+ * integer range or text length), so binding a submission is a loop over the
+ * form's fields that fills a parameter row for the insert statement. Nothing
+ * about the definition is looked up or interpreted per request.
+ */
+public final class AssessmentForm {
+
+    private static final int DEFAULT_MAX_TEXT = 10000;
+
+    private final String name;
+    private final String title;
+    private final Field[] fields;
+    private final Map<String, Field> fieldsByKey;
+
+    private AssessmentForm(String name, String title, Field[] fields) {
+        this.name = name;
+        this.title = title;
+        this.fields = fields;
+        this.fieldsByKey = new HashMap<>();
+        for (Field field : fields) {
+            fieldsByKey.put(field.key, field);
+        }
+    }
+
+    public String getName() { return name; }
+
+    public String getTitle() { return title; }
+
+    // Validate values into a row of Column.values().length slots; problems are added to errors
+    public Object[] bind(Map<String, Object> values, List<String> errors) {
+        Object[] row = new Object[Column.COUNT];
+        Map<String, Object> input = values != null ? values : Map.of();
+        for (String key : input.keySet()) {
+            if (!fieldsByKey.containsKey(key)) {
+                errors.add(key + " is not part of the " + name + " form");
+            }
+        }
+        for (Field field : fields) {
+            Object raw = input.get(field.key);
+            if (raw == null || (raw instanceof String text && text.isBlank())) {
+                if (field.required) {
+                    errors.add(field.key + " is required");
+                }
+                continue;
+            }
+            row[field.column.ordinal()] = field.converter.convert(raw, field.key, errors);
+        }
+        return row;
+    }
+
+    public Map<String, Object> describe() {
+        List<Map<String, Object>> fieldList = new ArrayList<>();
+        for (Field field : fields) {
+            fieldList.add(field.description);
+        }
+        Map<String, Object> result = new HashMap<>();
+        result.put("name", name);
+        result.put("title", title);
+        result.put("fields", fieldList);
+        return result;
+    }
+
+    // Compile a form definition: {"name", "title", "fields": [{"key", "column", "required", "min", "max", "maxLength"}]}
+    public static AssessmentForm compile(JsonNode definition) {
+        String name = text(definition, "name");
+        if (name == null) {
+            throw new IllegalStateException("Assessment form without a name");
+        }
+        JsonNode fieldNodes = definition.path("fields");
+        if (!fieldNodes.isArray() || fieldNodes.isEmpty()) {
+            throw new IllegalStateException("Assessment form " + name + " has no fields");
+        }
+
+        List<Field> fields = new ArrayList<>();
+        Set<String> keys = new HashSet<>();
+        EnumSet<Column> columns = EnumSet.noneOf(Column.class);
+        for (JsonNode node : fieldNodes) {
+            String key = text(node, "key");
+            Column column = Column.bySqlName(text(node, "column"));
+            if (key == null || column == null) {
+                throw new IllegalStateException("Assessment form " + name + " has a field without a key or with an unknown column: " + node);
+            }
+            if (!keys.add(key) || !columns.add(column)) {
+                throw new IllegalStateException("Assessment form " + name + " maps " + key + " or " + column.sqlName + " twice");
+            }
+            fields.add(compileField(name, key, column, node));
+        }
+        return new AssessmentForm(name, text(definition, "title") != null ? text(definition, "title") : name,
+                fields.toArray(new Field[0]));
+    }
+
+    private static Field compileField(String form, String key, Column column, JsonNode node) {
+        boolean required = node.path("required").asBoolean(false);
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("key", key);
+        description.put("column", column.sqlName);
+        description.put("type", column.kind.name().toLowerCase());
+        description.put("required", required);
+
+        Converter converter;
+        switch (column.kind) {
+            case ENUM -> {
+                Map<String, String> allowed = new HashMap<>();
+                for (String option : column.options) {
+                    allowed.put(option.toLowerCase(), option);
+                }
+                description.put("options", column.options);
+                converter = (raw, k, errors) -> {
+                    String value = allowed.get(raw.toString().trim().toLowerCase());
+                    if (value == null) {
+                        errors.add(k + " must be one of " + String.join(", ", column.options));
+                    }
+                    return value;
+                };
+            }
+            case INTEGER -> {
+                int min = Math.max(column.min, node.path("min").asInt(column.min));
+                int max = Math.min(column.max, node.path("max").asInt(column.max));
+                if (min > max) {
+                    throw new IllegalStateException("Assessment form " + form + " gives " + key + " an empty range");
+                }
+                description.put("min", min);
+                description.put("max", max);
+                converter = (raw, k, errors) -> {
+                    Integer value = toInteger(raw);
+                    if (value == null || value < min || value > max) {
+                        errors.add(k + " must be a whole number from " + min + " to " + max);
+                        return null;
+                    }
+                    return value;
+                };
+            }
+            default -> {
+                int maxLength = Math.min(DEFAULT_MAX_TEXT, node.path("maxLength").asInt(DEFAULT_MAX_TEXT));
+                description.put("maxLength", maxLength);
+                converter = (raw, k, errors) -> {
+                    if (!(raw instanceof String)) {
+                        errors.add(k + " must be text");
+                        return null;
+                    }
+                    String value = ((String) raw).trim();
+                    if (value.length() > maxLength) {
+                        errors.add(k + " is longer than " + maxLength + " characters");
+                        return null;
+                    }
+                    return value;
+                };
+            }
+        }
+        return new Field(key, column, required, converter, Collections.unmodifiableMap(description));
+    }
+
+    private static Integer toInteger(Object raw) {
+        if (raw instanceof Integer || raw instanceof Long || raw instanceof Short) {
+            long value = ((Number) raw).longValue();
+            return value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE ? (int) value : null;
+        }
+        if (raw instanceof String text) {
+            try {
+                return Integer.valueOf(text.trim());
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value != null && value.isTextual() && !value.asText().isBlank() ? value.asText().trim() : null;
+    }
+
+    // Assessment columns a form can fill; the ordinal is the slot in a bound row
+    public enum Column {
+        GENERAL_CONDITION("general_condition", Kind.ENUM, names(NursingAssessment.GeneralCondition.values()), 0, 0),
+        PAIN_LEVEL("pain_level", Kind.INTEGER, null, 0, 10),
+        MOBILITY_STATUS("mobility_status", Kind.ENUM, names(NursingAssessment.MobilityStatus.values()), 0, 0),
+        MENTAL_STATUS("mental_status", Kind.ENUM, names(NursingAssessment.MentalStatus.values()), 0, 0),
+        SKIN_INTEGRITY("skin_integrity", Kind.TEXT, null, 0, 0),
+        RESPIRATORY_NOTES("respiratory_notes", Kind.TEXT, null, 0, 0),
+        CARDIOVASCULAR_NOTES("cardiovascular_notes", Kind.TEXT, null, 0, 0),
+        GASTROINTESTINAL_NOTES("gastrointestinal_notes", Kind.TEXT, null, 0, 0),
+        GENITOURINARY_NOTES("genitourinary_notes", Kind.TEXT, null, 0, 0),
+        NEUROLOGICAL_NOTES("neurological_notes", Kind.TEXT, null, 0, 0),
+        ADDITIONAL_NOTES("additional_notes", Kind.TEXT, null, 0, 0);
+
+        public static final int COUNT = values().length;
+
+        private final String sqlName;
+        private final Kind kind;
+        private final List<String> options;
+        private final int min;
+        private final int max;
+
+        Column(String sqlName, Kind kind, List<String> options, int min, int max) {
+            this.sqlName = sqlName;
+            this.kind = kind;
+            this.options = options;
+            this.min = min;
+            this.max = max;
+        }
+
+        public String getSqlName() { return sqlName; }
+
+        static Column bySqlName(String sqlName) {
+            for (Column column : values()) {
+                if (column.sqlName.equals(sqlName)) {
+                    return column;
+                }
+            }
+            return null;
+        }
+
+        private static List<String> names(Enum<?>[] values) {
+            return Arrays.stream(values).map(Enum::name).toList();
+        }
+    }
+
+    private enum Kind {
+        ENUM, INTEGER, TEXT
+    }
+
+    @FunctionalInterface
+    private interface Converter {
+        Object convert(Object raw, String key, List<String> errors);
+    }
+
+    private record Field(String key, Column column, boolean required, Converter converter,
+                         Map<String, Object> description) {}
+}
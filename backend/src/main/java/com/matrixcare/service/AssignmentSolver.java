@@ -0,0 +1,280 @@
+package com.matrixcare.service;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Heuristic solver for nurse-to-patient assignments on one unit and shift.
+ * The cost of a nurse's assignment is the squared distance of its acuity load
+ * from the unit average, plus a weight times its geographic span (room number
+ * range per wing, with a fixed penalty for every extra wing), plus a penalty
+ * for patients above the per-nurse cap. A full solve starts from contiguous
+ * room runs of roughly equal load and improves them by local search over
+ * single moves and pairwise swaps until no step helps or the deadline passes.
+ * Incremental placement puts one new patient with the cheapest nurse and then
+ * allows only a few reassignments (a swap counts as two), so existing
+ * assignments barely change.
+ */
+public final class AssignmentSolver {
+
+    private static final double EPSILON = 1e-9;
+
+    private final int patientCount;
+    private final int nurseCount;
+    private final double[] acuity;
+    private final int[] roomNumber;
+    private final int[] wing;
+    private final int wingCount;
+    private final double spanWeight;
+    private final double wingPenalty;
+    private final int maxPatientsPerNurse;
+
+    private final int[] assignment;
+    private final double[] load;
+    private final int[] count;
+    private final double meanLoad;
+
+    // Scratch for span calculation
+    private final int[] wingMin;
+    private final int[] wingMax;
+
+    private int steps;
+    private int changes;
+
+    public AssignmentSolver(double[] acuity, String[] rooms, int nurseCount, double spanWeight, double wingPenalty,
+                            int maxPatientsPerNurse) {
+        if (nurseCount < 1) {
+            throw new IllegalArgumentException("At least one nurse is required");
+        }
+        this.patientCount = acuity.length;
+        this.nurseCount = nurseCount;
+        this.acuity = acuity;
+        this.spanWeight = spanWeight;
+        this.wingPenalty = wingPenalty;
+        this.maxPatientsPerNurse = maxPatientsPerNurse;
+
+        roomNumber = new int[patientCount];
+        wing = new int[patientCount];
+        Map<String, Integer> wings = new HashMap<>();
+        for (int i = 0; i < patientCount; i++) {
+            String room = rooms[i] == null ? "" : rooms[i].trim().toUpperCase();
+            int digitsStart = 0;
+            while (digitsStart < room.length() && !Character.isDigit(room.charAt(digitsStart))) {
+                digitsStart++;
+            }
+            int digitsEnd = digitsStart;
+            while (digitsEnd < room.length() && Character.isDigit(room.charAt(digitsEnd)) && digitsEnd - digitsStart < 9) {
+                digitsEnd++;
+            }
+            // Leading letters name the wing ("W301"); trailing letters are a side or bed ("12A")
+            wing[i] = wings.computeIfAbsent(room.substring(0, digitsStart), w -> wings.size());
+            roomNumber[i] = digitsEnd > digitsStart ? Integer.parseInt(room.substring(digitsStart, digitsEnd)) : 0;
+        }
+        wingCount = Math.max(1, wings.size());
+        wingMin = new int[wingCount];
+        wingMax = new int[wingCount];
+
+        assignment = new int[patientCount];
+        Arrays.fill(assignment, -1);
+        load = new double[nurseCount];
+        count = new int[nurseCount];
+        double total = 0;
+        for (double a : acuity) {
+            total += a;
+        }
+        meanLoad = total / nurseCount;
+    }
+
+    // Balanced assignment from scratch; returns patient -> nurse index
+    public int[] solve(long deadlineNanos) {
+        Integer[] byRoom = new Integer[patientCount];
+        for (int i = 0; i < patientCount; i++) {
+            byRoom[i] = i;
+        }
+        Arrays.sort(byRoom, Comparator.<Integer>comparingInt(i -> wing[i]).thenComparingInt(i -> roomNumber[i]));
+
+        // Contiguous runs of rooms with roughly equal cumulative acuity
+        double cumulative = 0;
+        int nurse = 0;
+        for (int index : byRoom) {
+            double target = meanLoad * (nurse + 1);
+            if (nurse < nurseCount - 1 && count[nurse] > 0 && cumulative + acuity[index] / 2 > target) {
+                nurse++;
+            }
+            place(index, nurse);
+            cumulative += acuity[index];
+        }
+
+        improve(Integer.MAX_VALUE, deadlineNanos);
+        return assignment.clone();
+    }
+
+    // Keep a current assignment (-1 for unplaced patients), place the rest at the cheapest nurse,
+    // then reassign at most maxChanges patients
+    public int[] placeIncrementally(int[] current, int maxChanges, long deadlineNanos) {
+        for (int i = 0; i < patientCount; i++) {
+            if (current[i] >= 0) {
+                place(i, current[i]);
+            }
+        }
+
+        Integer[] unplaced = Arrays.stream(range()).filter(i -> current[i] < 0).boxed().toArray(Integer[]::new);
+        Arrays.sort(unplaced, Comparator.comparingDouble((Integer i) -> acuity[i]).reversed());
+        for (int patient : unplaced) {
+            int best = 0;
+            double bestDelta = Double.MAX_VALUE;
+            for (int n = 0; n < nurseCount; n++) {
+                double delta = cost(n, -1, patient) - cost(n, -1, -1);
+                if (delta < bestDelta) {
+                    bestDelta = delta;
+                    best = n;
+                }
+            }
+            place(patient, best);
+        }
+
+        improve(maxChanges, deadlineNanos);
+        return assignment.clone();
+    }
+
+    public double totalCost() {
+        double total = 0;
+        for (int n = 0; n < nurseCount; n++) {
+            total += cost(n, -1, -1);
+        }
+        return total;
+    }
+
+    public double getLoad(int nurse) { return load[nurse]; }
+
+    public int getSpan(int nurse) { return span(nurse, -1, -1); }
+
+    public int getSteps() { return steps; }
+
+    private int[] range() {
+        int[] indexes = new int[patientCount];
+        for (int i = 0; i < patientCount; i++) {
+            indexes[i] = i;
+        }
+        return indexes;
+    }
+
+    private void place(int patient, int nurse) {
+        assignment[patient] = nurse;
+        load[nurse] += acuity[patient];
+        count[nurse]++;
+    }
+
+    private void move(int patient, int to) {
+        int from = assignment[patient];
+        load[from] -= acuity[patient];
+        count[from]--;
+        place(patient, to);
+    }
+
+    // Best-improvement local search over moves and swaps; a move reassigns one patient, a swap two
+    private void improve(int maxChanges, long deadlineNanos) {
+        while (changes < maxChanges && System.nanoTime() < deadlineNanos) {
+            boolean swapsAllowed = maxChanges - changes >= 2;
+            double[] baseCost = new double[nurseCount];
+            for (int n = 0; n < nurseCount; n++) {
+                baseCost[n] = cost(n, -1, -1);
+            }
+
+            double bestDelta = -EPSILON;
+            int bestPatient = -1;
+            int bestTarget = -1;
+            int bestSwap = -1;
+
+            for (int p = 0; p < patientCount; p++) {
+                int from = assignment[p];
+                double fromBefore = baseCost[from];
+                double fromAfterMove = cost(from, p, -1);
+                for (int to = 0; to < nurseCount; to++) {
+                    if (to == from) {
+                        continue;
+                    }
+                    double delta = fromAfterMove - fromBefore + cost(to, -1, p) - baseCost[to];
+                    if (delta < bestDelta) {
+                        bestDelta = delta;
+                        bestPatient = p;
+                        bestTarget = to;
+                        bestSwap = -1;
+                    }
+                }
+                for (int q = p + 1; swapsAllowed && q < patientCount; q++) {
+                    int other = assignment[q];
+                    if (other == from) {
+                        continue;
+                    }
+                    double delta = cost(from, p, q) + cost(other, q, p) - fromBefore - baseCost[other];
+                    if (delta < bestDelta) {
+                        bestDelta = delta;
+                        bestPatient = p;
+                        bestTarget = other;
+                        bestSwap = q;
+                    }
+                }
+            }
+
+            if (bestPatient < 0) {
+                return;
+            }
+            if (bestSwap >= 0) {
+                int from = assignment[bestPatient];
+                move(bestPatient, bestTarget);
+                move(bestSwap, from);
+                changes += 2;
+            } else {
+                move(bestPatient, bestTarget);
+                changes++;
+            }
+            steps++;
+        }
+    }
+
+    // Cost of a nurse's assignment without `removed` and with `added` (-1 for none)
+    private double cost(int nurse, int removed, int added) {
+        double nurseLoad = load[nurse];
+        int patients = count[nurse];
+        if (removed >= 0) {
+            nurseLoad -= acuity[removed];
+            patients--;
+        }
+        if (added >= 0) {
+            nurseLoad += acuity[added];
+            patients++;
+        }
+        return cost(nurseLoad, patients, span(nurse, removed, added));
+    }
+
+    private double cost(double nurseLoad, int nursePatients, int span) {
+        double deviation = nurseLoad - meanLoad;
+        double over = maxPatientsPerNurse > 0 ? Math.max(0, nursePatients - maxPatientsPerNurse) : 0;
+        return deviation * deviation + spanWeight * span + over * over * 1000;
+    }
+
+    // Room number range per wing, plus a penalty for each extra wing
+    private int span(int nurse, int removed, int added) {
+        Arrays.fill(wingMin, Integer.MAX_VALUE);
+        Arrays.fill(wingMax, Integer.MIN_VALUE);
+        for (int i = 0; i < patientCount; i++) {
+            if ((assignment[i] == nurse && i != removed) || i == added) {
+                int w = wing[i];
+                wingMin[w] = Math.min(wingMin[w], roomNumber[i]);
+                wingMax[w] = Math.max(wingMax[w], roomNumber[i]);
+            }
+        }
+        int span = 0;
+        int wingsUsed = 0;
+        for (int w = 0; w < wingCount; w++) {
+            if (wingMax[w] >= wingMin[w]) {
+                span += wingMax[w] - wingMin[w];
+                wingsUsed++;
+            }
+        }
+        return span + (int) Math.round(wingPenalty * Math.max(0, wingsUsed - 1));
+    }
+}
@@ -0,0 +1,137 @@
+package com.matrixcare.service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Preallocated multi-producer, single-consumer ring of audit event slots.
+ * Producers claim a sequence with a CAS, fill the slot in place and publish it
+ * by storing the sequence in the slot's marker; no locks and no allocation on
+ * the request path. When the ring is full a producer waits up to its bound and
+ * then drops the event, counting both.
+ */
+public final class AuditRingBuffer {
+
+    public static final class Slot {
+        long occurredAt;
+        String username;
+        String action;
+        String resourceType;
+        String resourceId;
+        long patientId;
+        int status;
+
+        public long getOccurredAt() { return occurredAt; }
+        public String getUsername() { return username; }
+        public String getAction() { return action; }
+        public String getResourceType() { return resourceType; }
+        public String getResourceId() { return resourceId; }
+        public long getPatientId() { return patientId; }
+        public int getStatus() { return status; }
+    }
+
+    public interface SlotHandler {
+        void onSlot(Slot slot);
+    }
+
+    private final Slot[] slots;
+    private final int mask;
+    private final AtomicLongArray publishedSequence; // per slot: sequence last published into it
+    private final AtomicLong claimSequence = new AtomicLong(-1);
+    private final AtomicLong consumedSequence = new AtomicLong(-1);
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder backpressureWaits = new LongAdder();
+
+    public AuditRingBuffer(int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Audit ring capacity must be a power of two, got " + capacity);
+        }
+        slots = new Slot[capacity];
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new Slot();
+        }
+        mask = capacity - 1;
+        publishedSequence = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            publishedSequence.set(i, -1);
+        }
+    }
+
+    // Publish an event; false when the ring stayed full for maxWaitNanos and the event was dropped
+    public boolean publish(long occurredAt, String username, String action, String resourceType,
+                           String resourceId, long patientId, int status, long maxWaitNanos) {
+        long sequence;
+        long waitStart = 0;
+        while (true) {
+            long current = claimSequence.get();
+            sequence = current + 1;
+            if (sequence - consumedSequence.get() > slots.length) {
+                // Full: the consumer has not released the slot this claim would reuse
+                long now = System.nanoTime();
+                if (waitStart == 0) {
+                    if (maxWaitNanos <= 0) {
+                        dropped.increment();
+                        return false;
+                    }
+                    waitStart = now;
+                    backpressureWaits.increment();
+                } else if (now - waitStart >= maxWaitNanos) {
+                    dropped.increment();
+                    return false;
+                }
+                LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(10));
+                continue;
+            }
+            if (claimSequence.compareAndSet(current, sequence)) {
+                break;
+            }
+        }
+
+        int index = (int) sequence & mask;
+        Slot slot = slots[index];
+        slot.occurredAt = occurredAt;
+        slot.username = username;
+        slot.action = action;
+        slot.resourceType = resourceType;
+        slot.resourceId = resourceId;
+        slot.patientId = patientId;
+        slot.status = status;
+        publishedSequence.set(index, sequence); // volatile write makes the slot fields visible
+        published.increment();
+        return true;
+    }
+
+    // Hand up to max published events to the handler in order, then release their slots; consumer thread only
+    public int drain(SlotHandler handler, int max) {
+        long next = consumedSequence.get() + 1;
+        int count = 0;
+        while (count < max) {
+            int index = (int) next & mask;
+            if (publishedSequence.get(index) != next) {
+                break;
+            }
+            handler.onSlot(slots[index]);
+            next++;
+            count++;
+        }
+        if (count > 0) {
+            consumedSequence.set(next - 1);
+        }
+        return count;
+    }
+
+    public int getCapacity() { return slots.length; }
+
+    public long getPending() { return claimSequence.get() - consumedSequence.get(); }
+
+    public long getPublished() { return published.sum(); }
+
+    public long getDropped() { return dropped.sum(); }
+
+    public long getBackpressureWaits() { return backpressureWaits.sum(); }
+}
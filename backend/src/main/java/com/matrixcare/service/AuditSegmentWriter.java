@@ -0,0 +1,77 @@
+package com.matrixcare.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Append-only audit segment files, one tab-separated event per line, rolled
+ * over to a new file when the current one reaches the size limit.
+ * Used only from the audit consumer thread.
+ */
+public final class AuditSegmentWriter {
+
+    private static final DateTimeFormatter FILE_STAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final Path directory;
+    private final long maxBytes;
+
+    private BufferedWriter writer;
+    private Path currentPath;
+    private long currentBytes;
+    private int segmentCounter;
+
+    public AuditSegmentWriter(String directory, long maxBytes) {
+        this.directory = Paths.get(directory);
+        this.maxBytes = maxBytes;
+    }
+
+    public void write(AuditRingBuffer.Slot slot) throws IOException {
+        if (writer == null || currentBytes >= maxBytes) {
+            roll();
+        }
+        String line = Instant.ofEpochMilli(slot.getOccurredAt()) + "\t" + clean(slot.getUsername()) + "\t"
+                + clean(slot.getAction()) + "\t" + clean(slot.getResourceType()) + "\t" + clean(slot.getResourceId())
+                + "\t" + (slot.getPatientId() >= 0 ? slot.getPatientId() : "") + "\t" + slot.getStatus() + "\n";
+        writer.write(line);
+        currentBytes += line.length();
+    }
+
+    public void flush() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+    }
+
+    public void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+        }
+    }
+
+    public Path getCurrentPath() { return currentPath; }
+
+    private void roll() throws IOException {
+        close();
+        Files.createDirectories(directory);
+        String stamp = LocalDateTime.now(ZoneId.systemDefault()).format(FILE_STAMP);
+        currentPath = directory.resolve("phi-audit-" + stamp + "-" + (segmentCounter++) + ".log");
+        writer = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(currentPath,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND), StandardCharsets.UTF_8));
+        currentBytes = Files.size(currentPath);
+    }
+
+    private static String clean(String value) {
+        return value == null ? "" : value.replace('\t', ' ').replace('\n', ' ');
+    }
+}
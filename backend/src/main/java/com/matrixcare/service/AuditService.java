@@ -0,0 +1,220 @@
+package com.matrixcare.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * PHI access audit log.
+ * Request threads publish access events into a preallocated ring buffer; a single
+ * consumer thread drains it and writes JDBC batches to phi_audit_log, or appends
+ * to rotating local segment files. A failed batch insert is written to a segment
+ * file instead so events are not lost.
+ */
+@Service
+public class AuditService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditService.class);
+
+    private static final String INSERT_SQL = "INSERT INTO phi_audit_log " +
+            "(occurred_at, username, action, resource_type, resource_id, patient_id, http_status) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${matrixcare.audit.enabled:true}")
+    private boolean enabled;
+
+    // jdbc or file
+    @Value("${matrixcare.audit.sink:jdbc}")
+    private String sink;
+
+    @Value("${matrixcare.audit.capacity:8192}")
+    private int capacity;
+
+    @Value("${matrixcare.audit.batch-size:500}")
+    private int batchSize;
+
+    @Value("${matrixcare.audit.flush-interval-ms:50}")
+    private long flushIntervalMs;
+
+    // How long a request may wait for a free slot before the event is dropped; 0 drops immediately
+    @Value("${matrixcare.audit.publish-wait-micros:0}")
+    private long publishWaitMicros;
+
+    @Value("${matrixcare.audit.segment-dir:audit}")
+    private String segmentDir;
+
+    @Value("${matrixcare.audit.segment-max-mb:64}")
+    private long segmentMaxMb;
+
+    private AuditRingBuffer ring;
+    private AuditSegmentWriter segmentWriter;
+    private Thread consumer;
+    private volatile boolean running;
+
+    private final LongAdder written = new LongAdder();
+    private final LongAdder writtenToFile = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder writeFailures = new LongAdder();
+    private final AtomicLong lostEvents = new AtomicLong();
+
+    @PostConstruct
+    public void start() {
+        ring = new AuditRingBuffer(capacity);
+        segmentWriter = new AuditSegmentWriter(segmentDir, segmentMaxMb * 1024 * 1024);
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        consumer = new Thread(this::consume, "phi-audit-writer");
+        consumer.setDaemon(true);
+        consumer.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (consumer != null) {
+            LockSupport.unpark(consumer);
+            consumer.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    // Record a read of patient data; never blocks longer than publish-wait-micros
+    public boolean recordAccess(String username, String action, String resourceType, String resourceId,
+                                Long patientId, int status) {
+        if (!enabled) {
+            return false;
+        }
+        // resource_id is VARCHAR(255); long id lists and query strings are cut rather than failing the batch
+        if (resourceId != null && resourceId.length() > 255) {
+            resourceId = resourceId.substring(0, 255);
+        }
+        return ring.publish(System.currentTimeMillis(), username, action, resourceType, resourceId,
+                patientId != null ? patientId : -1, status, TimeUnit.MICROSECONDS.toNanos(publishWaitMicros));
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("sink", sink);
+        stats.put("capacity", ring.getCapacity());
+        stats.put("pending", ring.getPending());
+        stats.put("published", ring.getPublished());
+        stats.put("dropped", ring.getDropped());
+        stats.put("backpressureWaits", ring.getBackpressureWaits());
+        stats.put("written", written.sum());
+        stats.put("writtenToFile", writtenToFile.sum());
+        stats.put("batches", batches.sum());
+        stats.put("writeFailures", writeFailures.sum());
+        stats.put("lostEvents", lostEvents.get());
+        stats.put("currentSegment", segmentWriter.getCurrentPath() != null ? segmentWriter.getCurrentPath().toString() : null);
+        return stats;
+    }
+
+    private void consume() {
+        List<Object[]> batch = new ArrayList<>(batchSize);
+        List<AuditRingBuffer.Slot> fileBatch = new ArrayList<>(batchSize);
+        boolean toFile = "file".equalsIgnoreCase(sink);
+        long parkNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+
+        while (true) {
+            int drained;
+            if (toFile) {
+                drained = ring.drain(slot -> writeSegment(slot), batchSize);
+                if (drained > 0) {
+                    flushSegment();
+                    batches.increment();
+                }
+            } else {
+                drained = ring.drain(slot -> batch.add(toRow(slot)), batchSize);
+                if (drained > 0) {
+                    writeBatch(batch, fileBatch);
+                    batch.clear();
+                }
+            }
+
+            if (drained == 0) {
+                if (!running) {
+                    break;
+                }
+                LockSupport.parkNanos(parkNanos);
+            }
+        }
+
+        try {
+            segmentWriter.close();
+        } catch (IOException e) {
+            logger.warn("Could not close audit segment: {}", e.getMessage());
+        }
+    }
+
+    private void writeBatch(List<Object[]> batch, List<AuditRingBuffer.Slot> fallback) {
+        try {
+            jdbcTemplate.batchUpdate(INSERT_SQL, batch);
+            written.add(batch.size());
+            batches.increment();
+        } catch (Exception e) {
+            writeFailures.increment();
+            logger.error("Audit batch insert of {} events failed, writing to segment file", batch.size(), e);
+            for (Object[] row : batch) {
+                writeSegment(fromRow(row));
+            }
+            flushSegment();
+        }
+    }
+
+    private void writeSegment(AuditRingBuffer.Slot slot) {
+        try {
+            segmentWriter.write(slot);
+            writtenToFile.increment();
+        } catch (IOException e) {
+            lostEvents.incrementAndGet();
+            writeFailures.increment();
+            logger.error("Audit segment write failed", e);
+        }
+    }
+
+    private void flushSegment() {
+        try {
+            segmentWriter.flush();
+        } catch (IOException e) {
+            writeFailures.increment();
+            logger.error("Audit segment flush failed", e);
+        }
+    }
+
+    private static Object[] toRow(AuditRingBuffer.Slot slot) {
+        return new Object[] {
+                new Timestamp(slot.getOccurredAt()), slot.getUsername(), slot.getAction(), slot.getResourceType(),
+                slot.getResourceId(), slot.getPatientId() >= 0 ? slot.getPatientId() : null, slot.getStatus()
+        };
+    }
+
+    private static AuditRingBuffer.Slot fromRow(Object[] row) {
+        AuditRingBuffer.Slot slot = new AuditRingBuffer.Slot();
+        slot.occurredAt = ((Timestamp) row[0]).getTime();
+        slot.username = (String) row[1];
+        slot.action = (String) row[2];
+        slot.resourceType = (String) row[3];
+        slot.resourceId = (String) row[4];
+        slot.patientId = row[5] != null ? (Long) row[5] : -1;
+        slot.status = (Integer) row[6];
+        return slot;
+    }
+}
@@ -1,6 +1,9 @@
 package com.matrixcare.service;
 
+import com.matrixcare.entity.RefreshToken;
 import com.matrixcare.entity.User;
+import com.matrixcare.jfr.TokenValidationEvent;
+import com.matrixcare.repository.RefreshTokenRepository;
 import com.matrixcare.repository.UserRepository;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
@@ -8,14 +11,22 @@ import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
 
 @Service
 public class AuthService {
@@ -23,14 +34,30 @@ public class AuthService {
     @Autowired
     private UserRepository userRepository;
     
-    private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+    @Autowired
+    private TokenRevocationService revocationService;
+    
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+    
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+    
+    private final SecureRandom secureRandom = new SecureRandom();
     
     @Value("${jwt.secret:mySecretKey12345678901234567890123456789012345678901234567890}")
     private String jwtSecret;
     
-    @Value("${jwt.expiration:86400}") // 24 hours in seconds
+    @Value("${jwt.expiration:900}") // 15 minutes in seconds; sessions renew with a refresh token
     private Long jwtExpiration;
     
+    @Value("${jwt.refresh-expiration:1209600}") // 14 days in seconds
+    private Long refreshExpiration;
+    
+    // Tabs loading together may present the token that was just rotated
+    @Value("${matrixcare.auth.refresh-reuse-grace-seconds:10}")
+    private long refreshReuseGraceSeconds;
+    
     private SecretKey getSigningKey() {
         return Keys.hmacShaKeyFor(jwtSecret.getBytes());
     }
@@ -42,7 +69,7 @@ public class AuthService {
         }
         
         // Hash password
-        user.setPassword(passwordEncoder.encode(user.getPassword()));
+        user.setPassword(passwordHashingService.encode(user.getPassword()));
         
         // Save user
         return userRepository.save(user);
@@ -61,21 +88,100 @@ public class AuthService {
             throw new RuntimeException("Account is deactivated");
         }
         
-        if (!passwordEncoder.matches(password, user.getPassword())) {
+        if (!passwordHashingService.matches(password, user.getPassword())) {
             throw new RuntimeException("Invalid email or password");
         }
         
-        // Generate JWT token
+        return createSession(user);
+    }
+    
+    // Access token plus a new refresh token, without a password check
+    public Map<String, Object> createSession(User user) {
         String token = generateToken(user);
+        String refreshToken = issueRefreshToken(user.getId());
         
         Map<String, Object> response = new HashMap<>();
         response.put("token", token);
+        response.put("refreshToken", refreshToken);
         response.put("user", sanitizeUser(user));
         response.put("expiresIn", jwtExpiration);
+        response.put("refreshExpiresIn", refreshExpiration);
         
         return response;
     }
     
+    // Exchange a refresh token for a new session; each refresh token works once
+    @Transactional(noRollbackFor = RuntimeException.class)
+    public Map<String, Object> refreshSession(String refreshToken) {
+        RefreshToken stored = refreshTokenRepository.findByTokenHashForUpdate(hashToken(refreshToken))
+                .orElseThrow(() -> new RuntimeException("Invalid refresh token"));
+        LocalDateTime now = LocalDateTime.now();
+        
+        if (stored.getRevokedAt() != null) {
+            if (stored.getRevokedAt().plusSeconds(refreshReuseGraceSeconds).isAfter(now)) {
+                // A concurrent refresh of the same session; the client picks up the rotated token
+                throw new RuntimeException("Refresh token already used");
+            }
+            // A used token came back: assume it was stolen and end every session of the account
+            refreshTokenRepository.revokeAllForUser(stored.getUserId(), now);
+            throw new RuntimeException("Refresh token already used; please log in again");
+        }
+        if (!stored.getExpiresAt().isAfter(now)) {
+            throw new RuntimeException("Refresh token expired; please log in again");
+        }
+        
+        User user = userRepository.findById(stored.getUserId())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        if (!user.getIsActive()) {
+            throw new RuntimeException("Account is deactivated");
+        }
+        
+        stored.setRevokedAt(now);
+        refreshTokenRepository.save(stored);
+        return createSession(user);
+    }
+    
+    @Transactional
+    public void revokeRefreshToken(String refreshToken) {
+        refreshTokenRepository.findByTokenHashForUpdate(hashToken(refreshToken)).ifPresent(stored -> {
+            if (stored.getRevokedAt() == null) {
+                stored.setRevokedAt(LocalDateTime.now());
+                refreshTokenRepository.save(stored);
+            }
+        });
+    }
+    
+    @Scheduled(cron = "${matrixcare.auth.refresh-cleanup-cron:0 15 4 * * *}")
+    public void deleteExpiredRefreshTokens() {
+        refreshTokenRepository.deleteExpired(LocalDateTime.now());
+    }
+    
+    public Map<String, Object> getLoginStats() {
+        return passwordHashingService.getStats();
+    }
+    
+    private String issueRefreshToken(Long userId) {
+        byte[] bytes = new byte[32];
+        secureRandom.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        LocalDateTime now = LocalDateTime.now();
+        refreshTokenRepository.save(new RefreshToken(userId, hashToken(token), now, now.plusSeconds(refreshExpiration)));
+        return token;
+    }
+    
+    private static String hashToken(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+    
     public String generateToken(User user) {
         Map<String, Object> claims = new HashMap<>();
         claims.put("userId", user.getId());
@@ -86,21 +192,40 @@ public class AuthService {
         return Jwts.builder()
                 .setClaims(claims)
                 .setSubject(user.getEmail())
+                .setId(UUID.randomUUID().toString())
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + jwtExpiration * 1000))
                 .signWith(getSigningKey(), SignatureAlgorithm.HS256)
                 .compact();
     }
     
+    // Claims of a signed, unexpired token that has not been revoked
     public Claims validateToken(String token) {
+        TokenValidationEvent event = new TokenValidationEvent();
+        event.begin();
+        boolean valid = false;
         try {
-            return Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
-        } catch (Exception e) {
-            throw new RuntimeException("Invalid or expired token");
+            Claims claims;
+            try {
+                claims = Jwts.parserBuilder()
+                        .setSigningKey(getSigningKey())
+                        .build()
+                        .parseClaimsJws(token)
+                        .getBody();
+            } catch (Exception e) {
+                throw new RuntimeException("Invalid or expired token");
+            }
+            if (revocationService.isRevoked(claims)) {
+                throw new RuntimeException("Token has been revoked");
+            }
+            valid = true;
+            return claims;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.valid = valid;
+                event.commit();
+            }
         }
     }
     
@@ -129,6 +254,27 @@ public class AuthService {
         }
     }
     
+    // Log out: revoke this token until it would have expired
+    public void revokeToken(String token) {
+        Claims claims = validateToken(token);
+        Object userId = claims.get("userId");
+        revocationService.revokeToken(claims.getId(), userId != null ? Long.valueOf(userId.toString()) : null,
+                claims.getExpiration());
+    }
+    
+    // Revoke every token issued to a user so far, e.g. when staff leave or a device is lost
+    public void revokeAllTokensForUser(Long userId) {
+        if (!userRepository.existsById(userId)) {
+            throw new RuntimeException("User not found with id: " + userId);
+        }
+        revocationService.revokeAllForUser(userId, jwtExpiration);
+        refreshTokenRepository.revokeAllForUser(userId, LocalDateTime.now());
+    }
+    
+    public Map<String, Object> getRevocationStats() {
+        return revocationService.getStats();
+    }
+    
     private Map<String, Object> sanitizeUser(User user) {
         Map<String, Object> sanitizedUser = new HashMap<>();
         sanitizedUser.put("id", user.getId());
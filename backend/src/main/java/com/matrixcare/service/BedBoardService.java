@@ -0,0 +1,357 @@
+package com.matrixcare.service;
+
+import com.matrixcare.entity.Patient;
+import com.matrixcare.repository.PatientRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-memory bed board: which active patient occupies each room/bed.
+ * Beds are keyed facility-wide by room and bed, so the same bed cannot be held
+ * twice even under two different units. Reads are lock-free over concurrent
+ * maps; admissions, transfers and discharges go through one mutation lock so a
+ * claim either wins the bed or fails, and are undone if the surrounding
+ * transaction rolls back. The board is rebuilt from the patients table at
+ * startup and on a schedule; patients changed on other instances are re-read
+ * as their invalidations arrive.
+ */
+@Service
+public class BedBoardService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BedBoardService.class);
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private CacheInvalidationBus invalidationBus;
+
+    private final Object mutationLock = new Object();
+    private volatile Board board;
+    private volatile LocalDateTime lastLoad;
+    private volatile int loadConflicts;
+
+    // This instance's own changes already went through assign()
+    @PostConstruct
+    public void subscribe() {
+        invalidationBus.subscribeRemote(CacheInvalidationBus.PATIENT, id -> {
+            if (id != null) {
+                refresh(Long.valueOf(id));
+            } else {
+                reload();
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        try {
+            reload();
+        } catch (Exception e) {
+            logger.error("Could not load bed board", e);
+        }
+    }
+
+    // Rebuild from the database
+    @Scheduled(fixedDelayString = "${matrixcare.bedboard.resync-ms:300000}",
+               initialDelayString = "${matrixcare.bedboard.resync-ms:300000}")
+    public Map<String, Object> reload() {
+        synchronized (mutationLock) {
+            Board loaded = new Board();
+            int conflicts = 0;
+            for (Object[] row : patientRepository.findActiveBedAssignments()) {
+                Occupant occupant = new Occupant((Long) row[0], (String) row[1], (String) row[2], (String) row[3],
+                        normalizeUnit((String) row[4]), (String) row[5], (String) row[6], (LocalDateTime) row[7]);
+                BedKey key = BedKey.of(occupant.room, occupant.bed);
+                if (key == null) {
+                    continue;
+                }
+                Occupant holder = loaded.beds.putIfAbsent(key, occupant);
+                if (holder != null) {
+                    // Double-booked before the board existed; the earlier patient keeps the bed
+                    conflicts++;
+                    logger.warn("Bed {} is recorded for patients {} and {}", key, holder.patientId, occupant.patientId);
+                    continue;
+                }
+                loaded.add(key, occupant);
+            }
+            board = loaded;
+            lastLoad = LocalDateTime.now();
+            loadConflicts = conflicts;
+            return getStats();
+        }
+    }
+
+    // Bring the board in line with a saved patient; throws if the patient's bed is held by someone else
+    public void assign(Patient patient) {
+        Board current = ensureLoaded();
+        Long patientId = patient.getId();
+        BedKey target = Boolean.TRUE.equals(patient.getIsActive())
+                ? BedKey.of(patient.getRoomNumber(), patient.getBedNumber()) : null;
+
+        synchronized (mutationLock) {
+            BedKey previous = current.bedOf.get(patientId);
+            Occupant previousOccupant = previous != null ? current.beds.get(previous) : null;
+
+            if (target != null) {
+                Occupant holder = current.beds.get(target);
+                if (holder != null && !holder.patientId.equals(patientId)) {
+                    throw new IllegalStateException("Bed " + target + " is occupied by patient " + holder.patientId);
+                }
+            }
+
+            if (previous != null) {
+                current.remove(previous, patientId);
+            }
+            if (target != null) {
+                Occupant occupant = new Occupant(patientId, patient.getMedicalRecordNumber(), patient.getFirstName(),
+                        patient.getLastName(), normalizeUnit(patient.getUnit()), patient.getRoomNumber(),
+                        patient.getBedNumber(), patient.getAdmissionDate());
+                current.beds.put(target, occupant);
+                current.add(target, occupant);
+            }
+
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        if (status != STATUS_COMMITTED) {
+                            undo(current, patientId, target, previous, previousOccupant);
+                        }
+                    }
+                });
+            }
+        }
+    }
+
+    // Re-read one patient changed elsewhere; a bed conflict means the board is behind, so rebuild it
+    public void refresh(Long patientId) {
+        Board current = board;
+        if (current == null) {
+            return;
+        }
+        Optional<Patient> patient = patientRepository.findById(patientId);
+        try {
+            if (patient.isPresent()) {
+                assign(patient.get());
+            } else {
+                synchronized (mutationLock) {
+                    BedKey previous = current.bedOf.get(patientId);
+                    if (previous != null) {
+                        current.remove(previous, patientId);
+                    }
+                }
+            }
+        } catch (IllegalStateException e) {
+            reload();
+        }
+    }
+
+    // Occupied beds of one unit in room/bed order
+    public List<Map<String, Object>> getUnitBoard(String unit) {
+        Map<BedKey, Occupant> beds = ensureLoaded().byUnit.get(normalizeUnit(unit));
+        List<Map<String, Object>> result = new ArrayList<>();
+        if (beds != null) {
+            for (Occupant occupant : beds.values()) {
+                result.add(occupant.toMap());
+            }
+        }
+        return result;
+    }
+
+    // Occupied bed count per unit
+    public Map<String, Integer> getUnitCounts() {
+        Map<String, Integer> counts = new TreeMap<>();
+        for (Map.Entry<String, ConcurrentSkipListMap<BedKey, Occupant>> entry : ensureLoaded().byUnit.entrySet()) {
+            int size = entry.getValue().size();
+            if (size > 0) {
+                counts.put(entry.getKey(), size);
+            }
+        }
+        return counts;
+    }
+
+    // Current occupant of a bed, if any
+    public Optional<Map<String, Object>> getOccupant(String room, String bed) {
+        BedKey key = BedKey.of(room, bed);
+        if (key == null) {
+            return Optional.empty();
+        }
+        Occupant occupant = ensureLoaded().beds.get(key);
+        return occupant != null ? Optional.of(occupant.toMap()) : Optional.empty();
+    }
+
+    public Map<String, Object> getStats() {
+        Board current = board;
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("occupiedBeds", current != null ? current.beds.size() : 0);
+        stats.put("units", current != null ? current.byUnit.size() : 0);
+        stats.put("lastLoad", lastLoad);
+        stats.put("loadConflicts", loadConflicts);
+        return stats;
+    }
+
+    private Board ensureLoaded() {
+        Board current = board;
+        if (current == null) {
+            reload();
+            current = board;
+        }
+        return current;
+    }
+
+    private void undo(Board current, Long patientId, BedKey target, BedKey previous, Occupant previousOccupant) {
+        synchronized (mutationLock) {
+            if (board != current) {
+                // Reloaded since; the database state is already reflected
+                return;
+            }
+            if (target != null) {
+                current.remove(target, patientId);
+            }
+            if (previous != null && previousOccupant != null && current.beds.putIfAbsent(previous, previousOccupant) == null) {
+                current.add(previous, previousOccupant);
+            }
+        }
+    }
+
+    private static String normalizeUnit(String unit) {
+        return unit == null || unit.isBlank() ? VitalAlertService.UNASSIGNED_UNIT : unit.trim();
+    }
+
+    // Occupancy maps; mutated only under mutationLock
+    private static final class Board {
+        final Map<BedKey, Occupant> beds = new ConcurrentHashMap<>();
+        final Map<Long, BedKey> bedOf = new ConcurrentHashMap<>();
+        final Map<String, ConcurrentSkipListMap<BedKey, Occupant>> byUnit = new ConcurrentHashMap<>();
+
+        void add(BedKey key, Occupant occupant) {
+            bedOf.put(occupant.patientId, key);
+            byUnit.computeIfAbsent(occupant.unit, u -> new ConcurrentSkipListMap<>()).put(key, occupant);
+        }
+
+        void remove(BedKey key, Long patientId) {
+            Occupant occupant = beds.get(key);
+            if (occupant == null || !occupant.patientId.equals(patientId)) {
+                return;
+            }
+            beds.remove(key);
+            bedOf.remove(patientId, key);
+            Map<BedKey, Occupant> unitBeds = byUnit.get(occupant.unit);
+            if (unitBeds != null) {
+                unitBeds.remove(key);
+            }
+        }
+    }
+
+    private record BedKey(String room, String bed) implements Comparable<BedKey> {
+
+        // Trimmed and uppercased; null when there is no room
+        static BedKey of(String room, String bed) {
+            if (room == null || room.isBlank()) {
+                return null;
+            }
+            return new BedKey(room.trim().toUpperCase(), bed == null ? "" : bed.trim().toUpperCase());
+        }
+
+        // Natural order, so room 9 sorts before room 10
+        @Override
+        public int compareTo(BedKey other) {
+            int byRoom = compareNatural(room, other.room);
+            return byRoom != 0 ? byRoom : compareNatural(bed, other.bed);
+        }
+
+        @Override
+        public String toString() {
+            return bed.isEmpty() ? room : room + "-" + bed;
+        }
+
+        private static int compareNatural(String a, String b) {
+            int i = 0;
+            int j = 0;
+            while (i < a.length() && j < b.length()) {
+                char ca = a.charAt(i);
+                char cb = b.charAt(j);
+                if (Character.isDigit(ca) && Character.isDigit(cb)) {
+                    int endA = i;
+                    while (endA < a.length() && Character.isDigit(a.charAt(endA))) {
+                        endA++;
+                    }
+                    int endB = j;
+                    while (endB < b.length() && Character.isDigit(b.charAt(endB))) {
+                        endB++;
+                    }
+                    String numberA = a.substring(i, endA).replaceFirst("^0+(?=.)", "");
+                    String numberB = b.substring(j, endB).replaceFirst("^0+(?=.)", "");
+                    int byLength = Integer.compare(numberA.length(), numberB.length());
+                    if (byLength != 0) {
+                        return byLength;
+                    }
+                    int byDigits = numberA.compareTo(numberB);
+                    if (byDigits != 0) {
+                        return byDigits;
+                    }
+                    i = endA;
+                    j = endB;
+                } else {
+                    if (ca != cb) {
+                        return Character.compare(ca, cb);
+                    }
+                    i++;
+                    j++;
+                }
+            }
+            int byRest = Integer.compare(a.length() - i, b.length() - j);
+            return byRest != 0 ? byRest : a.compareTo(b);
+        }
+    }
+
+    private static final class Occupant {
+        final Long patientId;
+        final String medicalRecordNumber;
+        final String firstName;
+        final String lastName;
+        final String unit;
+        final String room;
+        final String bed;
+        final LocalDateTime admissionDate;
+
+        Occupant(Long patientId, String medicalRecordNumber, String firstName, String lastName, String unit,
+                 String room, String bed, LocalDateTime admissionDate) {
+            this.patientId = patientId;
+            this.medicalRecordNumber = medicalRecordNumber;
+            this.firstName = firstName;
+            this.lastName = lastName;
+            this.unit = unit;
+            this.room = room;
+            this.bed = bed;
+            this.admissionDate = admissionDate;
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new HashMap<>();
+            map.put("patientId", patientId);
+            map.put("medicalRecordNumber", medicalRecordNumber);
+            map.put("firstName", firstName);
+            map.put("lastName", lastName);
+            map.put("unit", unit);
+            map.put("roomNumber", room);
+            map.put("bedNumber", bed);
+            map.put("admissionDate", admissionDate);
+            return map;
+        }
+    }
+}
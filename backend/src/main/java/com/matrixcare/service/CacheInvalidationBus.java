@@ -0,0 +1,252 @@
+package com.matrixcare.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Keeps node-local caches coherent across backend instances.
+ * A change to a cached entity is published here: this instance's listeners
+ * evict once the transaction commits, and the invalidation is appended to a
+ * shared log (the cache_invalidations table, written in the same transaction).
+ * Every instance tails the log with a cursor every poll-ms and hands other
+ * instances' entries to its listeners, so a cache is stale for at most about
+ * one poll interval. Ids skipped by the cursor (a transaction that committed
+ * after a later one) are asked for again until gap-timeout-ms. An instance that
+ * could not poll for half the retention period may have missed pruned entries
+ * and clears every cache instead.
+ */
+@Service
+public class CacheInvalidationBus {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheInvalidationBus.class);
+
+    public static final String PATIENT = "patient";
+    public static final String ALERT_THRESHOLDS = "alert-thresholds";
+
+    private static final int MAX_GAPS = 10000;
+
+    private final InvalidationLog log;
+    private final String nodeId;
+    private final int batchSize;
+    private final long gapTimeoutMs;
+    private final long retentionMinutes;
+
+    // entity type -> listeners; a listener gets the entity id, or null for every entity of the type
+    private final Map<String, List<Consumer<String>>> listeners = new ConcurrentHashMap<>();
+    private final Map<String, List<Consumer<String>>> remoteListeners = new ConcurrentHashMap<>();
+
+    private final Object pollLock = new Object();
+    private long cursor = -1;
+    private final Map<Long, Long> gaps = new LinkedHashMap<>();  // skipped id -> when it was noticed
+    private long lastPollMillis;
+    private volatile boolean available;
+    private volatile boolean pollFailing;
+
+    @Autowired
+    public CacheInvalidationBus(JdbcTemplate jdbcTemplate,
+                                @Value("${matrixcare.invalidation.transport:jdbc}") String transport,
+                                @Value("${matrixcare.invalidation.node-id:}") String nodeId,
+                                @Value("${matrixcare.invalidation.batch-size:500}") int batchSize,
+                                @Value("${matrixcare.invalidation.gap-timeout-ms:30000}") long gapTimeoutMs,
+                                @Value("${matrixcare.invalidation.retention-minutes:60}") long retentionMinutes) {
+        this("local".equalsIgnoreCase(transport) ? new LocalInvalidationLog() : new JdbcInvalidationLog(jdbcTemplate),
+                nodeId.isBlank() ? defaultNodeId() : nodeId, batchSize, gapTimeoutMs, retentionMinutes);
+    }
+
+    public CacheInvalidationBus(InvalidationLog log, String nodeId, int batchSize, long gapTimeoutMs,
+                                long retentionMinutes) {
+        this.log = log;
+        this.nodeId = nodeId;
+        this.batchSize = batchSize;
+        this.gapTimeoutMs = gapTimeoutMs;
+        this.retentionMinutes = retentionMinutes;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        synchronized (pollLock) {
+            initCursor();
+        }
+        if (available) {
+            logger.info("Cache invalidation bus started on node {} at cursor {}", nodeId, cursor);
+        }
+    }
+
+    public void subscribe(String entityType, Consumer<String> listener) {
+        listeners.computeIfAbsent(entityType, type -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    // For caches the writing instance already updates itself; only other instances' changes are passed on
+    public void subscribeRemote(String entityType, Consumer<String> listener) {
+        remoteListeners.computeIfAbsent(entityType, type -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    // Announce a change; entityId null invalidates every entity of the type
+    public void publish(String entityType, Object entityId) {
+        String id = entityId != null ? entityId.toString() : null;
+        if (available) {
+            try {
+                log.append(entityType, id, nodeId);
+            } catch (DataAccessException e) {
+                // The change itself must not fail because other instances cannot be told
+                logger.warn("Could not record invalidation of {} {}: {}", entityType, id, e.getMessage());
+            }
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dispatch(entityType, id, false);
+                }
+            });
+        } else {
+            dispatch(entityType, id, false);
+        }
+    }
+
+    // Apply other instances' invalidations
+    @Scheduled(fixedDelayString = "${matrixcare.invalidation.poll-ms:1000}",
+               initialDelayString = "${matrixcare.invalidation.poll-ms:1000}")
+    public void poll() {
+        synchronized (pollLock) {
+            if (cursor < 0) {
+                initCursor();
+                return;
+            }
+            long now = System.currentTimeMillis();
+            try {
+                if (now - lastPollMillis > retentionMinutes * 60_000 / 2) {
+                    // Entries may have been pruned before this instance read them
+                    logger.warn("Invalidation log not read for {} s; clearing all caches",
+                            (now - lastPollMillis) / 1000);
+                    // Head first: anything committed while the caches are cleared is read on the next poll
+                    long head = log.head();
+                    Set<String> types = new HashSet<>(listeners.keySet());
+                    types.addAll(remoteListeners.keySet());
+                    types.forEach(type -> dispatch(type, null, true));
+                    cursor = head;
+                    gaps.clear();
+                } else {
+                    applyLateEntries(now);
+                    List<InvalidationLog.Invalidation> batch;
+                    do {
+                        batch = log.readAfter(cursor, batchSize);
+                        for (InvalidationLog.Invalidation invalidation : batch) {
+                            noteGaps(invalidation.id(), now);
+                            cursor = invalidation.id();
+                            apply(invalidation);
+                        }
+                    } while (batch.size() == batchSize);
+                }
+                lastPollMillis = now;
+                if (pollFailing) {
+                    pollFailing = false;
+                    logger.info("Invalidation log readable again");
+                }
+            } catch (DataAccessException e) {
+                if (!pollFailing) {
+                    pollFailing = true;
+                    logger.warn("Could not read the invalidation log: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${matrixcare.invalidation.prune-ms:600000}",
+               initialDelayString = "${matrixcare.invalidation.prune-ms:600000}")
+    public void prune() {
+        if (!available) {
+            return;
+        }
+        try {
+            log.deleteBefore(LocalDateTime.now().minusMinutes(retentionMinutes));
+        } catch (DataAccessException e) {
+            logger.warn("Could not prune the invalidation log: {}", e.getMessage());
+        }
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    private void initCursor() {
+        try {
+            cursor = log.head();
+            lastPollMillis = System.currentTimeMillis();
+            available = true;
+        } catch (DataAccessException e) {
+            if (!pollFailing) {
+                pollFailing = true;
+                logger.warn("Caches are not kept coherent across instances until add-cache-invalidations.sql " +
+                        "is applied: {}", e.getMessage());
+            }
+        }
+    }
+
+    // Ids between the cursor and the next entry may still commit
+    private void noteGaps(long id, long now) {
+        if (id - cursor - 1 > MAX_GAPS) {
+            return;
+        }
+        for (long missing = cursor + 1; missing < id && gaps.size() < MAX_GAPS; missing++) {
+            gaps.put(missing, now);
+        }
+    }
+
+    private void applyLateEntries(long now) {
+        if (gaps.isEmpty()) {
+            return;
+        }
+        for (InvalidationLog.Invalidation invalidation : log.readIds(gaps.keySet())) {
+            gaps.remove(invalidation.id());
+            apply(invalidation);
+        }
+        // Rolled back, or committed so late that the whole delay bound is gone anyway
+        gaps.values().removeIf(noticed -> now - noticed > gapTimeoutMs);
+    }
+
+    private void apply(InvalidationLog.Invalidation invalidation) {
+        if (!nodeId.equals(invalidation.originNode())) {
+            dispatch(invalidation.entityType(), invalidation.entityId(), true);
+        }
+    }
+
+    private void dispatch(String entityType, String entityId, boolean remote) {
+        notify(listeners.getOrDefault(entityType, List.of()), entityType, entityId);
+        if (remote) {
+            notify(remoteListeners.getOrDefault(entityType, List.of()), entityType, entityId);
+        }
+    }
+
+    private static void notify(List<Consumer<String>> targets, String entityType, String entityId) {
+        for (Consumer<String> listener : targets) {
+            try {
+                listener.accept(entityId);
+            } catch (Exception e) {
+                logger.warn("Invalidation of {} {} failed in a listener: {}", entityType, entityId, e.getMessage());
+            }
+        }
+    }
+
+    // Unique per instance, also for several instances on one machine
+    private static String defaultNodeId() {
+        return ManagementFactory.getRuntimeMXBean().getName() + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
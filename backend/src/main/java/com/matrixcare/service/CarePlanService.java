@@ -0,0 +1,445 @@
+package com.matrixcare.service;
+
+import com.matrixcare.entity.CarePlanIntervention;
+import com.matrixcare.entity.NursingCarePlan;
+import com.matrixcare.repository.CarePlanInterventionRepository;
+import com.matrixcare.repository.NurseAssignmentRepository;
+import com.matrixcare.repository.NursingCarePlanRepository;
+import com.matrixcare.repository.PatientRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Nursing care plans and the recurring tasks their interventions expand into.
+ * Pending tasks are served from CareTaskQueue without touching the database.
+ * A completion updates the queue at once and is handed to a writer thread that
+ * inserts completions and advances next_due_at in JDBC batches; the insert is
+ * idempotent per occurrence, so a failed batch is simply retried. The queue is
+ * rebuilt from a single query at startup and periodically; pending completions
+ * are flushed first so the rebuild never resurrects finished work.
+ */
+@Service
+@Transactional
+public class CarePlanService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CarePlanService.class);
+
+    private static final String INSERT_COMPLETION_SQL = "INSERT IGNORE INTO care_plan_task_completions " +
+            "(intervention_id, patient_id, due_at, completed_at, completed_by, notes) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String ADVANCE_SQL = "UPDATE care_plan_interventions SET next_due_at = ? WHERE id = ?";
+
+    private static final Pattern EVERY = Pattern.compile("^Q\\s*(\\d+)\\s*(H|HR|HRS|MIN)$");
+
+    @Autowired
+    private NursingCarePlanRepository carePlanRepository;
+
+    @Autowired
+    private CarePlanInterventionRepository interventionRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private NurseAssignmentRepository assignmentRepository;
+
+    @Autowired
+    private NurseAssignmentService nurseAssignmentService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Tasks due in the same slot are ordered by plan priority
+    @Value("${matrixcare.care-plans.slot-minutes:15}")
+    private int slotMinutes;
+
+    @Value("${matrixcare.care-plans.batch-size:200}")
+    private int batchSize;
+
+    @Value("${matrixcare.care-plans.flush-ms:500}")
+    private long flushMs;
+
+    private CareTaskQueue queue;
+
+    private final LinkedBlockingDeque<Completion> pendingCompletions = new LinkedBlockingDeque<>();
+    // Held while a batch is drained and written, so a rebuild sees every earlier completion
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private Thread writer;
+    private volatile boolean running;
+
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder writeFailures = new LongAdder();
+    private volatile long lastRebuildMillis;
+
+    @PostConstruct
+    public void start() {
+        queue = new CareTaskQueue(slotMinutes);
+        running = true;
+        writer = new Thread(this::writeCompletions, "care-task-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (writer != null) {
+            writer.interrupt();
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        }
+        if (!pendingCompletions.isEmpty()) {
+            logger.warn("{} care task completions were not written at shutdown", pendingCompletions.size());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        rebuildQueue();
+    }
+
+    // Full resync picks up discharges, transfers and edits made outside this instance
+    @Scheduled(fixedDelayString = "${matrixcare.care-plans.resync-ms:900000}",
+               initialDelayString = "${matrixcare.care-plans.resync-ms:900000}")
+    public void scheduledRebuild() {
+        rebuildQueue();
+    }
+
+    // Keep the per-nurse lists in line with the current shift's primary assignments
+    @Scheduled(fixedDelayString = "${matrixcare.care-plans.assignment-refresh-ms:60000}",
+               initialDelayString = "${matrixcare.care-plans.assignment-refresh-ms:60000}")
+    @Transactional(readOnly = true)
+    public void refreshNurseAssignments() {
+        queue.assignNurses(loadCurrentAssignments());
+    }
+
+    public Map<String, Object> rebuildQueue() {
+        long start = System.nanoTime();
+        int tasks;
+        synchronized (queue) {
+            writeLock.lock();
+            try {
+                List<Completion> unwritten = new ArrayList<>();
+                pendingCompletions.drainTo(unwritten);
+                if (!unwritten.isEmpty()) {
+                    try {
+                        writeBatch(unwritten);
+                    } catch (RuntimeException e) {
+                        requeue(unwritten);
+                        throw e;
+                    }
+                }
+                List<CareTaskQueue.Task> pending = interventionRepository.findPendingTasks().stream()
+                        .map(CarePlanService::toTask).toList();
+                queue.rebuild(pending, loadCurrentAssignments());
+                tasks = pending.size();
+            } finally {
+                writeLock.unlock();
+            }
+        }
+        lastRebuildMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        logger.info("Care task queue rebuilt with {} pending tasks in {} ms", tasks, lastRebuildMillis);
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("pendingTasks", tasks);
+        result.put("elapsedMillis", lastRebuildMillis);
+        return result;
+    }
+
+    // Create a care plan; each intervention's first occurrence defaults to now
+    public Map<String, Object> createCarePlan(NursingCarePlan plan, List<CarePlanIntervention> interventions) {
+        if (!patientRepository.existsById(plan.getPatientId())) {
+            throw new RuntimeException("Patient not found with id: " + plan.getPatientId());
+        }
+        if (isBlank(plan.getNursingDiagnosis()) || isBlank(plan.getGoals()) || plan.getNurseId() == null) {
+            throw new IllegalArgumentException("nurseId, nursingDiagnosis and goals are required");
+        }
+        LocalDateTime now = LocalDateTime.now();
+        for (CarePlanIntervention intervention : interventions) {
+            if (isBlank(intervention.getDescription())) {
+                throw new IllegalArgumentException("Every intervention needs a description");
+            }
+            intervention.setIntervalMinutes(intervalMinutes(intervention.getFrequency()));
+            if (intervention.getNextDueAt() == null) {
+                intervention.setNextDueAt(now);
+            }
+        }
+
+        if (plan.getStartDate() == null) {
+            plan.setStartDate(LocalDate.now());
+        }
+        if (plan.getStatus() == null) {
+            plan.setStatus(NursingCarePlan.Status.active);
+        }
+        plan.setInterventions(interventions.stream()
+                .map(i -> i.getDescription() + (i.getFrequency() != null ? " (" + i.getFrequency() + ")" : ""))
+                .collect(Collectors.joining("\n")));
+        NursingCarePlan saved = carePlanRepository.save(plan);
+
+        for (CarePlanIntervention intervention : interventions) {
+            intervention.setCarePlanId(saved.getId());
+        }
+        List<CarePlanIntervention> savedInterventions = interventionRepository.saveAll(interventions);
+        if (saved.getStatus() == NursingCarePlan.Status.active) {
+            enqueueAfterCommit(saved.getId());
+        }
+        return toMap(saved, savedInterventions);
+    }
+
+    // Change a plan's status; only active plans have tasks in the queue
+    public Map<String, Object> updateStatus(Long carePlanId, NursingCarePlan.Status status, String evaluationNotes) {
+        NursingCarePlan plan = carePlanRepository.findById(carePlanId)
+                .orElseThrow(() -> new RuntimeException("Care plan not found with id: " + carePlanId));
+        plan.setStatus(status);
+        if (evaluationNotes != null) {
+            plan.setEvaluationNotes(evaluationNotes);
+        }
+        NursingCarePlan saved = carePlanRepository.save(plan);
+        List<CarePlanIntervention> interventions = interventionRepository.findByCarePlanIdOrderById(carePlanId);
+
+        if (status == NursingCarePlan.Status.active) {
+            enqueueAfterCommit(carePlanId);
+        } else {
+            List<Long> ids = interventions.stream().map(CarePlanIntervention::getId).toList();
+            afterCommit(() -> ids.forEach(queue::remove));
+        }
+        return toMap(saved, interventions);
+    }
+
+    @Transactional(readOnly = true)
+    public Map<String, Object> getCarePlan(Long carePlanId) {
+        NursingCarePlan plan = carePlanRepository.findById(carePlanId)
+                .orElseThrow(() -> new RuntimeException("Care plan not found with id: " + carePlanId));
+        return toMap(plan, interventionRepository.findByCarePlanIdOrderById(carePlanId));
+    }
+
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getCarePlansForPatient(Long patientId) {
+        List<NursingCarePlan> plans = carePlanRepository.findByPatientIdOrderByStartDateDescIdDesc(patientId);
+        if (plans.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, List<CarePlanIntervention>> interventions = interventionRepository
+                .findByCarePlanIdInOrderById(plans.stream().map(NursingCarePlan::getId).toList()).stream()
+                .collect(Collectors.groupingBy(CarePlanIntervention::getCarePlanId));
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (NursingCarePlan plan : plans) {
+            result.add(toMap(plan, interventions.getOrDefault(plan.getId(), List.of())));
+        }
+        return result;
+    }
+
+    // Queue reads and completions never open a transaction or touch the database
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<CareTaskQueue.Task> getNextTasksForUnit(String unit, int limit) {
+        return queue.nextForUnit(unit, limit);
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<CareTaskQueue.Task> getNextTasksForNurse(Long nurseId, int limit) {
+        return queue.nextForNurse(nurseId, limit);
+    }
+
+    // Complete the pending occurrence; expectedDueAt guards against completing a newer occurrence twice
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Map<String, Object> completeTask(Long interventionId, LocalDateTime expectedDueAt, String completedBy,
+                                            String notes) {
+        LocalDateTime now = LocalDateTime.now();
+        CareTaskQueue.Completed done;
+        // Queued for writing before a rebuild can reload the occurrence from the database
+        synchronized (queue) {
+            done = queue.complete(interventionId, expectedDueAt, now);
+            if (done == null) {
+                throw new RuntimeException("Pending task not found for intervention id: " + interventionId);
+            }
+            pendingCompletions.add(new Completion(interventionId, done.task().patientId(), done.task().dueAt(), now,
+                    completedBy, notes, done.next() != null ? done.next().dueAt() : null));
+        }
+        completed.increment();
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("completed", done.task());
+        result.put("completedAt", now);
+        result.put("next", done.next());
+        return result;
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Map<String, Object> getQueueStats() {
+        Map<String, Object> stats = queue.getStats(LocalDateTime.now());
+        stats.put("completions", completed.sum());
+        stats.put("completionsWritten", written.sum());
+        stats.put("completionsPending", pendingCompletions.size());
+        stats.put("writeBatches", batches.sum());
+        stats.put("writeFailures", writeFailures.sum());
+        stats.put("lastRebuildMillis", lastRebuildMillis);
+        return stats;
+    }
+
+    // Recurrence interval in minutes from a frequency such as "Q2H", "Q30MIN", "BID" or "daily"; null for one-time
+    static Integer intervalMinutes(String frequency) {
+        if (frequency == null || frequency.isBlank()) {
+            return null;
+        }
+        String upper = frequency.trim().toUpperCase();
+        Matcher every = EVERY.matcher(upper);
+        if (every.matches()) {
+            int amount = Integer.parseInt(every.group(1));
+            if (amount <= 0) {
+                throw new IllegalArgumentException("Invalid frequency: " + frequency);
+            }
+            return every.group(2).equals("MIN") ? amount : amount * 60;
+        }
+        return switch (upper) {
+            case "ONCE", "STAT" -> null;
+            case "QSHIFT", "Q SHIFT", "EVERY SHIFT" -> 8 * 60;
+            case "QID" -> 6 * 60;
+            case "TID" -> 8 * 60;
+            case "BID" -> 12 * 60;
+            case "DAILY", "QD", "QDAY" -> 24 * 60;
+            case "WEEKLY" -> 7 * 24 * 60;
+            default -> throw new IllegalArgumentException("Unrecognized frequency: " + frequency);
+        };
+    }
+
+    private void enqueueAfterCommit(Long carePlanId) {
+        List<CareTaskQueue.Task> tasks = interventionRepository.findPendingTasksForPlan(carePlanId).stream()
+                .map(CarePlanService::toTask).toList();
+        afterCommit(() -> tasks.forEach(queue::put));
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private Map<Long, Long> loadCurrentAssignments() {
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, Long> nurseOf = new HashMap<>();
+        for (Object[] row : assignmentRepository.findPrimaryForShift(nurseAssignmentService.shiftDateAt(now),
+                nurseAssignmentService.shiftAt(now))) {
+            nurseOf.put((Long) row[0], (Long) row[1]);
+        }
+        return nurseOf;
+    }
+
+    private void writeCompletions() {
+        List<Completion> batch = new ArrayList<>(batchSize);
+        while (running || !pendingCompletions.isEmpty()) {
+            boolean failed = false;
+            boolean full = false;
+            // Taken off the deque under the write lock, so a rebuild never runs while completions are in hand
+            writeLock.lock();
+            try {
+                pendingCompletions.drainTo(batch, batchSize);
+                if (!batch.isEmpty()) {
+                    full = batch.size() == batchSize;
+                    writeBatch(batch);
+                }
+            } catch (Exception e) {
+                failed = true;
+                writeFailures.increment();
+                logger.error("Writing {} care task completions failed, retrying", batch.size(), e);
+                requeue(batch);
+            } finally {
+                batch.clear();
+                writeLock.unlock();
+            }
+            if (failed && !running) {
+                break;
+            }
+            if (!full) {
+                try {
+                    Thread.sleep(flushMs);
+                } catch (InterruptedException e) {
+                    // Shutdown: keep draining what is already queued
+                }
+            }
+        }
+    }
+
+    // Back on the front in the original order; inserts are idempotent per occurrence
+    private void requeue(List<Completion> batch) {
+        for (int i = batch.size() - 1; i >= 0; i--) {
+            pendingCompletions.addFirst(batch.get(i));
+        }
+    }
+
+    // One transaction per batch; updates run in completion order so the latest next_due_at wins
+    private void writeBatch(List<Completion> batch) {
+        List<Object[]> inserts = new ArrayList<>(batch.size());
+        List<Object[]> advances = new ArrayList<>(batch.size());
+        for (Completion completion : batch) {
+            inserts.add(new Object[] { completion.interventionId(), completion.patientId(),
+                    Timestamp.valueOf(completion.dueAt()), Timestamp.valueOf(completion.completedAt()),
+                    completion.completedBy(), completion.notes() });
+            advances.add(new Object[] { completion.nextDueAt() != null ? Timestamp.valueOf(completion.nextDueAt()) : null,
+                    completion.interventionId() });
+        }
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(INSERT_COMPLETION_SQL, inserts);
+            jdbcTemplate.batchUpdate(ADVANCE_SQL, advances);
+        });
+        written.add(batch.size());
+        batches.increment();
+    }
+
+    private static CareTaskQueue.Task toTask(Object[] row) {
+        return new CareTaskQueue.Task((Long) row[0], (Long) row[1], (Long) row[2], (String) row[3], (String) row[4],
+                row[5] + " " + row[6], (NursingCarePlan.PriorityLevel) row[7], (String) row[8], (Integer) row[9],
+                (LocalDateTime) row[10]);
+    }
+
+    private static Map<String, Object> toMap(NursingCarePlan plan, List<CarePlanIntervention> interventions) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("carePlan", plan);
+        result.put("interventions", interventions);
+        return result;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private record Completion(Long interventionId, Long patientId, LocalDateTime dueAt, LocalDateTime completedAt,
+                              String completedBy, String notes, LocalDateTime nextDueAt) {}
+}
@@ -0,0 +1,208 @@
+package com.matrixcare.service;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.matrixcare.entity.NursingCarePlan;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * In-memory index of pending care plan tasks.
+ * Every active intervention has exactly one pending occurrence. Occurrences are
+ * kept in a skip list per unit and one per assigned nurse, ordered by due slot,
+ * plan priority within the slot, due time and id, so the head of a list is the
+ * next piece of work. Adding, completing and removing a task cost O(log n) and
+ * reading the next k tasks costs O(log n + k). Readers never lock; writers are
+ * serialized on this object. A rebuild assembles a new index off to the side
+ * and swaps it in.
+ */
+public final class CareTaskQueue {
+
+    private final long slotSeconds;
+    private final Comparator<Task> order;
+
+    private volatile Index index;
+
+    public CareTaskQueue(int slotMinutes) {
+        this.slotSeconds = Math.max(1, slotMinutes) * 60L;
+        this.order = Comparator.<Task>comparingLong(this::slot)
+                .thenComparing(Task::priority)
+                .thenComparing(Task::dueAt)
+                .thenComparingLong(Task::interventionId);
+        this.index = new Index(Map.of());
+    }
+
+    // Replace all tasks and nurse assignments (patientId -> nurseId)
+    public synchronized void rebuild(List<Task> tasks, Map<Long, Long> nurseOf) {
+        List<Task> sorted = new ArrayList<>(tasks);
+        sorted.sort(order);
+        Index fresh = new Index(nurseOf);
+        for (Task task : sorted) {
+            fresh.add(task);
+        }
+        index = fresh;
+    }
+
+    // Point the per-nurse lists at a new set of assignments; unit lists are untouched
+    public synchronized void assignNurses(Map<Long, Long> nurseOf) {
+        Index current = index;
+        Index fresh = new Index(nurseOf);
+        fresh.byUnit.putAll(current.byUnit);
+        fresh.tasks.putAll(current.tasks);
+        for (Task task : current.tasks.values()) {
+            Long nurseId = nurseOf.get(task.patientId());
+            if (nurseId != null) {
+                fresh.byNurse.computeIfAbsent(nurseId, k -> new ConcurrentSkipListSet<>(order)).add(task);
+            }
+        }
+        index = fresh;
+    }
+
+    public synchronized void put(Task task) {
+        index.remove(task.interventionId());
+        index.add(task);
+    }
+
+    public synchronized void remove(long interventionId) {
+        index.remove(interventionId);
+    }
+
+    // Complete the pending occurrence and queue the next one; null when the intervention has no pending task
+    public synchronized Completed complete(long interventionId, LocalDateTime expectedDueAt, LocalDateTime completedAt) {
+        Task task = index.tasks.get(interventionId);
+        if (task == null) {
+            return null;
+        }
+        if (expectedDueAt != null && !expectedDueAt.equals(task.dueAt())) {
+            throw new IllegalStateException("Task " + interventionId + " is now due at " + task.dueAt()
+                    + ", not " + expectedDueAt);
+        }
+        index.remove(interventionId);
+        Task next = task.next(completedAt);
+        if (next != null) {
+            index.add(next);
+        }
+        return new Completed(task, next);
+    }
+
+    public Task get(long interventionId) {
+        return index.tasks.get(interventionId);
+    }
+
+    public List<Task> nextForUnit(String unit, int limit) {
+        return head(index.byUnit.get(unit), limit);
+    }
+
+    public List<Task> nextForNurse(long nurseId, int limit) {
+        return head(index.byNurse.get(nurseId), limit);
+    }
+
+    public Map<String, Object> getStats(LocalDateTime now) {
+        Index current = index;
+        Map<String, Integer> perUnit = new TreeMap<>();
+        Map<String, Integer> overduePerUnit = new TreeMap<>();
+        current.byUnit.forEach((unit, tasks) -> {
+            perUnit.put(unit, tasks.size());
+            int overdue = 0;
+            for (Task task : tasks) {
+                // Ordered by slot first, so nothing past the current slot can be overdue
+                if (slot(task) > slotOf(now)) {
+                    break;
+                }
+                if (task.dueAt().isBefore(now)) {
+                    overdue++;
+                }
+            }
+            overduePerUnit.put(unit, overdue);
+        });
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("pendingTasks", current.tasks.size());
+        stats.put("pendingByUnit", perUnit);
+        stats.put("overdueByUnit", overduePerUnit);
+        stats.put("nursesWithTasks", current.byNurse.size());
+        stats.put("slotMinutes", slotSeconds / 60);
+        return stats;
+    }
+
+    private static List<Task> head(NavigableSet<Task> tasks, int limit) {
+        List<Task> result = new ArrayList<>();
+        if (tasks == null) {
+            return result;
+        }
+        Iterator<Task> iterator = tasks.iterator();
+        while (iterator.hasNext() && result.size() < limit) {
+            result.add(iterator.next());
+        }
+        return result;
+    }
+
+    private long slot(Task task) {
+        return slotOf(task.dueAt());
+    }
+
+    private long slotOf(LocalDateTime time) {
+        return Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), slotSeconds);
+    }
+
+    // Pending occurrence of one intervention
+    public record Task(long interventionId, long carePlanId, long patientId, String unit, String roomNumber,
+                       String patientName, NursingCarePlan.PriorityLevel priority, String description,
+                       Integer intervalMinutes,
+                       @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime dueAt) {
+
+        // Next occurrence on the original cadence after the completion time; missed occurrences are skipped
+        Task next(LocalDateTime completedAt) {
+            if (intervalMinutes == null || intervalMinutes <= 0) {
+                return null;
+            }
+            long elapsed = Math.max(0, Duration.between(dueAt, completedAt).toMinutes());
+            long periods = elapsed / intervalMinutes + 1;
+            return new Task(interventionId, carePlanId, patientId, unit, roomNumber, patientName, priority,
+                    description, intervalMinutes, dueAt.plusMinutes(periods * intervalMinutes));
+        }
+    }
+
+    public record Completed(Task task, Task next) {}
+
+    private final class Index {
+        final Map<Long, Task> tasks = new ConcurrentHashMap<>();
+        final Map<String, ConcurrentSkipListSet<Task>> byUnit = new ConcurrentHashMap<>();
+        final Map<Long, ConcurrentSkipListSet<Task>> byNurse = new ConcurrentHashMap<>();
+        final Map<Long, Long> nurseOf;
+
+        Index(Map<Long, Long> nurseOf) {
+            this.nurseOf = nurseOf;
+        }
+
+        void add(Task task) {
+            tasks.put(task.interventionId(), task);
+            String unit = task.unit() != null ? task.unit() : VitalAlertService.UNASSIGNED_UNIT;
+            byUnit.computeIfAbsent(unit, k -> new ConcurrentSkipListSet<>(order)).add(task);
+            Long nurseId = nurseOf.get(task.patientId());
+            if (nurseId != null) {
+                byNurse.computeIfAbsent(nurseId, k -> new ConcurrentSkipListSet<>(order)).add(task);
+            }
+        }
+
+        void remove(long interventionId) {
+            Task task = tasks.remove(interventionId);
+            if (task == null) {
+                return;
+            }
+            String unit = task.unit() != null ? task.unit() : VitalAlertService.UNASSIGNED_UNIT;
+            Set<Task> unitTasks = byUnit.get(unit);
+            if (unitTasks != null) {
+                unitTasks.remove(task);
+            }
+            Long nurseId = nurseOf.get(task.patientId());
+            if (nurseId != null && byNurse.containsKey(nurseId)) {
+                byNurse.get(nurseId).remove(task);
+            }
+        }
+    }
+}
@@ -0,0 +1,335 @@
+package com.matrixcare.service;
+
+import com.matrixcare.entity.CensusDaily;
+import com.matrixcare.repository.CensusDailyRepository;
+import com.matrixcare.repository.PatientRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+/**
+ * Daily census fact table: one row per unit and day with the end-of-day census
+ * and the day's admissions, discharges, transfers and length of stay.
+ * Admit, discharge and transfer events adjust the rows in the same transaction
+ * as the patient change; each unit's rows run without gaps from its first day
+ * to today, carried forward by a job just after midnight. The backfill job
+ * rebuilds rows from the patients and archived_patients tables, attributing
+ * each stay to the patient's last unit since past transfers are not recorded
+ * there; the transfer counts already in the rebuilt rows are kept.
+ */
+@Service
+@Transactional
+public class CensusService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CensusService.class);
+
+    public static final int MAX_BACKFILL_DAYS = 731;
+
+    @Autowired
+    private CensusDailyRepository censusRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private PatientArchiveService archiveService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // Days rebuilt at startup when the table is empty; 0 disables
+    @Value("${matrixcare.census.backfill-days:90}")
+    private int backfillDays;
+
+    private volatile Map<String, Object> lastBackfill;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initOnStartup() {
+        try {
+            if (backfillDays > 0 && censusRepository.count() == 0) {
+                backfill(LocalDate.now().minusDays(backfillDays));
+            } else {
+                rollForward();
+            }
+        } catch (Exception e) {
+            logger.error("Could not initialize daily census", e);
+        }
+    }
+
+    // Count an admission into the unit's census from the admission day on
+    public void recordAdmission(String unit, LocalDateTime admittedAt) {
+        applyEvent(normalizeUnit(unit), dayOf(admittedAt), 1, 1, 0, 0, 0, 0);
+    }
+
+    // Count a discharge and its length of stay
+    public void recordDischarge(String unit, LocalDateTime admittedAt, LocalDateTime dischargedAt) {
+        applyEvent(normalizeUnit(unit), dayOf(dischargedAt), -1, 0, 1, 0, 0, lengthOfStay(admittedAt, dischargedAt));
+    }
+
+    // Move a patient's census from one unit to another
+    public void recordTransfer(String fromUnit, String toUnit, LocalDateTime transferredAt) {
+        LocalDate day = dayOf(transferredAt);
+        applyEvent(normalizeUnit(fromUnit), day, -1, 0, 0, 0, 1, 0);
+        applyEvent(normalizeUnit(toUnit), day, 1, 0, 0, 1, 0, 0);
+    }
+
+    // Carry every unit's census into today so days without events still have a row
+    @Scheduled(cron = "${matrixcare.census.roll-cron:0 1 0 * * *}")
+    public void rollForward() {
+        LocalDate today = LocalDate.now();
+        transactionTemplate.executeWithoutResult(status -> {
+            for (String unit : censusRepository.findUnits()) {
+                ensureDays(unit, today, today);
+            }
+        });
+    }
+
+    // Rebuild rows from the given day through today from current and archived patients
+    public Map<String, Object> backfill(LocalDate from) {
+        long start = System.currentTimeMillis();
+        LocalDate today = LocalDate.now();
+        LocalDate first = from.isAfter(today) ? today : from;
+        if (ChronoUnit.DAYS.between(first, today) >= MAX_BACKFILL_DAYS) {
+            throw new IllegalArgumentException("At most " + MAX_BACKFILL_DAYS + " days per backfill");
+        }
+        int days = (int) ChronoUnit.DAYS.between(first, today) + 1;
+
+        Map<String, UnitSeries> series = new TreeMap<>();
+        // Both reads run in this method's transaction, so a patient archived meanwhile is seen exactly once
+        List<Object[]> spans = new ArrayList<>(
+                patientRepository.findCensusSpans(first.atStartOfDay(), today.plusDays(1).atStartOfDay()));
+        spans.addAll(archiveService.findArchivedCensusSpans(first.atStartOfDay(), today.plusDays(1).atStartOfDay()));
+        for (Object[] row : spans) {
+            LocalDateTime admittedAt = (LocalDateTime) row[1];
+            LocalDateTime dischargedAt = (LocalDateTime) row[2];
+            if (admittedAt == null || (dischargedAt == null && !Boolean.TRUE.equals(row[3]))) {
+                // Inactive without a discharge date: no usable stay
+                continue;
+            }
+            UnitSeries unit = series.computeIfAbsent(normalizeUnit((String) row[0]), u -> new UnitSeries(days));
+
+            int admitIndex = (int) ChronoUnit.DAYS.between(first, admittedAt.toLocalDate());
+            if (admitIndex >= 0 && admitIndex < days) {
+                unit.admissions[admitIndex]++;
+            }
+            // Present at the end of each day from admission up to the day before discharge
+            int presentFrom = Math.max(admitIndex, 0);
+            int presentTo = days;
+            if (dischargedAt != null) {
+                int dischargeIndex = (int) ChronoUnit.DAYS.between(first, dischargedAt.toLocalDate());
+                presentTo = Math.min(dischargeIndex, days);
+                if (dischargeIndex >= 0 && dischargeIndex < days) {
+                    unit.discharges[dischargeIndex]++;
+                    unit.losDays[dischargeIndex] += lengthOfStay(admittedAt, dischargedAt);
+                }
+            }
+            if (presentFrom < presentTo) {
+                unit.censusDelta[presentFrom]++;
+                if (presentTo < days) {
+                    unit.censusDelta[presentTo]--;
+                }
+            }
+        }
+
+        List<CensusDaily> rows = new ArrayList<>(series.size() * days);
+        transactionTemplate.executeWithoutResult(status -> {
+            // Read in the transaction that deletes them, so a transfer recorded meanwhile is not lost either
+            for (CensusDaily recorded : censusRepository.findTransfersFrom(first)) {
+                UnitSeries unit = series.computeIfAbsent(recorded.getUnit(), u -> new UnitSeries(days));
+                int index = (int) ChronoUnit.DAYS.between(first, recorded.getCensusDate());
+                if (index < days) {
+                    unit.transfersIn[index] = recorded.getTransfersIn();
+                    unit.transfersOut[index] = recorded.getTransfersOut();
+                }
+            }
+            for (Map.Entry<String, UnitSeries> entry : series.entrySet()) {
+                UnitSeries unit = entry.getValue();
+                int census = 0;
+                for (int i = 0; i < days; i++) {
+                    census += unit.censusDelta[i];
+                    CensusDaily row = new CensusDaily(first.plusDays(i), entry.getKey(), census);
+                    row.setAdmissions(unit.admissions[i]);
+                    row.setDischarges(unit.discharges[i]);
+                    row.setTransfersIn(unit.transfersIn[i]);
+                    row.setTransfersOut(unit.transfersOut[i]);
+                    row.setLosDays(unit.losDays[i]);
+                    rows.add(row);
+                }
+            }
+            censusRepository.deleteFrom(first);
+            censusRepository.flush();
+            censusRepository.saveAll(rows);
+        });
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("from", first);
+        result.put("to", today);
+        result.put("units", series.size());
+        result.put("patients", spans.size());
+        result.put("rows", rows.size());
+        result.put("durationMs", System.currentTimeMillis() - start);
+        result.put("completedAt", LocalDateTime.now());
+        lastBackfill = result;
+        logger.info("Census backfill from {}: {} rows for {} units", first, rows.size(), series.size());
+        return result;
+    }
+
+    // End-of-day census and event counts per day, for one unit or summed over all units
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getDailyCensus(LocalDate from, LocalDate to, String unit) {
+        List<Map<String, Object>> result = new ArrayList<>();
+        if (unit != null && !unit.isBlank()) {
+            for (CensusDaily row : censusRepository.findByUnitBetween(normalizeUnit(unit), from, to)) {
+                result.add(toDay(row.getCensusDate(), row.getCensus(), row.getAdmissions(), row.getDischarges(),
+                        row.getTransfersIn(), row.getTransfersOut()));
+            }
+        } else {
+            for (Object[] row : censusRepository.sumByDayBetween(from, to)) {
+                result.add(toDay((LocalDate) row[0], row[1], row[2], row[3], row[4], row[5]));
+            }
+        }
+        return result;
+    }
+
+    // Patient days, average daily census and average length of stay per unit over a range
+    @Transactional(readOnly = true)
+    public Map<String, Object> getLengthOfStayReport(LocalDate from, LocalDate to) {
+        long days = ChronoUnit.DAYS.between(from, to) + 1;
+        List<Map<String, Object>> units = new ArrayList<>();
+        long totalPatientDays = 0;
+        long totalAdmissions = 0;
+        long totalDischarges = 0;
+        long totalLosDays = 0;
+        for (Object[] row : censusRepository.sumByUnitBetween(from, to)) {
+            long patientDays = ((Number) row[1]).longValue();
+            long admissions = ((Number) row[2]).longValue();
+            long discharges = ((Number) row[3]).longValue();
+            long losDays = ((Number) row[4]).longValue();
+            units.add(toLengthOfStay((String) row[0], days, patientDays, admissions, discharges, losDays));
+            totalPatientDays += patientDays;
+            totalAdmissions += admissions;
+            totalDischarges += discharges;
+            totalLosDays += losDays;
+        }
+
+        Map<String, Object> report = new HashMap<>();
+        report.put("from", from);
+        report.put("to", to);
+        report.put("units", units);
+        report.put("total", toLengthOfStay(null, days, totalPatientDays, totalAdmissions, totalDischarges, totalLosDays));
+        return report;
+    }
+
+    public Map<String, Object> getLastBackfill() {
+        return lastBackfill;
+    }
+
+    private void applyEvent(String unit, LocalDate day, int censusDelta, int admissions, int discharges,
+                            int transfersIn, int transfersOut, long losDays) {
+        LocalDate today = LocalDate.now();
+        if (day.isAfter(today)) {
+            day = today;
+        }
+        ensureDays(unit, day, today);
+        censusRepository.addEvents(unit, day, admissions, discharges, transfersIn, transfersOut, losDays);
+        censusRepository.shiftCensus(unit, day, today, censusDelta);
+    }
+
+    // Make sure the unit has a row for every day in [from, to]; rows only ever go missing at either end
+    private void ensureDays(String unit, LocalDate from, LocalDate to) {
+        Optional<CensusDaily> latest = censusRepository.findTopByUnitAndCensusDateLessThanEqualOrderByCensusDateDesc(unit, to);
+        if (latest.isEmpty()) {
+            fill(unit, from, to, 0);
+            return;
+        }
+
+        CensusDaily last = latest.get();
+        fill(unit, last.getCensusDate().plusDays(1), to, last.getCensus());
+        if (from.isBefore(last.getCensusDate())) {
+            Optional<CensusDaily> before = censusRepository.findTopByUnitAndCensusDateLessThanEqualOrderByCensusDateDesc(
+                    unit, from);
+            if (before.isEmpty()) {
+                // Backdated event before the unit's first row
+                fill(unit, from, last.getCensusDate().minusDays(1), 0);
+            }
+        }
+    }
+
+    private void fill(String unit, LocalDate from, LocalDate to, int census) {
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            censusRepository.insertIfAbsent(day, unit, census);
+        }
+    }
+
+    private static Map<String, Object> toDay(LocalDate day, Object census, Object admissions, Object discharges,
+                                             Object transfersIn, Object transfersOut) {
+        Map<String, Object> map = new HashMap<>();
+        map.put("date", day);
+        map.put("census", ((Number) census).longValue());
+        map.put("admissions", ((Number) admissions).longValue());
+        map.put("discharges", ((Number) discharges).longValue());
+        map.put("transfersIn", ((Number) transfersIn).longValue());
+        map.put("transfersOut", ((Number) transfersOut).longValue());
+        return map;
+    }
+
+    private static Map<String, Object> toLengthOfStay(String unit, long days, long patientDays, long admissions,
+                                                      long discharges, long losDays) {
+        Map<String, Object> map = new HashMap<>();
+        if (unit != null) {
+            map.put("unit", unit);
+        }
+        map.put("patientDays", patientDays);
+        map.put("averageDailyCensus", days > 0 ? (double) patientDays / days : 0.0);
+        map.put("admissions", admissions);
+        map.put("discharges", discharges);
+        map.put("averageLengthOfStay", discharges > 0 ? (double) losDays / discharges : null);
+        return map;
+    }
+
+    // Whole days between admission and discharge; a same-day stay counts as one
+    private static long lengthOfStay(LocalDateTime admittedAt, LocalDateTime dischargedAt) {
+        if (admittedAt == null || dischargedAt == null) {
+            return 0;
+        }
+        return Math.max(1, ChronoUnit.DAYS.between(admittedAt.toLocalDate(), dischargedAt.toLocalDate()));
+    }
+
+    private static LocalDate dayOf(LocalDateTime time) {
+        return time != null ? time.toLocalDate() : LocalDate.now();
+    }
+
+    private static String normalizeUnit(String unit) {
+        return unit == null || unit.isBlank() ? VitalAlertService.UNASSIGNED_UNIT : unit.trim();
+    }
+
+    private static final class UnitSeries {
+        final int[] censusDelta;
+        final int[] admissions;
+        final int[] discharges;
+        final int[] transfersIn;
+        final int[] transfersOut;
+        final long[] losDays;
+
+        UnitSeries(int days) {
+            censusDelta = new int[days];
+            admissions = new int[days];
+            discharges = new int[days];
+            transfersIn = new int[days];
+            transfersOut = new int[days];
+            losDays = new long[days];
+        }
+    }
+}
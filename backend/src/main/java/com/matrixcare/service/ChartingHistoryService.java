@@ -0,0 +1,275 @@
+package com.matrixcare.service;
+
+import com.matrixcare.entity.PatientChartingData;
+import com.matrixcare.entity.PatientChartingHistory;
+import com.matrixcare.entity.PatientChartingHistory.EntryType;
+import com.matrixcare.repository.PatientChartingHistoryRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Append-only history of charting category edits.
+ * Each edit is stored as a delta holding only what changed: a new title and/or
+ * one splice of the item list (position, removed count, inserted items). Every
+ * N entries a full snapshot is written instead, so reconstructing a category as
+ * of any time replays at most N deltas from the nearest snapshot. The current
+ * state stays in patient_charting_data as a single-row read. Compaction folds
+ * entries older than the retention window into one snapshot per category.
+ */
+@Service
+public class ChartingHistoryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChartingHistoryService.class);
+
+    @Autowired
+    private PatientChartingHistoryRepository historyRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // Write a full snapshot after this many entries since the last one
+    @Value("${matrixcare.charting.snapshot-interval:20}")
+    private int snapshotInterval;
+
+    // Full edit history is kept this long; older entries are folded into a snapshot
+    @Value("${matrixcare.charting.history-retention-days:90}")
+    private int retentionDays;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    // Record a newly created category
+    public void recordCreate(PatientChartingData data, List<String> items) {
+        append(data, 1, EntryType.SNAPSHOT, snapshotPayload(data.getCategoryTitle(), data.getCategoryIcon(),
+                data.getCategoryColor(), items), LocalDateTime.now());
+    }
+
+    // Record an edit; the previous values are what the row held before it was changed
+    public void recordUpdate(PatientChartingData data, String previousTitle, List<String> previousItems,
+                             LocalDateTime previousUpdatedAt, List<String> items) {
+        Map<String, Object> delta = diff(previousTitle, previousItems, data.getCategoryTitle(), items);
+        if (delta.isEmpty()) {
+            return;
+        }
+
+        int version = nextVersion(data, previousTitle, previousItems, previousUpdatedAt);
+        int sinceSnapshot = version - historyRepository.findLatestSnapshotVersion(data.getId()).orElse(0);
+        if (sinceSnapshot >= snapshotInterval) {
+            append(data, version, EntryType.SNAPSHOT, snapshotPayload(data.getCategoryTitle(), data.getCategoryIcon(),
+                    data.getCategoryColor(), items), LocalDateTime.now());
+        } else {
+            append(data, version, EntryType.DELTA, delta, LocalDateTime.now());
+        }
+    }
+
+    // Record a deleted category; its history stays readable until compacted
+    public void recordDelete(PatientChartingData data, List<String> items) {
+        int version = nextVersion(data, data.getCategoryTitle(), items, data.getUpdatedAt());
+        append(data, version, EntryType.DELETED, new HashMap<>(), LocalDateTime.now());
+    }
+
+    // Reconstruct a category as of a point in time; empty when it had no recorded state then
+    public Optional<Map<String, Object>> getStateAsOf(Long patientId, Long chartingId, LocalDateTime asOf) {
+        Optional<Integer> snapshotVersion = historyRepository.findSnapshotVersionAsOf(chartingId, asOf);
+        if (snapshotVersion.isEmpty()) {
+            return Optional.empty();
+        }
+
+        List<PatientChartingHistory> entries = historyRepository.findForReplay(chartingId, snapshotVersion.get(), asOf);
+        if (entries.isEmpty() || !entries.get(0).getPatientId().equals(patientId)) {
+            return Optional.empty();
+        }
+
+        Map<String, Object> state = replay(entries);
+        PatientChartingHistory last = entries.get(entries.size() - 1);
+        state.put("id", chartingId);
+        state.put("patientId", patientId);
+        state.put("asOf", asOf);
+        state.put("version", last.getVersion());
+        state.put("recordedAt", last.getRecordedAt());
+        state.put("replayedEntries", entries.size());
+        return Optional.of(state);
+    }
+
+    // Versions of a category, newest first
+    public List<Map<String, Object>> getVersions(Long patientId, Long chartingId) {
+        List<Map<String, Object>> versions = new ArrayList<>();
+        for (Object[] row : historyRepository.findVersions(patientId, chartingId)) {
+            Map<String, Object> version = new HashMap<>();
+            version.put("version", row[0]);
+            version.put("type", row[1]);
+            version.put("recordedAt", row[2]);
+            versions.add(version);
+        }
+        return versions;
+    }
+
+    @Scheduled(cron = "${matrixcare.charting.compact-cron:0 30 3 * * *}")
+    public void scheduledCompaction() {
+        try {
+            Map<String, Object> result = compact();
+            logger.info("Charting history compaction folded {} categories, removed {} entries",
+                    result.get("categoriesCompacted"), result.get("entriesRemoved"));
+        } catch (Exception e) {
+            logger.error("Charting history compaction failed", e);
+        }
+    }
+
+    // Fold entries older than the retention window into one snapshot per category
+    public Map<String, Object> compact() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+        List<Long> chartingIds = historyRepository.findCompactableChartingIds(cutoff);
+        int removed = 0;
+        for (Long chartingId : chartingIds) {
+            Integer count = transactionTemplate.execute(status -> compactCategory(chartingId, cutoff));
+            removed += count != null ? count : 0;
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("cutoff", cutoff);
+        result.put("categoriesCompacted", chartingIds.size());
+        result.put("entriesRemoved", removed);
+        return result;
+    }
+
+    private int compactCategory(Long chartingId, LocalDateTime cutoff) {
+        List<PatientChartingHistory> entries = historyRepository.findBefore(chartingId, cutoff);
+        if (entries.size() < 2 && (entries.isEmpty() || entries.get(0).getEntryType() != EntryType.DELETED)) {
+            return 0;
+        }
+
+        PatientChartingHistory last = entries.get(entries.size() - 1);
+        if (last.getEntryType() == EntryType.DELETED) {
+            // Deleted before the cutoff; nothing after it can be reconstructed
+            return historyRepository.deleteOlderThanVersion(chartingId, last.getVersion() + 1);
+        }
+
+        Map<String, Object> state = replay(entries);
+        last.setEntryType(EntryType.SNAPSHOT);
+        last.setPayload(toJson(snapshotPayload((String) state.get("title"), (String) state.get("icon"),
+                (String) state.get("color"), castItems(state.get("items")))));
+        historyRepository.save(last);
+        return historyRepository.deleteOlderThanVersion(chartingId, last.getVersion());
+    }
+
+    private int nextVersion(PatientChartingData data, String previousTitle, List<String> previousItems,
+                            LocalDateTime previousUpdatedAt) {
+        Optional<PatientChartingHistory> latest = historyRepository.findTopByChartingIdOrderByVersionDesc(data.getId());
+        if (latest.isPresent()) {
+            return latest.get().getVersion() + 1;
+        }
+        // Category predates history; keep its prior state as the baseline snapshot
+        append(data, 1, EntryType.SNAPSHOT, snapshotPayload(previousTitle, data.getCategoryIcon(),
+                data.getCategoryColor(), previousItems), previousUpdatedAt != null ? previousUpdatedAt : data.getCreatedAt());
+        return 2;
+    }
+
+    private void append(PatientChartingData data, int version, EntryType type, Map<String, Object> payload,
+                        LocalDateTime recordedAt) {
+        historyRepository.save(new PatientChartingHistory(data.getId(), data.getPatientId(), version, type,
+                toJson(payload), recordedAt));
+    }
+
+    // Apply entries in version order, starting from a snapshot
+    private Map<String, Object> replay(List<PatientChartingHistory> entries) {
+        Map<String, Object> state = new HashMap<>();
+        List<String> items = new ArrayList<>();
+        boolean deleted = false;
+        for (PatientChartingHistory entry : entries) {
+            Map<String, Object> payload = fromJson(entry.getPayload());
+            switch (entry.getEntryType()) {
+                case SNAPSHOT:
+                    state.put("title", payload.get("title"));
+                    state.put("icon", payload.get("icon"));
+                    state.put("color", payload.get("color"));
+                    items = new ArrayList<>(castItems(payload.get("items")));
+                    deleted = false;
+                    break;
+                case DELTA:
+                    if (payload.containsKey("title")) {
+                        state.put("title", payload.get("title"));
+                    }
+                    if (payload.containsKey("at")) {
+                        int at = ((Number) payload.get("at")).intValue();
+                        int removeCount = ((Number) payload.get("del")).intValue();
+                        items.subList(at, at + removeCount).clear();
+                        items.addAll(at, castItems(payload.get("ins")));
+                    }
+                    break;
+                case DELETED:
+                    deleted = true;
+                    break;
+            }
+        }
+        state.put("items", items);
+        state.put("deleted", deleted);
+        return state;
+    }
+
+    // Title change plus a single splice covering everything between the common prefix and suffix
+    private static Map<String, Object> diff(String oldTitle, List<String> oldItems, String newTitle, List<String> newItems) {
+        Map<String, Object> delta = new LinkedHashMap<>();
+        if (!Objects.equals(oldTitle, newTitle)) {
+            delta.put("title", newTitle);
+        }
+
+        int prefix = 0;
+        int max = Math.min(oldItems.size(), newItems.size());
+        while (prefix < max && Objects.equals(oldItems.get(prefix), newItems.get(prefix))) {
+            prefix++;
+        }
+        int suffix = 0;
+        while (suffix < max - prefix
+                && Objects.equals(oldItems.get(oldItems.size() - 1 - suffix), newItems.get(newItems.size() - 1 - suffix))) {
+            suffix++;
+        }
+        int removeCount = oldItems.size() - prefix - suffix;
+        List<String> inserted = newItems.subList(prefix, newItems.size() - suffix);
+        if (removeCount > 0 || !inserted.isEmpty()) {
+            delta.put("at", prefix);
+            delta.put("del", removeCount);
+            delta.put("ins", new ArrayList<>(inserted));
+        }
+        return delta;
+    }
+
+    private static Map<String, Object> snapshotPayload(String title, String icon, String color, List<String> items) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("title", title);
+        payload.put("icon", icon);
+        payload.put("color", color);
+        payload.put("items", items != null ? items : new ArrayList<>());
+        return payload;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> castItems(Object items) {
+        return items != null ? (List<String>) items : new ArrayList<>();
+    }
+
+    private String toJson(Map<String, Object> payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Error processing charting history", e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> fromJson(String payload) {
+        try {
+            return payload != null ? objectMapper.readValue(payload, Map.class) : new HashMap<>();
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Error reading charting history", e);
+        }
+    }
+}
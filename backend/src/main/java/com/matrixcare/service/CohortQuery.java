@@ -0,0 +1,211 @@
+package com.matrixcare.service;
+
+import com.matrixcare.entity.VitalAlertThreshold;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.IntFunction;
+
+/**
+ * Parsed boolean cohort query.
+ * Built from a JSON tree such as
+ * {"and": [{"active": true}, {"vital": "OXYGEN_SATURATION", "below": 92, "withinHours": 12, "atLeast": 2},
+ * {"route": "inhaled"}]}; leaves are vital, medication, route, unit and active, combined with and/or/not.
+ * The same tree renders to the equivalent SQL, which the benchmark tests time the bitmaps against.
+ */
+public final class CohortQuery {
+
+    public enum Kind {
+        AND, OR, NOT, VITAL, MEDICATION, ROUTE, UNIT, ACTIVE
+    }
+
+    static final int MAX_WITHIN_HOURS = 24 * 31;
+    static final int MAX_AT_LEAST = 32;
+
+    final Kind kind;
+    final List<CohortQuery> children;
+    final VitalAlertThreshold.Metric metric;
+    final Double below;
+    final Double above;
+    final int withinHours;
+    final int atLeast;
+    final String value;
+
+    private CohortQuery(Kind kind, List<CohortQuery> children, VitalAlertThreshold.Metric metric,
+                        Double below, Double above, int withinHours, int atLeast, String value) {
+        this.kind = kind;
+        this.children = children;
+        this.metric = metric;
+        this.below = below;
+        this.above = above;
+        this.withinHours = withinHours;
+        this.atLeast = atLeast;
+        this.value = value;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static CohortQuery parse(Object node) {
+        if (!(node instanceof Map) || ((Map<String, Object>) node).isEmpty()) {
+            throw new IllegalArgumentException("Cohort query node must be a non-empty object");
+        }
+        Map<String, Object> map = (Map<String, Object>) node;
+
+        if (map.containsKey("and") || map.containsKey("or")) {
+            Kind kind = map.containsKey("and") ? Kind.AND : Kind.OR;
+            Object operands = map.get(kind.name().toLowerCase(Locale.ROOT));
+            if (!(operands instanceof List) || ((List<Object>) operands).isEmpty()) {
+                throw new IllegalArgumentException("'" + kind.name().toLowerCase(Locale.ROOT) + "' needs a non-empty list");
+            }
+            List<CohortQuery> children = new ArrayList<>();
+            for (Object operand : (List<Object>) operands) {
+                children.add(parse(operand));
+            }
+            return new CohortQuery(kind, children, null, null, null, 0, 0, null);
+        }
+        if (map.containsKey("not")) {
+            return not(parse(map.get("not")));
+        }
+        if (map.containsKey("vital")) {
+            VitalAlertThreshold.Metric metric;
+            try {
+                metric = VitalAlertThreshold.Metric.valueOf(map.get("vital").toString().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown vital: " + map.get("vital"));
+            }
+            Double below = number(map, "below");
+            Double above = number(map, "above");
+            if (below == null && above == null) {
+                throw new IllegalArgumentException("Vital condition needs 'below' and/or 'above'");
+            }
+            int withinHours = map.get("withinHours") != null ? number(map, "withinHours").intValue() : 24;
+            int atLeast = map.get("atLeast") != null ? number(map, "atLeast").intValue() : 1;
+            if (withinHours < 1 || withinHours > MAX_WITHIN_HOURS) {
+                throw new IllegalArgumentException("withinHours must be between 1 and " + MAX_WITHIN_HOURS);
+            }
+            if (atLeast < 1 || atLeast > MAX_AT_LEAST) {
+                throw new IllegalArgumentException("atLeast must be between 1 and " + MAX_AT_LEAST);
+            }
+            return new CohortQuery(Kind.VITAL, Collections.emptyList(), metric, below, above, withinHours, atLeast, null);
+        }
+        if (map.containsKey("medication")) {
+            String token = MedicationConflictTable.normalize(String.valueOf(map.get("medication")));
+            if (token.isEmpty() || token.contains(" ")) {
+                throw new IllegalArgumentException("'medication' must be a single drug name word");
+            }
+            return leaf(Kind.MEDICATION, token);
+        }
+        if (map.containsKey("route")) {
+            return leaf(Kind.ROUTE, String.valueOf(map.get("route")).toLowerCase(Locale.ROOT));
+        }
+        if (map.containsKey("unit")) {
+            return leaf(Kind.UNIT, String.valueOf(map.get("unit")));
+        }
+        if (map.containsKey("active")) {
+            CohortQuery active = leaf(Kind.ACTIVE, null);
+            return Boolean.parseBoolean(String.valueOf(map.get("active"))) ? active : not(active);
+        }
+        throw new IllegalArgumentException("Unknown cohort condition: " + map.keySet());
+    }
+
+    // Equivalent SQL over patients, vital_signs_entries and medications; windowStart maps withinHours to the
+    // timestamp the bitmap index uses so both sides see the same readings
+    public String toSql(List<Object> params, IntFunction<LocalDateTime> windowStart) {
+        StringBuilder sql = new StringBuilder("SELECT p.id FROM patients p WHERE ");
+        appendCondition(sql, params, windowStart);
+        return sql.append(" ORDER BY p.id").toString();
+    }
+
+    private void appendCondition(StringBuilder sql, List<Object> params, IntFunction<LocalDateTime> windowStart) {
+        switch (kind) {
+            case AND:
+            case OR:
+                sql.append('(');
+                for (int i = 0; i < children.size(); i++) {
+                    if (i > 0) {
+                        sql.append(kind == Kind.AND ? " AND " : " OR ");
+                    }
+                    children.get(i).appendCondition(sql, params, windowStart);
+                }
+                sql.append(')');
+                break;
+            case NOT:
+                sql.append("NOT ");
+                children.get(0).appendCondition(sql, params, windowStart);
+                break;
+            case VITAL:
+                String column = sqlColumn(metric);
+                sql.append("p.id IN (SELECT v.patient_id FROM vital_signs_entries v WHERE v.recorded_at >= ?");
+                params.add(windowStart.apply(withinHours));
+                if (below != null) {
+                    sql.append(" AND ").append(column).append(" < ?");
+                    params.add(below);
+                }
+                if (above != null) {
+                    sql.append(" AND ").append(column).append(" > ?");
+                    params.add(above);
+                }
+                sql.append(" GROUP BY v.patient_id HAVING COUNT(*) >= ?)");
+                params.add(atLeast);
+                break;
+            case MEDICATION:
+                sql.append("p.id IN (SELECT m.patient_id FROM medications m WHERE m.is_active = TRUE")
+                   .append(" AND LOWER(m.medication_name) REGEXP CONCAT('(^|[^a-z0-9])', ?, '([^a-z0-9]|$)'))");
+                params.add(value);
+                break;
+            case ROUTE:
+                sql.append("p.id IN (SELECT m.patient_id FROM medications m WHERE m.is_active = TRUE AND LOWER(m.route) = ?)");
+                params.add(value);
+                break;
+            case UNIT:
+                sql.append("p.unit = ?");
+                params.add(value);
+                break;
+            case ACTIVE:
+                sql.append("p.is_active = TRUE");
+                break;
+            default:
+                throw new IllegalStateException("Unhandled cohort condition " + kind);
+        }
+    }
+
+    private static String sqlColumn(VitalAlertThreshold.Metric metric) {
+        switch (metric) {
+            case SYSTOLIC:
+                return "v.blood_pressure_systolic";
+            case DIASTOLIC:
+                return "v.blood_pressure_diastolic";
+            case PULSE:
+                return "v.pulse";
+            case RESPIRATION:
+                return "v.respiration";
+            case OXYGEN_SATURATION:
+                return "v.oxygen_saturation";
+            case TEMPERATURE:
+                return "(CASE WHEN UPPER(v.temperature_unit) = 'C' THEN v.temperature * 9 / 5 + 32 ELSE v.temperature END)";
+            case PAIN_LEVEL:
+                return "v.pain_level";
+            default:
+                throw new IllegalArgumentException("Unhandled vital " + metric);
+        }
+    }
+
+    private static CohortQuery leaf(Kind kind, String value) {
+        return new CohortQuery(kind, Collections.emptyList(), null, null, null, 0, 0, value);
+    }
+
+    private static CohortQuery not(CohortQuery child) {
+        return new CohortQuery(Kind.NOT, Collections.singletonList(child), null, null, null, 0, 0, null);
+    }
+
+    private static Double number(Map<String, Object> map, String key) {
+        Object value = map.get(key);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Double.valueOf(value.toString());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("'" + key + "' must be a number");
+        }
+    }
+}
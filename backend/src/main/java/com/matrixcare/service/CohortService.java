@@ -0,0 +1,422 @@
+package com.matrixcare.service;
+
+import com.matrixcare.entity.Medication;
+import com.matrixcare.entity.VitalAlertThreshold;
+import com.matrixcare.entity.VitalSignsEntry;
+import com.matrixcare.repository.MedicationRepository;
+import com.matrixcare.repository.PatientRepository;
+import com.matrixcare.repository.VitalSignsEntryRepository;
+import org.roaringbitmap.BitSetUtil;
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Population cohort queries answered from compressed bitmaps of patient ids.
+ * Vital readings are indexed on ingest by 15-minute time slice and metric, each
+ * slice keeping its readings sorted by exact value, so a threshold is a binary
+ * search and the readings in range are one contiguous run; a per-patient hit
+ * counter over those runs answers "at least N times" and yields the patient bitmap.
+ * Patient and medication attributes are re-read on a schedule into an immutable
+ * bitmap index. Queries combine bitmaps with AND/OR/NOT.
+ */
+@Service
+public class CohortService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CohortService.class);
+
+    private static final int SLICE_MINUTES = 15;
+
+    private static final VitalAlertThreshold.Metric[] METRICS = VitalAlertThreshold.Metric.values();
+
+    @Autowired
+    private VitalSignsEntryRepository vitalSignsRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private MedicationRepository medicationRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${matrixcare.cohort.retention-hours:168}")
+    private int retentionHours;
+
+    // slice number -> vital readings recorded in that slice
+    private final ConcurrentSkipListMap<Integer, VitalSlice> slices = new ConcurrentSkipListMap<>();
+
+    // Highest patient id indexed, sizing the per-query hit counters
+    private final AtomicInteger maxPatientId = new AtomicInteger();
+
+    private volatile AttributeIndex attributes = AttributeIndex.EMPTY;
+
+    // Readings indexed live while the startup load runs, so the load does not count them twice
+    private final Set<Long> indexedDuringLoad = ConcurrentHashMap.newKeySet();
+    private volatile boolean vitalsLoaded;
+
+    // Load the retention window once the application is up, keeping startup itself database-free
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        try {
+            refreshAttributes();
+            loadVitals();
+        } catch (Exception e) {
+            logger.error("Cohort index load failed", e);
+        }
+    }
+
+    // Index a saved reading
+    public void record(VitalSignsEntry entry) {
+        if (!vitalsLoaded && entry.getId() != null) {
+            indexedDuringLoad.add(entry.getId());
+        }
+        index(entry);
+    }
+
+    public Map<String, Object> query(CohortQuery query) {
+        long start = System.nanoTime();
+        RoaringBitmap result = evaluate(query, attributes, currentSlice());
+        long elapsed = System.nanoTime() - start;
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("count", result.getCardinality());
+        response.put("patientIds", toIds(result));
+        response.put("elapsedMicros", elapsed / 1000);
+        response.put("vitalsLoaded", vitalsLoaded);
+        response.put("attributesRefreshedAt", attributes.refreshedAt);
+        return response;
+    }
+
+    // The same query answered with SQL over the tables, to check and time the bitmaps against
+    List<Long> queryBySql(CohortQuery query) {
+        int slice = currentSlice();
+        List<Object> params = new ArrayList<>();
+        String sql = query.toSql(params, hours -> sliceStart(windowStartSlice(slice, hours)));
+        return jdbcTemplate.queryForList(sql, Long.class, params.toArray());
+    }
+
+    public Map<String, Object> getIndexInfo() {
+        AttributeIndex current = attributes;
+        long bytes = current.sizeInBytes();
+        long readings = 0;
+        for (VitalSlice slice : slices.values()) {
+            synchronized (slice) {
+                for (VitalColumn column : slice.byMetric) {
+                    if (column != null) {
+                        bytes += column.sizeInBytes();
+                        readings += column.size;
+                    }
+                }
+            }
+        }
+
+        Map<String, Object> info = new HashMap<>();
+        info.put("vitalsLoaded", vitalsLoaded);
+        info.put("slices", slices.size());
+        info.put("sliceMinutes", SLICE_MINUTES);
+        info.put("retentionHours", retentionHours);
+        info.put("vitalReadings", readings);
+        info.put("patients", current.all.getCardinality());
+        info.put("units", current.byUnit.size());
+        info.put("medicationTerms", current.byMedication.size());
+        info.put("approximateBytes", bytes);
+        info.put("attributesRefreshedAt", current.refreshedAt);
+        return info;
+    }
+
+    // Rebuild patient and medication bitmaps and swap them in
+    @Scheduled(fixedDelayString = "${matrixcare.cohort.attribute-refresh-ms:60000}",
+               initialDelayString = "${matrixcare.cohort.attribute-refresh-ms:60000}")
+    public void refreshAttributes() {
+        RoaringBitmap all = new RoaringBitmap();
+        RoaringBitmap active = new RoaringBitmap();
+        Map<String, RoaringBitmap> byUnit = new HashMap<>();
+        for (Object[] row : patientRepository.findCohortAttributes()) {
+            int id = Math.toIntExact((Long) row[0]);
+            all.add(id);
+            if (Boolean.TRUE.equals(row[2])) {
+                active.add(id);
+            }
+            if (row[1] != null) {
+                byUnit.computeIfAbsent((String) row[1], k -> new RoaringBitmap()).add(id);
+            }
+        }
+
+        Map<String, RoaringBitmap> byMedication = new HashMap<>();
+        Map<String, RoaringBitmap> byRoute = new HashMap<>();
+        for (Object[] row : medicationRepository.findActiveMedicationAttributes()) {
+            int id = Math.toIntExact((Long) row[0]);
+            String normalized = MedicationConflictTable.normalize((String) row[1]);
+            if (!normalized.isEmpty()) {
+                for (String token : normalized.split(" ")) {
+                    byMedication.computeIfAbsent(token, k -> new RoaringBitmap()).add(id);
+                }
+            }
+            if (row[2] != null) {
+                byRoute.computeIfAbsent(((Medication.Route) row[2]).name().toLowerCase(Locale.ROOT),
+                        k -> new RoaringBitmap()).add(id);
+            }
+        }
+
+        attributes = new AttributeIndex(all, active, byUnit, byMedication, byRoute, LocalDateTime.now());
+    }
+
+    // Drop slices that fell out of the retention window
+    @Scheduled(fixedDelayString = "${matrixcare.cohort.evict-ms:300000}")
+    public void evictExpiredSlices() {
+        int oldest = sliceOf(LocalDateTime.now().minusHours(retentionHours));
+        slices.headMap(oldest).clear();
+    }
+
+    private void loadVitals() {
+        long start = System.currentTimeMillis();
+        List<VitalSignsEntry> entries = vitalSignsRepository.findAllSince(LocalDateTime.now().minusHours(retentionHours));
+        int loaded = 0;
+        for (VitalSignsEntry entry : entries) {
+            if (!indexedDuringLoad.contains(entry.getId())) {
+                index(entry);
+                loaded++;
+            }
+        }
+        vitalsLoaded = true;
+        indexedDuringLoad.clear();
+        logger.info("Cohort index loaded {} vital readings into {} slices in {} ms",
+                loaded, slices.size(), System.currentTimeMillis() - start);
+    }
+
+    private void index(VitalSignsEntry entry) {
+        int slice = sliceOf(entry.getRecordedAt());
+        if (slice < sliceOf(LocalDateTime.now().minusHours(retentionHours))) {
+            return;
+        }
+        int patientId = Math.toIntExact(entry.getPatientId());
+        maxPatientId.accumulateAndGet(patientId, Math::max);
+        VitalSlice target = slices.computeIfAbsent(slice, k -> new VitalSlice());
+        synchronized (target) {
+            for (VitalAlertThreshold.Metric metric : METRICS) {
+                double value = metric.readingOf(entry);
+                if (Double.isNaN(value)) {
+                    continue;
+                }
+                VitalColumn column = target.byMetric[metric.ordinal()];
+                if (column == null) {
+                    column = target.byMetric[metric.ordinal()] = new VitalColumn();
+                }
+                column.add(value, patientId);
+            }
+        }
+    }
+
+    private RoaringBitmap evaluate(CohortQuery query, AttributeIndex index, int slice) {
+        switch (query.kind) {
+            case AND: {
+                RoaringBitmap result = evaluate(query.children.get(0), index, slice);
+                for (int i = 1; i < query.children.size() && !result.isEmpty(); i++) {
+                    result.and(evaluate(query.children.get(i), index, slice));
+                }
+                return result;
+            }
+            case OR: {
+                RoaringBitmap result = new RoaringBitmap();
+                for (CohortQuery child : query.children) {
+                    result.or(evaluate(child, index, slice));
+                }
+                return result;
+            }
+            case NOT:
+                return RoaringBitmap.andNot(index.all, evaluate(query.children.get(0), index, slice));
+            case VITAL:
+                return evaluateVital(query, slice);
+            case MEDICATION:
+                return copyOf(index.byMedication.get(query.value));
+            case ROUTE:
+                return copyOf(index.byRoute.get(query.value));
+            case UNIT:
+                return copyOf(index.byUnit.get(query.value));
+            case ACTIVE:
+                return index.active.clone();
+            default:
+                throw new IllegalStateException("Unhandled cohort condition " + query.kind);
+        }
+    }
+
+    // Patients with at least N readings strictly between the thresholds in the window, counting every reading
+    private RoaringBitmap evaluateVital(CohortQuery query, int slice) {
+        if (query.withinHours > retentionHours) {
+            throw new IllegalArgumentException("withinHours exceeds the cohort index retention of " + retentionHours + "h");
+        }
+        int bound = maxPatientId.get() + 1;
+        byte[] hits = new byte[bound];
+        long[] matched = new long[(bound + 63) >>> 6];
+        int metric = query.metric.ordinal();
+
+        for (VitalSlice vitalSlice : slices.tailMap(windowStartSlice(slice, query.withinHours)).values()) {
+            synchronized (vitalSlice) {
+                VitalColumn column = vitalSlice.byMetric[metric];
+                if (column == null) {
+                    continue;
+                }
+                int from = query.above != null ? column.firstAbove(query.above) : 0;
+                int to = query.below != null ? column.firstAtOrAbove(query.below) : column.size;
+                for (int i = from; i < to; i++) {
+                    int patientId = column.patients[i];
+                    if (patientId >= hits.length) {
+                        // Indexed after the query started
+                        hits = Arrays.copyOf(hits, patientId + 1);
+                        matched = Arrays.copyOf(matched, (patientId + 64) >>> 6);
+                    }
+                    if (hits[patientId] < query.atLeast && ++hits[patientId] == query.atLeast) {
+                        matched[patientId >>> 6] |= 1L << patientId;
+                    }
+                }
+            }
+        }
+        // Built from the words in one pass; adding ids in reading order would shift the bitmap's arrays on every add
+        return BitSetUtil.bitmapOf(matched);
+    }
+
+    private static int sliceOf(LocalDateTime time) {
+        return (int) Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), SLICE_MINUTES * 60L);
+    }
+
+    private static LocalDateTime sliceStart(int slice) {
+        return LocalDateTime.ofEpochSecond(slice * SLICE_MINUTES * 60L, 0, ZoneOffset.UTC);
+    }
+
+    private static int currentSlice() {
+        return sliceOf(LocalDateTime.now());
+    }
+
+    // First slice of a window ending in the given slice; windows are whole slices
+    private static int windowStartSlice(int slice, int hours) {
+        return slice - (hours * 60 / SLICE_MINUTES) + 1;
+    }
+
+    private static RoaringBitmap copyOf(RoaringBitmap bitmap) {
+        return bitmap != null ? bitmap.clone() : new RoaringBitmap();
+    }
+
+    private static List<Long> toIds(RoaringBitmap bitmap) {
+        List<Long> ids = new ArrayList<>(bitmap.getCardinality());
+        bitmap.forEach((int id) -> ids.add((long) id));
+        return ids;
+    }
+
+    private static final class VitalSlice {
+        // metric ordinal -> readings, created on the first reading of that metric
+        final VitalColumn[] byMetric = new VitalColumn[METRICS.length];
+    }
+
+    // Readings of one metric in a slice, kept sorted by value
+    private static final class VitalColumn {
+        double[] values = new double[8];
+        int[] patients = new int[8];
+        int size;
+
+        // Insert after equal values; slices are small, so shifting the tail is cheap
+        void add(double value, int patientId) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+                patients = Arrays.copyOf(patients, size * 2);
+            }
+            int at = firstAbove(value);
+            System.arraycopy(values, at, values, at + 1, size - at);
+            System.arraycopy(patients, at, patients, at + 1, size - at);
+            values[at] = value;
+            patients[at] = patientId;
+            size++;
+        }
+
+        // Index of the first reading greater than the threshold
+        int firstAbove(double threshold) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (values[mid] <= threshold) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        // Index of the first reading not below the threshold
+        int firstAtOrAbove(double threshold) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (values[mid] < threshold) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        long sizeInBytes() {
+            return values.length * 8L + patients.length * 4L;
+        }
+    }
+
+    private static final class AttributeIndex {
+        static final AttributeIndex EMPTY = new AttributeIndex(new RoaringBitmap(), new RoaringBitmap(),
+                Collections.emptyMap(), Collections.emptyMap(), Collections.emptyMap(), null);
+
+        final RoaringBitmap all;
+        final RoaringBitmap active;
+        final Map<String, RoaringBitmap> byUnit;
+        final Map<String, RoaringBitmap> byMedication;
+        final Map<String, RoaringBitmap> byRoute;
+        final LocalDateTime refreshedAt;
+
+        AttributeIndex(RoaringBitmap all, RoaringBitmap active, Map<String, RoaringBitmap> byUnit,
+                       Map<String, RoaringBitmap> byMedication, Map<String, RoaringBitmap> byRoute,
+                       LocalDateTime refreshedAt) {
+            this.all = all;
+            this.active = active;
+            this.byUnit = byUnit;
+            this.byMedication = byMedication;
+            this.byRoute = byRoute;
+            this.refreshedAt = refreshedAt;
+            runOptimize(all);
+            runOptimize(active);
+            byUnit.values().forEach(AttributeIndex::runOptimize);
+            byMedication.values().forEach(AttributeIndex::runOptimize);
+            byRoute.values().forEach(AttributeIndex::runOptimize);
+        }
+
+        long sizeInBytes() {
+            long bytes = all.getSizeInBytes() + active.getSizeInBytes();
+            for (Map<String, RoaringBitmap> map : Arrays.asList(byUnit, byMedication, byRoute)) {
+                for (RoaringBitmap bitmap : map.values()) {
+                    bytes += bitmap.getSizeInBytes();
+                }
+            }
+            return bytes;
+        }
+
+        private static void runOptimize(RoaringBitmap bitmap) {
+            bitmap.runOptimize();
+        }
+    }
+}
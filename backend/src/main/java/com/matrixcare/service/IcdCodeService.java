@@ -0,0 +1,122 @@
+package com.matrixcare.service;
+
+import com.matrixcare.entity.PatientDiagnosis;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+
+@Service
+public class IcdCodeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IcdCodeService.class);
+
+    private static final String DEFAULT_CODE_FILE = "icd10-codes.txt";
+
+    // Local code file, e.g. the CMS icd10cm_codes file; the bundled sample is used when empty
+    @Value("${matrixcare.icd.code-file:}")
+    private String codeFile;
+
+    @Value("${matrixcare.icd.max-results:50}")
+    private int maxResults;
+
+    // Swapped atomically on reload; readers always see a complete code set
+    private volatile IcdCodeSet codeSet;
+    private volatile long codeFileModified;
+
+    @PostConstruct
+    public void init() {
+        reloadCodes();
+    }
+
+    // Load the code set and swap it in without a restart
+    public synchronized Map<String, Object> reloadCodes() {
+        try {
+            long start = System.nanoTime();
+            IcdCodeSet loaded;
+            if (codeFile != null && !codeFile.isBlank()) {
+                Path path = Paths.get(codeFile);
+                long modified = Files.getLastModifiedTime(path).toMillis();
+                try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                    loaded = IcdCodeSet.parse(reader, path.toString());
+                }
+                codeFileModified = modified;
+            } else {
+                ClassPathResource resource = new ClassPathResource(DEFAULT_CODE_FILE);
+                try (BufferedReader reader = new BufferedReader(
+                        new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+                    loaded = IcdCodeSet.parse(reader, "classpath:" + DEFAULT_CODE_FILE);
+                }
+            }
+
+            codeSet = loaded;
+            logger.info("Loaded ICD-10 code set from {}: {} codes, {} words in {} ms", loaded.getSource(),
+                    loaded.getCodeCount(), loaded.getTokenCount(), (System.nanoTime() - start) / 1_000_000);
+            return getCodeSetInfo();
+        } catch (IOException | IllegalArgumentException e) {
+            // The previous code set, if any, stays in service
+            logger.error("Error loading ICD-10 code set", e);
+            throw new RuntimeException("Error loading ICD-10 code set: " + e.getMessage(), e);
+        }
+    }
+
+    // Pick up a replaced code file, e.g. the yearly CMS release
+    @Scheduled(fixedDelayString = "${matrixcare.icd.reload-check-ms:60000}")
+    public void reloadIfChanged() {
+        if (codeFile == null || codeFile.isBlank()) {
+            return;
+        }
+        try {
+            long modified = Files.getLastModifiedTime(Paths.get(codeFile)).toMillis();
+            if (modified != codeFileModified) {
+                reloadCodes();
+            }
+        } catch (Exception e) {
+            logger.warn("Could not check ICD-10 code file {}: {}", codeFile, e.getMessage());
+        }
+    }
+
+    public Map<String, Object> getCodeSetInfo() {
+        IcdCodeSet current = codeSet;
+        Map<String, Object> info = new HashMap<>();
+        info.put("source", current.getSource());
+        info.put("codes", current.getCodeCount());
+        info.put("words", current.getTokenCount());
+        info.put("indexBytes", current.getIndexBytes());
+        return info;
+    }
+
+    // Ranked typeahead matches for a code prefix or description words
+    public List<IcdCodeSet.Match> search(String query, int limit) {
+        return codeSet.search(query, Math.max(1, Math.min(limit, maxResults)));
+    }
+
+    public Optional<IcdCodeSet.Match> lookup(String code) {
+        return Optional.ofNullable(codeSet.lookup(code));
+    }
+
+    // Attach the normalized code for a diagnosis before it is saved; unknown codes get none
+    public void normalizeDiagnosis(PatientDiagnosis diagnosis) {
+        IcdCodeSet.Match match = codeSet.lookup(diagnosis.getDiagnosisCode());
+        if (match == null) {
+            diagnosis.setIcd10Code(null);
+            return;
+        }
+        diagnosis.setIcd10Code(match.getCode());
+        if (diagnosis.getDiagnosisDescription() == null || diagnosis.getDiagnosisDescription().isBlank()) {
+            diagnosis.setDiagnosisDescription(match.getDescription());
+        }
+    }
+}
@@ -0,0 +1,396 @@
+package com.matrixcare.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Immutable, precompiled ICD-10 code set for typeahead.
+ * Entries are numbered in rank order (shorter, more general descriptions first),
+ * so every posting list is already ranked and the best matches are simply the
+ * lowest entry ids. Codes and description words each live in a flattened prefix
+ * trie; a lookup is a trie walk plus a merge over a few posting lists.
+ */
+public final class IcdCodeSet {
+
+    private final String source;
+    private final String[] codes;          // entry -> display code, e.g. "I50.9"
+    private final String[] descriptions;   // entry -> description
+    private final int[] firstToken;        // entry -> token id of the first description word
+    private final int[][] entryTokens;     // entry -> sorted distinct token ids
+    private final IcdPrefixTrie codeTrie;  // normalized codes, e.g. "I509"
+    private final int[] codeEntries;       // code key id -> entry
+    private final IcdPrefixTrie tokenTrie; // description words
+    private final int[][] postings;        // token id -> ascending entry ids
+
+    private IcdCodeSet(String source, String[] codes, String[] descriptions, int[] firstToken, int[][] entryTokens,
+                       IcdPrefixTrie codeTrie, int[] codeEntries, IcdPrefixTrie tokenTrie, int[][] postings) {
+        this.source = source;
+        this.codes = codes;
+        this.descriptions = descriptions;
+        this.firstToken = firstToken;
+        this.entryTokens = entryTokens;
+        this.codeTrie = codeTrie;
+        this.codeEntries = codeEntries;
+        this.tokenTrie = tokenTrie;
+        this.postings = postings;
+    }
+
+    public static final class Match {
+        private final String code;
+        private final String description;
+        private final String matchType;
+
+        Match(String code, String description, String matchType) {
+            this.code = code;
+            this.description = description;
+            this.matchType = matchType;
+        }
+
+        public String getCode() { return code; }
+        public String getDescription() { return description; }
+        public String getMatchType() { return matchType; }
+    }
+
+    // Parse lines of the form "<code> <description>", as in the CMS ICD-10-CM code files
+    public static IcdCodeSet parse(BufferedReader reader, String source) throws IOException {
+        Map<String, String> byKey = new HashMap<>();
+
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+
+            int split = 0;
+            while (split < line.length() && !Character.isWhitespace(line.charAt(split))) {
+                split++;
+            }
+            String key = normalizeCode(line.substring(0, split));
+            String description = line.substring(split).trim();
+            if (key == null || description.isEmpty()) {
+                throw new IllegalArgumentException(source + ":" + lineNumber + ": expected '<code> <description>'");
+            }
+            byKey.put(key, description);
+        }
+
+        // Rank: shorter descriptions first, then by code
+        String[] keys = byKey.keySet().toArray(new String[0]);
+        Arrays.sort(keys, Comparator.comparingInt((String key) -> byKey.get(key).length())
+                .thenComparing(Comparator.naturalOrder()));
+
+        int entryCount = keys.length;
+        String[] codes = new String[entryCount];
+        String[] descriptions = new String[entryCount];
+        String[][] words = new String[entryCount][];
+        TreeSet<String> vocabulary = new TreeSet<>();
+        for (int entry = 0; entry < entryCount; entry++) {
+            codes[entry] = formatCode(keys[entry]);
+            descriptions[entry] = byKey.get(keys[entry]);
+            words[entry] = tokenize(descriptions[entry]);
+            vocabulary.addAll(Arrays.asList(words[entry]));
+        }
+
+        // Token ids follow sorted order so a word prefix maps to a contiguous id range
+        String[] tokens = vocabulary.toArray(new String[0]);
+        Map<String, Integer> tokenIds = new HashMap<>(tokens.length * 2);
+        for (int i = 0; i < tokens.length; i++) {
+            tokenIds.put(tokens[i], i);
+        }
+
+        int[] firstToken = new int[entryCount];
+        int[][] entryTokens = new int[entryCount][];
+        int[] postingSizes = new int[tokens.length];
+        for (int entry = 0; entry < entryCount; entry++) {
+            int[] ids = new int[words[entry].length];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = tokenIds.get(words[entry][i]);
+            }
+            firstToken[entry] = ids.length > 0 ? ids[0] : -1;
+            ids = Arrays.stream(ids).sorted().distinct().toArray();
+            entryTokens[entry] = ids;
+            for (int id : ids) {
+                postingSizes[id]++;
+            }
+        }
+
+        int[][] postings = new int[tokens.length][];
+        for (int i = 0; i < tokens.length; i++) {
+            postings[i] = new int[postingSizes[i]];
+        }
+        int[] fill = new int[tokens.length];
+        for (int entry = 0; entry < entryCount; entry++) {
+            for (int id : entryTokens[entry]) {
+                postings[id][fill[id]++] = entry;
+            }
+        }
+
+        String[] sortedKeys = keys.clone();
+        Arrays.sort(sortedKeys);
+        Map<String, Integer> entryByKey = new HashMap<>(entryCount * 2);
+        for (int entry = 0; entry < entryCount; entry++) {
+            entryByKey.put(keys[entry], entry);
+        }
+        int[] codeEntries = new int[entryCount];
+        for (int i = 0; i < sortedKeys.length; i++) {
+            codeEntries[i] = entryByKey.get(sortedKeys[i]);
+        }
+
+        return new IcdCodeSet(source, codes, descriptions, firstToken, entryTokens,
+                IcdPrefixTrie.build(sortedKeys), codeEntries, IcdPrefixTrie.build(tokens), postings);
+    }
+
+    // Uppercase, strip the dot and spaces; null unless it looks like an ICD-10 code
+    public static String normalizeCode(String code) {
+        if (code == null) {
+            return null;
+        }
+        StringBuilder key = new StringBuilder(code.length());
+        for (int i = 0; i < code.length(); i++) {
+            char c = code.charAt(i);
+            if (c == '.' || Character.isWhitespace(c)) {
+                continue;
+            }
+            if (!Character.isLetterOrDigit(c) || c > 127) {
+                return null;
+            }
+            key.append(Character.toUpperCase(c));
+        }
+        if (key.length() < 3 || key.length() > 7 || !Character.isLetter(key.charAt(0))
+                || !Character.isDigit(key.charAt(1))) {
+            return null;
+        }
+        return key.toString();
+    }
+
+    // "I509" -> "I50.9"; the dot follows the three-character category
+    public static String formatCode(String key) {
+        return key.length() > 3 ? key.substring(0, 3) + "." + key.substring(3) : key;
+    }
+
+    // Code prefix matches first, then description word matches, up to limit in total
+    public List<Match> search(String query, int limit) {
+        List<Match> matches = new ArrayList<>(limit);
+        if (query == null || query.isBlank() || limit <= 0) {
+            return matches;
+        }
+
+        Set<Integer> seen = new HashSet<>();
+        String codePrefix = codePrefix(query);
+        if (codePrefix != null) {
+            int[] range = codeTrie.prefixRange(codePrefix);
+            if (range != null) {
+                for (int keyId = range[0]; keyId < range[1] && matches.size() < limit; keyId++) {
+                    int entry = codeEntries[keyId];
+                    seen.add(entry);
+                    matches.add(new Match(codes[entry], descriptions[entry], "code"));
+                }
+            }
+        }
+
+        if (matches.size() < limit) {
+            for (int entry : searchText(query, limit - matches.size() + seen.size())) {
+                if (matches.size() >= limit) {
+                    break;
+                }
+                if (seen.add(entry)) {
+                    matches.add(new Match(codes[entry], descriptions[entry], "text"));
+                }
+            }
+        }
+        return matches;
+    }
+
+    // Exact code lookup in any spelling ("i509", "I50.9"); null when unknown
+    public Match lookup(String code) {
+        String key = normalizeCode(code);
+        if (key == null) {
+            return null;
+        }
+        int keyId = codeTrie.exact(key);
+        if (keyId < 0) {
+            return null;
+        }
+        int entry = codeEntries[keyId];
+        return new Match(codes[entry], descriptions[entry], "code");
+    }
+
+    public String getSource() { return source; }
+
+    public int getCodeCount() { return codes.length; }
+
+    public int getTokenCount() { return postings.length; }
+
+    public long getIndexBytes() {
+        long bytes = codeTrie.getMemoryBytes() + tokenTrie.getMemoryBytes() + (long) codeEntries.length * 4
+                + (long) firstToken.length * 4;
+        for (int[] list : postings) {
+            bytes += 16 + (long) list.length * 4;
+        }
+        for (int[] list : entryTokens) {
+            bytes += 16 + (long) list.length * 4;
+        }
+        return bytes;
+    }
+
+    public String getCode(int entry) { return codes[entry]; }
+
+    public String getDescription(int entry) { return descriptions[entry]; }
+
+    // Entries whose description contains every query word; the last word may be partial
+    private int[] searchText(String query, int limit) {
+        String[] words = tokenize(query);
+        if (words.length == 0) {
+            return new int[0];
+        }
+
+        int[] lastRange = tokenTrie.prefixRange(words[words.length - 1]);
+        if (lastRange == null) {
+            return new int[0];
+        }
+        int[] exactTokens = new int[words.length - 1];
+        for (int i = 0; i < exactTokens.length; i++) {
+            exactTokens[i] = tokenTrie.exact(words[i]);
+            if (exactTokens[i] < 0) {
+                return new int[0];
+            }
+        }
+
+        // Gather a few more than needed so the starts-with boost below has something to reorder
+        int window = limit * 4;
+        int[] candidates = exactTokens.length == 0
+                ? mergePostings(lastRange[0], lastRange[1], window)
+                : intersect(exactTokens, lastRange, window);
+
+        int[] firstRange = exactTokens.length == 0 ? lastRange : new int[] {exactTokens[0], exactTokens[0] + 1};
+        Integer[] ordered = new Integer[candidates.length];
+        for (int i = 0; i < candidates.length; i++) {
+            ordered[i] = candidates[i];
+        }
+        // Stable sort keeps rank order within each group
+        Arrays.sort(ordered, Comparator.comparingInt(entry ->
+                firstToken[entry] >= firstRange[0] && firstToken[entry] < firstRange[1] ? 0 : 1));
+
+        int[] result = new int[Math.min(limit, ordered.length)];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = ordered[i];
+        }
+        return result;
+    }
+
+    // Lowest entry ids across the posting lists of tokens [start, end)
+    private int[] mergePostings(int start, int end, int limit) {
+        if (end - start == 1) {
+            int[] list = postings[start];
+            return Arrays.copyOf(list, Math.min(limit, list.length));
+        }
+
+        // Heap of (entry << 32 | token) so the smallest entry surfaces first
+        PriorityQueue<Long> heap = new PriorityQueue<>(Math.min(end - start, 1024));
+        int[] cursor = new int[end - start];
+        for (int token = start; token < end; token++) {
+            if (postings[token].length > 0) {
+                heap.add(((long) postings[token][0] << 32) | token);
+            }
+        }
+
+        int[] result = new int[limit];
+        int count = 0;
+        int last = -1;
+        while (!heap.isEmpty() && count < limit) {
+            long top = heap.poll();
+            int entry = (int) (top >>> 32);
+            int token = (int) top;
+            if (entry != last) {
+                result[count++] = entry;
+                last = entry;
+            }
+            int next = ++cursor[token - start];
+            if (next < postings[token].length) {
+                heap.add(((long) postings[token][next] << 32) | token);
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    // Walk the shortest exact-word list and keep entries that have the other words too
+    private int[] intersect(int[] exactTokens, int[] lastRange, int limit) {
+        int driver = exactTokens[0];
+        for (int token : exactTokens) {
+            if (postings[token].length < postings[driver].length) {
+                driver = token;
+            }
+        }
+
+        int[] result = new int[limit];
+        int count = 0;
+        for (int entry : postings[driver]) {
+            if (count >= limit) {
+                break;
+            }
+            int[] tokens = entryTokens[entry];
+            boolean all = true;
+            for (int token : exactTokens) {
+                if (token != driver && Arrays.binarySearch(tokens, token) < 0) {
+                    all = false;
+                    break;
+                }
+            }
+            if (all && hasTokenIn(tokens, lastRange[0], lastRange[1])) {
+                result[count++] = entry;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    private static boolean hasTokenIn(int[] sortedTokens, int start, int end) {
+        int position = Arrays.binarySearch(sortedTokens, start);
+        if (position >= 0) {
+            return true;
+        }
+        int insertion = -position - 1;
+        return insertion < sortedTokens.length && sortedTokens[insertion] < end;
+    }
+
+    // The query as a code prefix ("i50.", "I5"), or null when it cannot be one
+    private static String codePrefix(String query) {
+        String trimmed = query.trim();
+        if (trimmed.isEmpty() || !Character.isLetter(trimmed.charAt(0))) {
+            return null;
+        }
+        StringBuilder prefix = new StringBuilder(trimmed.length());
+        for (int i = 0; i < trimmed.length(); i++) {
+            char c = trimmed.charAt(i);
+            if (c == '.') {
+                continue;
+            }
+            if (!Character.isLetterOrDigit(c) || c > 127) {
+                return null;
+            }
+            prefix.append(Character.toUpperCase(c));
+        }
+        if (prefix.length() > 7 || (prefix.length() > 1 && !Character.isDigit(prefix.charAt(1)))) {
+            return null;
+        }
+        return prefix.toString();
+    }
+
+    // Lowercase words of letters and digits
+    static String[] tokenize(String text) {
+        List<String> words = new ArrayList<>();
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                word.append(Character.toLowerCase(c));
+            } else if (word.length() > 0) {
+                words.add(word.toString());
+                word.setLength(0);
+            }
+        }
+        return words.toArray(new String[0]);
+    }
+}
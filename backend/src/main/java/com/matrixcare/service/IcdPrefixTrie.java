@@ -0,0 +1,133 @@
+package com.matrixcare.service;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Immutable character trie over a sorted, distinct key list, flattened into
+ * parallel arrays with no per-node objects.
+ * Keys are numbered in sorted order, so every node covers a contiguous range of
+ * key ids and a prefix lookup returns that range without visiting the subtree.
+ * Nodes are numbered breadth-first, which keeps each node's children adjacent;
+ * a child is found by binary search over their labels.
+ */
+public final class IcdPrefixTrie {
+
+    private final char[] label;       // node -> character on the edge into it
+    private final int[] firstChild;   // node -> first child node
+    private final int[] childCount;   // node -> number of children
+    private final int[] rangeStart;   // node -> first key id under it
+    private final int[] rangeEnd;     // node -> last key id under it, exclusive
+    private final BitSet terminal;    // node -> a key ends exactly here
+    private final int nodeCount;
+
+    private IcdPrefixTrie(char[] label, int[] firstChild, int[] childCount, int[] rangeStart, int[] rangeEnd,
+                          BitSet terminal, int nodeCount) {
+        this.label = label;
+        this.firstChild = firstChild;
+        this.childCount = childCount;
+        this.rangeStart = rangeStart;
+        this.rangeEnd = rangeEnd;
+        this.terminal = terminal;
+        this.nodeCount = nodeCount;
+    }
+
+    // Keys must be sorted by String.compareTo and free of duplicates
+    public static IcdPrefixTrie build(String[] keys) {
+        long totalChars = 1;
+        for (String key : keys) {
+            totalChars += key.length();
+        }
+        if (totalChars > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many keys for a prefix trie");
+        }
+        int bound = (int) totalChars;
+
+        char[] label = new char[bound];
+        int[] firstChild = new int[bound];
+        int[] childCount = new int[bound];
+        int[] rangeStart = new int[bound];
+        int[] rangeEnd = new int[bound];
+        int[] depth = new int[bound];
+        BitSet terminal = new BitSet();
+
+        rangeEnd[0] = keys.length;
+        int count = 1;
+        for (int node = 0; node < count; node++) {
+            int d = depth[node];
+            int p = rangeStart[node];
+            int end = rangeEnd[node];
+            if (p < end && keys[p].length() == d) {
+                terminal.set(node);
+                p++;
+            }
+
+            firstChild[node] = count;
+            while (p < end) {
+                char c = keys[p].charAt(d);
+                int q = p + 1;
+                while (q < end && keys[q].charAt(d) == c) {
+                    q++;
+                }
+                label[count] = c;
+                rangeStart[count] = p;
+                rangeEnd[count] = q;
+                depth[count] = d + 1;
+                count++;
+                p = q;
+            }
+            childCount[node] = count - firstChild[node];
+        }
+
+        return new IcdPrefixTrie(Arrays.copyOf(label, count), Arrays.copyOf(firstChild, count),
+                Arrays.copyOf(childCount, count), Arrays.copyOf(rangeStart, count), Arrays.copyOf(rangeEnd, count),
+                terminal, count);
+    }
+
+    // Key ids [start, end) of all keys beginning with the prefix; null when there are none
+    public int[] prefixRange(CharSequence prefix) {
+        int node = find(prefix);
+        return node < 0 ? null : new int[] {rangeStart[node], rangeEnd[node]};
+    }
+
+    // Key id of an exact key, or -1
+    public int exact(CharSequence key) {
+        int node = find(key);
+        return node >= 0 && terminal.get(node) ? rangeStart[node] : -1;
+    }
+
+    public int getNodeCount() { return nodeCount; }
+
+    // Approximate heap footprint of the flattened arrays
+    public long getMemoryBytes() {
+        return (long) nodeCount * (Character.BYTES + 4 * Integer.BYTES) + terminal.size() / 8;
+    }
+
+    private int find(CharSequence key) {
+        int node = 0;
+        for (int i = 0; i < key.length(); i++) {
+            node = child(node, key.charAt(i));
+            if (node < 0) {
+                return -1;
+            }
+        }
+        return node;
+    }
+
+    private int child(int node, char c) {
+        int low = firstChild[node];
+        int high = low + childCount[node] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            char midLabel = label[mid];
+            if (midLabel < c) {
+                low = mid + 1;
+            } else if (midLabel > c) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+}
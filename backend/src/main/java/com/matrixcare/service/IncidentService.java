@@ -0,0 +1,409 @@
+package com.matrixcare.service;
+
+import com.matrixcare.entity.IncidentReport;
+import com.matrixcare.entity.IncidentRollupWeekly;
+import com.matrixcare.repository.IncidentReportRepository;
+import com.matrixcare.repository.IncidentRollupWeeklyRepository;
+import com.matrixcare.repository.PatientRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Incident reports and their weekly rollups.
+ * Every report, correction or deletion adjusts a counter cell (week x unit x
+ * type x severity) in incident_rollup_weekly with an upsert in the same
+ * transaction, so the trend and heat-map endpoints read only the rollups and
+ * never scan incident_reports. The rebuild splits the covered weeks into
+ * chunks that are recomputed concurrently; each chunk replaces its own weeks
+ * with one INSERT ... SELECT in its own transaction, so chunks never touch the
+ * same cells and a full rebuild takes roughly the time of its slowest chunk.
+ */
+@Service
+@Transactional
+public class IncidentService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IncidentService.class);
+
+    private static final int MAX_WEEKS = 260;
+
+    private static final String DELETE_CHUNK_SQL =
+            "DELETE FROM incident_rollup_weekly WHERE week_start >= ? AND week_start < ?";
+    private static final String REBUILD_CHUNK_SQL =
+            "INSERT INTO incident_rollup_weekly (week_start, unit, incident_type, severity, incident_count) " +
+            "SELECT DATE_SUB(DATE(incident_date), INTERVAL WEEKDAY(incident_date) DAY), " +
+            "COALESCE(NULLIF(TRIM(unit), ''), '" + VitalAlertService.UNASSIGNED_UNIT + "'), incident_type, severity, COUNT(*) " +
+            "FROM incident_reports WHERE incident_date >= ? AND incident_date < ? " +
+            "GROUP BY 1, 2, 3, 4";
+
+    @Autowired
+    private IncidentReportRepository incidentRepository;
+
+    @Autowired
+    private IncidentRollupWeeklyRepository rollupRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${matrixcare.incidents.rebuild-threads:4}")
+    private int rebuildThreads;
+
+    @Value("${matrixcare.incidents.rebuild-chunk-weeks:4}")
+    private int rebuildChunkWeeks;
+
+    @Value("${matrixcare.incidents.rebuild-recent-weeks:8}")
+    private int rebuildRecentWeeks;
+
+    // Fill the rollups on first start after the migration
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void rebuildIfEmpty() {
+        if (rollupRepository.count() == 0 && incidentRepository.count() > 0) {
+            rebuildRollups(null);
+        }
+    }
+
+    // Nightly safety net for the recent weeks; corrections to older incidents are already counted on write
+    @Scheduled(cron = "${matrixcare.incidents.rebuild-cron:0 45 3 * * *}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void rebuildRecent() {
+        rebuildRollups(LocalDate.now().minusWeeks(rebuildRecentWeeks));
+    }
+
+    public IncidentReport createIncident(IncidentReport incident) {
+        if (incident.getReportingNurseId() == null || incident.getIncidentType() == null
+                || incident.getSeverity() == null || incident.getDescription() == null
+                || incident.getDescription().isBlank()) {
+            throw new IllegalArgumentException("reportingNurseId, incidentType, severity and description are required");
+        }
+        if (incident.getIncidentDate() == null) {
+            incident.setIncidentDate(LocalDateTime.now());
+        }
+        // Patient incidents count against the patient's unit unless one is given
+        if ((incident.getUnit() == null || incident.getUnit().isBlank()) && incident.getPatientId() != null) {
+            incident.setUnit(patientRepository.findUnitById(incident.getPatientId()).orElse(null));
+        }
+        IncidentReport saved = incidentRepository.save(incident);
+        adjust(Cell.of(saved), 1);
+        return saved;
+    }
+
+    // Correct an incident; its counter moves if the week, unit, type or severity changed
+    public IncidentReport updateIncident(Long id, IncidentReport details) {
+        IncidentReport incident = incidentRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Incident not found with id: " + id));
+        Cell before = Cell.of(incident);
+
+        incident.setPatientId(details.getPatientId());
+        if (details.getReportingNurseId() != null) {
+            incident.setReportingNurseId(details.getReportingNurseId());
+        }
+        if (details.getIncidentDate() != null) {
+            incident.setIncidentDate(details.getIncidentDate());
+        }
+        if (details.getIncidentType() != null) {
+            incident.setIncidentType(details.getIncidentType());
+        }
+        if (details.getSeverity() != null) {
+            incident.setSeverity(details.getSeverity());
+        }
+        incident.setLocation(details.getLocation());
+        incident.setUnit(details.getUnit());
+        if (details.getDescription() != null && !details.getDescription().isBlank()) {
+            incident.setDescription(details.getDescription());
+        }
+        incident.setImmediateActions(details.getImmediateActions());
+        incident.setPhysicianNotified(details.getPhysicianNotified());
+        incident.setFamilyNotified(details.getFamilyNotified());
+        incident.setFollowUpRequired(details.getFollowUpRequired());
+        if (details.getStatus() != null) {
+            incident.setStatus(details.getStatus());
+        }
+
+        IncidentReport saved = incidentRepository.save(incident);
+        Cell after = Cell.of(saved);
+        if (!after.equals(before)) {
+            adjust(before, -1);
+            adjust(after, 1);
+        }
+        return saved;
+    }
+
+    public void deleteIncident(Long id) {
+        IncidentReport incident = incidentRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Incident not found with id: " + id));
+        incidentRepository.delete(incident);
+        adjust(Cell.of(incident), -1);
+    }
+
+    @Transactional(readOnly = true)
+    public IncidentReport getIncident(Long id) {
+        return incidentRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Incident not found with id: " + id));
+    }
+
+    @Transactional(readOnly = true)
+    public List<IncidentReport> getIncidentsForPatient(Long patientId) {
+        return incidentRepository.findByPatientIdOrderByIncidentDateDesc(patientId);
+    }
+
+    // Weekly counts per type, unit or severity over a range, from the rollups only
+    @Transactional(readOnly = true)
+    public Map<String, Object> getTrends(LocalDate from, LocalDate to, String unit, IncidentReport.IncidentType type,
+                                         String groupBy) {
+        List<LocalDate> weeks = weeksBetween(from, to);
+        Map<LocalDate, Integer> weekIndex = indexOf(weeks);
+        String grouping = groupBy != null ? groupBy : "type";
+        if (!List.of("type", "unit", "severity").contains(grouping)) {
+            throw new IllegalArgumentException("groupBy must be type, unit or severity");
+        }
+
+        Map<String, long[]> series = new TreeMap<>();
+        long[] totals = new long[weeks.size()];
+        for (IncidentRollupWeekly cell : rollupRepository.findCells(weeks.get(0), weeks.get(weeks.size() - 1),
+                unit, type)) {
+            String key = switch (grouping) {
+                case "unit" -> cell.getUnit();
+                case "severity" -> cell.getSeverity().name();
+                default -> cell.getIncidentType().name();
+            };
+            int week = weekIndex.get(cell.getWeekStart());
+            series.computeIfAbsent(key, k -> new long[weeks.size()])[week] += cell.getIncidentCount();
+            totals[week] += cell.getIncidentCount();
+        }
+
+        List<Map<String, Object>> seriesList = new ArrayList<>();
+        series.forEach((key, counts) -> {
+            Map<String, Object> entry = describeSeries(counts);
+            entry.put("key", key);
+            seriesList.add(entry);
+        });
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("from", weeks.get(0));
+        result.put("to", weeks.get(weeks.size() - 1));
+        result.put("unit", unit);
+        result.put("incidentType", type);
+        result.put("groupBy", grouping);
+        result.put("weeks", weeks);
+        result.put("series", seriesList);
+        result.put("total", describeSeries(totals));
+        return result;
+    }
+
+    // Unit x week matrix of counts, optionally for one type and a minimum severity
+    @Transactional(readOnly = true)
+    public Map<String, Object> getHeatMap(LocalDate from, LocalDate to, IncidentReport.IncidentType type,
+                                          IncidentReport.Severity minSeverity) {
+        List<LocalDate> weeks = weeksBetween(from, to);
+        Map<LocalDate, Integer> weekIndex = indexOf(weeks);
+        Map<String, long[]> rows = new TreeMap<>();
+        long max = 0;
+        for (IncidentRollupWeekly cell : rollupRepository.findCells(weeks.get(0), weeks.get(weeks.size() - 1),
+                null, type)) {
+            if (minSeverity != null && cell.getSeverity().compareTo(minSeverity) < 0) {
+                continue;
+            }
+            long[] row = rows.computeIfAbsent(cell.getUnit(), k -> new long[weeks.size()]);
+            int week = weekIndex.get(cell.getWeekStart());
+            row[week] += cell.getIncidentCount();
+            max = Math.max(max, row[week]);
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("weeks", weeks);
+        result.put("units", new ArrayList<>(rows.keySet()));
+        result.put("counts", new ArrayList<>(rows.values()));
+        result.put("max", max);
+        result.put("incidentType", type);
+        result.put("minSeverity", minSeverity);
+        return result;
+    }
+
+    // Recompute rollups from incident_reports from the week of `from` (null = everything) in parallel chunks
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Map<String, Object> rebuildRollups(LocalDate from) {
+        long start = System.nanoTime();
+        Object[] incidentRange = incidentRepository.findDateRange().get(0);
+        Object[] rollupRange = rollupRepository.findWeekRange().get(0);
+
+        LocalDate first = earliest(incidentRange[0] != null ? ((LocalDateTime) incidentRange[0]).toLocalDate() : null,
+                (LocalDate) rollupRange[0]);
+        LocalDate last = latest(incidentRange[1] != null ? ((LocalDateTime) incidentRange[1]).toLocalDate() : null,
+                (LocalDate) rollupRange[1]);
+        Map<String, Object> result = new HashMap<>();
+        if (first == null) {
+            result.put("chunks", 0);
+            result.put("elapsedMillis", 0L);
+            return result;
+        }
+        if (from != null && from.isAfter(first)) {
+            first = from;
+        }
+        LocalDate firstWeek = weekOf(first);
+        LocalDate endWeek = weekOf(latest(last, LocalDate.now())).plusWeeks(1);
+
+        List<LocalDate[]> chunks = new ArrayList<>();
+        int chunkWeeks = Math.max(1, rebuildChunkWeeks);
+        for (LocalDate week = firstWeek; week.isBefore(endWeek); week = week.plusWeeks(chunkWeeks)) {
+            LocalDate chunkEnd = week.plusWeeks(chunkWeeks);
+            chunks.add(new LocalDate[] { week, chunkEnd.isAfter(endWeek) ? endWeek : chunkEnd });
+        }
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(rebuildThreads, chunks.size())),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "incident-rollup-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        long cells = 0;
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (LocalDate[] chunk : chunks) {
+                futures.add(executor.submit(() -> template.execute(status -> {
+                    jdbcTemplate.update(DELETE_CHUNK_SQL, Date.valueOf(chunk[0]), Date.valueOf(chunk[1]));
+                    return jdbcTemplate.update(REBUILD_CHUNK_SQL, Timestamp.valueOf(chunk[0].atStartOfDay()),
+                            Timestamp.valueOf(chunk[1].atStartOfDay()));
+                })));
+            }
+            for (Future<Integer> future : futures) {
+                cells += future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while rebuilding incident rollups", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Error rebuilding incident rollups", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        logger.info("Rebuilt incident rollups from {} in {} chunks: {} cells in {} ms", firstWeek, chunks.size(),
+                cells, elapsed);
+        result.put("from", firstWeek);
+        result.put("to", endWeek.minusDays(1));
+        result.put("chunks", chunks.size());
+        result.put("cells", cells);
+        result.put("elapsedMillis", elapsed);
+        return result;
+    }
+
+    private void adjust(Cell cell, int delta) {
+        rollupRepository.addToCell(cell.week(), cell.unit(), cell.type().name(), cell.severity().name(), delta);
+    }
+
+    // Totals, the last four weeks against the four before, and a least-squares slope per week
+    private static Map<String, Object> describeSeries(long[] counts) {
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        int n = counts.length;
+        long recent = 0;
+        long previous = 0;
+        for (int i = Math.max(0, n - 4); i < n; i++) {
+            recent += counts[i];
+        }
+        for (int i = Math.max(0, n - 8); i < Math.max(0, n - 4); i++) {
+            previous += counts[i];
+        }
+        double slope = 0;
+        if (n > 1) {
+            double meanX = (n - 1) / 2.0;
+            double meanY = (double) total / n;
+            double numerator = 0;
+            double denominator = 0;
+            for (int i = 0; i < n; i++) {
+                numerator += (i - meanX) * (counts[i] - meanY);
+                denominator += (i - meanX) * (i - meanX);
+            }
+            slope = numerator / denominator;
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("counts", counts);
+        result.put("total", total);
+        result.put("lastFourWeeks", recent);
+        result.put("previousFourWeeks", previous);
+        result.put("changePercent", previous > 0 ? Math.round((recent - previous) * 1000.0 / previous) / 10.0 : null);
+        result.put("slopePerWeek", Math.round(slope * 1000) / 1000.0);
+        return result;
+    }
+
+    private static List<LocalDate> weeksBetween(LocalDate from, LocalDate to) {
+        LocalDate first = weekOf(from);
+        LocalDate last = weekOf(to);
+        if (last.isBefore(first)) {
+            throw new IllegalArgumentException("to is before from");
+        }
+        if (ChronoUnit.WEEKS.between(first, last) >= MAX_WEEKS) {
+            throw new IllegalArgumentException("At most " + MAX_WEEKS + " weeks per request");
+        }
+        List<LocalDate> weeks = new ArrayList<>();
+        for (LocalDate week = first; !week.isAfter(last); week = week.plusWeeks(1)) {
+            weeks.add(week);
+        }
+        return weeks;
+    }
+
+    private static Map<LocalDate, Integer> indexOf(List<LocalDate> weeks) {
+        Map<LocalDate, Integer> index = new HashMap<>();
+        for (int i = 0; i < weeks.size(); i++) {
+            index.put(weeks.get(i), i);
+        }
+        return index;
+    }
+
+    static LocalDate weekOf(LocalDate day) {
+        return day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    }
+
+    private static LocalDate earliest(LocalDate a, LocalDate b) {
+        return a == null ? b : b == null ? a : a.isBefore(b) ? a : b;
+    }
+
+    private static LocalDate latest(LocalDate a, LocalDate b) {
+        return a == null ? b : b == null ? a : a.isAfter(b) ? a : b;
+    }
+
+    // Counter cell an incident belongs to; blank units count as UNASSIGNED, as in the rebuild
+    private record Cell(LocalDate week, String unit, IncidentReport.IncidentType type, IncidentReport.Severity severity) {
+
+        static Cell of(IncidentReport incident) {
+            String unit = incident.getUnit() != null && !incident.getUnit().isBlank()
+                    ? incident.getUnit().trim() : VitalAlertService.UNASSIGNED_UNIT;
+            return new Cell(weekOf(incident.getIncidentDate().toLocalDate()), unit, incident.getIncidentType(),
+                    incident.getSeverity());
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.matrixcare.service;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Shared, ordered log of cache invalidations read by every instance.
+ * Ids increase in append order, but may become visible out of order (a
+ * transaction that appended earlier can commit later), which is why readers
+ * can ask again for ids they saw skipped.
+ */
+public interface InvalidationLog {
+
+    // entityId null invalidates every entity of the type
+    record Invalidation(long id, String entityType, String entityId, String originNode) {
+    }
+
+    void append(String entityType, String entityId, String originNode);
+
+    // Entries after the cursor in id order
+    List<Invalidation> readAfter(long cursor, int limit);
+
+    // Entries with the given ids that are visible by now
+    List<Invalidation> readIds(Collection<Long> ids);
+
+    // Highest id appended so far, 0 when empty
+    long head();
+
+    int deleteBefore(LocalDateTime cutoff);
+}
@@ -0,0 +1,63 @@
+package com.matrixcare.service;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Invalidation log in the cache_invalidations table.
+ * Appends join the caller's transaction, so an invalidation becomes visible to
+ * other instances exactly when the change it announces commits, and is gone if
+ * that change rolls back.
+ */
+public final class JdbcInvalidationLog implements InvalidationLog {
+
+    private static final String COLUMNS = "id, entity_type, entity_id, origin_node";
+
+    private static final RowMapper<Invalidation> MAPPER = (rs, rowNum) -> new Invalidation(
+            rs.getLong("id"), rs.getString("entity_type"), rs.getString("entity_id"), rs.getString("origin_node"));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public JdbcInvalidationLog(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void append(String entityType, String entityId, String originNode) {
+        jdbcTemplate.update("INSERT INTO cache_invalidations (entity_type, entity_id, origin_node, created_at) " +
+                "VALUES (?, ?, ?, ?)", entityType, entityId, originNode, Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    @Override
+    public List<Invalidation> readAfter(long cursor, int limit) {
+        return jdbcTemplate.query("SELECT " + COLUMNS + " FROM cache_invalidations WHERE id > ? ORDER BY id LIMIT ?",
+                MAPPER, cursor, limit);
+    }
+
+    @Override
+    public List<Invalidation> readIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        return jdbcTemplate.query("SELECT " + COLUMNS + " FROM cache_invalidations WHERE id IN (" + placeholders +
+                ") ORDER BY id", MAPPER, ids.toArray());
+    }
+
+    @Override
+    public long head() {
+        Long max = jdbcTemplate.queryForObject("SELECT MAX(id) FROM cache_invalidations", Long.class);
+        return max != null ? max : 0;
+    }
+
+    @Override
+    public int deleteBefore(LocalDateTime cutoff) {
+        return jdbcTemplate.update("DELETE FROM cache_invalidations WHERE created_at < ?", Timestamp.valueOf(cutoff));
+    }
+}
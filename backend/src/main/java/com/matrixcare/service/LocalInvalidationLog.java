@@ -0,0 +1,83 @@
+package com.matrixcare.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * In-memory stand-in for the cache_invalidations table, shared by every
+ * application context in the JVM. For single-instance deployments without the
+ * table, and for running several instances side by side in one process.
+ * Entries are appended once the surrounding transaction commits, so ids are
+ * never skipped.
+ */
+public final class LocalInvalidationLog implements InvalidationLog {
+
+    private record Entry(Invalidation invalidation, LocalDateTime createdAt) {
+    }
+
+    private static final List<Entry> ENTRIES = new ArrayList<>();
+    private static long lastId;
+
+    @Override
+    public void append(String entityType, String entityId, String originNode) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    add(entityType, entityId, originNode);
+                }
+            });
+        } else {
+            add(entityType, entityId, originNode);
+        }
+    }
+
+    @Override
+    public List<Invalidation> readAfter(long cursor, int limit) {
+        List<Invalidation> result = new ArrayList<>();
+        synchronized (ENTRIES) {
+            for (Entry entry : ENTRIES) {
+                if (entry.invalidation.id() > cursor) {
+                    result.add(entry.invalidation);
+                    if (result.size() == limit) {
+                        break;
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public List<Invalidation> readIds(Collection<Long> ids) {
+        // Appended in id order after commit, so there are never late entries
+        return List.of();
+    }
+
+    @Override
+    public long head() {
+        synchronized (ENTRIES) {
+            return lastId;
+        }
+    }
+
+    @Override
+    public int deleteBefore(LocalDateTime cutoff) {
+        synchronized (ENTRIES) {
+            int before = ENTRIES.size();
+            ENTRIES.removeIf(entry -> entry.createdAt.isBefore(cutoff));
+            return before - ENTRIES.size();
+        }
+    }
+
+    private static void add(String entityType, String entityId, String originNode) {
+        synchronized (ENTRIES) {
+            ENTRIES.add(new Entry(new Invalidation(++lastId, entityType, entityId, originNode), LocalDateTime.now()));
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.matrixcare.service;
+
+import com.matrixcare.repository.MedicationRepository;
+import com.matrixcare.repository.PatientAllergyRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+@Service
+public class MedicationConflictService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MedicationConflictService.class);
+
+    private static final String DEFAULT_TABLE = "medication-conflicts.txt";
+
+    @Autowired
+    private PatientAllergyRepository allergyRepository;
+
+    @Autowired
+    private MedicationRepository medicationRepository;
+
+    @Autowired
+    private CacheInvalidationBus invalidationBus;
+
+    // Local conflict table file; the bundled classpath table is used when empty
+    @Value("${matrixcare.conflicts.table-file:}")
+    private String tableFile;
+
+    @Value("${matrixcare.conflicts.allergy-cache-seconds:60}")
+    private long allergyCacheSeconds;
+
+    // Swapped atomically on reload; readers always see a complete table
+    private volatile MedicationConflictTable table;
+    private volatile long tableFileModified;
+
+    private final Map<Long, PatientAllergyCodes> allergyCache = new ConcurrentHashMap<>();
+
+    private volatile Map<String, Object> lastSweep;
+
+    @PostConstruct
+    public void init() {
+        reloadTable();
+        invalidationBus.subscribe(CacheInvalidationBus.PATIENT, id -> {
+            if (id != null) {
+                invalidatePatient(Long.valueOf(id));
+            } else {
+                allergyCache.clear();
+            }
+        });
+    }
+
+    // Load the conflict table and swap it in without a restart
+    public synchronized Map<String, Object> reloadTable() {
+        try {
+            MedicationConflictTable loaded;
+            if (tableFile != null && !tableFile.isBlank()) {
+                Path path = Paths.get(tableFile);
+                long modified = Files.getLastModifiedTime(path).toMillis();
+                try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                    loaded = MedicationConflictTable.parse(reader, path.toString());
+                }
+                tableFileModified = modified;
+            } else {
+                ClassPathResource resource = new ClassPathResource(DEFAULT_TABLE);
+                try (BufferedReader reader = new BufferedReader(
+                        new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+                    loaded = MedicationConflictTable.parse(reader, "classpath:" + DEFAULT_TABLE);
+                }
+            }
+
+            table = loaded;
+            logger.info("Loaded medication conflict table from {}: {} allergen classes, {} drugs",
+                    loaded.getSource(), loaded.getAllergenCount(), loaded.getDrugCount());
+            return getTableInfo();
+        } catch (IOException | IllegalArgumentException e) {
+            // The previous table, if any, stays in service
+            logger.error("Error loading medication conflict table", e);
+            throw new RuntimeException("Error loading medication conflict table: " + e.getMessage(), e);
+        }
+    }
+
+    // Pick up edits to the local table file
+    @Scheduled(fixedDelayString = "${matrixcare.conflicts.reload-check-ms:30000}")
+    public void reloadIfChanged() {
+        if (tableFile == null || tableFile.isBlank()) {
+            return;
+        }
+        try {
+            long modified = Files.getLastModifiedTime(Paths.get(tableFile)).toMillis();
+            if (modified != tableFileModified) {
+                reloadTable();
+            }
+        } catch (Exception e) {
+            logger.warn("Could not check medication conflict table {}: {}", tableFile, e.getMessage());
+        }
+    }
+
+    public Map<String, Object> getTableInfo() {
+        MedicationConflictTable current = table;
+        Map<String, Object> info = new HashMap<>();
+        info.put("source", current.getSource());
+        info.put("allergenClasses", current.getAllergenCount());
+        info.put("drugs", current.getDrugCount());
+        return info;
+    }
+
+    // Check a new medication order against a patient's allergies
+    public Map<String, Object> checkMedication(Long patientId, String medicationName) {
+        MedicationConflictTable current = table;
+        PatientAllergyCodes allergies = getAllergyCodes(patientId, current);
+        int drugCode = current.drugCode(medicationName);
+        List<String> conflicts = current.conflictingAllergens(drugCode, allergies.bits);
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("patientId", patientId);
+        result.put("medicationName", medicationName);
+        result.put("knownDrug", drugCode >= 0);
+        result.put("conflict", !conflicts.isEmpty());
+        result.put("conflictingAllergens", conflicts);
+        result.put("patientAllergies", allergies.allergens);
+        return result;
+    }
+
+    // Drop cached allergy codes after a patient's allergies change
+    public void invalidatePatient(Long patientId) {
+        allergyCache.remove(patientId);
+    }
+
+    @Scheduled(cron = "${matrixcare.conflicts.sweep-cron:0 0 2 * * *}")
+    public void scheduledSweep() {
+        try {
+            Map<String, Object> sweep = runCensusSweep();
+            logger.info("Medication conflict sweep found {} conflicts across {} patients",
+                    sweep.get("conflictCount"), sweep.get("patientsChecked"));
+        } catch (Exception e) {
+            logger.error("Medication conflict sweep failed", e);
+        }
+    }
+
+    // Check every active medication of every active patient; two queries, checks run in parallel
+    public Map<String, Object> runCensusSweep() {
+        long start = System.currentTimeMillis();
+        MedicationConflictTable current = table;
+
+        Map<Long, List<String>> allergensByPatient = new HashMap<>();
+        for (Object[] row : allergyRepository.findAllergensForActivePatients()) {
+            allergensByPatient.computeIfAbsent((Long) row[0], k -> new ArrayList<>()).add((String) row[1]);
+        }
+
+        Map<Long, List<Object[]>> medicationsByPatient = new HashMap<>();
+        for (Object[] row : medicationRepository.findActiveMedicationsForActivePatients()) {
+            Long patientId = (Long) row[0];
+            if (allergensByPatient.containsKey(patientId)) {
+                medicationsByPatient.computeIfAbsent(patientId, k -> new ArrayList<>()).add(row);
+            }
+        }
+
+        List<Map<String, Object>> conflicts = medicationsByPatient.entrySet().parallelStream()
+                .flatMap(entry -> {
+                    long[] bits = current.encodeAllergies(allergensByPatient.get(entry.getKey()));
+                    List<Map<String, Object>> found = new ArrayList<>();
+                    for (Object[] medication : entry.getValue()) {
+                        int drugCode = current.drugCode((String) medication[2]);
+                        if (current.conflicts(drugCode, bits)) {
+                            Map<String, Object> conflict = new HashMap<>();
+                            conflict.put("patientId", entry.getKey());
+                            conflict.put("medicationId", medication[1]);
+                            conflict.put("medicationName", medication[2]);
+                            conflict.put("conflictingAllergens", current.conflictingAllergens(drugCode, bits));
+                            found.add(conflict);
+                        }
+                    }
+                    return found.stream();
+                })
+                .collect(Collectors.toList());
+
+        Map<String, Object> sweep = new HashMap<>();
+        sweep.put("completedAt", LocalDateTime.now());
+        sweep.put("durationMs", System.currentTimeMillis() - start);
+        sweep.put("table", current.getSource());
+        sweep.put("patientsChecked", medicationsByPatient.size());
+        sweep.put("conflictCount", conflicts.size());
+        sweep.put("conflicts", conflicts);
+        lastSweep = sweep;
+        return sweep;
+    }
+
+    public Map<String, Object> getLastSweep() {
+        return lastSweep;
+    }
+
+    private PatientAllergyCodes getAllergyCodes(Long patientId, MedicationConflictTable current) {
+        long now = System.currentTimeMillis();
+        PatientAllergyCodes cached = allergyCache.get(patientId);
+        if (cached != null && now - cached.loadedAt < allergyCacheSeconds * 1000) {
+            if (cached.table == current) {
+                return cached;
+            }
+            // Table was swapped; re-encode without going back to the database
+            PatientAllergyCodes recoded = new PatientAllergyCodes(current, cached.allergens, cached.loadedAt);
+            allergyCache.put(patientId, recoded);
+            return recoded;
+        }
+
+        List<String> allergens = allergyRepository.findAllergensByPatientId(patientId);
+        PatientAllergyCodes loaded = new PatientAllergyCodes(current, allergens, now);
+        allergyCache.put(patientId, loaded);
+        return loaded;
+    }
+
+    private static final class PatientAllergyCodes {
+        final MedicationConflictTable table;
+        final List<String> allergens;
+        final long[] bits;
+        final long loadedAt;
+
+        PatientAllergyCodes(MedicationConflictTable table, List<String> allergens, long loadedAt) {
+            this.table = table;
+            this.allergens = allergens;
+            this.bits = table.encodeAllergies(allergens);
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.matrixcare.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Immutable, precompiled medication-allergy conflict table.
+ * Allergen classes and drug names are coded as small integers; a patient's
+ * allergies become a bit set over allergen codes and each drug carries the bit
+ * set of classes it conflicts with, so a check is a handful of word ANDs.
+ */
+public final class MedicationConflictTable {
+
+    private final String source;
+    private final String[] allergenNames;          // allergen code -> canonical class name
+    private final Map<String, Integer> allergenCodes; // normalized term -> allergen code
+    private final Map<String, Integer> drugCodes;     // normalized drug name -> drug code
+    private final long[][] drugConflicts;          // drug code -> allergen bit set
+
+    private MedicationConflictTable(String source, String[] allergenNames, Map<String, Integer> allergenCodes,
+                                    Map<String, Integer> drugCodes, long[][] drugConflicts) {
+        this.source = source;
+        this.allergenNames = allergenNames;
+        this.allergenCodes = allergenCodes;
+        this.drugCodes = drugCodes;
+        this.drugConflicts = drugConflicts;
+    }
+
+    // Parse lines of the form "allergen|synonym: drug, drug"
+    public static MedicationConflictTable parse(BufferedReader reader, String source) throws IOException {
+        List<String> allergenNames = new ArrayList<>();
+        Map<String, Integer> allergenCodes = new HashMap<>();
+        Map<String, BitSet> drugClasses = new LinkedHashMap<>();
+
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+
+            int colon = line.indexOf(':');
+            if (colon < 0) {
+                throw new IllegalArgumentException(source + ":" + lineNumber + ": expected '<allergen>: <drugs>'");
+            }
+
+            String[] terms = line.substring(0, colon).split("\\|");
+            String canonical = normalize(terms[0]);
+            if (canonical.isEmpty()) {
+                throw new IllegalArgumentException(source + ":" + lineNumber + ": empty allergen name");
+            }
+
+            Integer code = allergenCodes.get(canonical);
+            if (code == null) {
+                code = allergenNames.size();
+                allergenNames.add(canonical);
+            }
+            for (String term : terms) {
+                String normalized = normalize(term);
+                if (!normalized.isEmpty()) {
+                    allergenCodes.putIfAbsent(normalized, code);
+                }
+            }
+
+            for (String drug : line.substring(colon + 1).split(",")) {
+                String normalized = normalize(drug);
+                if (!normalized.isEmpty()) {
+                    drugClasses.computeIfAbsent(normalized, k -> new BitSet()).set(code);
+                }
+            }
+        }
+
+        int words = Math.max(1, (allergenNames.size() + 63) >>> 6);
+        Map<String, Integer> drugCodes = new HashMap<>();
+        long[][] drugConflicts = new long[drugClasses.size()][];
+        for (Map.Entry<String, BitSet> entry : drugClasses.entrySet()) {
+            int drugCode = drugCodes.size();
+            drugCodes.put(entry.getKey(), drugCode);
+            drugConflicts[drugCode] = Arrays.copyOf(entry.getValue().toLongArray(), words);
+        }
+
+        return new MedicationConflictTable(source, allergenNames.toArray(new String[0]),
+                allergenCodes, drugCodes, drugConflicts);
+    }
+
+    // Encode free-text allergens into an allergen bit set
+    public long[] encodeAllergies(Collection<String> allergens) {
+        long[] bits = new long[Math.max(1, (allergenNames.length + 63) >>> 6)];
+        for (String allergen : allergens) {
+            String normalized = normalize(allergen);
+            if (normalized.isEmpty()) {
+                continue;
+            }
+
+            if (!markAllergen(bits, normalized)) {
+                for (String token : normalized.split(" ")) {
+                    markAllergen(bits, token);
+                }
+            }
+        }
+        return bits;
+    }
+
+    // Drug code for a medication name, or -1 when the drug is not in the table
+    public int drugCode(String medicationName) {
+        String normalized = normalize(medicationName);
+        if (normalized.isEmpty()) {
+            return -1;
+        }
+
+        Integer code = drugCodes.get(normalized);
+        if (code != null) {
+            return code;
+        }
+        for (String token : normalized.split(" ")) {
+            code = drugCodes.get(token);
+            if (code != null) {
+                return code;
+            }
+        }
+        return -1;
+    }
+
+    public boolean conflicts(int drugCode, long[] allergyBits) {
+        if (drugCode < 0) {
+            return false;
+        }
+        long[] classes = drugConflicts[drugCode];
+        for (int i = 0; i < classes.length; i++) {
+            if ((classes[i] & allergyBits[i]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Names of the allergen classes behind a conflict
+    public List<String> conflictingAllergens(int drugCode, long[] allergyBits) {
+        List<String> result = new ArrayList<>();
+        if (drugCode < 0) {
+            return result;
+        }
+        long[] classes = drugConflicts[drugCode];
+        for (int i = 0; i < classes.length; i++) {
+            long hits = classes[i] & allergyBits[i];
+            while (hits != 0) {
+                int bit = Long.numberOfTrailingZeros(hits);
+                result.add(allergenNames[(i << 6) + bit]);
+                hits &= hits - 1;
+            }
+        }
+        return result;
+    }
+
+    public String getSource() { return source; }
+
+    public int getAllergenCount() { return allergenNames.length; }
+
+    public int getDrugCount() { return drugConflicts.length; }
+
+    private boolean markAllergen(long[] bits, String term) {
+        boolean matched = false;
+        Integer code = allergenCodes.get(term);
+        if (code != null) {
+            bits[code >>> 6] |= 1L << code;
+            matched = true;
+        }
+
+        // An allergy named after a drug also covers every class that drug belongs to
+        Integer drug = drugCodes.get(term);
+        if (drug != null) {
+            long[] classes = drugConflicts[drug];
+            for (int i = 0; i < classes.length; i++) {
+                bits[i] |= classes[i];
+            }
+            matched = true;
+        }
+        return matched;
+    }
+
+    // Lower-case letters only, single spaces; dose text like "500mg" is dropped
+    static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder(value.length());
+        boolean pendingSpace = false;
+        for (String token : value.toLowerCase(Locale.ROOT).split("[^a-z0-9]+")) {
+            if (token.isEmpty() || Character.isDigit(token.charAt(0))) {
+                continue;
+            }
+            if (pendingSpace) {
+                sb.append(' ');
+            }
+            sb.append(token);
+            pendingSpace = true;
+        }
+        return sb.toString();
+    }
+}
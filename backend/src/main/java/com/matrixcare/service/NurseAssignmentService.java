@@ -0,0 +1,435 @@
+package com.matrixcare.service;
+
+import com.matrixcare.entity.Medication;
+import com.matrixcare.entity.Nurse;
+import com.matrixcare.entity.NurseAssignment;
+import com.matrixcare.entity.Patient;
+import com.matrixcare.repository.MedicationRepository;
+import com.matrixcare.repository.NurseAssignmentRepository;
+import com.matrixcare.repository.NurseRepository;
+import com.matrixcare.repository.PatientRepository;
+import com.matrixcare.repository.VitalSignsEntryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Balances primary nurse assignments for a unit and shift.
+ * Patient acuity comes from active vital alerts, how often vitals are being
+ * taken and the medication doses due in a shift; all of it is loaded with one
+ * query per source for the whole unit. AssignmentSolver then trades off load
+ * balance against how far apart each nurse's rooms are. A patient admitted
+ * mid-shift is placed into the existing assignment with a bounded number of
+ * follow-up changes instead of a full re-solve.
+ */
+@Service
+@Transactional
+public class NurseAssignmentService {
+
+    private static final Logger logger = LoggerFactory.getLogger(NurseAssignmentService.class);
+
+    private static final Pattern EVERY_N_HOURS = Pattern.compile("Q\\s*(\\d+)\\s*H");
+
+    @Autowired
+    private NurseAssignmentRepository assignmentRepository;
+
+    @Autowired
+    private NurseRepository nurseRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private VitalSignsEntryRepository vitalSignsRepository;
+
+    @Autowired
+    private MedicationRepository medicationRepository;
+
+    @Autowired
+    private VitalAlertService vitalAlertService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Weight of geographic spread against squared load imbalance
+    @Value("${matrixcare.assignments.span-weight:0.5}")
+    private double spanWeight;
+
+    // Span charged for each extra wing in one nurse's assignment
+    @Value("${matrixcare.assignments.wing-penalty:10}")
+    private double wingPenalty;
+
+    // 0 = no cap
+    @Value("${matrixcare.assignments.max-patients-per-nurse:0}")
+    private int maxPatientsPerNurse;
+
+    @Value("${matrixcare.assignments.solve-timeout-ms:500}")
+    private long solveTimeoutMs;
+
+    // Reassignments allowed on top of placing a mid-shift admission
+    @Value("${matrixcare.assignments.incremental-max-changes:2}")
+    private int incrementalMaxChanges;
+
+    @Value("${matrixcare.assignments.acuity-window-hours:24}")
+    private int acuityWindowHours;
+
+    // Day shift start; swing starts 8 hours later and night 16 hours later
+    @Value("${matrixcare.assignments.day-shift-start-hour:7}")
+    private int dayShiftStartHour;
+
+    // Compute and save a balanced assignment for the unit's active patients
+    public Map<String, Object> balance(String unit, LocalDate date, Nurse.Shift shift, List<Long> nurseIds) {
+        long start = System.nanoTime();
+        List<Patient> patients = patientRepository.findByUnitAndIsActiveTrue(unit);
+        List<Nurse> nurses = resolveNurses(unit, shift, nurseIds);
+        if (nurses.isEmpty()) {
+            throw new IllegalArgumentException("No active nurses for unit " + unit + " on the " + shift + " shift");
+        }
+
+        Map<Long, Double> acuity = computeAcuity(patients, unit);
+        AssignmentSolver solver = newSolver(patients, acuity, nurses.size());
+        int[] solution = solver.solve(start + TimeUnit.MILLISECONDS.toNanos(solveTimeoutMs));
+        long solveNanos = System.nanoTime() - start;
+
+        List<Long> patientIds = patients.stream().map(Patient::getId).toList();
+        if (!patientIds.isEmpty()) {
+            assignmentRepository.deletePrimaryForPatients(date, shift, patientIds);
+            assignmentRepository.flush();
+        }
+        List<NurseAssignment> saved = new ArrayList<>();
+        for (int i = 0; i < patients.size(); i++) {
+            NurseAssignment assignment = new NurseAssignment(nurses.get(solution[i]).getId(), patients.get(i).getId(),
+                    date, shift);
+            assignment.setIsPrimaryNurse(true);
+            saved.add(assignment);
+        }
+        assignmentRepository.saveAll(saved);
+
+        Map<String, Object> result = buildResult(unit, date, shift, patients, nurses, solution, acuity, solver);
+        result.put("solveMillis", solveNanos / 1_000_000.0);
+        result.put("solverSteps", solver.getSteps());
+        return result;
+    }
+
+    // Place unassigned patients of the unit into the current shift's assignment, moving few others
+    public Map<String, Object> placeAdmittedPatient(Long patientId) {
+        Patient patient = patientRepository.findById(patientId)
+                .orElseThrow(() -> new RuntimeException("Patient not found with id: " + patientId));
+        Map<String, Object> result = new HashMap<>();
+        result.put("patientId", patientId);
+        if (!Boolean.TRUE.equals(patient.getIsActive()) || patient.getUnit() == null || patient.getUnit().isBlank()) {
+            result.put("placed", false);
+            result.put("reason", "Patient is not active on a unit");
+            return result;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDate date = shiftDateAt(now);
+        Nurse.Shift shift = shiftAt(now);
+        String unit = patient.getUnit();
+
+        List<Patient> patients = patientRepository.findByUnitAndIsActiveTrue(unit);
+        List<Long> patientIds = patients.stream().map(Patient::getId).toList();
+        Map<Long, Long> current = new HashMap<>();
+        for (NurseAssignment assignment : assignmentRepository.findPrimaryForPatients(date, shift, patientIds)) {
+            current.put(assignment.getPatientId(), assignment.getNurseId());
+        }
+        if (current.isEmpty()) {
+            result.put("placed", false);
+            result.put("reason", "No assignment has been balanced for " + unit + " this shift");
+            return result;
+        }
+
+        List<Nurse> nurses = nurseRepository.findAllById(new TreeSet<>(current.values()));
+        Map<Long, Integer> nurseIndex = new HashMap<>();
+        for (int n = 0; n < nurses.size(); n++) {
+            nurseIndex.put(nurses.get(n).getId(), n);
+        }
+
+        int[] before = new int[patients.size()];
+        for (int i = 0; i < patients.size(); i++) {
+            Long nurseId = current.get(patients.get(i).getId());
+            before[i] = nurseId != null && nurseIndex.containsKey(nurseId) ? nurseIndex.get(nurseId) : -1;
+        }
+
+        long start = System.nanoTime();
+        Map<Long, Double> acuity = computeAcuity(patients, unit);
+        AssignmentSolver solver = newSolver(patients, acuity, nurses.size());
+        int[] after = solver.placeIncrementally(before, incrementalMaxChanges,
+                start + TimeUnit.MILLISECONDS.toNanos(solveTimeoutMs));
+        long solveNanos = System.nanoTime() - start;
+
+        List<Long> changedIds = new ArrayList<>();
+        List<NurseAssignment> changed = new ArrayList<>();
+        List<Map<String, Object>> changes = new ArrayList<>();
+        for (int i = 0; i < patients.size(); i++) {
+            if (after[i] == before[i]) {
+                continue;
+            }
+            Patient changedPatient = patients.get(i);
+            NurseAssignment assignment = new NurseAssignment(nurses.get(after[i]).getId(), changedPatient.getId(),
+                    date, shift);
+            assignment.setIsPrimaryNurse(true);
+            changedIds.add(changedPatient.getId());
+            changed.add(assignment);
+
+            Map<String, Object> change = new HashMap<>();
+            change.put("patientId", changedPatient.getId());
+            change.put("fromNurseId", before[i] >= 0 ? nurses.get(before[i]).getId() : null);
+            change.put("toNurseId", nurses.get(after[i]).getId());
+            changes.add(change);
+        }
+        if (!changedIds.isEmpty()) {
+            assignmentRepository.deletePrimaryForPatients(date, shift, changedIds);
+            assignmentRepository.flush();
+            assignmentRepository.saveAll(changed);
+        }
+
+        result = buildResult(unit, date, shift, patients, nurses, after, acuity, solver);
+        result.put("patientId", patientId);
+        result.put("placed", true);
+        result.put("changes", changes);
+        result.put("solveMillis", solveNanos / 1_000_000.0);
+        return result;
+    }
+
+    // After an admission commits, fit the patient into the current shift's assignment
+    public void onPatientAdmitted(Patient patient) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        Long patientId = patient.getId();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                TransactionTemplate template = new TransactionTemplate(transactionManager);
+                template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+                try {
+                    template.executeWithoutResult(status -> placeAdmittedPatient(patientId));
+                } catch (Exception e) {
+                    logger.warn("Could not place admitted patient {} into the shift assignment: {}",
+                            patientId, e.getMessage());
+                }
+            }
+        });
+    }
+
+    // Current primary assignments for a unit and shift, grouped by nurse
+    @Transactional(readOnly = true)
+    public Map<String, Object> getAssignments(String unit, LocalDate date, Nurse.Shift shift) {
+        List<Patient> patients = patientRepository.findByUnitAndIsActiveTrue(unit);
+        List<Long> patientIds = patients.stream().map(Patient::getId).toList();
+        Map<Long, Long> current = new HashMap<>();
+        if (!patientIds.isEmpty()) {
+            for (NurseAssignment assignment : assignmentRepository.findPrimaryForPatients(date, shift, patientIds)) {
+                current.put(assignment.getPatientId(), assignment.getNurseId());
+            }
+        }
+        List<Nurse> nurses = nurseRepository.findAllById(new TreeSet<>(current.values()));
+        Map<Long, Integer> nurseIndex = new HashMap<>();
+        for (int n = 0; n < nurses.size(); n++) {
+            nurseIndex.put(nurses.get(n).getId(), n);
+        }
+
+        int[] solution = new int[patients.size()];
+        for (int i = 0; i < patients.size(); i++) {
+            Long nurseId = current.get(patients.get(i).getId());
+            solution[i] = nurseId != null && nurseIndex.containsKey(nurseId) ? nurseIndex.get(nurseId) : -1;
+        }
+        Map<Long, Double> acuity = computeAcuity(patients, unit);
+        return buildResult(unit, date, shift, patients, nurses, solution, acuity, null);
+    }
+
+    // Acuity score per active patient of a unit
+    @Transactional(readOnly = true)
+    public Map<Long, Double> getUnitAcuity(String unit) {
+        return computeAcuity(patientRepository.findByUnitAndIsActiveTrue(unit), unit);
+    }
+
+    public Nurse.Shift shiftAt(LocalDateTime time) {
+        int hour = Math.floorMod(time.getHour() - dayShiftStartHour, 24);
+        if (hour < 8) {
+            return Nurse.Shift.day;
+        }
+        return hour < 16 ? Nurse.Shift.swing : Nurse.Shift.night;
+    }
+
+    // Night shifts belong to the date they started on
+    public LocalDate shiftDateAt(LocalDateTime time) {
+        return time.getHour() < dayShiftStartHour ? time.toLocalDate().minusDays(1) : time.toLocalDate();
+    }
+
+    public LocalDateTime shiftStart(LocalDate date, Nurse.Shift shift) {
+        LocalDateTime dayStart = date.atTime(dayShiftStartHour, 0);
+        return switch (shift) {
+            case day -> dayStart;
+            case swing -> dayStart.plusHours(8);
+            case night -> dayStart.plusHours(16);
+        };
+    }
+
+    // Shift following the given one: day -> swing -> night -> next day
+    public Nurse.Shift nextShift(Nurse.Shift shift) {
+        return switch (shift) {
+            case day -> Nurse.Shift.swing;
+            case swing -> Nurse.Shift.night;
+            case night -> Nurse.Shift.day;
+        };
+    }
+
+    private List<Nurse> resolveNurses(String unit, Nurse.Shift shift, List<Long> nurseIds) {
+        List<Nurse> nurses;
+        if (nurseIds != null && !nurseIds.isEmpty()) {
+            nurses = new ArrayList<>(nurseRepository.findAllById(nurseIds));
+            nurses.removeIf(nurse -> !Boolean.TRUE.equals(nurse.getIsActive()));
+        } else {
+            // Without an explicit list, nurses whose specialty names the unit
+            nurses = new ArrayList<>(nurseRepository.findByShiftAndSpecialtyIgnoreCaseAndIsActiveTrue(shift, unit));
+        }
+        nurses.sort(Comparator.comparing(Nurse::getId));
+        return nurses;
+    }
+
+    private AssignmentSolver newSolver(List<Patient> patients, Map<Long, Double> acuity, int nurseCount) {
+        double[] scores = new double[patients.size()];
+        String[] rooms = new String[patients.size()];
+        for (int i = 0; i < patients.size(); i++) {
+            scores[i] = acuity.getOrDefault(patients.get(i).getId(), 1.0);
+            rooms[i] = patients.get(i).getRoomNumber();
+        }
+        return new AssignmentSolver(scores, rooms, nurseCount, spanWeight, wingPenalty, maxPatientsPerNurse);
+    }
+
+    // 1 + active vital alerts + vitals frequency + doses due per shift, weighted by route
+    private Map<Long, Double> computeAcuity(List<Patient> patients, String unit) {
+        Map<Long, Double> acuity = new HashMap<>();
+        if (patients.isEmpty()) {
+            return acuity;
+        }
+        List<Long> patientIds = patients.stream().map(Patient::getId).toList();
+        for (Long id : patientIds) {
+            acuity.put(id, 1.0);
+        }
+
+        Map<Long, Integer> alerts = new HashMap<>();
+        for (VitalAlert alert : vitalAlertService.getActiveAlertsForUnit(unit)) {
+            alerts.merge(alert.getPatientId(), 1, Integer::sum);
+        }
+        alerts.forEach((id, count) -> acuity.computeIfPresent(id, (k, score) -> score + 0.75 * Math.min(count, 4)));
+
+        LocalDateTime since = LocalDateTime.now().minusHours(acuityWindowHours);
+        for (Object[] row : vitalSignsRepository.countByPatientIdsSince(patientIds, since)) {
+            // Hourly vitals over a day add about 1.2
+            long readings = ((Number) row[1]).longValue();
+            acuity.computeIfPresent((Long) row[0], (k, score) -> score + 0.05 * Math.min(readings, 24));
+        }
+
+        for (Object[] row : medicationRepository.findActiveDosing(patientIds)) {
+            double doses = dosesPerDay((String) row[1]) / 3.0;
+            Medication.Route route = (Medication.Route) row[2];
+            double weight = route == Medication.Route.IV || route == Medication.Route.IM || route == Medication.Route.SQ
+                    ? 0.45 : 0.3;
+            acuity.computeIfPresent((Long) row[0], (k, score) -> score + weight * doses);
+        }
+        return acuity;
+    }
+
+    // Scheduled doses per day from a frequency such as "BID", "Q6H" or "Q4H PRN"
+    static double dosesPerDay(String frequency) {
+        if (frequency == null) {
+            return 1;
+        }
+        String upper = frequency.toUpperCase();
+        double doses;
+        Matcher everyHours = EVERY_N_HOURS.matcher(upper);
+        if (everyHours.find() && Integer.parseInt(everyHours.group(1)) > 0) {
+            doses = 24.0 / Integer.parseInt(everyHours.group(1));
+        } else if (upper.contains("QID")) {
+            doses = 4;
+        } else if (upper.contains("TID")) {
+            doses = 3;
+        } else if (upper.contains("BID")) {
+            doses = 2;
+        } else if (upper.contains("WEEK")) {
+            doses = 1.0 / 7;
+        } else {
+            doses = 1;
+        }
+        // As-needed orders are given far less often than their maximum
+        return upper.contains("PRN") ? doses * 0.25 : doses;
+    }
+
+    private Map<String, Object> buildResult(String unit, LocalDate date, Nurse.Shift shift, List<Patient> patients,
+                                            List<Nurse> nurses, int[] solution, Map<Long, Double> acuity,
+                                            AssignmentSolver solver) {
+        List<Map<String, Object>> byNurse = new ArrayList<>();
+        for (int n = 0; n < nurses.size(); n++) {
+            Nurse nurse = nurses.get(n);
+            List<Map<String, Object>> assigned = new ArrayList<>();
+            double load = 0;
+            for (int i = 0; i < patients.size(); i++) {
+                if (solution[i] != n) {
+                    continue;
+                }
+                Patient patient = patients.get(i);
+                double score = acuity.getOrDefault(patient.getId(), 1.0);
+                load += score;
+                Map<String, Object> entry = new HashMap<>();
+                entry.put("patientId", patient.getId());
+                entry.put("name", patient.getFirstName() + " " + patient.getLastName());
+                entry.put("roomNumber", patient.getRoomNumber());
+                entry.put("bedNumber", patient.getBedNumber());
+                entry.put("acuity", round(score));
+                assigned.add(entry);
+            }
+
+            Map<String, Object> nurseEntry = new HashMap<>();
+            nurseEntry.put("nurseId", nurse.getId());
+            nurseEntry.put("name", nurse.getFirstName() + " " + nurse.getLastName());
+            nurseEntry.put("patients", assigned);
+            nurseEntry.put("patientCount", assigned.size());
+            nurseEntry.put("load", round(load));
+            if (solver != null) {
+                nurseEntry.put("roomSpan", solver.getSpan(n));
+            }
+            byNurse.add(nurseEntry);
+        }
+
+        List<Long> unassigned = new ArrayList<>();
+        for (int i = 0; i < patients.size(); i++) {
+            if (solution[i] < 0) {
+                unassigned.add(patients.get(i).getId());
+            }
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("unit", unit);
+        result.put("date", date);
+        result.put("shift", shift);
+        result.put("nurses", byNurse);
+        result.put("unassignedPatientIds", unassigned);
+        if (solver != null) {
+            result.put("cost", round(solver.totalCost()));
+        }
+        return result;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+}
@@ -0,0 +1,213 @@
+package com.matrixcare.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.matrixcare.entity.Nurse;
+import com.matrixcare.entity.NursingAssessment;
+import com.matrixcare.entity.Patient;
+import com.matrixcare.repository.NurseRepository;
+import com.matrixcare.repository.NursingAssessmentRepository;
+import com.matrixcare.repository.PatientRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Nursing assessment capture.
+ * Form definitions (assessment-forms.json) are compiled at startup into
+ * AssessmentForm validators with fixed column slots; an invalid definition
+ * stops startup rather than failing submissions later. Submissions, single or
+ * a whole round at once, are bound against the compiled form and written with
+ * one JDBC batch insert after the patients and nurses are checked with one
+ * query each. A batch is all-or-nothing so a round can simply be resubmitted.
+ */
+@Service
+@Transactional
+public class NursingAssessmentService {
+
+    private static final Logger logger = LoggerFactory.getLogger(NursingAssessmentService.class);
+
+    private static final String INSERT_SQL = "INSERT INTO nursing_assessments (patient_id, nurse_id, assessment_date, shift, "
+            + Arrays.stream(AssessmentForm.Column.values()).map(AssessmentForm.Column::getSqlName).collect(Collectors.joining(", "))
+            + ", created_at, updated_at) VALUES (?, ?, ?, ?, "
+            + String.join(", ", Collections.nCopies(AssessmentForm.Column.COUNT, "?")) + ", ?, ?)";
+
+    @Autowired
+    private NursingAssessmentRepository assessmentRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private NurseRepository nurseRepository;
+
+    @Autowired
+    private NurseAssignmentService nurseAssignmentService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Empty uses the bundled assessment-forms.json
+    @Value("${matrixcare.assessments.form-file:}")
+    private String formFile;
+
+    @Value("${matrixcare.assessments.max-batch:500}")
+    private int maxBatch;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private Map<String, AssessmentForm> forms;
+
+    @PostConstruct
+    public void init() {
+        try (InputStream in = formFile != null && !formFile.isBlank()
+                ? Files.newInputStream(Paths.get(formFile))
+                : new ClassPathResource("assessment-forms.json").getInputStream()) {
+            Map<String, AssessmentForm> compiled = new LinkedHashMap<>();
+            for (JsonNode definition : objectMapper.readTree(in).path("forms")) {
+                AssessmentForm form = AssessmentForm.compile(definition);
+                if (compiled.put(form.getName(), form) != null) {
+                    throw new IllegalStateException("Assessment form " + form.getName() + " is defined twice");
+                }
+            }
+            forms = Collections.unmodifiableMap(compiled);
+            logger.info("Compiled {} assessment forms: {}", forms.size(), forms.keySet());
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read assessment form definitions", e);
+        }
+    }
+
+    // A submission; assessmentDate defaults to now and shift to the shift at assessmentDate
+    public record Submission(String form, Long patientId, Long nurseId, LocalDateTime assessmentDate,
+                             Nurse.Shift shift, Map<String, Object> values) {}
+
+    // Validate and save a list of submissions; nothing is saved if any of them is invalid
+    public Map<String, Object> submit(List<Submission> submissions) {
+        if (submissions == null || submissions.isEmpty()) {
+            throw new IllegalArgumentException("No assessments submitted");
+        }
+        if (submissions.size() > maxBatch) {
+            throw new IllegalArgumentException("At most " + maxBatch + " assessments per batch");
+        }
+
+        Set<Long> patientIds = new HashSet<>();
+        Set<Long> nurseIds = new HashSet<>();
+        for (Submission submission : submissions) {
+            if (submission.patientId() != null) {
+                patientIds.add(submission.patientId());
+            }
+            if (submission.nurseId() != null) {
+                nurseIds.add(submission.nurseId());
+            }
+        }
+        Set<Long> knownPatients = patientRepository.findAllById(patientIds).stream()
+                .map(Patient::getId).collect(Collectors.toSet());
+        Set<Long> knownNurses = nurseRepository.findAllById(nurseIds).stream()
+                .map(Nurse::getId).collect(Collectors.toSet());
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> rows = new ArrayList<>(submissions.size());
+        Map<Integer, List<String>> errorsByIndex = new TreeMap<>();
+        for (int i = 0; i < submissions.size(); i++) {
+            Submission submission = submissions.get(i);
+            List<String> errors = new ArrayList<>();
+            AssessmentForm form = submission.form() != null ? forms.get(submission.form()) : null;
+            if (form == null) {
+                errors.add("form must be one of " + String.join(", ", forms.keySet()));
+            }
+            if (submission.patientId() == null || !knownPatients.contains(submission.patientId())) {
+                errors.add("Patient not found with id: " + submission.patientId());
+            }
+            if (submission.nurseId() == null || !knownNurses.contains(submission.nurseId())) {
+                errors.add("Nurse not found with id: " + submission.nurseId());
+            }
+            LocalDateTime assessedAt = submission.assessmentDate() != null ? submission.assessmentDate() : now;
+            if (assessedAt.isAfter(now.plusMinutes(5))) {
+                errors.add("assessmentDate is in the future");
+            }
+            Object[] values = form != null ? form.bind(submission.values(), errors) : null;
+
+            if (!errors.isEmpty()) {
+                errorsByIndex.put(i, errors);
+                continue;
+            }
+            Nurse.Shift shift = submission.shift() != null ? submission.shift() : nurseAssignmentService.shiftAt(assessedAt);
+            Object[] row = new Object[AssessmentForm.Column.COUNT + 6];
+            row[0] = submission.patientId();
+            row[1] = submission.nurseId();
+            row[2] = Timestamp.valueOf(assessedAt);
+            row[3] = shift.name();
+            System.arraycopy(values, 0, row, 4, values.length);
+            row[row.length - 2] = Timestamp.valueOf(now);
+            row[row.length - 1] = Timestamp.valueOf(now);
+            rows.add(row);
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        if (!errorsByIndex.isEmpty()) {
+            result.put("success", false);
+            result.put("saved", 0);
+            result.put("errors", errorsByIndex);
+            return result;
+        }
+
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Object[] row = rows.get(i);
+                        for (int c = 0; c < row.length; c++) {
+                            ps.setObject(c + 1, row[c]);
+                        }
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return rows.size();
+                    }
+                }, keys);
+
+        result.put("success", true);
+        result.put("saved", rows.size());
+        result.put("ids", keys.getKeyList().stream()
+                .map(key -> ((Number) key.values().iterator().next()).longValue()).toList());
+        return result;
+    }
+
+    // Latest assessment of every active patient of a unit
+    @Transactional(readOnly = true)
+    public List<NursingAssessment> getLatestForUnit(String unit) {
+        return assessmentRepository.findLatestForUnit(unit);
+    }
+
+    @Transactional(readOnly = true)
+    public List<NursingAssessment> getForPatient(Long patientId) {
+        return assessmentRepository.findByPatientIdOrderByAssessmentDateDescIdDesc(patientId);
+    }
+
+    public List<Map<String, Object>> getForms() {
+        return forms.values().stream().map(AssessmentForm::describe).toList();
+    }
+}
@@ -0,0 +1,171 @@
+package com.matrixcare.service;
+
+import com.matrixcare.jfr.PasswordHashEvent;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * BCrypt hashing on a small dedicated pool.
+ * Logins at shift change would otherwise run BCrypt on every request thread at
+ * once and starve the rest of the API of CPU; here at most bcrypt-threads hashes
+ * run concurrently and excess logins queue (bounded) or are rejected. Queue wait
+ * and hashing time are recorded for the login stats endpoint.
+ */
+@Service
+public class PasswordHashingService {
+
+    private static final int RECENT_SAMPLES = 1024;
+
+    private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMs;
+
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final LongAdder totalQueueNanos = new LongAdder();
+    private final LongAdder totalHashNanos = new LongAdder();
+    private final LongAccumulator maxQueueNanos = new LongAccumulator(Math::max, 0);
+
+    // Most recent queue waits, for percentiles
+    private final long[] recentQueueNanos = new long[RECENT_SAMPLES];
+    private int recentIndex;
+    private int recentCount;
+
+    public PasswordHashingService(@Value("${matrixcare.auth.bcrypt-threads:0}") int threads,
+                                  @Value("${matrixcare.auth.bcrypt-queue:200}") int queueSize,
+                                  @Value("${matrixcare.auth.bcrypt-timeout-ms:10000}") long timeoutMs) {
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize), runnable -> {
+                    Thread thread = new Thread(runnable, "bcrypt-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        this.timeoutMs = timeoutMs;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public boolean matches(String rawPassword, String encodedPassword) {
+        return run("matches", () -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    public String encode(String rawPassword) {
+        return run("encode", () -> passwordEncoder.encode(rawPassword));
+    }
+
+    public Map<String, Object> getStats() {
+        long count = completed.sum();
+        long[] samples;
+        synchronized (recentQueueNanos) {
+            samples = Arrays.copyOf(recentQueueNanos, recentCount);
+        }
+        Arrays.sort(samples);
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("threads", executor.getMaximumPoolSize());
+        stats.put("active", executor.getActiveCount());
+        stats.put("queued", executor.getQueue().size());
+        stats.put("queueCapacity", executor.getQueue().size() + executor.getQueue().remainingCapacity());
+        stats.put("completed", count);
+        stats.put("rejected", rejected.sum());
+        stats.put("timedOut", timedOut.sum());
+        stats.put("avgQueueMs", count > 0 ? totalQueueNanos.sum() / count / 1_000_000.0 : 0.0);
+        stats.put("maxQueueMs", maxQueueNanos.get() / 1_000_000.0);
+        stats.put("p50QueueMs", percentileMs(samples, 0.50));
+        stats.put("p95QueueMs", percentileMs(samples, 0.95));
+        stats.put("p99QueueMs", percentileMs(samples, 0.99));
+        stats.put("avgHashMs", count > 0 ? totalHashNanos.sum() / count / 1_000_000.0 : 0.0);
+        return stats;
+    }
+
+    // The JFR event is recorded on the calling thread and covers queue wait plus hashing
+    private <T> T run(String operation, Callable<T> task) {
+        PasswordHashEvent event = new PasswordHashEvent();
+        event.begin();
+        long submittedAt = System.nanoTime();
+        long[] queueNanos = new long[1];
+        String outcome = "failed";
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long startedAt = System.nanoTime();
+                queueNanos[0] = startedAt - submittedAt;
+                recordQueueTime(queueNanos[0]);
+                try {
+                    return task.call();
+                } finally {
+                    totalHashNanos.add(System.nanoTime() - startedAt);
+                    completed.increment();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            commit(event, operation, "rejected", 0);
+            throw new RejectedExecutionException("Too many logins in progress, please retry shortly");
+        }
+
+        try {
+            T result = future.get(timeoutMs, TimeUnit.MILLISECONDS);
+            outcome = "ok";
+            return result;
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            timedOut.increment();
+            outcome = "timeout";
+            throw new RejectedExecutionException("Login timed out waiting for password check, please retry");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Password check interrupted");
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Password check failed", e.getCause());
+        } finally {
+            // future.get() orders the pool thread's write before this read; on timeout it may still be 0
+            commit(event, operation, outcome, queueNanos[0]);
+        }
+    }
+
+    private static void commit(PasswordHashEvent event, String operation, String outcome, long queueNanos) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.outcome = outcome;
+            event.queueTime = queueNanos;
+            event.commit();
+        }
+    }
+
+    private void recordQueueTime(long nanos) {
+        totalQueueNanos.add(nanos);
+        maxQueueNanos.accumulate(nanos);
+        synchronized (recentQueueNanos) {
+            recentQueueNanos[recentIndex] = nanos;
+            recentIndex = (recentIndex + 1) % RECENT_SAMPLES;
+            recentCount = Math.min(recentCount + 1, RECENT_SAMPLES);
+        }
+    }
+
+    private static double percentileMs(long[] sorted, double q) {
+        if (sorted.length == 0) {
+            return 0.0;
+        }
+        return sorted[Math.min(sorted.length - 1, (int) (sorted.length * q))] / 1_000_000.0;
+    }
+}
@@ -0,0 +1,233 @@
+package com.matrixcare.service;
+
+import com.matrixcare.entity.Patient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Archival of discharged patients.
+ * Patients discharged more than archive-after-days ago are moved with their
+ * clinical record from the hot tables into archived_* tables (same columns, no
+ * foreign keys), one transaction per batch: every row is copied with
+ * INSERT ... SELECT and the patients rows are then deleted, which cascades to
+ * the hot child tables. Derived rows (hourly vital stats, per-patient alert
+ * thresholds) are dropped with the patient rather than archived. The hot tables
+ * and their indexes therefore hold the current census plus recent discharges,
+ * and lookups by id or MRN fall back to archived_patients, as do the stays
+ * read by the census backfill.
+ */
+@Service
+@Transactional
+public class PatientArchiveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PatientArchiveService.class);
+
+    // Archived tables and how their rows are found from a list of patient ids ("%s" = the id placeholders)
+    private static final Map<String, String> ARCHIVED_TABLES = new LinkedHashMap<>();
+
+    static {
+        ARCHIVED_TABLES.put("patients", "id IN (%s)");
+        ARCHIVED_TABLES.put("patient_allergies", "patient_id IN (%s)");
+        ARCHIVED_TABLES.put("patient_diagnoses", "patient_id IN (%s)");
+        ARCHIVED_TABLES.put("medications", "patient_id IN (%s)");
+        ARCHIVED_TABLES.put("medication_administration", "patient_id IN (%s)");
+        ARCHIVED_TABLES.put("nursing_assessments", "patient_id IN (%s)");
+        ARCHIVED_TABLES.put("vital_signs", "patient_id IN (%s)");
+        ARCHIVED_TABLES.put("vital_signs_entries", "patient_id IN (%s)");
+        ARCHIVED_TABLES.put("patient_charting_data", "patient_id IN (%s)");
+        ARCHIVED_TABLES.put("patient_charting_history", "patient_id IN (%s)");
+        ARCHIVED_TABLES.put("nursing_care_plans", "patient_id IN (%s)");
+        ARCHIVED_TABLES.put("care_plan_interventions",
+                "care_plan_id IN (SELECT id FROM nursing_care_plans WHERE patient_id IN (%s))");
+        ARCHIVED_TABLES.put("care_plan_task_completions", "patient_id IN (%s)");
+        ARCHIVED_TABLES.put("nurse_assignments", "patient_id IN (%s)");
+        ARCHIVED_TABLES.put("shift_reports", "patient_id IN (%s)");
+    }
+
+    // Stored columns only; generated columns such as patients.occupied_bed are recomputed
+    private static final String COLUMNS_SQL =
+            "SELECT column_name FROM information_schema.columns " +
+            "WHERE table_schema = SCHEMA() AND table_name = ? " +
+            "AND (generation_expression IS NULL OR generation_expression = '') ORDER BY ordinal_position";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${matrixcare.archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${matrixcare.archive.after-days:30}")
+    private int afterDays;
+
+    @Value("${matrixcare.archive.batch-size:200}")
+    private int batchSize;
+
+    private final BeanPropertyRowMapper<Patient> patientMapper = new BeanPropertyRowMapper<>(Patient.class);
+
+    // Copy statements per table, or null while archival is unavailable
+    private volatile List<String> copyStatements;
+
+    private volatile boolean lookupsEnabled;
+
+    // Check that every hot table has an archive table with all of its columns; runs before the startup census backfill
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void init() {
+        List<String> statements = new ArrayList<>();
+        List<String> problems = new ArrayList<>();
+        for (Map.Entry<String, String> table : ARCHIVED_TABLES.entrySet()) {
+            List<String> columns = columnsOf(table.getKey());
+            if (columns.isEmpty()) {
+                // Feature table not deployed here, nothing to lose
+                continue;
+            }
+            Set<String> archived = new HashSet<>(columnsOf("archived_" + table.getKey()));
+            if (archived.isEmpty()) {
+                problems.add("archived_" + table.getKey() + " is missing");
+                continue;
+            }
+            List<String> missing = columns.stream().filter(column -> !archived.contains(column)).toList();
+            if (!missing.isEmpty()) {
+                problems.add("archived_" + table.getKey() + " lacks " + missing);
+                continue;
+            }
+            String columnList = String.join(", ", columns);
+            statements.add("INSERT INTO archived_" + table.getKey() + " (" + columnList + ") SELECT " + columnList +
+                    " FROM " + table.getKey() + " WHERE " + table.getValue());
+        }
+
+        lookupsEnabled = !columnsOf("archived_patients").isEmpty();
+        if (!problems.isEmpty()) {
+            logger.warn("Patient archival disabled until add-patient-archive.sql is applied: {}", problems);
+            copyStatements = null;
+        } else {
+            copyStatements = List.copyOf(statements);
+            logger.info("Patient archival ready for {} tables; archiving {} days after discharge",
+                    statements.size(), afterDays);
+        }
+    }
+
+    @Scheduled(cron = "${matrixcare.archive.cron:0 30 2 * * *}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void archiveScheduled() {
+        if (enabled) {
+            archiveDischarged();
+        }
+    }
+
+    // Move every patient discharged before the cutoff, batch by batch
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Map<String, Object> archiveDischarged() {
+        List<String> statements = copyStatements;
+        if (statements == null) {
+            throw new IllegalStateException("Patient archival is unavailable; apply add-patient-archive.sql");
+        }
+        long start = System.nanoTime();
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(afterDays);
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+
+        int archived = 0;
+        int batches = 0;
+        while (true) {
+            Integer moved = template.execute(status -> archiveBatch(statements, cutoff));
+            if (moved == null || moved == 0) {
+                break;
+            }
+            archived += moved;
+            batches++;
+            if (moved < batchSize) {
+                break;
+            }
+        }
+
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        if (archived > 0) {
+            logger.info("Archived {} patients discharged before {} in {} batches ({} ms)", archived, cutoff, batches,
+                    elapsed);
+        }
+        Map<String, Object> result = new HashMap<>();
+        result.put("archived", archived);
+        result.put("batches", batches);
+        result.put("dischargedBefore", cutoff);
+        result.put("elapsedMillis", elapsed);
+        return result;
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<Patient> findArchivedPatient(Long id) {
+        if (!lookupsEnabled) {
+            return Optional.empty();
+        }
+        return jdbcTemplate.query("SELECT * FROM archived_patients WHERE id = ?", patientMapper, id)
+                .stream().findFirst();
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<Patient> findArchivedPatientByMRN(String mrn) {
+        if (!lookupsEnabled) {
+            return Optional.empty();
+        }
+        return jdbcTemplate.query("SELECT * FROM archived_patients WHERE medical_record_number = ?", patientMapper, mrn)
+                .stream().findFirst();
+    }
+
+    // (unit, admissionDate, dischargeDate, isActive) of archived patients in the building at some point of
+    // [start, end), the archived counterpart of PatientRepository.findCensusSpans
+    @Transactional(readOnly = true)
+    public List<Object[]> findArchivedCensusSpans(LocalDateTime start, LocalDateTime end) {
+        if (!lookupsEnabled) {
+            return Collections.emptyList();
+        }
+        return jdbcTemplate.query(
+                "SELECT unit, admission_date, discharge_date, is_active FROM archived_patients " +
+                "WHERE admission_date < ? AND (discharge_date IS NULL OR discharge_date >= ?)",
+                (rs, rowNum) -> new Object[] { rs.getString(1), rs.getObject(2, LocalDateTime.class),
+                        rs.getObject(3, LocalDateTime.class), rs.getBoolean(4) },
+                Timestamp.valueOf(end), Timestamp.valueOf(start));
+    }
+
+    // The patients rows are locked first so a patient readmitted meanwhile is skipped
+    private int archiveBatch(List<String> statements, LocalDateTime cutoff) {
+        List<Long> ids = jdbcTemplate.queryForList(
+                "SELECT id FROM patients WHERE is_active = FALSE AND discharge_date < ? " +
+                "ORDER BY discharge_date LIMIT ? FOR UPDATE",
+                Long.class, Timestamp.valueOf(cutoff), batchSize);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        Object[] args = ids.toArray();
+        for (String statement : statements) {
+            jdbcTemplate.update(String.format(statement, placeholders), args);
+        }
+        jdbcTemplate.update("DELETE FROM patients WHERE id IN (" + placeholders + ")", args);
+        return ids.size();
+    }
+
+    private List<String> columnsOf(String table) {
+        return jdbcTemplate.queryForList(COLUMNS_SQL, String.class, table);
+    }
+}
@@ -1,12 +1,16 @@
 package com.matrixcare.service;
 
 import com.matrixcare.entity.PatientChartingData;
+import com.matrixcare.jfr.ChartingJsonEvent;
 import com.matrixcare.repository.PatientChartingDataRepository;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.*;
 
 @Service
@@ -15,6 +19,11 @@ public class PatientChartingService {
     @Autowired
     private PatientChartingDataRepository chartingDataRepository;
     
+    @Autowired
+    private ChartingHistoryService historyService;
+    
+    private static final TypeReference<List<String>> ITEMS = new TypeReference<>() {};
+    
     private final ObjectMapper objectMapper = new ObjectMapper();
     
     public List<Map<String, Object>> getChartingDataForPatient(Long patientId) {
@@ -31,7 +40,7 @@ public class PatientChartingService {
             
             // Parse JSON items
             try {
-                List<String> items = objectMapper.readValue(data.getItemData(), List.class);
+                List<String> items = readItems(patientId, data.getItemData());
                 category.put("items", items);
             } catch (JsonProcessingException e) {
                 // Fallback to empty list if JSON parsing fails
@@ -44,29 +53,47 @@ public class PatientChartingService {
         return result;
     }
     
+    // Edits update the current row and append a history entry in the same transaction
+    @Transactional
     public PatientChartingData saveChartingData(Long patientId, String title, String icon, 
                                                String color, List<String> items, Integer displayOrder, Long id) {
         try {
-            String itemsJson = objectMapper.writeValueAsString(items);
+            String itemsJson = writeItems(patientId, items);
             
             PatientChartingData data;
             if (id != null) {
                 // Update existing
-                data = chartingDataRepository.findById(id)
+                data = chartingDataRepository.findByIdForUpdate(id)
                     .orElseThrow(() -> new RuntimeException("Charting data not found"));
+                String previousTitle = data.getCategoryTitle();
+                List<String> previousItems = parseItems(patientId, data.getItemData());
+                LocalDateTime previousUpdatedAt = data.getUpdatedAt();
                 data.setCategoryTitle(title);
                 data.setItemData(itemsJson);
+                data = chartingDataRepository.save(data);
+                historyService.recordUpdate(data, previousTitle, previousItems, previousUpdatedAt, items);
             } else {
                 // Create new
-                data = new PatientChartingData(patientId, title, icon, color, itemsJson, displayOrder);
+                data = chartingDataRepository.save(new PatientChartingData(patientId, title, icon, color, itemsJson, displayOrder));
+                historyService.recordCreate(data, items);
             }
             
-            return chartingDataRepository.save(data);
+            return data;
         } catch (JsonProcessingException e) {
             throw new RuntimeException("Error processing charting data", e);
         }
     }
     
+    // Reconstruct a category as it was at a point in time
+    public Optional<Map<String, Object>> getChartingDataAsOf(Long patientId, Long id, LocalDateTime asOf) {
+        return historyService.getStateAsOf(patientId, id, asOf);
+    }
+    
+    public List<Map<String, Object>> getChartingHistory(Long patientId, Long id) {
+        return historyService.getVersions(patientId, id);
+    }
+    
+    @Transactional
     public void initializeDefaultChartingData(Long patientId) {
         // Check if patient already has charting data
         List<PatientChartingData> existing = chartingDataRepository.findByPatientIdOrdered(patientId);
@@ -80,7 +107,7 @@ public class PatientChartingService {
         for (int i = 0; i < defaultCategories.size(); i++) {
             Map<String, Object> category = defaultCategories.get(i);
             try {
-                String itemsJson = objectMapper.writeValueAsString(category.get("items"));
+                String itemsJson = writeItems(patientId, (List<?>) category.get("items"));
                 PatientChartingData data = new PatientChartingData(
                     patientId,
                     (String) category.get("title"),
@@ -89,7 +116,8 @@ public class PatientChartingService {
                     itemsJson,
                     i
                 );
-                chartingDataRepository.save(data);
+                data = chartingDataRepository.save(data);
+                historyService.recordCreate(data, objectMapper.convertValue(category.get("items"), ITEMS));
             } catch (JsonProcessingException e) {
                 // Skip this category if JSON processing fails
                 continue;
@@ -143,7 +171,60 @@ public class PatientChartingService {
         return categories;
     }
     
+    @Transactional
     public void deleteChartingData(Long patientId, Long id) {
+        Optional<PatientChartingData> data = chartingDataRepository.findByIdForUpdate(id);
+        if (data.isPresent() && data.get().getPatientId().equals(patientId)) {
+            historyService.recordDelete(data.get(), parseItems(patientId, data.get().getItemData()));
+        }
         chartingDataRepository.deleteByPatientIdAndId(patientId, id);
     }
+    
+    private List<String> parseItems(Long patientId, String itemData) {
+        if (itemData == null) {
+            return new ArrayList<>();
+        }
+        try {
+            return readItems(patientId, itemData);
+        } catch (JsonProcessingException e) {
+            return new ArrayList<>();
+        }
+    }
+    
+    // Every item_data parse and serialize goes through these two, recorded as JFR events
+    private List<String> readItems(Long patientId, String itemData) throws JsonProcessingException {
+        ChartingJsonEvent event = new ChartingJsonEvent();
+        event.begin();
+        List<String> items = null;
+        try {
+            items = objectMapper.readValue(itemData, ITEMS);
+            return items;
+        } finally {
+            commit(event, patientId, "parse", items != null ? items.size() : 0,
+                    itemData != null ? itemData.length() : 0);
+        }
+    }
+    
+    private String writeItems(Long patientId, List<?> items) throws JsonProcessingException {
+        ChartingJsonEvent event = new ChartingJsonEvent();
+        event.begin();
+        String json = null;
+        try {
+            json = objectMapper.writeValueAsString(items);
+            return json;
+        } finally {
+            commit(event, patientId, "serialize", items != null ? items.size() : 0, json != null ? json.length() : 0);
+        }
+    }
+    
+    private static void commit(ChartingJsonEvent event, Long patientId, String operation, int items, int characters) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.patientId = patientId != null ? patientId : 0;
+            event.operation = operation;
+            event.items = items;
+            event.characters = characters;
+            event.commit();
+        }
+    }
 } 
\ No newline at end of file
@@ -1,35 +1,78 @@
 package com.matrixcare.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.matrixcare.entity.Patient;
+import com.matrixcare.entity.PatientDiagnosis;
+import com.matrixcare.repository.PatientDiagnosisRepository;
 import com.matrixcare.repository.PatientRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
 import java.time.LocalDateTime;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 @Transactional
 public class PatientService {
     
+    // Fields a PATCH may change; the same set PUT overwrites
+    private static final Set<String> PATCHABLE_FIELDS = Set.of(
+            "firstName", "lastName", "dateOfBirth", "gender", "roomNumber", "bedNumber", "unit",
+            "primaryPhysician", "emergencyContactName", "emergencyContactPhone", "insuranceInfo", "dischargeDate");
+    
+    private static final Set<String> REQUIRED_FIELDS = Set.of("firstName", "lastName", "dateOfBirth", "gender");
+    
     @Autowired
     private PatientRepository patientRepository;
     
+    @Autowired
+    private PatientDiagnosisRepository diagnosisRepository;
+    
+    @Autowired
+    private IcdCodeService icdCodeService;
+    
+    @Autowired
+    private BedBoardService bedBoardService;
+    
+    @Autowired
+    private CensusService censusService;
+    
+    @Autowired
+    private NurseAssignmentService nurseAssignmentService;
+    
+    @Autowired
+    private PatientArchiveService patientArchiveService;
+    
+    @Autowired
+    private CacheInvalidationBus invalidationBus;
+    
+    // Spring's mapper, so PATCH bodies parse dates exactly like PUT bodies
+    @Autowired
+    private ObjectMapper objectMapper;
+    
     // Get all active patients
     public List<Patient> getAllActivePatients() {
         return patientRepository.findByIsActiveTrue();
     }
     
-    // Get patient by ID
+    // Get patient by ID, falling back to archived patients
     public Optional<Patient> getPatientById(Long id) {
-        return patientRepository.findById(id);
+        return patientRepository.findById(id).or(() -> patientArchiveService.findArchivedPatient(id));
     }
     
-    // Get patient by medical record number
+    // Get patient by medical record number, falling back to archived patients
     public Optional<Patient> getPatientByMRN(String mrn) {
-        return patientRepository.findByMedicalRecordNumber(mrn);
+        return patientRepository.findByMedicalRecordNumber(mrn)
+                .or(() -> patientArchiveService.findArchivedPatientByMRN(mrn));
     }
     
     // Create new patient
@@ -38,21 +81,41 @@ public class PatientService {
         if (patient.getMedicalRecordNumber() == null || patient.getMedicalRecordNumber().isEmpty()) {
             patient.setMedicalRecordNumber(generateMRN());
         }
+        // MRNs stay unique across hot and archived patients
+        if (patientArchiveService.findArchivedPatientByMRN(patient.getMedicalRecordNumber()).isPresent()) {
+            throw new IllegalStateException("Medical record number " + patient.getMedicalRecordNumber()
+                    + " belongs to an archived patient");
+        }
         
         // Set admission date if not provided
         if (patient.getAdmissionDate() == null) {
             patient.setAdmissionDate(LocalDateTime.now());
         }
         
-        return patientRepository.save(patient);
+        // A new patient starts at version 0 whatever the client sent
+        patient.setVersion(null);
+        
+        Patient saved = patientRepository.save(patient);
+        bedBoardService.assign(saved);
+        if (Boolean.TRUE.equals(saved.getIsActive())) {
+            censusService.recordAdmission(saved.getUnit(), saved.getAdmissionDate());
+            nurseAssignmentService.onPatientAdmitted(saved);
+        }
+        invalidationBus.publish(CacheInvalidationBus.PATIENT, saved.getId());
+        return saved;
     }
     
-    // Update existing patient
+    // Update existing patient; the body's version must match the stored one
     public Patient updatePatient(Long id, Patient patientDetails) {
+        if (patientDetails.getVersion() == null) {
+            throw new IllegalArgumentException("version is required");
+        }
         Optional<Patient> optionalPatient = patientRepository.findById(id);
         
         if (optionalPatient.isPresent()) {
             Patient patient = optionalPatient.get();
+            checkVersion(patient, patientDetails.getVersion());
+            String previousUnit = patient.getUnit();
             
             // Update fields
             patient.setFirstName(patientDetails.getFirstName());
@@ -61,6 +124,7 @@ public class PatientService {
             patient.setGender(patientDetails.getGender());
             patient.setRoomNumber(patientDetails.getRoomNumber());
             patient.setBedNumber(patientDetails.getBedNumber());
+            patient.setUnit(patientDetails.getUnit());
             patient.setPrimaryPhysician(patientDetails.getPrimaryPhysician());
             patient.setEmergencyContactName(patientDetails.getEmergencyContactName());
             patient.setEmergencyContactPhone(patientDetails.getEmergencyContactPhone());
@@ -70,26 +134,124 @@ public class PatientService {
                 patient.setDischargeDate(patientDetails.getDischargeDate());
             }
             
-            return patientRepository.save(patient);
+            return afterUpdate(patientRepository.save(patient), previousUnit);
         }
         
         throw new RuntimeException("Patient not found with id: " + id);
     }
     
+    // Apply only the fields present in the body, e.g. {"version": 3, "roomNumber": "214"}
+    public Patient patchPatient(Long id, JsonNode changes) {
+        if (changes == null || !changes.isObject()) {
+            throw new IllegalArgumentException("Patch body must be a JSON object");
+        }
+        JsonNode version = changes.get("version");
+        if (version == null || !version.canConvertToLong()) {
+            throw new IllegalArgumentException("version is required");
+        }
+        ObjectNode fields = ((ObjectNode) changes).deepCopy();
+        fields.remove("version");
+        for (Iterator<String> names = fields.fieldNames(); names.hasNext(); ) {
+            String name = names.next();
+            if (!PATCHABLE_FIELDS.contains(name)) {
+                throw new IllegalArgumentException(name + " cannot be changed with PATCH");
+            }
+            if (REQUIRED_FIELDS.contains(name) && (fields.get(name).isNull()
+                    || (fields.get(name).isTextual() && fields.get(name).asText().isBlank()))) {
+                throw new IllegalArgumentException(name + " cannot be empty");
+            }
+        }
+        
+        Patient patient = patientRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Patient not found with id: " + id));
+        checkVersion(patient, version.asLong());
+        String previousUnit = patient.getUnit();
+        try {
+            objectMapper.readerForUpdating(patient).readValue(fields);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid patch: " + e.getMessage());
+        }
+        // Unchanged fields stay out of the UPDATE (@DynamicUpdate); no change at all means no UPDATE
+        return afterUpdate(patientRepository.save(patient), previousUnit);
+    }
+    
+    // Version currently stored, for conflict responses
+    @Transactional(readOnly = true)
+    public Optional<Long> getPatientVersion(Long id) {
+        return patientRepository.findVersionById(id);
+    }
+    
+    private Patient afterUpdate(Patient saved, String previousUnit) {
+        bedBoardService.assign(saved);
+        if (Boolean.TRUE.equals(saved.getIsActive()) && !sameUnit(previousUnit, saved.getUnit())) {
+            censusService.recordTransfer(previousUnit, saved.getUnit(), LocalDateTime.now());
+        }
+        invalidationBus.publish(CacheInvalidationBus.PATIENT, saved.getId());
+        return saved;
+    }
+    
+    // Reject an edit made against an older version; the UPDATE's version check covers edits that race past this
+    private void checkVersion(Patient patient, Long expectedVersion) {
+        if (!expectedVersion.equals(patient.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(Patient.class, patient.getId());
+        }
+    }
+    
     // Soft delete patient (set inactive)
     public void deletePatient(Long id) {
         Optional<Patient> optionalPatient = patientRepository.findById(id);
         
         if (optionalPatient.isPresent()) {
             Patient patient = optionalPatient.get();
+            boolean wasActive = Boolean.TRUE.equals(patient.getIsActive());
             patient.setIsActive(false);
             patient.setDischargeDate(LocalDateTime.now());
             patientRepository.save(patient);
+            bedBoardService.assign(patient);
+            if (wasActive) {
+                censusService.recordDischarge(patient.getUnit(), patient.getAdmissionDate(), patient.getDischargeDate());
+            }
+            invalidationBus.publish(CacheInvalidationBus.PATIENT, id);
         } else {
             throw new RuntimeException("Patient not found with id: " + id);
         }
     }
     
+    // Add a diagnosis with its code normalized against the ICD-10 code set
+    public PatientDiagnosis addDiagnosis(Long patientId, PatientDiagnosis diagnosis) {
+        Patient patient = patientRepository.findById(patientId)
+                .orElseThrow(() -> new RuntimeException("Patient not found with id: " + patientId));
+        
+        diagnosis.setId(null);
+        diagnosis.setPatient(patient);
+        icdCodeService.normalizeDiagnosis(diagnosis);
+        if (diagnosis.getDiagnosisDescription() == null || diagnosis.getDiagnosisDescription().isBlank()) {
+            throw new IllegalArgumentException("Diagnosis description is required for codes outside the ICD-10 code set");
+        }
+        return diagnosisRepository.save(diagnosis);
+    }
+    
+    // Update a diagnosis; the code is normalized again
+    public PatientDiagnosis updateDiagnosis(Long patientId, Long diagnosisId, PatientDiagnosis details) {
+        PatientDiagnosis diagnosis = diagnosisRepository.findById(diagnosisId)
+                .filter(d -> d.getPatient().getId().equals(patientId))
+                .orElseThrow(() -> new RuntimeException("Diagnosis not found with id: " + diagnosisId));
+        
+        diagnosis.setDiagnosisCode(details.getDiagnosisCode());
+        diagnosis.setDiagnosisDescription(details.getDiagnosisDescription());
+        diagnosis.setDiagnosisType(details.getDiagnosisType());
+        diagnosis.setDiagnosedDate(details.getDiagnosedDate());
+        diagnosis.setResolvedDate(details.getResolvedDate());
+        if (details.getIsActive() != null) {
+            diagnosis.setIsActive(details.getIsActive());
+        }
+        icdCodeService.normalizeDiagnosis(diagnosis);
+        if (diagnosis.getDiagnosisDescription() == null || diagnosis.getDiagnosisDescription().isBlank()) {
+            throw new IllegalArgumentException("Diagnosis description is required for codes outside the ICD-10 code set");
+        }
+        return diagnosisRepository.save(diagnosis);
+    }
+    
     // Search patients by name
     public List<Patient> searchPatientsByName(String searchTerm) {
         return patientRepository.findByNameContainingIgnoreCase(searchTerm);
@@ -125,6 +287,13 @@ public class PatientService {
         return patientRepository.findByAdmissionDateBetween(startDate, endDate);
     }
     
+    // Units compare blank and missing as the same
+    private boolean sameUnit(String a, String b) {
+        String left = a == null || a.isBlank() ? null : a.trim();
+        String right = b == null || b.isBlank() ? null : b.trim();
+        return Objects.equals(left, right);
+    }
+    
     // Generate Medical Record Number
     private String generateMRN() {
         // Simple MRN generation - in production, use more sophisticated logic
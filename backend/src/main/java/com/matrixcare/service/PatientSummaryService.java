@@ -0,0 +1,91 @@
+package com.matrixcare.service;
+
+import com.matrixcare.entity.Medication;
+import com.matrixcare.entity.Patient;
+import com.matrixcare.entity.PatientAllergy;
+import com.matrixcare.entity.PatientDiagnosis;
+import com.matrixcare.repository.MedicationRepository;
+import com.matrixcare.repository.PatientAllergyRepository;
+import com.matrixcare.repository.PatientDiagnosisRepository;
+import com.matrixcare.repository.PatientRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+
+/**
+ * Builds patient summaries (patient plus allergies, diagnoses and medications).
+ * Each collection is loaded with its own IN query instead of touching the lazy
+ * collections, so any number of patients costs four queries and no Cartesian join.
+ */
+@Service
+@Transactional(readOnly = true)
+public class PatientSummaryService {
+    
+    @Autowired
+    private PatientRepository patientRepository;
+    
+    @Autowired
+    private PatientAllergyRepository allergyRepository;
+    
+    @Autowired
+    private PatientDiagnosisRepository diagnosisRepository;
+    
+    @Autowired
+    private MedicationRepository medicationRepository;
+    
+    // Get summary for a single patient
+    public Optional<Map<String, Object>> getPatientSummary(Long patientId) {
+        List<Map<String, Object>> summaries = getPatientSummaries(Collections.singletonList(patientId));
+        return summaries.isEmpty() ? Optional.empty() : Optional.of(summaries.get(0));
+    }
+    
+    // Get summaries for many patients, in the order requested; unknown ids are skipped
+    public List<Map<String, Object>> getPatientSummaries(Collection<Long> patientIds) {
+        Set<Long> ids = new LinkedHashSet<>(patientIds);
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        
+        Map<Long, Patient> patients = new HashMap<>();
+        for (Patient patient : patientRepository.findAllById(ids)) {
+            patients.put(patient.getId(), patient);
+        }
+        if (patients.isEmpty()) {
+            return new ArrayList<>();
+        }
+        
+        Map<Long, List<PatientAllergy>> allergies = new HashMap<>();
+        for (PatientAllergy allergy : allergyRepository.findByPatientIdIn(patients.keySet())) {
+            allergies.computeIfAbsent(allergy.getPatient().getId(), k -> new ArrayList<>()).add(allergy);
+        }
+        
+        Map<Long, List<PatientDiagnosis>> diagnoses = new HashMap<>();
+        for (PatientDiagnosis diagnosis : diagnosisRepository.findByPatientIdIn(patients.keySet())) {
+            diagnoses.computeIfAbsent(diagnosis.getPatient().getId(), k -> new ArrayList<>()).add(diagnosis);
+        }
+        
+        Map<Long, List<Medication>> medications = new HashMap<>();
+        for (Medication medication : medicationRepository.findByPatientIdIn(patients.keySet())) {
+            medications.computeIfAbsent(medication.getPatient().getId(), k -> new ArrayList<>()).add(medication);
+        }
+        
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (Long id : ids) {
+            Patient patient = patients.get(id);
+            if (patient == null) {
+                continue;
+            }
+            
+            Map<String, Object> summary = new HashMap<>();
+            summary.put("patient", patient);
+            summary.put("allergies", allergies.getOrDefault(id, new ArrayList<>()));
+            summary.put("diagnoses", diagnoses.getOrDefault(id, new ArrayList<>()));
+            summary.put("medications", medications.getOrDefault(id, new ArrayList<>()));
+            result.add(summary);
+        }
+        
+        return result;
+    }
+}
@@ -0,0 +1,274 @@
+package com.matrixcare.service;
+
+import com.matrixcare.jfr.RequestThread;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Degraded reads for dashboard endpoints while MySQL is slow or down.
+ * Reads run on a small bounded pool and the caller waits at most timeout-ms,
+ * so a database that hangs (Hikari waits up to 20 s for a connection) ties up
+ * the pool's threads instead of every request thread. Each successful read is
+ * kept as the last known good answer for its key. After failure-threshold
+ * consecutive failures or timeouts the circuit opens for open-ms: reads are
+ * answered from that cache at once, and a single probe read is let through
+ * once the interval has passed to close it again. A read that times out keeps
+ * running in the background and refreshes the cache when it completes
+ * (stale-while-revalidate). Answers older than max-stale-seconds are never
+ * served; without a usable cached answer the caller gets a
+ * ReadUnavailableException and should answer 503.
+ */
+@Service
+public class ReadFallbackService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReadFallbackService.class);
+
+    // Outcome of a read: the value, and when it was loaded if it came from the cache
+    public record Read<T>(T value, boolean stale, Instant loadedAt) {
+    }
+
+    public static class ReadUnavailableException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        public ReadUnavailableException(String message) {
+            super(message);
+        }
+    }
+
+    private record Entry(Object value, long loadedAtMillis) {
+    }
+
+    private final boolean enabled;
+    private final long timeoutMs;
+    private final int failureThreshold;
+    private final long openMs;
+    private final long maxStaleMillis;
+    private final int maxEntries;
+
+    private final ThreadPoolExecutor executor;
+
+    // Last known good answers, least recently used first
+    private final Map<String, Entry> cache;
+
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private volatile long openUntilMillis;
+    private final AtomicBoolean probeInFlight = new AtomicBoolean();
+
+    private final LongAdder fresh = new LongAdder();
+    private final LongAdder staleServed = new LongAdder();
+    private final LongAdder unavailable = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public ReadFallbackService(CacheInvalidationBus invalidationBus,
+                               @Value("${matrixcare.read-fallback.enabled:true}") boolean enabled,
+                               @Value("${matrixcare.read-fallback.threads:8}") int threads,
+                               @Value("${matrixcare.read-fallback.queue:64}") int queueSize,
+                               @Value("${matrixcare.read-fallback.timeout-ms:2000}") long timeoutMs,
+                               @Value("${matrixcare.read-fallback.failure-threshold:5}") int failureThreshold,
+                               @Value("${matrixcare.read-fallback.open-ms:10000}") long openMs,
+                               @Value("${matrixcare.read-fallback.max-stale-seconds:900}") long maxStaleSeconds,
+                               @Value("${matrixcare.read-fallback.max-entries:10000}") int maxEntries) {
+        this.enabled = enabled;
+        this.timeoutMs = timeoutMs;
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openMs = openMs;
+        this.maxStaleMillis = TimeUnit.SECONDS.toMillis(maxStaleSeconds);
+        this.maxEntries = maxEntries;
+        this.cache = new LinkedHashMap<>(256, 0.75f, true);
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize), runnable -> {
+                    Thread thread = new Thread(runnable, "db-read-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+
+        // Keys are "patient:<id>", "patient-list:..." or "vitals:<id>:..."
+        invalidationBus.subscribe(CacheInvalidationBus.PATIENT, id -> {
+            if (id != null) {
+                evict("patient:" + id);
+            } else {
+                evictPrefix("patient:");
+            }
+            evictPrefix("patient-list:");
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Run a read, falling back to the last answer stored under key.
+     * Keys must identify the query and its arguments, e.g. "patient:42".
+     */
+    public <T> Read<T> read(String key, Supplier<T> loader) {
+        if (!enabled) {
+            return new Read<>(loader.get(), false, null);
+        }
+
+        long now = System.currentTimeMillis();
+        if (now < openUntilMillis || !probeAllowed()) {
+            return fallback(key, "circuit open");
+        }
+
+        // The caller's timeout and the read's own failure must count once between them
+        AtomicBoolean failureCounted = new AtomicBoolean();
+        CompletableFuture<T> future;
+        try {
+            // JFR events recorded by the read are attributed to the waiting request thread
+            future = CompletableFuture.supplyAsync(RequestThread.carry(loader), executor);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            recordFailure();
+            return fallback(key, "read pool saturated");
+        }
+        // Also runs after the caller gave up, so a slow read still refreshes the cache
+        future.whenComplete((value, error) -> {
+            if (error == null) {
+                store(key, value);
+                recordSuccess();
+            } else if (isOutage(error) && failureCounted.compareAndSet(false, true)) {
+                recordFailure();
+            } else {
+                probeInFlight.set(false);
+            }
+        });
+
+        try {
+            T value = future.get(timeoutMs, TimeUnit.MILLISECONDS);
+            fresh.increment();
+            return new Read<>(value, false, null);
+        } catch (TimeoutException e) {
+            timedOut.increment();
+            if (failureCounted.compareAndSet(false, true)) {
+                recordFailure();
+            }
+            return fallback(key, "timed out after " + timeoutMs + " ms");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ReadUnavailableException("Read interrupted");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (!isOutage(cause) && cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (failureCounted.compareAndSet(false, true)) {
+                recordFailure();
+            }
+            failed.increment();
+            logger.debug("Read {} failed: {}", key, cause.toString());
+            return fallback(key, "failed: " + cause.getMessage());
+        }
+    }
+
+    public void evict(String key) {
+        synchronized (cache) {
+            cache.remove(key);
+        }
+    }
+
+    // Drop cached answers whose key starts with prefix, e.g. after the patient they describe changed
+    public void evictPrefix(String prefix) {
+        synchronized (cache) {
+            cache.keySet().removeIf(key -> key.startsWith(prefix));
+        }
+    }
+
+    public Map<String, Object> getStatus() {
+        long now = System.currentTimeMillis();
+        Map<String, Object> status = new HashMap<>();
+        status.put("enabled", enabled);
+        status.put("circuit", now < openUntilMillis ? "open"
+                : consecutiveFailures.get() >= failureThreshold ? "half-open" : "closed");
+        status.put("consecutiveFailures", consecutiveFailures.get());
+        status.put("fresh", fresh.sum());
+        status.put("staleServed", staleServed.sum());
+        status.put("unavailable", unavailable.sum());
+        status.put("timedOut", timedOut.sum());
+        status.put("failed", failed.sum());
+        status.put("rejected", rejected.sum());
+        status.put("activeReads", executor.getActiveCount());
+        status.put("queuedReads", executor.getQueue().size());
+        synchronized (cache) {
+            status.put("cachedEntries", cache.size());
+        }
+        return status;
+    }
+
+    // Errors in the request itself (bad arguments, conflicts) are not a database outage
+    private static boolean isOutage(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        return !(cause instanceof IllegalArgumentException || cause instanceof IllegalStateException);
+    }
+
+    // Once open-ms has passed, one caller probes the database while the others keep getting cached answers
+    private boolean probeAllowed() {
+        if (consecutiveFailures.get() < failureThreshold) {
+            return true;
+        }
+        return probeInFlight.compareAndSet(false, true);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Read<T> fallback(String key, String reason) {
+        Entry entry;
+        synchronized (cache) {
+            entry = cache.get(key);
+        }
+        if (entry == null || System.currentTimeMillis() - entry.loadedAtMillis > maxStaleMillis) {
+            unavailable.increment();
+            throw new ReadUnavailableException("Database unavailable (" + reason + ") and no recent cached answer");
+        }
+        staleServed.increment();
+        return new Read<>((T) entry.value, true, Instant.ofEpochMilli(entry.loadedAtMillis));
+    }
+
+    private void store(String key, Object value) {
+        synchronized (cache) {
+            cache.put(key, new Entry(value, System.currentTimeMillis()));
+            if (cache.size() > maxEntries) {
+                cache.remove(cache.keySet().iterator().next());
+            }
+        }
+    }
+
+    private void recordSuccess() {
+        probeInFlight.set(false);
+        if (consecutiveFailures.getAndSet(0) >= failureThreshold) {
+            openUntilMillis = 0;
+            logger.info("Database reads recovered, circuit closed");
+        }
+    }
+
+    private void recordFailure() {
+        probeInFlight.set(false);
+        int failures = consecutiveFailures.incrementAndGet();
+        if (failures >= failureThreshold) {
+            long now = System.currentTimeMillis();
+            if (now >= openUntilMillis) {
+                openUntilMillis = now + openMs;
+                if (failures == failureThreshold) {
+                    logger.warn("Database reads failing, circuit open for {} ms; serving cached answers", openMs);
+                }
+            }
+        }
+    }
+}
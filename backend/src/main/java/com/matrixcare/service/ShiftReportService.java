@@ -0,0 +1,418 @@
+package com.matrixcare.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.matrixcare.entity.Medication;
+import com.matrixcare.entity.Nurse;
+import com.matrixcare.entity.NurseAssignment;
+import com.matrixcare.entity.Patient;
+import com.matrixcare.entity.PatientChartingData;
+import com.matrixcare.entity.ShiftReport;
+import com.matrixcare.entity.VitalSignsEntry;
+import com.matrixcare.repository.MedicationRepository;
+import com.matrixcare.repository.NurseAssignmentRepository;
+import com.matrixcare.repository.PatientChartingDataRepository;
+import com.matrixcare.repository.PatientRepository;
+import com.matrixcare.repository.ShiftReportRepository;
+import com.matrixcare.repository.VitalSignsEntryRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Builds handoff reports for every patient of a unit at the end of a shift.
+ * The unit's vitals since shift start, charting categories, medications and
+ * nurse assignments are each fetched with one bulk query, and those queries run
+ * concurrently on a small loader pool. Reports are then assembled in parallel on
+ * a fork/join pool from the grouped data, with no further database access, and
+ * written in a single transaction that replaces any earlier reports for the
+ * same handoff. Scheduled at each shift boundary for every occupied unit.
+ */
+@Service
+public class ShiftReportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShiftReportService.class);
+
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("HH:mm");
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private VitalSignsEntryRepository vitalSignsRepository;
+
+    @Autowired
+    private PatientChartingDataRepository chartingDataRepository;
+
+    @Autowired
+    private MedicationRepository medicationRepository;
+
+    @Autowired
+    private NurseAssignmentRepository assignmentRepository;
+
+    @Autowired
+    private ShiftReportRepository shiftReportRepository;
+
+    @Autowired
+    private NurseAssignmentService nurseAssignmentService;
+
+    @Autowired
+    private VitalAlertService vitalAlertService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final ExecutorService loaders;
+    private final ForkJoinPool assemblers;
+
+    public ShiftReportService(@Value("${matrixcare.shift-reports.threads:0}") int threads) {
+        int parallelism = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+        // One thread per bulk query kind
+        this.loaders = Executors.newFixedThreadPool(5, runnable -> {
+            Thread thread = new Thread(runnable, "shift-report-load-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.assemblers = new ForkJoinPool(parallelism);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        loaders.shutdownNow();
+        assemblers.shutdownNow();
+    }
+
+    // At each shift boundary, write handoff reports for the shift that just ended
+    @Scheduled(cron = "${matrixcare.shift-reports.cron:0 0 7,15,23 * * *}")
+    public void generateAtShiftBoundary() {
+        LocalDateTime endedAt = LocalDateTime.now().minusMinutes(30);
+        LocalDate date = nurseAssignmentService.shiftDateAt(endedAt);
+        Nurse.Shift shift = nurseAssignmentService.shiftAt(endedAt);
+        for (String unit : patientRepository.findActiveUnits()) {
+            try {
+                Map<String, Object> result = generateForUnit(unit, date, shift);
+                logger.info("Shift reports for {} {} {}: {} written, {} without an assigned nurse, {} ms",
+                        unit, date, shift, result.get("reportsWritten"), result.get("skippedCount"),
+                        result.get("elapsedMillis"));
+            } catch (Exception e) {
+                logger.error("Shift report generation failed for unit {}: {}", unit, e.getMessage(), e);
+            }
+        }
+    }
+
+    // Write handoff reports for every active patient of a unit at the end of the given shift
+    public Map<String, Object> generateForUnit(String unit, LocalDate date, Nurse.Shift shift) {
+        long start = System.nanoTime();
+        LocalDateTime shiftStart = nurseAssignmentService.shiftStart(date, shift);
+        LocalDateTime shiftEnd = shiftStart.plusHours(8);
+        Nurse.Shift nextShift = nurseAssignmentService.nextShift(shift);
+        LocalDate nextDate = shift == Nurse.Shift.night ? date.plusDays(1) : date;
+        ShiftReport.ShiftType shiftType = shiftType(shift);
+
+        List<Patient> patients = patientRepository.findByUnitAndIsActiveTrue(unit);
+        List<Long> patientIds = patients.stream().map(Patient::getId).toList();
+        Map<String, Object> result = new HashMap<>();
+        result.put("unit", unit);
+        result.put("shiftDate", date);
+        result.put("shiftType", shiftType);
+        if (patientIds.isEmpty()) {
+            result.put("reportsWritten", 0);
+            result.put("skippedCount", 0);
+            result.put("skippedPatientIds", List.of());
+            result.put("elapsedMillis", 0L);
+            return result;
+        }
+
+        // Bulk loads run concurrently, each in its own read transaction
+        CompletableFuture<Map<Long, List<VitalSignsEntry>>> vitals = load(
+                () -> vitalSignsRepository.findByPatientIdsBetween(patientIds, shiftStart, shiftEnd),
+                VitalSignsEntry::getPatientId);
+        CompletableFuture<Map<Long, List<PatientChartingData>>> charting = load(
+                () -> chartingDataRepository.findByPatientIdIn(patientIds), PatientChartingData::getPatientId);
+        CompletableFuture<Map<Long, List<Medication>>> medications = load(
+                () -> medicationRepository.findByPatientIdIn(patientIds), m -> m.getPatient().getId());
+        CompletableFuture<Map<Long, List<NurseAssignment>>> outgoing = load(
+                () -> assignmentRepository.findPrimaryForPatients(date, shift, patientIds), NurseAssignment::getPatientId);
+        CompletableFuture<Map<Long, List<NurseAssignment>>> incoming = load(
+                () -> assignmentRepository.findPrimaryForPatients(nextDate, nextShift, patientIds),
+                NurseAssignment::getPatientId);
+        Map<Long, List<VitalAlert>> alerts = vitalAlertService.getActiveAlertsForUnit(unit).stream()
+                .collect(Collectors.groupingBy(VitalAlert::getPatientId));
+
+        ShiftData data;
+        try {
+            data = new ShiftData(vitals.get(), charting.get(), medications.get(), outgoing.get(), incoming.get(),
+                    alerts, shiftStart, shiftEnd);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while loading shift data for unit " + unit, e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Error loading shift data for unit " + unit, e.getCause());
+        }
+
+        List<ShiftReport> reports;
+        try {
+            reports = assemblers.submit(() -> patients.parallelStream()
+                    .map(patient -> assemble(patient, date, shiftType, data))
+                    .filter(Objects::nonNull)
+                    .toList()).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while assembling shift reports for unit " + unit, e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Error assembling shift reports for unit " + unit, e.getCause());
+        }
+
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.executeWithoutResult(status -> {
+            shiftReportRepository.deleteForPatients(date, shiftType, patientIds);
+            shiftReportRepository.saveAll(reports);
+        });
+
+        Set<Long> reported = reports.stream().map(ShiftReport::getPatientId).collect(Collectors.toSet());
+        List<Long> skipped = patientIds.stream().filter(id -> !reported.contains(id)).toList();
+        result.put("reportsWritten", reports.size());
+        result.put("skippedCount", skipped.size());
+        result.put("skippedPatientIds", skipped);
+        result.put("elapsedMillis", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return result;
+    }
+
+    // Reports of one handoff for a unit's active patients
+    public List<ShiftReport> getReportsForUnit(String unit, LocalDate date, Nurse.Shift shift) {
+        List<Long> patientIds = patientRepository.findByUnitAndIsActiveTrue(unit).stream()
+                .map(Patient::getId).toList();
+        if (patientIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return shiftReportRepository.findForPatients(date, shiftType(shift), patientIds);
+    }
+
+    public List<ShiftReport> getReportsForPatient(Long patientId) {
+        return shiftReportRepository.findByPatientIdOrderByShiftDateDescIdDesc(patientId);
+    }
+
+    // Handoff named after the ending shift and the one taking over
+    public static ShiftReport.ShiftType shiftType(Nurse.Shift endingShift) {
+        return switch (endingShift) {
+            case day -> ShiftReport.ShiftType.day_to_swing;
+            case swing -> ShiftReport.ShiftType.swing_to_night;
+            case night -> ShiftReport.ShiftType.night_to_day;
+        };
+    }
+
+    private <T> CompletableFuture<Map<Long, List<T>>> load(Callable<List<T>> query, Function<T, Long> patientId) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return query.call().stream().collect(Collectors.groupingBy(patientId));
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, loaders);
+    }
+
+    // Builds one report from preloaded data; null when nobody was assigned to the patient this shift
+    private ShiftReport assemble(Patient patient, LocalDate date, ShiftReport.ShiftType shiftType, ShiftData data) {
+        Long id = patient.getId();
+        NurseAssignment outgoing = first(data.outgoing.get(id));
+        if (outgoing == null) {
+            return null;
+        }
+        NurseAssignment incoming = first(data.incoming.get(id));
+
+        List<VitalSignsEntry> vitals = data.vitals.getOrDefault(id, List.of());
+        List<VitalAlert> alerts = data.alerts.getOrDefault(id, List.of());
+        List<Medication> medications = data.medications.getOrDefault(id, List.of());
+
+        ShiftReport report = new ShiftReport(id, outgoing.getNurseId(), date, shiftType);
+        report.setIncomingNurseId(incoming != null ? incoming.getNurseId() : null);
+        report.setPatientCondition(describeCondition(vitals));
+        report.setSignificantEvents(describeEvents(vitals, data.charting.getOrDefault(id, List.of()), data));
+        report.setMedicationNotes(describeMedications(medications, data));
+        report.setPendingTasks(describePendingTasks(medications));
+        report.setPhysicianOrders(describeNewOrders(medications, data));
+        report.setPriorityConcerns(describeAlerts(alerts));
+        return report;
+    }
+
+    private String describeCondition(List<VitalSignsEntry> vitals) {
+        if (vitals.isEmpty()) {
+            return "No vital signs recorded this shift.";
+        }
+        VitalSignsEntry latest = vitals.get(vitals.size() - 1);
+        List<String> parts = new ArrayList<>();
+        if (latest.getBloodPressureSystolic() != null && latest.getBloodPressureDiastolic() != null) {
+            parts.add("BP " + latest.getBloodPressureSystolic() + "/" + latest.getBloodPressureDiastolic());
+        }
+        if (latest.getPulse() != null) {
+            parts.add("HR " + latest.getPulse());
+        }
+        if (latest.getRespiration() != null) {
+            parts.add("RR " + latest.getRespiration());
+        }
+        if (latest.getTemperature() != null) {
+            parts.add("T " + latest.getTemperature() + (latest.getTemperatureUnit() != null ? latest.getTemperatureUnit() : ""));
+        }
+        if (latest.getOxygenSaturation() != null) {
+            parts.add("SpO2 " + latest.getOxygenSaturation() + "%");
+        }
+        if (latest.getPainLevel() != null) {
+            parts.add("pain " + latest.getPainLevel() + "/10");
+        }
+
+        StringBuilder text = new StringBuilder("Latest vitals at ").append(latest.getRecordedAt().format(TIME))
+                .append(": ").append(parts.isEmpty() ? "none charted" : String.join(", ", parts)).append('.');
+        if (vitals.size() > 1) {
+            List<String> ranges = new ArrayList<>();
+            addRange(ranges, "SBP", vitals.stream().map(VitalSignsEntry::getBloodPressureSystolic).toList());
+            addRange(ranges, "HR", vitals.stream().map(VitalSignsEntry::getPulse).toList());
+            addRange(ranges, "RR", vitals.stream().map(VitalSignsEntry::getRespiration).toList());
+            addRange(ranges, "SpO2", vitals.stream().map(VitalSignsEntry::getOxygenSaturation).toList());
+            text.append(' ').append(vitals.size()).append(" readings this shift");
+            if (!ranges.isEmpty()) {
+                text.append(" (").append(String.join(", ", ranges)).append(')');
+            }
+            text.append('.');
+        }
+        return text.toString();
+    }
+
+    private void addRange(List<String> ranges, String label, List<Integer> values) {
+        IntSummaryStatistics stats = values.stream().filter(Objects::nonNull)
+                .mapToInt(Integer::intValue).summaryStatistics();
+        if (stats.getCount() > 1 && stats.getMin() != stats.getMax()) {
+            ranges.add(label + " " + stats.getMin() + "-" + stats.getMax());
+        }
+    }
+
+    private String describeEvents(List<VitalSignsEntry> vitals, List<PatientChartingData> charting, ShiftData data) {
+        List<String> events = new ArrayList<>();
+        for (VitalSignsEntry entry : vitals) {
+            if (entry.getNotes() != null && !entry.getNotes().isBlank()) {
+                events.add(entry.getRecordedAt().format(TIME) + " " + entry.getNotes().trim());
+            }
+        }
+        for (PatientChartingData category : charting) {
+            if (data.duringShift(category.getUpdatedAt())) {
+                List<String> items = parseItems(category.getItemData());
+                events.add("Charting updated: " + category.getCategoryTitle()
+                        + (items.isEmpty() ? "" : " - " + String.join("; ", items)));
+            }
+        }
+        return events.isEmpty() ? null : String.join("\n", events);
+    }
+
+    private String describeMedications(List<Medication> medications, ShiftData data) {
+        List<String> notes = new ArrayList<>();
+        for (Medication medication : medications) {
+            if (Boolean.TRUE.equals(medication.getIsActive())) {
+                notes.add(describe(medication) + (data.duringShift(medication.getStartDate()) ? " (started this shift)" : ""));
+            } else if (data.duringShift(medication.getEndDate())) {
+                notes.add(describe(medication) + " (discontinued this shift)");
+            }
+        }
+        return notes.isEmpty() ? null : String.join("\n", notes);
+    }
+
+    private String describePendingTasks(List<Medication> medications) {
+        List<String> tasks = new ArrayList<>();
+        for (Medication medication : medications) {
+            if (!Boolean.TRUE.equals(medication.getIsActive())) {
+                continue;
+            }
+            double doses = NurseAssignmentService.dosesPerDay(medication.getFrequency()) / 3.0;
+            String frequency = medication.getFrequency() != null ? medication.getFrequency().toUpperCase() : "";
+            if (frequency.contains("PRN")) {
+                tasks.add(medication.getMedicationName() + " available PRN");
+            } else if (doses >= 0.5) {
+                tasks.add(medication.getMedicationName() + ": about " + Math.round(doses) + " scheduled dose(s) next shift");
+            }
+        }
+        return tasks.isEmpty() ? null : String.join("\n", tasks);
+    }
+
+    private String describeNewOrders(List<Medication> medications, ShiftData data) {
+        List<String> orders = new ArrayList<>();
+        for (Medication medication : medications) {
+            if (data.duringShift(medication.getStartDate())) {
+                orders.add("New: " + describe(medication)
+                        + (medication.getPrescribingPhysician() != null ? " - " + medication.getPrescribingPhysician() : ""));
+            }
+        }
+        return orders.isEmpty() ? null : String.join("\n", orders);
+    }
+
+    private String describeAlerts(List<VitalAlert> alerts) {
+        if (alerts.isEmpty()) {
+            return null;
+        }
+        return alerts.stream()
+                .sorted(Comparator.comparing(VitalAlert::getRecordedAt))
+                .map(alert -> "Active alert: " + alert.getMetric() + " " + alert.getDirection() + " ("
+                        + alert.getValue() + ") since " + alert.getRecordedAt().format(TIME))
+                .collect(Collectors.joining("\n"));
+    }
+
+    private String describe(Medication medication) {
+        StringBuilder text = new StringBuilder(medication.getMedicationName());
+        if (medication.getDosage() != null) {
+            text.append(' ').append(medication.getDosage());
+        }
+        if (medication.getRoute() != null) {
+            text.append(' ').append(medication.getRoute());
+        }
+        if (medication.getFrequency() != null) {
+            text.append(' ').append(medication.getFrequency());
+        }
+        return text.toString();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> parseItems(String itemData) {
+        if (itemData == null || itemData.isBlank()) {
+            return List.of();
+        }
+        try {
+            return objectMapper.readValue(itemData, List.class);
+        } catch (JsonProcessingException e) {
+            return List.of();
+        }
+    }
+
+    private static <T> T first(List<T> values) {
+        return values == null || values.isEmpty() ? null : values.get(0);
+    }
+
+    // Preloaded unit data shared read-only by the assembling threads
+    private record ShiftData(Map<Long, List<VitalSignsEntry>> vitals,
+                             Map<Long, List<PatientChartingData>> charting,
+                             Map<Long, List<Medication>> medications,
+                             Map<Long, List<NurseAssignment>> outgoing,
+                             Map<Long, List<NurseAssignment>> incoming,
+                             Map<Long, List<VitalAlert>> alerts,
+                             LocalDateTime shiftStart,
+                             LocalDateTime shiftEnd) {
+
+        boolean duringShift(LocalDateTime time) {
+            return time != null && !time.isBefore(shiftStart) && time.isBefore(shiftEnd);
+        }
+    }
+}
@@ -0,0 +1,303 @@
+package com.matrixcare.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+
+/**
+ * One chronological feed of a patient's record, newest first: vitals readings,
+ * charting edits, medication starts and stops, diagnoses and allergies.
+ * Events are ordered by (time desc, source, id desc) and a page's cursor is
+ * the position of its last event, from which every source can seek on its own.
+ * Each source is read with one keyset query along its (patient_id, time) index
+ * returning at most limit + 1 rows past the cursor, and the sources are merged
+ * through a priority queue over their head rows. A page therefore costs one
+ * index range scan per source and holds at most (limit + 1) rows per source,
+ * however long the record is.
+ */
+@Service
+@Transactional(readOnly = true)
+public class TimelineService {
+
+    public static final int MAX_LIMIT = 200;
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * Event sources in tie-break order. Each reads one table by patient_id and
+     * a time column, with an index on (patient_id, time column).
+     */
+    public enum Source {
+        VITALS("vitals", "vital_signs_entries", "recorded_at",
+                "blood_pressure_systolic, blood_pressure_diastolic, temperature, temperature_unit, pulse, " +
+                "respiration, oxygen_saturation, pain_level, user_name, notes", null),
+        CHARTING("charting", "patient_charting_history", "recorded_at",
+                "charting_id, version, entry_type, payload", null),
+        MEDICATION_STARTED("medication_started", "medications", "start_date",
+                "medication_name, dosage, route, frequency, prescribing_physician", "start_date <= ?"),
+        MEDICATION_STOPPED("medication_stopped", "medications", "end_date",
+                "medication_name, dosage, route, frequency, prescribing_physician", "end_date <= ?"),
+        DIAGNOSIS("diagnosis", "patient_diagnoses", "created_at",
+                "diagnosis_code, icd10_code, diagnosis_description, diagnosis_type, diagnosed_date, resolved_date, " +
+                "is_active", null),
+        ALLERGY("allergy", "patient_allergies", "created_at",
+                "allergen, reaction, severity, notes", null);
+
+        private final String type;
+        private final String table;
+        private final String timeColumn;
+        private final String columns;
+        // Extra condition bound to the current time, e.g. medications that have not started yet are left out
+        private final String notAfterNow;
+
+        Source(String type, String table, String timeColumn, String columns, String notAfterNow) {
+            this.type = type;
+            this.table = table;
+            this.timeColumn = timeColumn;
+            this.columns = columns;
+            this.notAfterNow = notAfterNow;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        static Source fromType(String type) {
+            for (Source source : values()) {
+                if (source.type.equalsIgnoreCase(type.trim())) {
+                    return source;
+                }
+            }
+            throw new IllegalArgumentException("Unknown timeline type: " + type);
+        }
+    }
+
+    // Position of an event in the merged order
+    private record Position(LocalDateTime time, Source source, long id) implements Comparable<Position> {
+
+        @Override
+        public int compareTo(Position other) {
+            int byTime = other.time.compareTo(time);
+            if (byTime != 0) {
+                return byTime;
+            }
+            int bySource = source.compareTo(other.source);
+            return bySource != 0 ? bySource : Long.compare(other.id, id);
+        }
+    }
+
+    private record Event(Position position, Map<String, Object> item) {
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * A page of the timeline after cursor (null for the newest events), limited
+     * to the given types (null or empty for all).
+     */
+    public Map<String, Object> getTimeline(Long patientId, String cursor, int limit, Collection<String> types) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_LIMIT);
+        }
+        Position after = cursor != null && !cursor.isBlank() ? decodeCursor(cursor) : null;
+        EnumSet<Source> sources = EnumSet.noneOf(Source.class);
+        if (types == null || types.isEmpty()) {
+            sources = EnumSet.allOf(Source.class);
+        } else {
+            for (String type : types) {
+                sources.add(Source.fromType(type));
+            }
+        }
+
+        // Head row of each source's run; a run of limit + 1 rows can never be exhausted before the page is full
+        LocalDateTime now = LocalDateTime.now();
+        PriorityQueue<PeekingIterator> heads = new PriorityQueue<>(
+                Comparator.comparing((PeekingIterator run) -> run.peek().position()));
+        for (Source source : sources) {
+            List<Event> run = readRun(source, patientId, after, limit + 1, now);
+            if (!run.isEmpty()) {
+                heads.add(new PeekingIterator(run));
+            }
+        }
+
+        List<Map<String, Object>> items = new ArrayList<>(limit);
+        Position last = null;
+        while (items.size() < limit && !heads.isEmpty()) {
+            PeekingIterator run = heads.poll();
+            Event event = run.next();
+            items.add(event.item());
+            last = event.position();
+            if (run.hasNext()) {
+                heads.add(run);
+            }
+        }
+        boolean hasMore = !heads.isEmpty();
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("patientId", patientId);
+        result.put("items", items);
+        result.put("hasMore", hasMore);
+        result.put("nextCursor", hasMore && last != null ? encodeCursor(last) : null);
+        return result;
+    }
+
+    // Up to limit rows of one source past the cursor, in merge order
+    private List<Event> readRun(Source source, Long patientId, Position after, int limit, LocalDateTime now) {
+        StringBuilder sql = new StringBuilder("SELECT id, ").append(source.timeColumn).append(" AS occurred_at, ")
+                .append(source.columns).append(" FROM ").append(source.table)
+                .append(" WHERE patient_id = ? AND ").append(source.timeColumn).append(" IS NOT NULL");
+        List<Object> args = new ArrayList<>();
+        args.add(patientId);
+        if (source.notAfterNow != null) {
+            sql.append(" AND ").append(source.notAfterNow);
+            args.add(Timestamp.valueOf(now));
+        }
+        if (after != null) {
+            Timestamp time = Timestamp.valueOf(after.time);
+            int bySource = source.compareTo(after.source);
+            if (bySource < 0) {
+                // This source's events at the cursor time were all on earlier pages
+                sql.append(" AND ").append(source.timeColumn).append(" < ?");
+                args.add(time);
+            } else if (bySource > 0) {
+                sql.append(" AND ").append(source.timeColumn).append(" <= ?");
+                args.add(time);
+            } else {
+                sql.append(" AND (").append(source.timeColumn).append(" < ? OR (").append(source.timeColumn)
+                        .append(" = ? AND id < ?))");
+                args.add(time);
+                args.add(time);
+                args.add(after.id);
+            }
+        }
+        sql.append(" ORDER BY ").append(source.timeColumn).append(" DESC, id DESC LIMIT ?");
+        args.add(limit);
+        return jdbcTemplate.query(sql.toString(), eventMapper(source), args.toArray());
+    }
+
+    private static RowMapper<Event> eventMapper(Source source) {
+        return (rs, rowNum) -> {
+            long id = rs.getLong("id");
+            LocalDateTime occurredAt = rs.getTimestamp("occurred_at").toLocalDateTime();
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("type", source.type);
+            item.put("id", id);
+            item.put("occurredAt", occurredAt);
+            switch (source) {
+                case VITALS -> {
+                    item.put("bloodPressureSystolic", rs.getObject("blood_pressure_systolic"));
+                    item.put("bloodPressureDiastolic", rs.getObject("blood_pressure_diastolic"));
+                    item.put("temperature", rs.getObject("temperature"));
+                    item.put("temperatureUnit", rs.getString("temperature_unit"));
+                    item.put("pulse", rs.getObject("pulse"));
+                    item.put("respiration", rs.getObject("respiration"));
+                    item.put("oxygenSaturation", rs.getObject("oxygen_saturation"));
+                    item.put("painLevel", rs.getObject("pain_level"));
+                    item.put("recordedBy", rs.getString("user_name"));
+                    item.put("notes", rs.getString("notes"));
+                }
+                case CHARTING -> {
+                    int version = rs.getInt("version");
+                    String entryType = rs.getString("entry_type");
+                    item.put("chartingId", rs.getLong("charting_id"));
+                    item.put("version", version);
+                    item.put("action", "DELETED".equals(entryType) ? "deleted" : version == 1 ? "created" : "edited");
+                    item.put("change", parsePayload(rs));
+                }
+                case MEDICATION_STARTED, MEDICATION_STOPPED -> {
+                    item.put("medicationId", id);
+                    item.put("medicationName", rs.getString("medication_name"));
+                    item.put("dosage", rs.getString("dosage"));
+                    item.put("route", rs.getString("route"));
+                    item.put("frequency", rs.getString("frequency"));
+                    item.put("prescribingPhysician", rs.getString("prescribing_physician"));
+                }
+                case DIAGNOSIS -> {
+                    item.put("diagnosisCode", rs.getString("diagnosis_code"));
+                    item.put("icd10Code", rs.getString("icd10_code"));
+                    item.put("description", rs.getString("diagnosis_description"));
+                    item.put("diagnosisType", rs.getString("diagnosis_type"));
+                    item.put("diagnosedDate", rs.getObject("diagnosed_date", LocalDate.class));
+                    item.put("resolvedDate", rs.getObject("resolved_date", LocalDate.class));
+                    item.put("active", rs.getObject("is_active"));
+                }
+                case ALLERGY -> {
+                    item.put("allergen", rs.getString("allergen"));
+                    item.put("reaction", rs.getString("reaction"));
+                    item.put("severity", rs.getString("severity"));
+                    item.put("notes", rs.getString("notes"));
+                }
+            }
+            return new Event(new Position(occurredAt, source, id), item);
+        };
+    }
+
+    private static Object parsePayload(ResultSet rs) throws SQLException {
+        String payload = rs.getString("payload");
+        if (payload == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readTree(payload);
+        } catch (IOException e) {
+            return payload;
+        }
+    }
+
+    // Opaque to clients: "<time>|<source>|<id>" in URL-safe base64
+    private static String encodeCursor(Position position) {
+        String raw = position.time + "|" + position.source.type + "|" + position.id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Position decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Invalid timeline cursor");
+            }
+            return new Position(LocalDateTime.parse(parts[0]), Source.fromType(parts[1]), Long.parseLong(parts[2]));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid timeline cursor");
+        }
+    }
+
+    // A run of one source's rows whose next row can be inspected without consuming it
+    private static final class PeekingIterator implements Iterator<Event> {
+        private final List<Event> events;
+        private int index;
+
+        PeekingIterator(List<Event> events) {
+            this.events = events;
+        }
+
+        Event peek() {
+            return events.get(index);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return index < events.size();
+        }
+
+        @Override
+        public Event next() {
+            return events.get(index++);
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.matrixcare.service;
+
+import com.matrixcare.entity.RevokedToken;
+import com.matrixcare.repository.RevokedTokenRepository;
+import io.jsonwebtoken.Claims;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Deny list for revoked JWTs.
+ * Checks go to a Bloom filter first; only a hit consults the exact map, so a
+ * token that was never revoked costs a few hash probes and no database access.
+ * Entries expire with the token they revoke. Revocations are written to
+ * revoked_tokens and every instance polls that table to pick up the others'.
+ */
+@Service
+public class TokenRevocationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    private static final String USER_KEY_PREFIX = "user:";
+
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @Value("${matrixcare.revocation.expected-entries:10000}")
+    private int expectedEntries;
+
+    @Value("${matrixcare.revocation.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    // Poll look-back; covers slow commits and clock skew between instances
+    @Value("${matrixcare.revocation.sync-overlap-seconds:60}")
+    private long syncOverlapSeconds;
+
+    // token key -> revocation; epoch millis
+    private final Map<String, Revocation> revoked = new ConcurrentHashMap<>();
+    private volatile TokenBloomFilter filter;
+    private volatile int filterCapacity;
+    private volatile LocalDateTime lastSync;
+
+    private final LongAdder bloomHits = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        rebuildFilter();
+        try {
+            sync();
+        } catch (Exception e) {
+            logger.error("Could not load revoked tokens", e);
+        }
+    }
+
+    // True when the token was revoked individually or by a revoke-all for its user
+    public boolean isRevoked(Claims claims) {
+        TokenBloomFilter current = filter;
+        if (current == null) {
+            return false;
+        }
+
+        String jti = claims.getId();
+        if (jti != null && current.mightContain(jti)) {
+            bloomHits.increment();
+            if (revoked.containsKey(jti)) {
+                return true;
+            }
+            falsePositives.increment();
+        }
+
+        Object userId = claims.get("userId");
+        if (userId != null) {
+            String userKey = USER_KEY_PREFIX + userId;
+            if (current.mightContain(userKey)) {
+                bloomHits.increment();
+                Revocation revocation = revoked.get(userKey);
+                if (revocation == null) {
+                    falsePositives.increment();
+                } else if (claims.getIssuedAt() == null || claims.getIssuedAt().getTime() <= revocation.revokedAt) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // Revoke one token until it expires
+    public void revokeToken(String jti, Long userId, Date expiresAt) {
+        if (jti == null) {
+            throw new RuntimeException("Token has no id and cannot be revoked");
+        }
+        record(jti, userId, expiresAt.getTime());
+    }
+
+    // Revoke every token issued to a user so far; newer logins are unaffected
+    public void revokeAllForUser(Long userId, long tokenLifetimeSeconds) {
+        record(USER_KEY_PREFIX + userId, userId, System.currentTimeMillis() + tokenLifetimeSeconds * 1000);
+    }
+
+    // Pick up revocations made on other instances
+    @Scheduled(fixedDelayString = "${matrixcare.revocation.sync-ms:5000}",
+               initialDelayString = "${matrixcare.revocation.sync-ms:5000}")
+    public void sync() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime since = lastSync != null ? lastSync.minusSeconds(syncOverlapSeconds) : LocalDateTime.of(1970, 1, 1, 0, 0);
+        for (RevokedToken row : revokedTokenRepository.findRevokedSince(since, now)) {
+            addLocal(row.getTokenKey(), toMillis(row.getRevokedAt()), toMillis(row.getExpiresAt()));
+        }
+        lastSync = now;
+    }
+
+    // Forget expired entries and rebuild the filter without them
+    @Scheduled(fixedDelayString = "${matrixcare.revocation.cleanup-ms:600000}",
+               initialDelayString = "${matrixcare.revocation.cleanup-ms:600000}")
+    public void cleanup() {
+        long now = System.currentTimeMillis();
+        revoked.values().removeIf(revocation -> revocation.expiresAt <= now);
+        rebuildFilter();
+        try {
+            revokedTokenRepository.deleteExpired(LocalDateTime.now());
+        } catch (Exception e) {
+            logger.warn("Could not delete expired revocations: {}", e.getMessage());
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        TokenBloomFilter current = filter;
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("entries", revoked.size());
+        stats.put("filterBits", current != null ? current.getBitCount() : 0);
+        stats.put("filterHashes", current != null ? current.getHashCount() : 0);
+        stats.put("bloomHits", bloomHits.sum());
+        stats.put("falsePositives", falsePositives.sum());
+        stats.put("lastSync", lastSync);
+        return stats;
+    }
+
+    private void record(String key, Long userId, long expiresAtMillis) {
+        long now = System.currentTimeMillis();
+        addLocal(key, now, expiresAtMillis);
+        try {
+            RevokedToken row = revokedTokenRepository.findByTokenKey(key)
+                    .orElseGet(() -> new RevokedToken(key, userId, null, null));
+            row.setRevokedAt(toDateTime(now));
+            row.setExpiresAt(toDateTime(expiresAtMillis));
+            revokedTokenRepository.save(row);
+        } catch (DataIntegrityViolationException e) {
+            // Another instance recorded the same key concurrently; its row covers it
+            logger.debug("Revocation for {} already recorded", key);
+        }
+    }
+
+    private void addLocal(String key, long revokedAt, long expiresAt) {
+        if (expiresAt <= System.currentTimeMillis()) {
+            return;
+        }
+        revoked.merge(key, new Revocation(revokedAt, expiresAt),
+                (old, update) -> new Revocation(Math.max(old.revokedAt, update.revokedAt),
+                        Math.max(old.expiresAt, update.expiresAt)));
+        TokenBloomFilter current = filter;
+        if (current == null || revoked.size() > filterCapacity) {
+            rebuildFilter();
+        } else {
+            current.add(key);
+        }
+    }
+
+    // Size for twice the current entries so growth does not degrade the false-positive rate
+    private synchronized void rebuildFilter() {
+        int capacity = Math.max(expectedEntries, revoked.size() * 2);
+        TokenBloomFilter rebuilt = new TokenBloomFilter(capacity, falsePositiveRate);
+        for (String key : revoked.keySet()) {
+            rebuilt.add(key);
+        }
+        filter = rebuilt;
+        filterCapacity = capacity;
+        // Keys added while rebuilding may have gone into the old filter only
+        for (String key : revoked.keySet()) {
+            rebuilt.add(key);
+        }
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime toDateTime(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+
+    private static final class Revocation {
+        final long revokedAt;
+        final long expiresAt;
+
+        Revocation(long revokedAt, long expiresAt) {
+            this.revokedAt = revokedAt;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
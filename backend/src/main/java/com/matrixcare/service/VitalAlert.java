@@ -0,0 +1,74 @@
+package com.matrixcare.service;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.matrixcare.entity.VitalAlertThreshold;
+
+import java.time.LocalDateTime;
+
+// Active out-of-range reading held in the in-memory alert index
+public class VitalAlert {
+    
+    private final long id;
+    private final Long patientId;
+    private final String unit;
+    private final VitalAlertThreshold.Metric metric;
+    private final double value;
+    private final double lowThreshold;
+    private final double highThreshold;
+    private final Long vitalSignsEntryId;
+    
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private final LocalDateTime recordedAt;
+    
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private final LocalDateTime raisedAt;
+    
+    public VitalAlert(long id, Long patientId, String unit, VitalAlertThreshold.Metric metric, double value,
+                      double lowThreshold, double highThreshold, Long vitalSignsEntryId, LocalDateTime recordedAt) {
+        this.id = id;
+        this.patientId = patientId;
+        this.unit = unit;
+        this.metric = metric;
+        this.value = value;
+        this.lowThreshold = lowThreshold;
+        this.highThreshold = highThreshold;
+        this.vitalSignsEntryId = vitalSignsEntryId;
+        this.recordedAt = recordedAt;
+        this.raisedAt = LocalDateTime.now();
+    }
+    
+    private VitalAlert(VitalAlert alert, String unit) {
+        this.id = alert.id;
+        this.patientId = alert.patientId;
+        this.unit = unit;
+        this.metric = alert.metric;
+        this.value = alert.value;
+        this.lowThreshold = alert.lowThreshold;
+        this.highThreshold = alert.highThreshold;
+        this.vitalSignsEntryId = alert.vitalSignsEntryId;
+        this.recordedAt = alert.recordedAt;
+        this.raisedAt = alert.raisedAt;
+    }
+    
+    // The same alert filed under the unit its patient moved to
+    public VitalAlert withUnit(String unit) {
+        return new VitalAlert(this, unit);
+    }
+    
+    public long getId() { return id; }
+    public Long getPatientId() { return patientId; }
+    public String getUnit() { return unit; }
+    public VitalAlertThreshold.Metric getMetric() { return metric; }
+    public double getValue() { return value; }
+    public Long getVitalSignsEntryId() { return vitalSignsEntryId; }
+    public LocalDateTime getRecordedAt() { return recordedAt; }
+    public LocalDateTime getRaisedAt() { return raisedAt; }
+    
+    // Unbounded sides are reported as null
+    public Double getLowThreshold() { return Double.isInfinite(lowThreshold) ? null : lowThreshold; }
+    public Double getHighThreshold() { return Double.isInfinite(highThreshold) ? null : highThreshold; }
+    
+    public String getDirection() {
+        return value < lowThreshold ? "LOW" : "HIGH";
+    }
+}
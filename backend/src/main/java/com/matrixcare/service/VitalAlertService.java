@@ -0,0 +1,319 @@
+package com.matrixcare.service;
+
+import com.matrixcare.entity.VitalAlertThreshold;
+import com.matrixcare.entity.VitalSignsEntry;
+import com.matrixcare.repository.PatientRepository;
+import com.matrixcare.repository.VitalAlertThresholdRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Vital signs alert rules evaluated inline on every saved reading.
+ * Built-in defaults, unit defaults and per-patient overrides are compiled into
+ * low/high arrays per patient, so evaluating a reading is a few array compares.
+ * Out-of-range readings are kept in an in-memory active-alert index by unit.
+ */
+@Service
+public class VitalAlertService {
+
+    public static final String UNASSIGNED_UNIT = "UNASSIGNED";
+
+    private static final VitalAlertThreshold.Metric[] METRICS = VitalAlertThreshold.Metric.values();
+    private static final double NONE_LOW = Double.NEGATIVE_INFINITY;
+    private static final double NONE_HIGH = Double.POSITIVE_INFINITY;
+
+    // Built-in limits, indexed by Metric ordinal (temperature in Fahrenheit)
+    private static final double[] DEFAULT_LOW = { 90, NONE_LOW, 50, 10, 90, 95.0, NONE_LOW };
+    private static final double[] DEFAULT_HIGH = { 180, 110, 120, 28, NONE_HIGH, 101.3, 7 };
+
+    @Autowired
+    private VitalAlertThresholdRepository thresholdRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private CacheInvalidationBus invalidationBus;
+
+    // Unit defaults and patient overrides as loaded from the database; swapped on change.
+    // Loaded on first use so the context can start without a database.
+    private volatile ThresholdRules rules;
+
+    private final Map<Long, PatientThresholds> patientThresholds = new ConcurrentHashMap<>();
+
+    // unit -> (patient/metric key -> alert)
+    private final Map<String, Map<Long, VitalAlert>> activeByUnit = new ConcurrentHashMap<>();
+    private final Map<Long, VitalAlert> activeById = new ConcurrentHashMap<>();
+    private final AtomicLong alertSequence = new AtomicLong();
+
+    // Rule and unit changes made on any instance recompile the cached limits here
+    @PostConstruct
+    public void subscribe() {
+        invalidationBus.subscribe(CacheInvalidationBus.ALERT_THRESHOLDS, id -> reloadRules());
+        invalidationBus.subscribe(CacheInvalidationBus.PATIENT, id -> {
+            if (id != null) {
+                invalidatePatient(Long.valueOf(id));
+            } else {
+                patientThresholds.clear();
+                activeById.values().stream().map(VitalAlert::getPatientId).distinct()
+                        .collect(Collectors.toList()).forEach(this::invalidatePatient);
+            }
+        });
+    }
+
+    // Evaluate a saved reading, raising or clearing alerts per metric
+    public List<VitalAlert> evaluate(VitalSignsEntry entry) {
+        PatientThresholds thresholds = getPatientThresholds(entry.getPatientId());
+        Map<Long, VitalAlert> unitAlerts = activeByUnit.computeIfAbsent(thresholds.unit, k -> new ConcurrentHashMap<>());
+        List<VitalAlert> raised = new ArrayList<>(2);
+
+        for (int i = 0; i < METRICS.length; i++) {
+            double value = METRICS[i].readingOf(entry);
+            if (Double.isNaN(value)) {
+                continue;
+            }
+
+            long key = (entry.getPatientId() << 3) | i;
+            VitalAlert current = unitAlerts.get(key);
+            if (current != null && entry.getRecordedAt().isBefore(current.getRecordedAt())) {
+                continue; // late reading, the active alert reflects a newer one
+            }
+
+            if (value < thresholds.low[i] || value > thresholds.high[i]) {
+                VitalAlert alert = new VitalAlert(alertSequence.incrementAndGet(), entry.getPatientId(), thresholds.unit,
+                        METRICS[i], value, thresholds.low[i], thresholds.high[i], entry.getId(), entry.getRecordedAt());
+                VitalAlert previous = unitAlerts.put(key, alert);
+                if (previous != null) {
+                    activeById.remove(previous.getId());
+                }
+                activeById.put(alert.getId(), alert);
+                raised.add(alert);
+            } else if (current != null) {
+                // Back in range clears the alert for this metric
+                if (unitAlerts.remove(key, current)) {
+                    activeById.remove(current.getId());
+                }
+            }
+        }
+
+        return raised;
+    }
+
+    // Active alerts for a unit, newest first
+    public List<VitalAlert> getActiveAlertsForUnit(String unit) {
+        Map<Long, VitalAlert> unitAlerts = activeByUnit.get(unit);
+        if (unitAlerts == null) {
+            return new ArrayList<>();
+        }
+        return unitAlerts.values().stream()
+                .sorted(Comparator.comparing(VitalAlert::getRaisedAt).reversed())
+                .collect(Collectors.toList());
+    }
+
+    public List<VitalAlert> getActiveAlertsForPatient(Long patientId) {
+        return activeById.values().stream()
+                .filter(alert -> alert.getPatientId().equals(patientId))
+                .sorted(Comparator.comparing(VitalAlert::getRaisedAt).reversed())
+                .collect(Collectors.toList());
+    }
+
+    // Active alert count per unit
+    public Map<String, Integer> getActiveAlertCounts() {
+        Map<String, Integer> counts = new TreeMap<>();
+        activeByUnit.forEach((unit, alerts) -> {
+            if (!alerts.isEmpty()) {
+                counts.put(unit, alerts.size());
+            }
+        });
+        return counts;
+    }
+
+    // Acknowledge (remove) an active alert
+    public boolean acknowledge(long alertId) {
+        VitalAlert alert = activeById.remove(alertId);
+        if (alert == null) {
+            return false;
+        }
+        Map<Long, VitalAlert> unitAlerts = activeByUnit.get(alert.getUnit());
+        if (unitAlerts != null) {
+            unitAlerts.remove((alert.getPatientId() << 3) | alert.getMetric().ordinal(), alert);
+        }
+        return true;
+    }
+
+    // Effective limits for a patient after unit defaults and overrides
+    public Map<String, Object> getEffectiveThresholds(Long patientId) {
+        PatientThresholds thresholds = getPatientThresholds(patientId);
+        Map<String, Object> limits = new LinkedHashMap<>();
+        for (int i = 0; i < METRICS.length; i++) {
+            Map<String, Object> limit = new HashMap<>();
+            limit.put("low", Double.isInfinite(thresholds.low[i]) ? null : thresholds.low[i]);
+            limit.put("high", Double.isInfinite(thresholds.high[i]) ? null : thresholds.high[i]);
+            limits.put(METRICS[i].name(), limit);
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("patientId", patientId);
+        result.put("unit", thresholds.unit);
+        result.put("thresholds", limits);
+        return result;
+    }
+
+    public List<VitalAlertThreshold> getUnitThresholds(String unit) {
+        return thresholdRepository.findByUnit(unit);
+    }
+
+    public List<VitalAlertThreshold> getPatientOverrides(Long patientId) {
+        return thresholdRepository.findByPatientId(patientId);
+    }
+
+    // Create or replace a unit default (unit set) or patient override (patientId set)
+    public VitalAlertThreshold saveThreshold(VitalAlertThreshold threshold) {
+        if ((threshold.getUnit() == null) == (threshold.getPatientId() == null)) {
+            throw new RuntimeException("Exactly one of unit or patientId is required");
+        }
+        if (threshold.getMetric() == null) {
+            throw new RuntimeException("Metric is required");
+        }
+
+        VitalAlertThreshold target = thresholdRepository
+                .findByUnitAndPatientIdAndMetric(threshold.getUnit(), threshold.getPatientId(), threshold.getMetric())
+                .orElse(threshold);
+        target.setLowValue(threshold.getLowValue());
+        target.setHighValue(threshold.getHighValue());
+
+        VitalAlertThreshold saved = thresholdRepository.save(target);
+        invalidationBus.publish(CacheInvalidationBus.ALERT_THRESHOLDS, null);
+        return saved;
+    }
+
+    public void deleteThreshold(Long id) {
+        if (!thresholdRepository.existsById(id)) {
+            throw new RuntimeException("Threshold not found with id: " + id);
+        }
+        thresholdRepository.deleteById(id);
+        invalidationBus.publish(CacheInvalidationBus.ALERT_THRESHOLDS, null);
+    }
+
+    // Recompile all rules from the database
+    public synchronized void reloadRules() {
+        Map<String, double[][]> unitRules = new HashMap<>();
+        Map<Long, double[][]> patientRules = new HashMap<>();
+        for (VitalAlertThreshold threshold : thresholdRepository.findAll()) {
+            double[][] limits = threshold.getPatientId() != null
+                    ? patientRules.computeIfAbsent(threshold.getPatientId(), k -> emptyLimits())
+                    : unitRules.computeIfAbsent(threshold.getUnit(), k -> emptyLimits());
+            int i = threshold.getMetric().ordinal();
+            limits[0][i] = threshold.getLowValue() != null ? threshold.getLowValue() : NONE_LOW;
+            limits[1][i] = threshold.getHighValue() != null ? threshold.getHighValue() : NONE_HIGH;
+        }
+        rules = new ThresholdRules(unitRules, patientRules);
+        patientThresholds.clear();
+    }
+
+    // Forget a patient's compiled limits after a change, moving their active alerts to a new unit
+    // and dropping them once the patient is discharged or gone
+    public void invalidatePatient(Long patientId) {
+        patientThresholds.remove(patientId);
+        List<VitalAlert> alerts = getActiveAlertsForPatient(patientId);
+        if (alerts.isEmpty()) {
+            return;
+        }
+
+        String unit = patientRepository.existsByIdAndIsActiveTrue(patientId)
+                ? patientRepository.findUnitById(patientId).orElse(UNASSIGNED_UNIT)
+                : null;
+        for (VitalAlert alert : alerts) {
+            if (alert.getUnit().equals(unit)) {
+                continue;
+            }
+            long key = (patientId << 3) | alert.getMetric().ordinal();
+            Map<Long, VitalAlert> unitAlerts = activeByUnit.get(alert.getUnit());
+            if (unitAlerts == null || !unitAlerts.remove(key, alert)) {
+                continue; // cleared or replaced in the meantime
+            }
+            VitalAlert moved = unit != null ? alert.withUnit(unit) : null;
+            if (moved != null && activeByUnit.computeIfAbsent(unit, k -> new ConcurrentHashMap<>())
+                    .putIfAbsent(key, moved) == null) {
+                activeById.replace(alert.getId(), alert, moved);
+            } else {
+                // Discharged, or a reading on the new unit already holds this metric
+                activeById.remove(alert.getId(), alert);
+            }
+        }
+    }
+
+    private PatientThresholds getPatientThresholds(Long patientId) {
+        ThresholdRules currentRules = rules;
+        if (currentRules == null) {
+            reloadRules();
+            currentRules = rules;
+        }
+        PatientThresholds cached = patientThresholds.get(patientId);
+        if (cached != null && cached.rules == currentRules) {
+            return cached;
+        }
+
+        String unit = patientRepository.findUnitById(patientId).orElse(UNASSIGNED_UNIT);
+        double[] low = DEFAULT_LOW.clone();
+        double[] high = DEFAULT_HIGH.clone();
+        applyLimits(low, high, currentRules.unitRules.get(unit));
+        applyLimits(low, high, currentRules.patientRules.get(patientId));
+
+        PatientThresholds compiled = new PatientThresholds(currentRules, unit, low, high);
+        patientThresholds.put(patientId, compiled);
+        return compiled;
+    }
+
+    private static void applyLimits(double[] low, double[] high, double[][] limits) {
+        if (limits == null) {
+            return;
+        }
+        for (int i = 0; i < METRICS.length; i++) {
+            if (!Double.isNaN(limits[0][i])) {
+                low[i] = limits[0][i];
+            }
+            if (!Double.isNaN(limits[1][i])) {
+                high[i] = limits[1][i];
+            }
+        }
+    }
+
+    // NaN marks a metric the scope does not override
+    private static double[][] emptyLimits() {
+        double[][] limits = new double[2][METRICS.length];
+        Arrays.fill(limits[0], Double.NaN);
+        Arrays.fill(limits[1], Double.NaN);
+        return limits;
+    }
+
+    private static final class ThresholdRules {
+        final Map<String, double[][]> unitRules;
+        final Map<Long, double[][]> patientRules;
+
+        ThresholdRules(Map<String, double[][]> unitRules, Map<Long, double[][]> patientRules) {
+            this.unitRules = unitRules;
+            this.patientRules = patientRules;
+        }
+    }
+
+    private static final class PatientThresholds {
+        final ThresholdRules rules;
+        final String unit;
+        final double[] low;
+        final double[] high;
+
+        PatientThresholds(ThresholdRules rules, String unit, double[] low, double[] high) {
+            this.rules = rules;
+            this.unit = unit;
+            this.low = low;
+            this.high = high;
+        }
+    }
+}
@@ -1,9 +1,16 @@
 package com.matrixcare.service;
 
 import com.matrixcare.entity.VitalSignsEntry;
+import com.matrixcare.jfr.RequestThread;
+import com.matrixcare.jfr.VitalsHistoryEvent;
+import com.matrixcare.jfr.VitalsSaveEvent;
 import com.matrixcare.repository.VitalSignsEntryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
@@ -15,19 +22,43 @@ import java.util.stream.Collectors;
 @Service
 public class VitalSignsService {
     
+    private static final Logger logger = LoggerFactory.getLogger(VitalSignsService.class);
+    
     @Autowired
     private VitalSignsEntryRepository vitalSignsRepository;
     
+    @Autowired
+    private VitalAlertService vitalAlertService;
+    
+    @Autowired
+    private VitalStatsService vitalStatsService;
+    
+    @Autowired
+    private CohortService cohortService;
+    
     public List<Map<String, Object>> getVitalSignsHistory(Long patientId, int limit) {
+        VitalsHistoryEvent event = new VitalsHistoryEvent();
+        event.begin();
+        
+        List<VitalSignsEntry> loaded = vitalSignsRepository.findByPatientIdOrderByRecordedAtDesc(patientId);
         List<VitalSignsEntry> entries;
         if (limit > 0) {
-            entries = vitalSignsRepository.findByPatientIdOrderByRecordedAtDesc(patientId)
-                    .stream().limit(limit).collect(Collectors.toList());
+            entries = loaded.stream().limit(limit).collect(Collectors.toList());
         } else {
-            entries = vitalSignsRepository.findByPatientIdOrderByRecordedAtDesc(patientId);
+            entries = loaded;
         }
+        List<Map<String, Object>> result = entries.stream().map(this::convertToMap).collect(Collectors.toList());
         
-        return entries.stream().map(this::convertToMap).collect(Collectors.toList());
+        event.end();
+        if (event.shouldCommit()) {
+            event.patientId = patientId;
+            event.limit = limit;
+            event.rowsLoaded = loaded.size();
+            event.rowsReturned = result.size();
+            event.requestThread = RequestThread.id();
+            event.commit();
+        }
+        return result;
     }
     
     public Map<String, Object> getLatestVitalSigns(Long patientId) {
@@ -37,6 +68,21 @@ public class VitalSignsService {
     
     public VitalSignsEntry saveVitalSigns(Long patientId, Long userId, String userName, 
                                          Map<String, Object> vitalSignsData) {
+        VitalsSaveEvent event = new VitalsSaveEvent();
+        event.begin();
+        try {
+            return storeVitalSigns(patientId, userId, userName, vitalSignsData);
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.patientId = patientId;
+                event.commit();
+            }
+        }
+    }
+    
+    private VitalSignsEntry storeVitalSigns(Long patientId, Long userId, String userName,
+                                           Map<String, Object> vitalSignsData) {
         VitalSignsEntry entry = new VitalSignsEntry(patientId, userId, userName);
         
         // Set vital signs data
@@ -78,7 +124,36 @@ public class VitalSignsService {
             }
         }
         
-        return vitalSignsRepository.save(entry);
+        // The reading and its hourly statistics commit together
+        VitalSignsEntry saved = vitalStatsService.saveAndRecord(() -> vitalSignsRepository.save(entry));
+        
+        // Alerts and the cohort index are in memory and follow the commit; a failure there is
+        // logged rather than failing a reading that is already stored
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish(saved);
+                }
+            });
+        } else {
+            publish(saved);
+        }
+        
+        return saved;
+    }
+    
+    private void publish(VitalSignsEntry saved) {
+        try {
+            vitalAlertService.evaluate(saved);
+        } catch (RuntimeException e) {
+            logger.error("Could not evaluate alerts for vital signs entry {}", saved.getId(), e);
+        }
+        try {
+            cohortService.record(saved);
+        } catch (RuntimeException e) {
+            logger.error("Could not index vital signs entry {} for cohort queries", saved.getId(), e);
+        }
     }
     
     public long getVitalSignsCount(Long patientId) {
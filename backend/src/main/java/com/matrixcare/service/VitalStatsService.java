@@ -0,0 +1,252 @@
+package com.matrixcare.service;
+
+import com.matrixcare.entity.VitalAlertThreshold;
+import com.matrixcare.entity.VitalSignsEntry;
+import com.matrixcare.entity.VitalSignsHourlyStat;
+import com.matrixcare.repository.VitalSignsEntryRepository;
+import com.matrixcare.repository.VitalSignsHourlyStatRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Windowed vital signs statistics read from per-patient hourly rollups.
+ * Each saved reading is folded into its patient-hour row per metric (count, min,
+ * max, sum and a quantile sketch); windows and unit-level stats merge those rows
+ * instead of loading raw entries. Only the part of the window's first hour is read
+ * from raw entries, so a 24h window covers exactly 24 hours.
+ */
+@Service
+public class VitalStatsService {
+
+    private static final VitalAlertThreshold.Metric[] METRICS = VitalAlertThreshold.Metric.values();
+
+    private static final Duration MAX_WINDOW = Duration.ofDays(31);
+
+    // Rollups older than the longest window are never read
+    public static final int MAX_REBUILD_DAYS = 31;
+
+    @Autowired
+    private VitalSignsHourlyStatRepository statRepository;
+
+    @Autowired
+    private VitalSignsEntryRepository vitalSignsRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Saves hold the read side until their reading and rollup have committed; a rebuild holds the write side
+    private final ReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+
+    // Store a reading and fold it into its rollups in one transaction, so a rebuild sees both or neither
+    public VitalSignsEntry saveAndRecord(Supplier<VitalSignsEntry> save) {
+        rebuildLock.readLock().lock();
+        try {
+            return new TransactionTemplate(transactionManager).execute(status -> {
+                VitalSignsEntry saved = save.get();
+                record(saved);
+                return saved;
+            });
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    // Fold a saved reading into its patient-hour rollup rows
+    @Transactional
+    public void record(VitalSignsEntry entry) {
+        LocalDateTime hourStart = entry.getRecordedAt().truncatedTo(ChronoUnit.HOURS);
+        Map<VitalAlertThreshold.Metric, Double> values = new EnumMap<>(VitalAlertThreshold.Metric.class);
+        for (VitalAlertThreshold.Metric metric : METRICS) {
+            double value = metric.readingOf(entry);
+            if (!Double.isNaN(value)) {
+                values.put(metric, value);
+                // Rows exist before they are locked; two first readings of an hour would otherwise both insert
+                statRepository.insertIfAbsent(entry.getPatientId(), hourStart, metric.name());
+            }
+        }
+        if (values.isEmpty()) {
+            return;
+        }
+
+        List<VitalSignsHourlyStat> changed = new ArrayList<>();
+        for (VitalSignsHourlyStat row : statRepository.findForUpdate(entry.getPatientId(), hourStart)) {
+            Double value = values.get(row.getMetric());
+            if (value == null) {
+                continue;
+            }
+            VitalsQuantileSketch sketch = VitalsQuantileSketch.fromBytes(row.getSketch());
+            sketch.add(value);
+            row.setSketch(sketch.toBytes());
+            foldMoments(row, value);
+            changed.add(row);
+        }
+
+        statRepository.saveAll(changed);
+    }
+
+    @Transactional(readOnly = true)
+    public Map<String, Object> getPatientStats(Long patientId, Duration window) {
+        LocalDateTime since = LocalDateTime.now().minus(window);
+        LocalDateTime firstHour = firstWholeHour(since);
+        List<VitalSignsHourlyStat> rows = statRepository.findByPatientIdSince(patientId, firstHour);
+        List<VitalSignsEntry> partial = since.equals(firstHour) ? List.of()
+                : vitalSignsRepository.findByPatientIdsBetween(List.of(patientId), since, firstHour);
+        Map<String, Object> result = summarize(rows, partial);
+        result.put("patientId", patientId);
+        result.put("since", since);
+        return result;
+    }
+
+    // Unit stats merge the patient-hour rows of the unit's active patients
+    @Transactional(readOnly = true)
+    public Map<String, Object> getUnitStats(String unit, Duration window) {
+        LocalDateTime since = LocalDateTime.now().minus(window);
+        LocalDateTime firstHour = firstWholeHour(since);
+        List<VitalSignsHourlyStat> rows = statRepository.findByUnitSince(unit, firstHour);
+        List<VitalSignsEntry> partial = since.equals(firstHour) ? List.of()
+                : vitalSignsRepository.findByUnitBetween(unit, since, firstHour);
+        Map<String, Object> result = summarize(rows, partial);
+        result.put("unit", unit);
+        result.put("since", since);
+        return result;
+    }
+
+    // Recompute rollups from raw entries, e.g. after enabling stats on existing data.
+    // Saves wait for the rebuild, so no reading is counted twice or dropped by the delete.
+    public Map<String, Object> rebuildSince(LocalDateTime since) {
+        if (since.isBefore(LocalDateTime.now().minusDays(MAX_REBUILD_DAYS))) {
+            throw new IllegalArgumentException("Rollups can be rebuilt for at most the last " + MAX_REBUILD_DAYS + " days");
+        }
+        LocalDateTime hourStart = since.truncatedTo(ChronoUnit.HOURS);
+        rebuildLock.writeLock().lock();
+        try {
+            return new TransactionTemplate(transactionManager).execute(status -> {
+                int deleted = statRepository.deleteSince(hourStart);
+                List<VitalSignsEntry> entries = vitalSignsRepository.findAllSince(hourStart);
+                Collection<VitalSignsHourlyStat> rows = rollUp(entries);
+                statRepository.saveAll(rows);
+
+                Map<String, Object> result = new HashMap<>();
+                result.put("since", hourStart);
+                result.put("entriesScanned", entries.size());
+                result.put("rowsDeleted", deleted);
+                result.put("rowsWritten", rows.size());
+                return result;
+            });
+        } finally {
+            rebuildLock.writeLock().unlock();
+        }
+    }
+
+    // Parse windows like "24h" or "7d"
+    public static Duration parseWindow(String window) {
+        if (window == null || window.length() < 2) {
+            throw new IllegalArgumentException("Window must look like 24h or 7d");
+        }
+        long amount;
+        try {
+            amount = Long.parseLong(window.substring(0, window.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Window must look like 24h or 7d");
+        }
+
+        Duration duration;
+        switch (Character.toLowerCase(window.charAt(window.length() - 1))) {
+            case 'h':
+                duration = Duration.ofHours(amount);
+                break;
+            case 'd':
+                duration = Duration.ofDays(amount);
+                break;
+            default:
+                throw new IllegalArgumentException("Window must look like 24h or 7d");
+        }
+        if (amount <= 0 || duration.compareTo(MAX_WINDOW) > 0) {
+            throw new IllegalArgumentException("Window must be between 1h and 31d");
+        }
+        return duration;
+    }
+
+    private static LocalDateTime firstWholeHour(LocalDateTime since) {
+        LocalDateTime hour = since.truncatedTo(ChronoUnit.HOURS);
+        return hour.isBefore(since) ? hour.plusHours(1) : hour;
+    }
+
+    // Patient-hour rows built from raw entries
+    private static Collection<VitalSignsHourlyStat> rollUp(List<VitalSignsEntry> entries) {
+        Map<String, VitalSignsHourlyStat> rows = new LinkedHashMap<>();
+        Map<String, VitalsQuantileSketch> sketches = new HashMap<>();
+        for (VitalSignsEntry entry : entries) {
+            LocalDateTime hour = entry.getRecordedAt().truncatedTo(ChronoUnit.HOURS);
+            for (VitalAlertThreshold.Metric metric : METRICS) {
+                double value = metric.readingOf(entry);
+                if (Double.isNaN(value)) {
+                    continue;
+                }
+                String key = entry.getPatientId() + "|" + hour + "|" + metric;
+                VitalSignsHourlyStat row = rows.computeIfAbsent(key,
+                        k -> new VitalSignsHourlyStat(entry.getPatientId(), hour, metric));
+                VitalsQuantileSketch sketch = sketches.computeIfAbsent(key, k -> new VitalsQuantileSketch());
+                sketch.add(value);
+                foldMoments(row, value);
+            }
+        }
+        rows.forEach((key, row) -> row.setSketch(sketches.get(key).toBytes()));
+        return rows.values();
+    }
+
+    private static void foldMoments(VitalSignsHourlyStat row, double value) {
+        row.setSampleCount(row.getSampleCount() + 1);
+        row.setSumValue(row.getSumValue() + value);
+        row.setMinValue(row.getMinValue() == null ? value : Math.min(row.getMinValue(), value));
+        row.setMaxValue(row.getMaxValue() == null ? value : Math.max(row.getMaxValue(), value));
+    }
+
+    // Whole-hour rollups plus the raw readings of the window's partial first hour
+    private static Map<String, Object> summarize(List<VitalSignsHourlyStat> hourly, List<VitalSignsEntry> partial) {
+        List<VitalSignsHourlyStat> rows = new ArrayList<>(hourly);
+        rows.addAll(rollUp(partial));
+        Map<VitalAlertThreshold.Metric, VitalSignsHourlyStat> totals = new EnumMap<>(VitalAlertThreshold.Metric.class);
+        Map<VitalAlertThreshold.Metric, VitalsQuantileSketch> sketches = new EnumMap<>(VitalAlertThreshold.Metric.class);
+        for (VitalSignsHourlyStat row : rows) {
+            VitalSignsHourlyStat total = totals.computeIfAbsent(row.getMetric(), m -> new VitalSignsHourlyStat());
+            total.setSampleCount(total.getSampleCount() + row.getSampleCount());
+            total.setSumValue(total.getSumValue() + row.getSumValue());
+            total.setMinValue(total.getMinValue() == null ? row.getMinValue() : Math.min(total.getMinValue(), row.getMinValue()));
+            total.setMaxValue(total.getMaxValue() == null ? row.getMaxValue() : Math.max(total.getMaxValue(), row.getMaxValue()));
+            sketches.computeIfAbsent(row.getMetric(), m -> new VitalsQuantileSketch())
+                    .merge(VitalsQuantileSketch.fromBytes(row.getSketch()));
+        }
+
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        for (Map.Entry<VitalAlertThreshold.Metric, VitalSignsHourlyStat> entry : totals.entrySet()) {
+            VitalSignsHourlyStat total = entry.getValue();
+            VitalsQuantileSketch sketch = sketches.get(entry.getKey());
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("count", total.getSampleCount());
+            stats.put("min", total.getMinValue());
+            stats.put("max", total.getMaxValue());
+            stats.put("mean", total.getSampleCount() > 0 ? total.getSumValue() / total.getSampleCount() : null);
+            stats.put("p50", sketch.quantile(0.5));
+            stats.put("p90", sketch.quantile(0.9));
+            metrics.put(entry.getKey().name(), stats);
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("metrics", metrics);
+        result.put("hourlyRows", hourly.size());
+        result.put("partialHourReadings", partial.size());
+        return result;
+    }
+}
@@ -0,0 +1,105 @@
+package com.matrixcare.service;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Mergeable quantile sketch for vital signs.
+ * Vitals are recorded at a fixed resolution over a bounded range, so values are
+ * quantized to 0.1 and kept as a sparse value -> count histogram. That is exact,
+ * merges by adding counts, and stays at most a few hundred entries per metric.
+ * Serialized as delta-encoded varints; an hour with a handful of readings is a
+ * few dozen bytes.
+ */
+public final class VitalsQuantileSketch {
+
+    private static final double SCALE = 10.0;
+
+    private final TreeMap<Integer, Long> counts = new TreeMap<>();
+    private long total;
+
+    public void add(double value) {
+        add((int) Math.round(value * SCALE), 1);
+    }
+
+    public void merge(VitalsQuantileSketch other) {
+        for (Map.Entry<Integer, Long> entry : other.counts.entrySet()) {
+            add(entry.getKey(), entry.getValue());
+        }
+    }
+
+    public long getCount() {
+        return total;
+    }
+
+    // Value at quantile q (0..1), nearest-rank; NaN when empty
+    public double quantile(double q) {
+        if (total == 0) {
+            return Double.NaN;
+        }
+        long rank = Math.max(1, (long) Math.ceil(q * total));
+        long seen = 0;
+        for (Map.Entry<Integer, Long> entry : counts.entrySet()) {
+            seen += entry.getValue();
+            if (seen >= rank) {
+                return entry.getKey() / SCALE;
+            }
+        }
+        return counts.lastKey() / SCALE;
+    }
+
+    public byte[] toBytes() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(4 + counts.size() * 3);
+        writeVarLong(out, counts.size());
+        int previous = 0;
+        for (Map.Entry<Integer, Long> entry : counts.entrySet()) {
+            int delta = entry.getKey() - previous;
+            writeVarLong(out, ((delta << 1) ^ (delta >> 31)) & 0xFFFFFFFFL); // zigzag, values may be negative
+            writeVarLong(out, entry.getValue());
+            previous = entry.getKey();
+        }
+        return out.toByteArray();
+    }
+
+    public static VitalsQuantileSketch fromBytes(byte[] bytes) {
+        VitalsQuantileSketch sketch = new VitalsQuantileSketch();
+        if (bytes == null || bytes.length == 0) {
+            return sketch;
+        }
+        int[] position = { 0 };
+        long size = readVarLong(bytes, position);
+        int value = 0;
+        for (long i = 0; i < size; i++) {
+            int zigzag = (int) readVarLong(bytes, position);
+            value += (zigzag >>> 1) ^ -(zigzag & 1);
+            sketch.add(value, readVarLong(bytes, position));
+        }
+        return sketch;
+    }
+
+    private void add(int quantized, long count) {
+        counts.merge(quantized, count, Long::sum);
+        total += count;
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(byte[] bytes, int[] position) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = bytes[position[0]++];
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+}
@@ -0,0 +1,73 @@
+package com.matrixcare.controller;
+
+import com.matrixcare.entity.User;
+import com.matrixcare.repository.UserRepository;
+import com.matrixcare.service.AuthService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Logged-out and revoked tokens are refused on the patient API and on the auth endpoints that read the caller
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class AuthRevocationTest {
+
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void patientDataNeedsAToken() throws Exception {
+        mockMvc.perform(get("/patients")).andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/patients/test")).andExpect(status().isOk());
+    }
+
+    @Test
+    void loggedOutTokenIsRefused() throws Exception {
+        String bearer = "Bearer " + authService.generateToken(addUser(User.Role.NURSE));
+        mockMvc.perform(get("/patients").header(HttpHeaders.AUTHORIZATION, bearer)).andExpect(status().isOk());
+
+        mockMvc.perform(post("/auth/logout").header(HttpHeaders.AUTHORIZATION, bearer)).andExpect(status().isOk());
+
+        mockMvc.perform(get("/patients").header(HttpHeaders.AUTHORIZATION, bearer)).andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/auth/me").header(HttpHeaders.AUTHORIZATION, bearer)).andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void revokedAdminTokenCannotRevokeOthers() throws Exception {
+        User admin = addUser(User.Role.ADMIN);
+        User nurse = addUser(User.Role.NURSE);
+        String bearer = "Bearer " + authService.generateToken(admin);
+
+        authService.revokeAllTokensForUser(admin.getId());
+
+        mockMvc.perform(post("/auth/revoke/user/{userId}", nurse.getId()).header(HttpHeaders.AUTHORIZATION, bearer))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/auth/me").header(HttpHeaders.AUTHORIZATION, bearer)).andExpect(status().isUnauthorized());
+    }
+
+    private User addUser(User.Role role) {
+        int n = SEQUENCE.incrementAndGet();
+        User user = new User("Revocation", "User" + n, "revocation" + n + "@matrixcare.test", "unused");
+        user.setRole(role);
+        return userRepository.save(user);
+    }
+}
@@ -0,0 +1,127 @@
+package com.matrixcare.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.matrixcare.entity.Medication;
+import com.matrixcare.entity.Patient;
+import com.matrixcare.entity.PatientAllergy;
+import com.matrixcare.entity.PatientDiagnosis;
+import com.matrixcare.repository.MedicationRepository;
+import com.matrixcare.repository.PatientAllergyRepository;
+import com.matrixcare.repository.PatientDiagnosisRepository;
+import com.matrixcare.repository.PatientRepository;
+import com.matrixcare.support.QueryBudgetTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+// Query budgets for the patient endpoints behind the dashboard and the patient page
+class PatientControllerQueryBudgetTest extends QueryBudgetTest {
+
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private PatientAllergyRepository allergyRepository;
+
+    @Autowired
+    private PatientDiagnosisRepository diagnosisRepository;
+
+    @Autowired
+    private MedicationRepository medicationRepository;
+
+    private final List<Long> patientIds = new ArrayList<>();
+
+    @BeforeEach
+    void addPatients() {
+        addPatients(3);
+    }
+
+    @Test
+    void dashboardLoadsAllPatientsWithOneQuery() throws Exception {
+        assertQueryBudget(1, get("/patients"));
+        assertNoQueriesPerRow(get("/patients"), () -> addPatients(5));
+    }
+
+    @Test
+    void patientLookupsUseOneQuery() throws Exception {
+        Patient patient = patientRepository.findById(patientIds.get(0)).orElseThrow();
+        assertQueryBudget(1, get("/patients/{id}", patient.getId()));
+        assertQueryBudget(1, get("/patients/mrn/{mrn}", patient.getMedicalRecordNumber()));
+    }
+
+    @Test
+    void summaryLoadsEachCollectionOnce() throws Exception {
+        assertQueryBudget(4, get("/patients/{id}/summary", patientIds.get(0)));
+        assertQueryBudget(4, get("/patients/summary").param("ids", ids()));
+        assertNoQueriesPerRow(get("/patients/summary").param("ids", ids()), () -> addPatients(5));
+    }
+
+    @Test
+    void listEndpointsDoNotQueryPerPatient() throws Exception {
+        assertQueryBudget(1, get("/patients/search").param("name", "Budget"));
+        assertQueryBudget(1, get("/patients/allergies"));
+        assertQueryBudget(1, get("/patients/count"));
+        assertNoQueriesPerRow(get("/patients/search").param("name", "Budget"), () -> addPatients(5));
+        assertNoQueriesPerRow(get("/patients/allergies"), () -> addPatients(5));
+    }
+
+    @Test
+    void patientPageVitalsStayWithinBudget() throws Exception {
+        assertQueryBudget(1, get("/patients/{id}/vitals", patientIds.get(0)).param("limit", "20"));
+        assertQueryBudget(1, get("/patients/{id}/vitals/latest", patientIds.get(0)));
+    }
+
+    @Test
+    void timelineReadsEachSourceOncePerPage() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        List<String> types = new ArrayList<>();
+        String cursor = null;
+        do {
+            MockHttpServletRequestBuilder page = get("/patients/{id}/timeline", patientIds.get(0)).param("limit", "1");
+            if (cursor != null) {
+                page.param("cursor", cursor);
+            }
+            assertQueryBudget(6, page);
+            JsonNode body = objectMapper.readTree(perform(page).andReturn().getResponse().getContentAsString());
+            body.get("items").forEach(item -> types.add(item.get("type").asText()));
+            cursor = body.get("hasMore").asBoolean() ? body.get("nextCursor").asText() : null;
+        } while (cursor != null);
+        assertEquals(List.of("medication_started", "diagnosis", "allergy"), types);
+    }
+
+    private String ids() {
+        return patientIds.stream().map(String::valueOf).collect(Collectors.joining(","));
+    }
+
+    // Patients with an allergy, a diagnosis and a medication each, so lazy collections have something to load
+    private void addPatients(int count) {
+        for (int i = 0; i < count; i++) {
+            int n = SEQUENCE.incrementAndGet();
+            Patient patient = new Patient("Budget", "Patient" + n, LocalDate.of(1950, 1, 1), "F");
+            patient.setMedicalRecordNumber("QB" + n);
+            patient.setUnit("3 West");
+            patient.setAdmissionDate(LocalDateTime.now());
+            patient = patientRepository.save(patient);
+            allergyRepository.save(new PatientAllergy(patient, "Penicillin", PatientAllergy.Severity.moderate));
+            diagnosisRepository.save(new PatientDiagnosis(patient, "Hypertension", PatientDiagnosis.DiagnosisType.primary));
+            Medication medication = new Medication(patient, "Lisinopril", "10 mg", Medication.Route.PO, "daily");
+            medication.setStartDate(LocalDateTime.now());
+            medicationRepository.save(medication);
+            patientIds.add(patient.getId());
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.matrixcare.controller;
+
+import com.matrixcare.entity.Patient;
+import com.matrixcare.entity.User;
+import com.matrixcare.repository.PatientRepository;
+import com.matrixcare.repository.UserRepository;
+import com.matrixcare.service.AuthService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// PUT needs the version that was read; a stale one is rejected with the version now stored
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class PatientVersionConflictTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    private String bearer;
+    private Patient patient;
+
+    @BeforeEach
+    void setUp() {
+        String username = "version-" + System.nanoTime() + "@matrixcare.test";
+        User user = userRepository.save(new User("Version", "Editor", username, "unused"));
+        bearer = "Bearer " + authService.generateToken(user);
+
+        Patient created = new Patient("Vera", "Stale", LocalDate.of(1948, 4, 12), "F");
+        created.setMedicalRecordNumber("VER-" + System.nanoTime());
+        created.setIsActive(true);
+        patient = patientRepository.save(created);
+    }
+
+    @Test
+    void staleVersionIsRejectedWithCurrentVersion() throws Exception {
+        long read = patient.getVersion();
+        mockMvc.perform(put("/patients/{id}", patient.getId()).header(HttpHeaders.AUTHORIZATION, bearer)
+                        .contentType(MediaType.APPLICATION_JSON).content(body("Verity", read)))
+                .andExpect(status().isOk());
+
+        // A second edit still based on the first read
+        mockMvc.perform(put("/patients/{id}", patient.getId()).header(HttpHeaders.AUTHORIZATION, bearer)
+                        .contentType(MediaType.APPLICATION_JSON).content(body("Veronica", read)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.success").value(false))
+                .andExpect(jsonPath("$.currentVersion").value(read + 1));
+
+        assertEquals("Verity", patientRepository.findById(patient.getId()).orElseThrow().getFirstName());
+    }
+
+    @Test
+    void missingVersionIsRejected() throws Exception {
+        mockMvc.perform(put("/patients/{id}", patient.getId()).header(HttpHeaders.AUTHORIZATION, bearer)
+                        .contentType(MediaType.APPLICATION_JSON).content(body("Veronica", null)))
+                .andExpect(status().isBadRequest());
+
+        Patient stored = patientRepository.findById(patient.getId()).orElseThrow();
+        assertEquals("Vera", stored.getFirstName());
+        assertEquals(patient.getVersion(), stored.getVersion());
+    }
+
+    private static String body(String firstName, Long version) {
+        return "{\"firstName\":\"" + firstName + "\",\"lastName\":\"Stale\",\"dateOfBirth\":\"1948-04-12\","
+                + "\"gender\":\"F\"" + (version != null ? ",\"version\":" + version : "") + "}";
+    }
+}
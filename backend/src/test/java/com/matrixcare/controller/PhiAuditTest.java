@@ -0,0 +1,136 @@
+package com.matrixcare.controller;
+
+import com.matrixcare.entity.Patient;
+import com.matrixcare.entity.ShiftReport;
+import com.matrixcare.entity.User;
+import com.matrixcare.repository.PatientRepository;
+import com.matrixcare.repository.ShiftReportRepository;
+import com.matrixcare.repository.UserRepository;
+import com.matrixcare.service.AuthService;
+import com.matrixcare.service.BedBoardService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Reads outside /patients record an audit event naming each patient they return
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class PhiAuditTest {
+
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private BedBoardService bedBoardService;
+
+    @Autowired
+    private ShiftReportRepository shiftReportRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private String bearer;
+    private String username;
+
+    @BeforeEach
+    void signIn() {
+        int n = SEQUENCE.incrementAndGet();
+        username = "phi-audit" + n + "-" + System.nanoTime() + "@matrixcare.test";
+        User user = userRepository.save(new User("Audit", "Reader" + n, username, "unused"));
+        bearer = "Bearer " + authService.generateToken(user);
+    }
+
+    @Test
+    void patientInPathIsAudited() throws Exception {
+        Long id = addPatient("AUD-" + SEQUENCE.get()).getId();
+
+        mockMvc.perform(get("/alerts/patient/{patientId}", id).header(HttpHeaders.AUTHORIZATION, bearer))
+                .andExpect(status().isOk());
+
+        assertEquals(1, awaitEvents("GET /alerts/patient/" + id, id));
+    }
+
+    @Test
+    void bedLookupAuditsItsOccupant() throws Exception {
+        String room = "AUD-" + SEQUENCE.get();
+        Long id = addPatient(room).getId();
+        bedBoardService.reload();
+
+        mockMvc.perform(get("/bed-board/bed").param("room", room).param("bed", "A")
+                        .header(HttpHeaders.AUTHORIZATION, bearer))
+                .andExpect(status().isOk());
+
+        assertEquals(1, awaitEvents("GET /bed-board/bed", id));
+    }
+
+    @Test
+    void shiftHandoffAuditsEachPatient() throws Exception {
+        String room = "AUD-" + SEQUENCE.get();
+        Long first = addPatient(room + "-1").getId();
+        Long second = addPatient(room + "-2").getId();
+        LocalDate date = LocalDate.now().minusDays(400 + SEQUENCE.get());
+        shiftReportRepository.save(new ShiftReport(first, 1L, date, ShiftReport.ShiftType.day_to_swing));
+        shiftReportRepository.save(new ShiftReport(second, 1L, date, ShiftReport.ShiftType.day_to_swing));
+
+        mockMvc.perform(get("/shift-reports").param("unit", "Audit Unit").param("date", date.toString())
+                        .param("shift", "day").header(HttpHeaders.AUTHORIZATION, bearer))
+                .andExpect(status().isOk());
+
+        assertEquals(1, awaitEvents("GET /shift-reports", first));
+        assertEquals(1, awaitEvents("GET /shift-reports", second));
+    }
+
+    @Test
+    void shiftReportsNeedAToken() throws Exception {
+        mockMvc.perform(get("/shift-reports/patient/{patientId}", 1L)).andExpect(status().isUnauthorized());
+    }
+
+    private Patient addPatient(String room) {
+        Patient patient = new Patient("Audited", "Patient", LocalDate.of(1950, 3, 1), "F");
+        patient.setMedicalRecordNumber("MRN-" + room + "-" + System.nanoTime());
+        patient.setUnit("Audit Unit");
+        patient.setRoomNumber(room);
+        patient.setBedNumber("A");
+        patient.setIsActive(true);
+        patient.setAdmissionDate(LocalDateTime.now().minusDays(1));
+        return patientRepository.save(patient);
+    }
+
+    // Events are written by the audit consumer thread, a flush interval after the request
+    private int awaitEvents(String action, Long patientId) throws InterruptedException {
+        int count = 0;
+        for (int attempt = 0; attempt < 100 && count == 0; attempt++) {
+            Thread.sleep(50);
+            count = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM phi_audit_log WHERE username = ? AND action = ? AND patient_id = ?",
+                    Integer.class, username, action, patientId);
+        }
+        return count;
+    }
+}
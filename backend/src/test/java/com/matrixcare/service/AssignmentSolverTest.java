@@ -0,0 +1,135 @@
+package com.matrixcare.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Solver properties on small fixed rosters
+class AssignmentSolverTest {
+
+    private static final long NO_DEADLINE = Long.MAX_VALUE;
+
+    @Test
+    void perNurseCapOutweighsLoadBalance() {
+        // Balancing load alone would give the heavy patient's nurse one patient and the others four each
+        double[] acuity = {5, 1, 1, 1, 1, 1, 1, 1, 1};
+        String[] rooms = {"101", "102", "103", "104", "105", "106", "107", "108", "109"};
+
+        int[] uncapped = new AssignmentSolver(acuity, rooms, 3, 0, 0, 0).solve(NO_DEADLINE);
+        assertEquals(4, maxPatients(uncapped, 3));
+
+        int[] capped = new AssignmentSolver(acuity, rooms, 3, 0, 0, 3).solve(NO_DEADLINE);
+        assertEquals(3, maxPatients(capped, 3));
+    }
+
+    @Test
+    void wingPenaltyKeepsEachNurseInOneWing() {
+        double[] acuity = {1, 1, 1, 1};
+        String[] rooms = {"A101", "B101", "A102", "B102"};
+        // Start with each nurse holding one room in each wing
+        int[] mixed = {0, 0, 1, 1};
+
+        AssignmentSolver withoutPenalty = new AssignmentSolver(acuity, rooms, 2, 0, 0, 0);
+        assertArrayEquals(mixed, withoutPenalty.placeIncrementally(mixed, 10, NO_DEADLINE));
+
+        AssignmentSolver withPenalty = new AssignmentSolver(acuity, rooms, 2, 1, 50, 0);
+        int[] byWing = withPenalty.placeIncrementally(mixed, 10, NO_DEADLINE);
+        assertEquals(byWing[0], byWing[2]);
+        assertEquals(byWing[1], byWing[3]);
+        assertNotEquals(byWing[0], byWing[1]);
+        assertEquals(1, withPenalty.getSpan(0));
+        assertEquals(1, withPenalty.getSpan(1));
+    }
+
+    @Test
+    void incrementalPlacementReassignsAtMostMaxChanges() {
+        double[] acuity = {3, 3, 3, 3, 1, 1, 1, 1, 2};
+        String[] rooms = {"101", "102", "103", "104", "105", "106", "107", "108", "109"};
+        // Badly balanced: the heavy patients all on nurse 0; patient 8 is the new admission
+        int[] current = {0, 0, 0, 0, 1, 1, 2, 2, -1};
+
+        for (int maxChanges = 0; maxChanges <= 3; maxChanges++) {
+            int[] after = new AssignmentSolver(acuity, rooms, 3, 0, 0, 0)
+                    .placeIncrementally(current, maxChanges, NO_DEADLINE);
+            int reassigned = reassigned(current, after);
+            assertTrue(after[8] >= 0, "new patient placed");
+            assertTrue(reassigned <= maxChanges, reassigned + " reassignments with max " + maxChanges);
+        }
+    }
+
+    @Test
+    void swapCountsAsTwoReassignments() {
+        // Swapping a 3 for a 1 balances the nurses exactly and is the best single step
+        double[] acuity = {3, 3, 1, 1};
+        String[] rooms = {"101", "102", "103", "104"};
+        int[] current = {0, 0, 1, 1};
+
+        AssignmentSolver twoChanges = new AssignmentSolver(acuity, rooms, 2, 0, 0, 0);
+        int[] swapped = twoChanges.placeIncrementally(current, 2, NO_DEADLINE);
+        assertEquals(2, reassigned(current, swapped));
+        assertEquals(4.0, twoChanges.getLoad(0));
+
+        // With one change allowed only a single move fits
+        AssignmentSolver oneChange = new AssignmentSolver(acuity, rooms, 2, 0, 0, 0);
+        int[] moved = oneChange.placeIncrementally(current, 1, NO_DEADLINE);
+        assertEquals(1, reassigned(current, moved));
+        assertEquals(1, oneChange.getSteps());
+    }
+
+    @Test
+    void stopsAtTheDeadline() {
+        double[] acuity = {5, 1, 1, 1, 1, 1, 1, 1, 1};
+        String[] rooms = {"101", "109", "102", "108", "103", "107", "104", "106", "105"};
+        int[] current = {0, 0, 0, 0, 0, 1, 1, 2, 2};
+
+        AssignmentSolver expired = new AssignmentSolver(acuity, rooms, 3, 0.5, 10, 0);
+        assertArrayEquals(current, expired.placeIncrementally(current, 100, System.nanoTime()));
+        assertEquals(0, expired.getSteps());
+
+        AssignmentSolver unlimited = new AssignmentSolver(acuity, rooms, 3, 0.5, 10, 0);
+        unlimited.placeIncrementally(current, 100, NO_DEADLINE);
+        assertTrue(unlimited.getSteps() > 0);
+
+        // A roster too large to finish improving returns shortly after its deadline
+        int patients = 400;
+        double[] largeAcuity = new double[patients];
+        String[] largeRooms = new String[patients];
+        for (int i = 0; i < patients; i++) {
+            largeAcuity[i] = 1 + (i * 7919 % 13);
+            largeRooms[i] = (char) ('A' + i % 4) + String.valueOf(100 + (i * 31 % 97));
+        }
+        long start = System.nanoTime();
+        new AssignmentSolver(largeAcuity, largeRooms, 20, 0.5, 10, 6)
+                .solve(start + TimeUnit.MILLISECONDS.toNanos(50));
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue(elapsedMillis < 5000, "solve took " + elapsedMillis + " ms with a 50 ms deadline");
+    }
+
+    // Previously placed patients now with a different nurse
+    private static int reassigned(int[] before, int[] after) {
+        int reassigned = 0;
+        for (int i = 0; i < before.length; i++) {
+            if (before[i] >= 0 && after[i] != before[i]) {
+                reassigned++;
+            }
+        }
+        return reassigned;
+    }
+
+    private static int maxPatients(int[] assignment, int nurseCount) {
+        int[] counts = new int[nurseCount];
+        for (int nurse : assignment) {
+            counts[nurse]++;
+        }
+        int max = 0;
+        for (int count : counts) {
+            max = Math.max(max, count);
+        }
+        return max;
+    }
+}
@@ -0,0 +1,70 @@
+package com.matrixcare.service;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Publish latency of the audit ring under contending producers and a discarding consumer; mvn -Pbenchmark test
+@Tag("benchmark")
+class AuditRingBufferBenchmarkTest {
+
+    private static final int EVENTS = 2_000_000;
+    private static final int THREADS = 4;
+    private static final int CAPACITY = 8192;
+    private static final int DRAIN_BATCH = 500;
+
+    @Test
+    void publishLatencyUnderContention() throws InterruptedException {
+        int perThread = EVENTS / THREADS;
+        AuditRingBuffer ring = new AuditRingBuffer(CAPACITY);
+
+        long[][] latencies = new long[THREADS][perThread];
+        CountDownLatch startSignal = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(THREADS);
+        for (int t = 0; t < THREADS; t++) {
+            long[] samples = latencies[t];
+            Thread producer = new Thread(() -> {
+                try {
+                    startSignal.await();
+                    for (int i = 0; i < samples.length; i++) {
+                        long begin = System.nanoTime();
+                        ring.publish(System.currentTimeMillis(), "benchmark", "GET /patients/1",
+                                "patient", "1", 1, 200, 0);
+                        samples[i] = System.nanoTime() - begin;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            }, "phi-audit-bench-" + t);
+            producer.start();
+        }
+
+        AuditRingBuffer.SlotHandler discard = slot -> { };
+        long begin = System.nanoTime();
+        startSignal.countDown();
+        while (done.getCount() > 0 || ring.getPending() > 0) {
+            if (ring.drain(discard, DRAIN_BATCH) == 0) {
+                Thread.onSpinWait();
+            }
+        }
+        long elapsed = System.nanoTime() - begin;
+
+        long[] all = new long[THREADS * perThread];
+        for (int t = 0; t < THREADS; t++) {
+            System.arraycopy(latencies[t], 0, all, t * perThread, perThread);
+        }
+        Arrays.sort(all);
+
+        System.out.printf("Audit ring: %d events on %d threads, %d dropped; p50 %d ns, p99 %d ns, p99.9 %d ns, " +
+                        "max %d ns; %d events/s%n", all.length, THREADS, ring.getDropped(),
+                all[(int) (all.length * 0.50)], all[(int) (all.length * 0.99)], all[(int) (all.length * 0.999)],
+                all[all.length - 1], all.length * 1_000_000_000L / Math.max(1, elapsed));
+        assertEquals(all.length, ring.getPublished() + ring.getDropped());
+    }
+}
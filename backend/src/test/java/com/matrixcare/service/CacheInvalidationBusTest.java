@@ -0,0 +1,78 @@
+package com.matrixcare.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Two instances on one machine sharing one invalidation log
+class CacheInvalidationBusTest {
+
+    @Test
+    void localLogReachesOtherInstanceOnNextPoll() {
+        CacheInvalidationBus first = new CacheInvalidationBus(new LocalInvalidationLog(), "node-a", 100, 30000, 60);
+        CacheInvalidationBus second = new CacheInvalidationBus(new LocalInvalidationLog(), "node-b", 100, 30000, 60);
+        List<String> firstSeen = subscribe(first);
+        List<String> secondSeen = subscribe(second);
+        List<String> secondRemote = new ArrayList<>();
+        second.subscribeRemote(CacheInvalidationBus.PATIENT, secondRemote::add);
+        first.start();
+        second.start();
+
+        first.publish(CacheInvalidationBus.PATIENT, 7L);
+        assertEquals(List.of("7"), firstSeen);
+        assertEquals(List.of(), secondSeen);
+
+        second.poll();
+        first.poll();
+        assertEquals(List.of("7"), secondSeen);
+        assertEquals(List.of("7"), secondRemote);
+        // Not handed back to the instance that published it
+        assertEquals(List.of("7"), firstSeen);
+    }
+
+    @Test
+    void jdbcLogDeliversIdsThatCommitLate() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:invalidations;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS cache_invalidations (id BIGINT AUTO_INCREMENT PRIMARY KEY, " +
+                "entity_type VARCHAR(40) NOT NULL, entity_id VARCHAR(64), origin_node VARCHAR(128) NOT NULL, " +
+                "created_at DATETIME(3) NOT NULL)");
+        CacheInvalidationBus bus = new CacheInvalidationBus(new JdbcInvalidationLog(jdbcTemplate), "node-b", 100,
+                30000, 60);
+        List<String> seen = subscribe(bus);
+        bus.start();
+        long head = new JdbcInvalidationLog(jdbcTemplate).head();
+
+        // id head + 2 commits first; head + 1 belongs to a transaction still open on another instance
+        insert(jdbcTemplate, head + 2, "2");
+        bus.poll();
+        assertEquals(List.of("2"), seen);
+
+        insert(jdbcTemplate, head + 1, "1");
+        bus.poll();
+        assertEquals(List.of("2", "1"), seen);
+
+        bus.poll();
+        assertEquals(List.of("2", "1"), seen);
+    }
+
+    private static List<String> subscribe(CacheInvalidationBus bus) {
+        List<String> seen = new ArrayList<>();
+        bus.subscribe(CacheInvalidationBus.PATIENT, seen::add);
+        return seen;
+    }
+
+    private static void insert(JdbcTemplate jdbcTemplate, long id, String entityId) {
+        jdbcTemplate.update("INSERT INTO cache_invalidations (id, entity_type, entity_id, origin_node, created_at) " +
+                "VALUES (?, ?, ?, ?, ?)", id, CacheInvalidationBus.PATIENT, entityId, "node-a",
+                Timestamp.valueOf(LocalDateTime.now()));
+    }
+}
@@ -0,0 +1,142 @@
+package com.matrixcare.service;
+
+import com.matrixcare.entity.CarePlanIntervention;
+import com.matrixcare.entity.NursingCarePlan;
+import com.matrixcare.entity.Patient;
+import com.matrixcare.repository.PatientRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Completions reach the database in batches, and a rebuild never brings a completed occurrence back
+@SpringBootTest
+@ActiveProfiles("test")
+class CarePlanServiceTest {
+
+    @Autowired
+    private CarePlanService carePlanService;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void completionsAreFlushedInBatches() throws Exception {
+        String unit = "Care Flush " + System.nanoTime();
+        List<Long> interventionIds = createPlan(unit, 5);
+        long batchesBefore = (Long) carePlanService.getQueueStats().get("writeBatches");
+
+        List<LocalDateTime> nextDue = new ArrayList<>();
+        for (Long id : interventionIds) {
+            Map<String, Object> result = carePlanService.completeTask(id, null, "flush-test", null);
+            nextDue.add(((CareTaskQueue.Task) result.get("next")).dueAt());
+        }
+        // The queue moves on at once, before anything is written
+        assertEquals(interventionIds.size(), carePlanService.getNextTasksForUnit(unit, 20).size());
+
+        awaitCompletions(interventionIds, interventionIds.size());
+        for (int i = 0; i < interventionIds.size(); i++) {
+            Timestamp stored = jdbcTemplate.queryForObject(
+                    "SELECT next_due_at FROM care_plan_interventions WHERE id = ?", Timestamp.class, interventionIds.get(i));
+            assertEquals(nextDue.get(i), stored.toLocalDateTime());
+        }
+        long batchesAfter = (Long) carePlanService.getQueueStats().get("writeBatches");
+        assertTrue(batchesAfter - batchesBefore < interventionIds.size(), "completions written together");
+    }
+
+    @Test
+    void completionDuringRebuildIsNotLost() throws Exception {
+        String unit = "Care Rebuild " + System.nanoTime();
+        Long id = createPlan(unit, 1).get(0);
+        int rounds = 20;
+
+        CyclicBarrier start = new CyclicBarrier(2);
+        for (int round = 0; round < rounds; round++) {
+            LocalDateTime due = pending(unit, id).dueAt();
+            CompletableFuture<Object> rebuild = CompletableFuture.supplyAsync(() -> {
+                await(start);
+                return carePlanService.rebuildQueue();
+            });
+            await(start);
+            CareTaskQueue.Task next = (CareTaskQueue.Task) carePlanService.completeTask(id, due, "rebuild-test", null)
+                    .get("next");
+            rebuild.get(30, TimeUnit.SECONDS);
+
+            // Whichever ran first, the queue holds the occurrence after the completed one
+            assertEquals(next.dueAt(), pending(unit, id).dueAt(), "round " + round);
+        }
+
+        awaitCompletions(List.of(id), rounds);
+        carePlanService.rebuildQueue();
+        Timestamp stored = jdbcTemplate.queryForObject(
+                "SELECT next_due_at FROM care_plan_interventions WHERE id = ?", Timestamp.class, id);
+        assertEquals(stored.toLocalDateTime(), pending(unit, id).dueAt());
+    }
+
+    private List<Long> createPlan(String unit, int interventions) {
+        Patient patient = new Patient("Care", "Queue", LocalDate.of(1955, 2, 1), "M");
+        patient.setMedicalRecordNumber("CARE-" + System.nanoTime());
+        patient.setUnit(unit);
+        patient.setIsActive(true);
+        Long patientId = patientRepository.save(patient).getId();
+
+        NursingCarePlan plan = new NursingCarePlan();
+        plan.setPatientId(patientId);
+        plan.setNurseId(1L);
+        plan.setNursingDiagnosis("Risk for impaired skin integrity");
+        plan.setGoals("Skin intact at discharge");
+        List<CarePlanIntervention> list = new ArrayList<>();
+        for (int i = 0; i < interventions; i++) {
+            list.add(new CarePlanIntervention(null, "Reposition " + i, "Q2H", null,
+                    LocalDateTime.now().withNano(0).plusMinutes(i)));
+        }
+        @SuppressWarnings("unchecked")
+        List<CarePlanIntervention> saved = (List<CarePlanIntervention>) carePlanService.createCarePlan(plan, list)
+                .get("interventions");
+        return saved.stream().map(CarePlanIntervention::getId).toList();
+    }
+
+    private CareTaskQueue.Task pending(String unit, Long interventionId) {
+        return carePlanService.getNextTasksForUnit(unit, 20).stream()
+                .filter(task -> task.interventionId() == interventionId)
+                .findFirst().orElseThrow();
+    }
+
+    // The writer thread flushes every flush-ms
+    private void awaitCompletions(List<Long> interventionIds, int expected) throws InterruptedException {
+        String ids = interventionIds.stream().map(String::valueOf).reduce((a, b) -> a + "," + b).orElseThrow();
+        int count = 0;
+        for (int attempt = 0; attempt < 100 && count < expected; attempt++) {
+            Thread.sleep(100);
+            count = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM care_plan_task_completions WHERE intervention_id IN (" + ids + ")",
+                    Integer.class);
+        }
+        assertEquals(expected, count);
+    }
+
+    private static void await(CyclicBarrier barrier) {
+        try {
+            barrier.await(30, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.matrixcare.service;
+
+import com.matrixcare.entity.NursingCarePlan.PriorityLevel;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// Queue order and completion on a fixed set of tasks
+class CareTaskQueueTest {
+
+    private static final LocalDateTime SLOT = LocalDateTime.of(2024, 3, 1, 8, 0);
+
+    @Test
+    void ordersBySlotThenPriorityThenDueTime() {
+        CareTaskQueue queue = new CareTaskQueue(15);
+        queue.rebuild(List.of(
+                task(1, PriorityLevel.low, SLOT.plusMinutes(1)),
+                task(2, PriorityLevel.high, SLOT.plusMinutes(14)),
+                task(3, PriorityLevel.medium, SLOT.plusMinutes(5)),
+                task(4, PriorityLevel.high, SLOT.plusMinutes(3)),
+                // Next slot: after every task of the first, whatever its priority
+                task(5, PriorityLevel.high, SLOT.plusMinutes(15)),
+                task(6, PriorityLevel.low, SLOT.minusMinutes(1)),
+                // Same slot, priority and due time: by intervention id
+                task(8, PriorityLevel.medium, SLOT.plusMinutes(5)),
+                task(7, PriorityLevel.medium, SLOT.plusMinutes(5))), Map.of());
+
+        assertEquals(List.of(6L, 4L, 2L, 3L, 7L, 8L, 1L, 5L), ids(queue.nextForUnit("ICU", 20)));
+        assertEquals(List.of(6L, 4L, 2L), ids(queue.nextForUnit("ICU", 3)));
+    }
+
+    @Test
+    void putKeepsOrderAndNurseListsFollowAssignments() {
+        CareTaskQueue queue = new CareTaskQueue(15);
+        queue.rebuild(List.of(task(1, PriorityLevel.low, SLOT), task(2, PriorityLevel.medium, SLOT)), Map.of(100L, 9L));
+
+        queue.put(task(3, PriorityLevel.high, SLOT.plusMinutes(10)));
+        assertEquals(List.of(3L, 2L, 1L), ids(queue.nextForUnit("ICU", 20)));
+        assertEquals(List.of(3L, 2L, 1L), ids(queue.nextForNurse(9L, 20)));
+
+        queue.assignNurses(Map.of());
+        assertEquals(List.of(), ids(queue.nextForNurse(9L, 20)));
+        assertEquals(List.of(3L, 2L, 1L), ids(queue.nextForUnit("ICU", 20)));
+    }
+
+    @Test
+    void completionQueuesTheNextOccurrence() {
+        CareTaskQueue queue = new CareTaskQueue(15);
+        CareTaskQueue.Task every2h = new CareTaskQueue.Task(1, 1, 100, "ICU", "101", "Pat Doe", PriorityLevel.high,
+                "Turn patient", 120, SLOT);
+        CareTaskQueue.Task once = task(2, PriorityLevel.low, SLOT);
+        queue.rebuild(List.of(every2h, once), Map.of());
+
+        // Completed 3h late: the missed 10:00 occurrence is skipped
+        CareTaskQueue.Completed done = queue.complete(1, SLOT, SLOT.plusHours(3));
+        assertEquals(SLOT.plusHours(4), done.next().dueAt());
+        assertEquals(SLOT.plusHours(4), queue.get(1).dueAt());
+        assertEquals(List.of(2L, 1L), ids(queue.nextForUnit("ICU", 20)));
+
+        // A stale due time refers to the occurrence just completed
+        assertThrows(IllegalStateException.class, () -> queue.complete(1, SLOT, SLOT.plusHours(3)));
+
+        assertNull(queue.complete(2, null, SLOT).next());
+        assertNull(queue.get(2));
+        assertNull(queue.complete(2, null, SLOT));
+    }
+
+    private static CareTaskQueue.Task task(long interventionId, PriorityLevel priority, LocalDateTime dueAt) {
+        return new CareTaskQueue.Task(interventionId, interventionId, 100, "ICU", "101", "Pat Doe", priority,
+                "Task " + interventionId, null, dueAt);
+    }
+
+    private static List<Long> ids(List<CareTaskQueue.Task> tasks) {
+        return tasks.stream().map(CareTaskQueue.Task::interventionId).toList();
+    }
+}
@@ -0,0 +1,70 @@
+package com.matrixcare.service;
+
+import com.matrixcare.entity.Patient;
+import com.matrixcare.repository.PatientRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// A backfill reaching past the archive cutoff still counts the stays of archived patients
+@SpringBootTest
+@ActiveProfiles("test")
+class CensusServiceBackfillTest {
+
+    private static final String UNIT = "Archive Backfill";
+
+    @Autowired
+    private CensusService censusService;
+
+    @Autowired
+    private PatientArchiveService archiveService;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Test
+    void backfillKeepsArchivedStays() {
+        LocalDate today = LocalDate.now();
+        Patient patient = new Patient("Archived", "Stay", LocalDate.of(1940, 5, 1), "M");
+        patient.setMedicalRecordNumber("ARCH-BACKFILL-1");
+        patient.setUnit(UNIT);
+        patient.setIsActive(false);
+        patient.setAdmissionDate(today.minusDays(50).atTime(9, 0));
+        patient.setDischargeDate(today.minusDays(40).atTime(11, 0));
+        Long id = patientRepository.save(patient).getId();
+
+        archiveService.archiveDischarged();
+        assertFalse(patientRepository.existsById(id), "patient moved out of the hot table");
+        assertTrue(archiveService.findArchivedPatient(id).isPresent());
+
+        censusService.backfill(today.minusDays(60));
+
+        List<Map<String, Object>> days = censusService.getDailyCensus(today.minusDays(60), today, UNIT);
+        assertEquals(61, days.size());
+        assertEquals(1L, dayOf(days, today.minusDays(50)).get("admissions"));
+        assertEquals(1L, dayOf(days, today.minusDays(45)).get("census"));
+        assertEquals(1L, dayOf(days, today.minusDays(40)).get("discharges"));
+        assertEquals(0L, dayOf(days, today.minusDays(40)).get("census"));
+
+        Map<String, Object> report = censusService.getLengthOfStayReport(today.minusDays(60), today);
+        @SuppressWarnings("unchecked")
+        Map<String, Object> unit = ((List<Map<String, Object>>) report.get("units")).stream()
+                .filter(row -> UNIT.equals(row.get("unit"))).findFirst().orElseThrow();
+        assertEquals(10L, unit.get("patientDays"));
+        assertEquals(10.0, unit.get("averageLengthOfStay"));
+    }
+
+    private static Map<String, Object> dayOf(List<Map<String, Object>> days, LocalDate date) {
+        return days.stream().filter(day -> date.equals(day.get("date"))).findFirst().orElseThrow();
+    }
+}
@@ -0,0 +1,150 @@
+package com.matrixcare.service;
+
+import com.matrixcare.entity.Patient;
+import com.matrixcare.entity.VitalSignsEntry;
+import com.matrixcare.repository.PatientRepository;
+import com.matrixcare.repository.VitalSignsEntryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Indexed cohort evaluation against the equivalent SQL on the embedded database; mvn -Pbenchmark test
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("test")
+class CohortServiceBenchmarkTest {
+
+    private static final int PATIENTS = 2000;
+    private static final int READINGS_PER_PATIENT = 12;
+    // Index runs are cheap enough to let the JIT finish; SQL runs take long enough that a few suffice
+    private static final int INDEX_WARMUP_RUNS = 5000;
+    private static final int SQL_WARMUP_RUNS = 50;
+    private static final int RUNS = 20;
+    private static final int REPEATS = 6;
+
+    private static final String[] UNITS = {"3 West", "4 East", "ICU"};
+
+    @Autowired
+    private CohortService cohortService;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private VitalSignsEntryRepository vitalSignsRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void addPatients() {
+        if (patientRepository.count() >= PATIENTS) {
+            return;
+        }
+        Random random = new Random(42);
+        List<Patient> patients = new ArrayList<>();
+        for (int i = 0; i < PATIENTS; i++) {
+            Patient patient = new Patient("Cohort", "Patient" + i, LocalDate.of(1950, 1, 1), "F");
+            patient.setMedicalRecordNumber("CB" + i);
+            patient.setUnit(UNITS[i % UNITS.length]);
+            patient.setIsActive(i % 10 != 0);
+            patient.setAdmissionDate(LocalDateTime.now().minusDays(2));
+            patients.add(patient);
+        }
+        List<VitalSignsEntry> entries = new ArrayList<>();
+        for (Patient patient : patientRepository.saveAll(patients)) {
+            for (int r = 0; r < READINGS_PER_PATIENT; r++) {
+                VitalSignsEntry entry = new VitalSignsEntry(patient.getId(), 1L, "benchmark");
+                entry.setOxygenSaturation(86 + random.nextInt(14));
+                entry.setPulse(55 + random.nextInt(70));
+                entry.setTemperature(97.0 + random.nextInt(500) / 100.0);
+                entry.setRecordedAt(LocalDateTime.now().minusMinutes(random.nextInt(24 * 60)));
+                entries.add(entry);
+            }
+            // A burst of identical readings in one slice, every one of which counts
+            if (patient.getId() % 50 == 0) {
+                LocalDateTime burst = LocalDateTime.now().minusHours(2);
+                for (int r = 0; r < REPEATS; r++) {
+                    VitalSignsEntry entry = new VitalSignsEntry(patient.getId(), 1L, "benchmark");
+                    entry.setPainLevel(8);
+                    entry.setRecordedAt(burst);
+                    entries.add(entry);
+                }
+            }
+        }
+        vitalSignsRepository.saveAll(entries).forEach(cohortService::record);
+        cohortService.refreshAttributes();
+    }
+
+    @Test
+    void indexAgreesWithSqlAndOutrunsIt() {
+        compare("low SpO2 twice in 12 h, active", Map.of("and", List.of(
+                Map.of("active", true),
+                Map.of("vital", "OXYGEN_SATURATION", "below", 92, "withinHours", 12, "atLeast", 2))));
+        compare("tachycardia or low SpO2 in ICU", Map.of("and", List.of(
+                Map.of("unit", "ICU"),
+                Map.of("or", List.of(
+                        Map.of("vital", "PULSE", "above", 110, "withinHours", 6),
+                        Map.of("vital", "OXYGEN_SATURATION", "below", 90, "withinHours", 6))))));
+        compare("not tachycardic in 24 h", Map.of("not",
+                Map.of("vital", "PULSE", "above", 100, "withinHours", 24)));
+        compare("temperature above 100.0 in 24 h", Map.of(
+                "vital", "TEMPERATURE", "above", 100.0, "withinHours", 24));
+        compare("pain above 7 six times in 4 h", Map.of(
+                "vital", "PAIN_LEVEL", "above", 7, "withinHours", 4, "atLeast", REPEATS));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void compare(String name, Map<String, Object> json) {
+        CohortQuery query = CohortQuery.parse(json);
+        long[] bitmapNanos = new long[RUNS];
+        long[] sqlNanos = new long[RUNS];
+        List<Long> bitmapIds = null;
+        List<Long> sqlIds = null;
+        for (int i = 0; i < INDEX_WARMUP_RUNS; i++) {
+            cohortService.query(query);
+        }
+        for (int i = 0; i < SQL_WARMUP_RUNS; i++) {
+            invalidateResultCache();
+            cohortService.queryBySql(query);
+        }
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            bitmapIds = (List<Long>) cohortService.query(query).get("patientIds");
+            bitmapNanos[i] = System.nanoTime() - start;
+
+            invalidateResultCache();
+            start = System.nanoTime();
+            sqlIds = cohortService.queryBySql(query);
+            sqlNanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(bitmapNanos);
+        Arrays.sort(sqlNanos);
+
+        System.out.printf("Cohort %-34s %5d patients; index median %6d us, SQL median %6d us%n", name + ":",
+                bitmapIds.size(), bitmapNanos[RUNS / 2] / 1000, sqlNanos[RUNS / 2] / 1000);
+        assertEquals(sqlIds, bitmapIds, name);
+        assertTrue(bitmapNanos[RUNS / 2] < sqlNanos[RUNS / 2], name + ": index slower than SQL");
+    }
+
+    // H2 answers a repeated query from its last result while the tables it reads are unchanged, which
+    // MySQL 8 does not; touching a row of each table that changes no answer makes it run the query again
+    private void invalidateResultCache() {
+        long tick = System.nanoTime();
+        jdbcTemplate.update("UPDATE patients SET updated_at = ? WHERE id = (SELECT MIN(id) FROM patients)",
+                LocalDateTime.now());
+        jdbcTemplate.update("UPDATE vital_signs_entries SET notes = ? WHERE id = (SELECT MIN(id) FROM vital_signs_entries)",
+                "benchmark " + tick);
+    }
+}
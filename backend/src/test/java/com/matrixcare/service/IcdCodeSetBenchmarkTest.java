@@ -0,0 +1,66 @@
+package com.matrixcare.service;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Typeahead latency over random code and word prefixes; mvn -Pbenchmark test
+// Uses the bundled sample, or a full CMS code file given with -Dicd.code-file=<path>
+@Tag("benchmark")
+class IcdCodeSetBenchmarkTest {
+
+    private static final int QUERIES = 100_000;
+    private static final int LIMIT = 10;
+
+    @Test
+    void searchLatencyOverRandomPrefixes() throws Exception {
+        String codeFile = System.getProperty("icd.code-file");
+        IcdCodeSet codeSet;
+        try (BufferedReader reader = codeFile != null
+                ? Files.newBufferedReader(Path.of(codeFile), StandardCharsets.UTF_8)
+                : new BufferedReader(new InputStreamReader(
+                        new ClassPathResource("icd10-codes.txt").getInputStream(), StandardCharsets.UTF_8))) {
+            codeSet = IcdCodeSet.parse(reader, codeFile != null ? codeFile : "classpath:icd10-codes.txt");
+        }
+
+        Random random = new Random(42);
+        String[] sample = new String[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            int entry = random.nextInt(codeSet.getCodeCount());
+            String[] words = IcdCodeSet.tokenize(codeSet.getDescription(entry));
+            if (i % 2 == 0 || words.length == 0) {
+                String code = codeSet.getCode(entry);
+                sample[i] = code.substring(0, 1 + random.nextInt(code.length()));
+            } else {
+                String word = words[random.nextInt(words.length)];
+                sample[i] = word.substring(0, 1 + random.nextInt(word.length()));
+            }
+        }
+
+        long[] latencies = new long[QUERIES];
+        long totalMatches = 0;
+        for (int i = 0; i < QUERIES; i++) {
+            long begin = System.nanoTime();
+            totalMatches += codeSet.search(sample[i], LIMIT).size();
+            latencies[i] = System.nanoTime() - begin;
+        }
+        Arrays.sort(latencies);
+
+        System.out.printf("ICD-10 search: %d queries over %d codes, %.1f matches on average; p50 %.1f us, " +
+                        "p99 %.1f us, max %.1f us%n", QUERIES, codeSet.getCodeCount(), (double) totalMatches / QUERIES,
+                latencies[(int) (QUERIES * 0.50)] / 1000.0, latencies[(int) (QUERIES * 0.99)] / 1000.0,
+                latencies[QUERIES - 1] / 1000.0);
+        // Every sample is a prefix of a loaded code or word
+        assertTrue(totalMatches >= QUERIES);
+    }
+}
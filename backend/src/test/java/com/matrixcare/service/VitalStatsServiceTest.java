@@ -0,0 +1,67 @@
+package com.matrixcare.service;
+
+import com.matrixcare.entity.Patient;
+import com.matrixcare.repository.PatientRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// A window covers exactly its length, and a rebuild reproduces what saves recorded
+@SpringBootTest
+@ActiveProfiles("test")
+class VitalStatsServiceTest {
+
+    private static final DateTimeFormatter RECORDED_AT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+
+    @Autowired
+    private VitalSignsService vitalSignsService;
+
+    @Autowired
+    private VitalStatsService vitalStatsService;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Test
+    void windowExcludesTheEarlierPartOfItsFirstHour() {
+        Patient patient = new Patient("Window", "Edge", LocalDate.of(1960, 7, 1), "F");
+        patient.setMedicalRecordNumber("STATS-WINDOW-" + System.nanoTime());
+        patient.setUnit("Stats Window");
+        patient.setIsActive(true);
+        Long id = patientRepository.save(patient).getId();
+
+        LocalDateTime now = LocalDateTime.now();
+        // Same clock hour as the window start, but seconds before it
+        save(id, now.minusHours(24).minusSeconds(5), 130);
+        save(id, now.minusHours(23).minusMinutes(59), 70);
+        save(id, now.minusMinutes(1), 80);
+
+        assertEquals(2L, pulse(vitalStatsService.getPatientStats(id, Duration.ofHours(24))).get("count"));
+        assertEquals(80.0, pulse(vitalStatsService.getPatientStats(id, Duration.ofHours(24))).get("max"));
+        assertEquals(3L, pulse(vitalStatsService.getPatientStats(id, Duration.ofHours(25))).get("count"));
+
+        vitalStatsService.rebuildSince(now.minusDays(2));
+
+        assertEquals(2L, pulse(vitalStatsService.getPatientStats(id, Duration.ofHours(24))).get("count"));
+        assertEquals(3L, pulse(vitalStatsService.getUnitStats("Stats Window", Duration.ofHours(25))).get("count"));
+    }
+
+    private void save(Long patientId, LocalDateTime recordedAt, int pulse) {
+        vitalSignsService.saveVitalSigns(patientId, 1L, "stats-test",
+                Map.of("pulse", pulse, "recordedAt", recordedAt.format(RECORDED_AT)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> pulse(Map<String, Object> stats) {
+        return (Map<String, Object>) ((Map<String, Object>) stats.get("metrics")).get("PULSE");
+    }
+}
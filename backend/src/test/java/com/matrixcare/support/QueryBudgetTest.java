@@ -0,0 +1,96 @@
+package com.matrixcare.support;
+
+import com.matrixcare.entity.User;
+import com.matrixcare.repository.UserRepository;
+import com.matrixcare.service.AuthService;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Base class for query budget tests.
+ * Boots the whole application against the embedded database of the "test"
+ * profile with the DataSource wrapped by QueryCounter, and checks how many SQL
+ * statements a request executes. A failing budget lists the statements, which
+ * usually points straight at the lazy load or per-row query that crept in.
+ * Requests are sent as a signed-in user, since the patient API requires one.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(QueryCountingConfiguration.class)
+public abstract class QueryBudgetTest {
+
+    private static final String USER_EMAIL = "query-budget@matrixcare.test";
+
+    @Autowired
+    protected MockMvc mockMvc;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private String token;
+
+    @BeforeEach
+    void signIn() {
+        User user = userRepository.findByEmail(USER_EMAIL)
+                .orElseGet(() -> userRepository.save(new User("Query", "Budget", USER_EMAIL, "unused")));
+        token = authService.generateToken(user);
+    }
+
+    // Perform the request with the signed-in user's token
+    protected ResultActions perform(RequestBuilder request) throws Exception {
+        return mockMvc.perform(servletContext -> {
+            MockHttpServletRequest built = request.buildRequest(servletContext);
+            built.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+            return built;
+        });
+    }
+
+    // Perform the request, expect 2xx, and return the statements it executed
+    protected List<String> queriesFor(RequestBuilder request) throws Exception {
+        List<String> statements;
+        QueryCounter.start();
+        try {
+            perform(request).andExpect(status().is2xxSuccessful());
+        } finally {
+            statements = QueryCounter.stop();
+        }
+        return statements;
+    }
+
+    // Fail if the request executes more than maxQueries statements
+    protected void assertQueryBudget(int maxQueries, RequestBuilder request) throws Exception {
+        List<String> statements = queriesFor(request);
+        if (statements.size() > maxQueries) {
+            fail("Expected at most " + maxQueries + " queries but " + statements.size() + " ran:\n"
+                    + String.join("\n", statements));
+        }
+    }
+
+    // Fail if adding data changes the statement count of the request, i.e. it queries per row
+    protected void assertNoQueriesPerRow(RequestBuilder request, Runnable addRows) throws Exception {
+        List<String> before = queriesFor(request);
+        addRows.run();
+        List<String> after = queriesFor(request);
+        assertEquals(before.size(), after.size(), () -> "Query count grows with the data:\n"
+                + String.join("\n", before) + "\n-- after adding rows --\n" + String.join("\n", after));
+    }
+}
@@ -0,0 +1,91 @@
+package com.matrixcare.support;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Counts the SQL statements the current thread executes.
+ * The DataSource is wrapped in JDK proxies down to the statements; every
+ * execute call (a JDBC batch counts once) is recorded while a recording is
+ * open on the calling thread. Statements run by scheduled jobs, the audit
+ * writer or other background threads are therefore never counted, which keeps
+ * budgets for a MockMvc request exact.
+ */
+public final class QueryCounter {
+
+    private static final ThreadLocal<List<String>> RECORDING = new ThreadLocal<>();
+
+    private QueryCounter() {}
+
+    // Start recording on this thread, discarding anything recorded before
+    public static void start() {
+        RECORDING.set(new ArrayList<>());
+    }
+
+    // Stop recording and return the statements in execution order
+    public static List<String> stop() {
+        List<String> statements = RECORDING.get();
+        RECORDING.remove();
+        return statements != null ? Collections.unmodifiableList(statements) : List.of();
+    }
+
+    public static DataSource wrap(DataSource dataSource) {
+        return proxy(DataSource.class, dataSource, null);
+    }
+
+    private static void record(String sql) {
+        List<String> statements = RECORDING.get();
+        if (statements != null) {
+            statements.add(sql != null ? sql.replaceAll("\\s+", " ").trim() : "<unknown>");
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, T target, String sql) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch",
+                     "executeLargeBatch":
+                    record(args != null && args.length > 0 && args[0] instanceof String text ? text : sql);
+                    break;
+                default:
+                    break;
+            }
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (result instanceof Connection connection && method.getReturnType() == Connection.class) {
+                return proxy(Connection.class, connection, null);
+            }
+            if (target instanceof Connection && result instanceof Statement statement) {
+                String prepared = args != null && args.length > 0 && args[0] instanceof String text ? text : null;
+                if (statement instanceof CallableStatement callable && method.getReturnType() == CallableStatement.class) {
+                    return proxy(CallableStatement.class, callable, prepared);
+                }
+                if (statement instanceof PreparedStatement preparedStatement
+                        && method.getReturnType() == PreparedStatement.class) {
+                    return proxy(PreparedStatement.class, preparedStatement, prepared);
+                }
+                return proxy(Statement.class, statement, null);
+            }
+            return result;
+        };
+        return (T) Proxy.newProxyInstance(QueryCounter.class.getClassLoader(), new Class<?>[] { type }, handler);
+    }
+}
@@ -0,0 +1,22 @@
+package com.matrixcare.support;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+
+// Wraps the application's DataSource so QueryCounter sees every statement
+@TestConfiguration
+public class QueryCountingConfiguration {
+
+    @Bean
+    public static BeanPostProcessor queryCountingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource dataSource ? QueryCounter.wrap(dataSource) : bean;
+            }
+        };
+    }
+}
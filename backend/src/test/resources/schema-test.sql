@@ -0,0 +1,45 @@
+-- Tables written with plain JDBC, which the entity mappings do not create
+CREATE TABLE IF NOT EXISTS phi_audit_log (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    occurred_at DATETIME(3) NOT NULL,
+    username VARCHAR(255) NOT NULL,
+    action VARCHAR(255) NOT NULL,
+    resource_type VARCHAR(50) NOT NULL,
+    resource_id VARCHAR(255),
+    patient_id BIGINT,
+    http_status INT
+);
+
+CREATE TABLE IF NOT EXISTS care_plan_task_completions (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    intervention_id BIGINT NOT NULL,
+    patient_id BIGINT NOT NULL,
+    due_at DATETIME NOT NULL,
+    completed_at DATETIME NOT NULL,
+    completed_by VARCHAR(255),
+    notes TEXT,
+    CONSTRAINT uk_task_completion UNIQUE (intervention_id, due_at)
+);
+
+CREATE TABLE IF NOT EXISTS cache_invalidations (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    entity_type VARCHAR(40) NOT NULL,
+    entity_id VARCHAR(64),
+    origin_node VARCHAR(128) NOT NULL,
+    created_at DATETIME(3) NOT NULL
+);
+
+-- Patient archive tables with the hot tables' columns, as add-patient-archive.sql creates them with LIKE
+CREATE TABLE IF NOT EXISTS archived_patients AS SELECT * FROM patients WITH NO DATA;
+CREATE TABLE IF NOT EXISTS archived_patient_allergies AS SELECT * FROM patient_allergies WITH NO DATA;
+CREATE TABLE IF NOT EXISTS archived_patient_diagnoses AS SELECT * FROM patient_diagnoses WITH NO DATA;
+CREATE TABLE IF NOT EXISTS archived_medications AS SELECT * FROM medications WITH NO DATA;
+CREATE TABLE IF NOT EXISTS archived_nursing_assessments AS SELECT * FROM nursing_assessments WITH NO DATA;
+CREATE TABLE IF NOT EXISTS archived_vital_signs_entries AS SELECT * FROM vital_signs_entries WITH NO DATA;
+CREATE TABLE IF NOT EXISTS archived_patient_charting_data AS SELECT * FROM patient_charting_data WITH NO DATA;
+CREATE TABLE IF NOT EXISTS archived_patient_charting_history AS SELECT * FROM patient_charting_history WITH NO DATA;
+CREATE TABLE IF NOT EXISTS archived_nursing_care_plans AS SELECT * FROM nursing_care_plans WITH NO DATA;
+CREATE TABLE IF NOT EXISTS archived_care_plan_interventions AS SELECT * FROM care_plan_interventions WITH NO DATA;
+CREATE TABLE IF NOT EXISTS archived_care_plan_task_completions AS SELECT * FROM care_plan_task_completions WITH NO DATA;
+CREATE TABLE IF NOT EXISTS archived_nurse_assignments AS SELECT * FROM nurse_assignments WITH NO DATA;
+CREATE TABLE IF NOT EXISTS archived_shift_reports AS SELECT * FROM shift_reports WITH NO DATA;
@@ -28,6 +28,33 @@ CREATE INDEX idx_users_email ON users(email);
 CREATE INDEX idx_users_role ON users(role);
 CREATE INDEX idx_users_active ON users(is_active);
 
+-- Opaque refresh tokens (stored as SHA-256); rotated on every use
+CREATE TABLE IF NOT EXISTS refresh_tokens (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    token_hash CHAR(64) NOT NULL UNIQUE,
+    issued_at DATETIME NOT NULL,
+    expires_at DATETIME NOT NULL,
+    revoked_at DATETIME,
+    
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+    INDEX idx_refresh_tokens_user (user_id),
+    INDEX idx_refresh_tokens_expires (expires_at)
+);
+
+-- Revoked JWTs (by jti) and per-user revoke-all markers ("user:<id>"); rows are
+-- deleted once the tokens they cover have expired
+CREATE TABLE IF NOT EXISTS revoked_tokens (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    token_key VARCHAR(64) NOT NULL UNIQUE,
+    user_id BIGINT,
+    revoked_at DATETIME NOT NULL,
+    expires_at DATETIME NOT NULL,
+    
+    INDEX idx_revoked_tokens_revoked (revoked_at),
+    INDEX idx_revoked_tokens_expires (expires_at)
+);
+
 -- Nurses table (extended user information for nurses)
 CREATE TABLE nurses (
     id BIGINT PRIMARY KEY AUTO_INCREMENT COMMENT 'Nurse ID',
@@ -62,6 +89,7 @@ CREATE TABLE patients (
     gender VARCHAR(20) NOT NULL COMMENT 'Gender (flexible text input)',
     room_number VARCHAR(10) COMMENT 'Current room number',
     bed_number VARCHAR(5) COMMENT 'Bed identifier (A, B, etc.)',
+    unit VARCHAR(50) COMMENT 'Nursing unit (e.g., ICU, 3 West)',
     admission_date DATETIME COMMENT 'Admission date and time',
     discharge_date DATETIME NULL COMMENT 'Discharge date and time',
     primary_physician VARCHAR(100) COMMENT 'Primary attending physician',
@@ -71,11 +99,34 @@ CREATE TABLE patients (
     is_active BOOLEAN DEFAULT TRUE COMMENT 'Active patient status',
     created_at DATETIME DEFAULT CURRENT_TIMESTAMP COMMENT 'Created timestamp',
     updated_at DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT 'Updated timestamp',
+    version BIGINT NOT NULL DEFAULT 0 COMMENT 'Optimistic lock version, bumped on every update',
+    occupied_bed VARCHAR(20) AS (IF(is_active AND room_number IS NOT NULL AND TRIM(room_number) <> '',
+        CONCAT(UPPER(TRIM(room_number)), '|', UPPER(TRIM(COALESCE(bed_number, '')))), NULL)) STORED COMMENT 'Room|bed held by an active patient',
+    UNIQUE KEY uk_patient_occupied_bed (occupied_bed),
     INDEX idx_patient_room (room_number),
+    INDEX idx_patient_unit (unit),
+    INDEX idx_patient_admission (admission_date),
+    INDEX idx_patient_discharged (is_active, discharge_date),
     INDEX idx_patient_mrn (medical_record_number),
     INDEX idx_patient_gender (gender)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='Patients table';
 
+-- Daily census facts per unit, maintained on admit/discharge/transfer and rebuilt by the backfill job
+CREATE TABLE IF NOT EXISTS census_daily (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    census_date DATE NOT NULL,
+    unit VARCHAR(50) NOT NULL,
+    census INT NOT NULL DEFAULT 0 COMMENT 'Patients present at the end of the day',
+    admissions INT NOT NULL DEFAULT 0,
+    discharges INT NOT NULL DEFAULT 0,
+    transfers_in INT NOT NULL DEFAULT 0,
+    transfers_out INT NOT NULL DEFAULT 0,
+    los_days BIGINT NOT NULL DEFAULT 0 COMMENT 'Total length of stay of the day''s discharges',
+    
+    UNIQUE KEY uk_census_day_unit (census_date, unit),
+    INDEX idx_census_unit_day (unit, census_date)
+);
+
 -- ===================================
 -- MEDICAL INFORMATION TABLES
 -- ===================================
@@ -90,13 +141,15 @@ CREATE TABLE patient_allergies (
     created_at DATETIME DEFAULT CURRENT_TIMESTAMP COMMENT 'Created timestamp',
     updated_at DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT 'Updated timestamp',
     FOREIGN KEY (patient_id) REFERENCES patients(id) ON DELETE CASCADE,
-    INDEX idx_allergy_patient (patient_id)
+    INDEX idx_allergy_patient (patient_id),
+    INDEX idx_allergy_patient_created (patient_id, created_at)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='Patient allergies';
 
 CREATE TABLE patient_diagnoses (
     id BIGINT PRIMARY KEY AUTO_INCREMENT COMMENT 'Diagnosis ID',
     patient_id BIGINT NOT NULL COMMENT 'Patient ID',
     diagnosis_code VARCHAR(20) COMMENT 'ICD-10 code',
+    icd10_code VARCHAR(10) NULL COMMENT 'Normalized ICD-10 code from the code set',
     diagnosis_description TEXT NOT NULL COMMENT 'Diagnosis description',
     diagnosis_type ENUM('primary', 'secondary', 'working') DEFAULT 'secondary' COMMENT 'Type of diagnosis',
     diagnosed_date DATE COMMENT 'Date of diagnosis',
@@ -105,7 +158,9 @@ CREATE TABLE patient_diagnoses (
     created_at DATETIME DEFAULT CURRENT_TIMESTAMP COMMENT 'Created timestamp',
     updated_at DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT 'Updated timestamp',
     FOREIGN KEY (patient_id) REFERENCES patients(id) ON DELETE CASCADE,
-    INDEX idx_diagnosis_patient (patient_id)
+    INDEX idx_diagnosis_patient (patient_id),
+    INDEX idx_diagnosis_icd10 (icd10_code),
+    INDEX idx_diagnosis_patient_created (patient_id, created_at)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='Patient diagnoses';
 
 CREATE TABLE medications (
@@ -124,7 +179,9 @@ CREATE TABLE medications (
     updated_at DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT 'Updated timestamp',
     FOREIGN KEY (patient_id) REFERENCES patients(id) ON DELETE CASCADE,
     INDEX idx_medication_patient (patient_id),
-    INDEX idx_medication_active (is_active)
+    INDEX idx_medication_active (is_active),
+    INDEX idx_medication_patient_start (patient_id, start_date),
+    INDEX idx_medication_patient_end (patient_id, end_date)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='Patient medications';
 
 -- ===================================
@@ -153,7 +210,8 @@ CREATE TABLE nursing_assessments (
     FOREIGN KEY (patient_id) REFERENCES patients(id) ON DELETE CASCADE,
     FOREIGN KEY (nurse_id) REFERENCES nurses(id),
     INDEX idx_assessment_patient (patient_id),
-    INDEX idx_assessment_date (assessment_date)
+    INDEX idx_assessment_date (assessment_date),
+    INDEX idx_assessment_patient_latest (patient_id, assessment_date, id)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='Nursing assessments';
 
 -- Vital signs table (updated structure for the application)
@@ -183,6 +241,67 @@ CREATE INDEX idx_vital_signs_patient_id ON vital_signs_entries(patient_id);
 CREATE INDEX idx_vital_signs_recorded_at ON vital_signs_entries(patient_id, recorded_at DESC);
 CREATE INDEX idx_vital_signs_user_id ON vital_signs_entries(user_id);
 
+-- Vital signs alert thresholds: unit defaults (patient_id NULL) and per-patient overrides
+CREATE TABLE IF NOT EXISTS vital_alert_thresholds (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    unit VARCHAR(50) COMMENT 'Unit the default applies to (NULL for patient overrides)',
+    patient_id BIGINT COMMENT 'Patient the override applies to (NULL for unit defaults)',
+    metric ENUM('SYSTOLIC', 'DIASTOLIC', 'PULSE', 'RESPIRATION', 'OXYGEN_SATURATION', 'TEMPERATURE', 'PAIN_LEVEL') NOT NULL,
+    low_value DECIMAL(6,1) COMMENT 'Alert when below this value',
+    high_value DECIMAL(6,1) COMMENT 'Alert when above this value',
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    
+    FOREIGN KEY (patient_id) REFERENCES patients(id) ON DELETE CASCADE,
+    UNIQUE KEY uk_alert_threshold_scope (unit, patient_id, metric)
+);
+
+-- Hourly vital signs rollups per patient and metric (moments plus a serialized quantile sketch)
+CREATE TABLE IF NOT EXISTS vital_signs_hourly_stats (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    patient_id BIGINT NOT NULL,
+    hour_start DATETIME NOT NULL COMMENT 'Start of the hour the readings fall in',
+    metric ENUM('SYSTOLIC', 'DIASTOLIC', 'PULSE', 'RESPIRATION', 'OXYGEN_SATURATION', 'TEMPERATURE', 'PAIN_LEVEL') NOT NULL,
+    sample_count BIGINT NOT NULL DEFAULT 0,
+    min_value DOUBLE,
+    max_value DOUBLE,
+    sum_value DOUBLE NOT NULL DEFAULT 0,
+    sketch BLOB COMMENT 'Serialized quantile sketch',
+    
+    FOREIGN KEY (patient_id) REFERENCES patients(id) ON DELETE CASCADE,
+    UNIQUE KEY uk_vital_stats_patient_hour (patient_id, hour_start, metric),
+    INDEX idx_vital_stats_hour (hour_start)
+);
+
+-- PHI access audit log, written in batches by the audit consumer; no foreign keys so
+-- entries outlive the records they describe
+CREATE TABLE IF NOT EXISTS phi_audit_log (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    occurred_at DATETIME(3) NOT NULL,
+    username VARCHAR(255) NOT NULL,
+    action VARCHAR(255) NOT NULL COMMENT 'HTTP method and path',
+    resource_type VARCHAR(50) NOT NULL COMMENT 'patient, vitals, charting, summary, patient-list, ...',
+    resource_id VARCHAR(255),
+    patient_id BIGINT,
+    http_status INT,
+    
+    INDEX idx_phi_audit_patient (patient_id, occurred_at),
+    INDEX idx_phi_audit_user (username, occurred_at),
+    INDEX idx_phi_audit_time (occurred_at)
+);
+
+-- Cache invalidations shared by all backend instances; each instance reads new rows
+-- by id every poll, and rows are pruned after an hour
+CREATE TABLE IF NOT EXISTS cache_invalidations (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    entity_type VARCHAR(40) NOT NULL COMMENT 'patient, alert-thresholds, ...',
+    entity_id VARCHAR(64) COMMENT 'NULL invalidates every entity of the type',
+    origin_node VARCHAR(128) NOT NULL COMMENT 'Instance that made the change',
+    created_at DATETIME(3) NOT NULL,
+    
+    INDEX idx_cache_invalidations_created (created_at)
+);
+
 -- Legacy vital signs table (for compatibility)
 CREATE TABLE vital_signs (
     id BIGINT PRIMARY KEY AUTO_INCREMENT COMMENT 'Vital signs ID',
@@ -252,6 +371,23 @@ CREATE TABLE IF NOT EXISTS patient_charting_data (
 CREATE INDEX idx_patient_charting_patient_id ON patient_charting_data(patient_id);
 CREATE INDEX idx_patient_charting_display_order ON patient_charting_data(patient_id, display_order);
 
+-- Append-only charting edit history: snapshots every N entries, compact deltas in between
+CREATE TABLE IF NOT EXISTS patient_charting_history (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    charting_id BIGINT NOT NULL COMMENT 'patient_charting_data row; kept after the row is deleted',
+    patient_id BIGINT NOT NULL,
+    version INT NOT NULL,
+    entry_type ENUM('SNAPSHOT', 'DELTA', 'DELETED') NOT NULL,
+    payload TEXT COMMENT 'JSON: full state for snapshots, changed title/item splice for deltas',
+    recorded_at DATETIME NOT NULL,
+    
+    FOREIGN KEY (patient_id) REFERENCES patients(id) ON DELETE CASCADE,
+    UNIQUE KEY uk_charting_history_version (charting_id, version),
+    INDEX idx_charting_history_recorded (charting_id, recorded_at),
+    INDEX idx_charting_history_cutoff (recorded_at),
+    INDEX idx_charting_history_patient (patient_id, recorded_at)
+);
+
 -- ===================================
 -- CARE PLANNING TABLES
 -- ===================================
@@ -277,6 +413,39 @@ CREATE TABLE nursing_care_plans (
     INDEX idx_care_plan_priority (priority_level)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='Nursing care plans';
 
+-- Care plan interventions; each holds its next pending occurrence
+CREATE TABLE IF NOT EXISTS care_plan_interventions (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    care_plan_id BIGINT NOT NULL,
+    description VARCHAR(500) NOT NULL,
+    frequency VARCHAR(50) COMMENT 'As entered, e.g. Q2H, BID, daily, once',
+    interval_minutes INT COMMENT 'Recurrence interval; NULL for one-time interventions',
+    next_due_at DATETIME COMMENT 'Pending occurrence; NULL once a one-time intervention is done',
+    is_active BOOLEAN DEFAULT TRUE,
+    created_at DATETIME DEFAULT CURRENT_TIMESTAMP,
+    updated_at DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    
+    FOREIGN KEY (care_plan_id) REFERENCES nursing_care_plans(id) ON DELETE CASCADE,
+    INDEX idx_intervention_plan (care_plan_id),
+    INDEX idx_intervention_due (is_active, next_due_at)
+);
+
+-- Completed care plan task occurrences, written in batches
+CREATE TABLE IF NOT EXISTS care_plan_task_completions (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    intervention_id BIGINT NOT NULL,
+    patient_id BIGINT NOT NULL,
+    due_at DATETIME NOT NULL,
+    completed_at DATETIME NOT NULL,
+    completed_by VARCHAR(255),
+    notes TEXT,
+    
+    FOREIGN KEY (intervention_id) REFERENCES care_plan_interventions(id) ON DELETE CASCADE,
+    FOREIGN KEY (patient_id) REFERENCES patients(id) ON DELETE CASCADE,
+    UNIQUE KEY uk_task_completion (intervention_id, due_at),
+    INDEX idx_task_completion_patient (patient_id, completed_at)
+);
+
 -- ===================================
 -- INCIDENT REPORTING TABLES
 -- ===================================
@@ -289,6 +458,7 @@ CREATE TABLE incident_reports (
     incident_type ENUM('fall', 'medication_error', 'equipment_failure', 'patient_injury', 'near_miss', 'other') NOT NULL COMMENT 'Type of incident',
     severity ENUM('minor', 'moderate', 'major', 'critical') NOT NULL COMMENT 'Severity level',
     location VARCHAR(100) COMMENT 'Location where incident occurred',
+    unit VARCHAR(50) COMMENT 'Nursing unit the incident is counted against',
     description TEXT NOT NULL COMMENT 'Detailed description',
     immediate_actions TEXT COMMENT 'Immediate actions taken',
     physician_notified BOOLEAN DEFAULT FALSE COMMENT 'Was physician notified',
@@ -297,13 +467,27 @@ CREATE TABLE incident_reports (
     status ENUM('open', 'under_review', 'closed') DEFAULT 'open' COMMENT 'Report status',
     created_at DATETIME DEFAULT CURRENT_TIMESTAMP COMMENT 'Created timestamp',
     updated_at DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT 'Updated timestamp',
-    FOREIGN KEY (patient_id) REFERENCES patients(id) ON DELETE SET NULL,
+    -- No foreign key on patient_id: incidents keep pointing at patients after they are archived
     FOREIGN KEY (reporting_nurse_id) REFERENCES nurses(id),
     INDEX idx_incident_patient (patient_id),
     INDEX idx_incident_date (incident_date),
-    INDEX idx_incident_type (incident_type)
+    INDEX idx_incident_type (incident_type),
+    INDEX idx_incident_unit_date (unit, incident_date)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='Incident reports';
 
+-- Incident counts per week (Monday), unit, type and severity; maintained on write, rebuilt from incident_reports
+CREATE TABLE IF NOT EXISTS incident_rollup_weekly (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    week_start DATE NOT NULL,
+    unit VARCHAR(50) NOT NULL,
+    incident_type ENUM('fall', 'medication_error', 'equipment_failure', 'patient_injury', 'near_miss', 'other') NOT NULL,
+    severity ENUM('minor', 'moderate', 'major', 'critical') NOT NULL,
+    incident_count INT NOT NULL DEFAULT 0,
+    
+    UNIQUE KEY uk_incident_rollup (week_start, unit, incident_type, severity),
+    INDEX idx_incident_rollup_unit (unit, week_start)
+);
+
 -- ===================================
 -- SHIFT MANAGEMENT TABLES
 -- ===================================
@@ -345,6 +529,29 @@ CREATE TABLE shift_reports (
     INDEX idx_shift_report_date (shift_date)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='Shift handoff reports';
 
+-- ===================================
+-- ARCHIVE TABLES
+-- ===================================
+
+-- Discharged patients and their records are moved here by the archival job.
+-- Same columns and indexes as the hot tables, without foreign keys.
+CREATE TABLE IF NOT EXISTS archived_patients LIKE patients;
+ALTER TABLE archived_patients ADD COLUMN archived_at DATETIME DEFAULT CURRENT_TIMESTAMP COMMENT 'When the patient was archived';
+CREATE TABLE IF NOT EXISTS archived_patient_allergies LIKE patient_allergies;
+CREATE TABLE IF NOT EXISTS archived_patient_diagnoses LIKE patient_diagnoses;
+CREATE TABLE IF NOT EXISTS archived_medications LIKE medications;
+CREATE TABLE IF NOT EXISTS archived_medication_administration LIKE medication_administration;
+CREATE TABLE IF NOT EXISTS archived_nursing_assessments LIKE nursing_assessments;
+CREATE TABLE IF NOT EXISTS archived_vital_signs LIKE vital_signs;
+CREATE TABLE IF NOT EXISTS archived_vital_signs_entries LIKE vital_signs_entries;
+CREATE TABLE IF NOT EXISTS archived_patient_charting_data LIKE patient_charting_data;
+CREATE TABLE IF NOT EXISTS archived_patient_charting_history LIKE patient_charting_history;
+CREATE TABLE IF NOT EXISTS archived_nursing_care_plans LIKE nursing_care_plans;
+CREATE TABLE IF NOT EXISTS archived_care_plan_interventions LIKE care_plan_interventions;
+CREATE TABLE IF NOT EXISTS archived_care_plan_task_completions LIKE care_plan_task_completions;
+CREATE TABLE IF NOT EXISTS archived_nurse_assignments LIKE nurse_assignments;
+CREATE TABLE IF NOT EXISTS archived_shift_reports LIKE shift_reports;
+
 -- ===================================
 -- SAMPLE DATA
 -- ===================================